@@ -0,0 +1,216 @@
+package com.dabomstew.pkrandom;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Builds a BPS patch that turns a source ROM into a target ROM.
+// The target is described as a set of regions, each either copied from the
+// source or given as new data, in any order; anything not covered is zero.
+public class BPSPatchWriter {
+
+	private static final int SOURCE_READ = 0;
+	private static final int TARGET_READ = 1;
+	private static final int SOURCE_COPY = 2;
+
+	// equal runs shorter than this are cheaper to send as new data
+	private static final int MIN_COPY = 8;
+
+	private final ByteBuffer source;
+	private final List<Segment> segments = new ArrayList<Segment>();
+
+	private static class Segment {
+		private long target;
+		private long source;
+		private int length;
+		private byte[] data;
+		private int dataOffset;
+	}
+
+	public BPSPatchWriter(ByteBuffer source) {
+		this.source = source.duplicate();
+		this.source.clear();
+	}
+
+	public BPSPatchWriter(byte[] source) {
+		this(ByteBuffer.wrap(source));
+	}
+
+	// target[targetOffset..+length] = source[sourceOffset..+length]
+	public void copy(long targetOffset, long sourceOffset, int length) {
+		if (length <= 0) {
+			return;
+		}
+		Segment seg = new Segment();
+		seg.target = targetOffset;
+		seg.source = sourceOffset;
+		seg.length = length;
+		segments.add(seg);
+	}
+
+	// target[targetOffset..] = data
+	public void write(long targetOffset, byte[] data) {
+		addData(targetOffset, data, 0, data.length);
+	}
+
+	/**
+	 * target[targetOffset..] = data, where data replaces the source region
+	 * starting at sourceOffset. Runs that are unchanged from that region are
+	 * copied from the source rather than stored in the patch.
+	 */
+	public void write(long targetOffset, byte[] data, long sourceOffset,
+			int sourceLength) {
+		int common = (int) Math.max(0,
+				Math.min(Math.min(data.length, sourceLength), source.limit()
+						- sourceOffset));
+		int literalStart = 0;
+		int i = 0;
+		while (i < common) {
+			if (data[i] != source.get((int) (sourceOffset + i))) {
+				i++;
+				continue;
+			}
+			int runEnd = i;
+			while (runEnd < common
+					&& data[runEnd] == source.get((int) (sourceOffset + runEnd))) {
+				runEnd++;
+			}
+			if (runEnd - i >= MIN_COPY) {
+				addData(targetOffset + literalStart, data, literalStart, i
+						- literalStart);
+				copy(targetOffset + i, sourceOffset + i, runEnd - i);
+				literalStart = runEnd;
+			}
+			i = runEnd;
+		}
+		addData(targetOffset + literalStart, data, literalStart, data.length
+				- literalStart);
+	}
+
+	private void addData(long targetOffset, byte[] data, int offset,
+			int length) {
+		if (length <= 0) {
+			return;
+		}
+		Segment seg = new Segment();
+		seg.target = targetOffset;
+		seg.source = -1;
+		seg.data = data;
+		seg.dataOffset = offset;
+		seg.length = length;
+		segments.add(seg);
+	}
+
+	public byte[] build(long targetSize) {
+		Collections.sort(segments, new Comparator<Segment>() {
+			@Override
+			public int compare(Segment o1, Segment o2) {
+				return Long.valueOf(o1.target).compareTo(o2.target);
+			}
+		});
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write('B');
+		out.write('P');
+		out.write('S');
+		out.write('1');
+		writeNumber(out, source.limit());
+		writeNumber(out, targetSize);
+		writeNumber(out, 0); // no metadata
+
+		CRC32 targetCRC = new CRC32();
+		long outputOffset = 0;
+		long sourceRelativeOffset = 0;
+		for (Segment seg : segments) {
+			if (seg.target < outputOffset) {
+				throw new IllegalStateException(
+						"Overlapping regions in patch at " + seg.target);
+			}
+			if (seg.target > outputOffset) {
+				outputOffset += writeZeros(out, targetCRC, seg.target
+						- outputOffset);
+			}
+			if (seg.source < 0) {
+				writeNumber(out, ((long) (seg.length - 1) << 2) | TARGET_READ);
+				out.write(seg.data, seg.dataOffset, seg.length);
+				targetCRC.update(seg.data, seg.dataOffset, seg.length);
+			} else {
+				if (seg.source == outputOffset) {
+					writeNumber(out, ((long) (seg.length - 1) << 2)
+							| SOURCE_READ);
+				} else {
+					writeNumber(out, ((long) (seg.length - 1) << 2)
+							| SOURCE_COPY);
+					long delta = seg.source - sourceRelativeOffset;
+					writeNumber(out, (Math.abs(delta) << 1)
+							| (delta < 0 ? 1 : 0));
+					sourceRelativeOffset = seg.source + seg.length;
+				}
+				updateCRC(targetCRC, seg.source, seg.length);
+			}
+			outputOffset += seg.length;
+		}
+		if (outputOffset < targetSize) {
+			writeZeros(out, targetCRC, targetSize - outputOffset);
+		}
+
+		CRC32 sourceCRC = new CRC32();
+		updateCRC(sourceCRC, 0, source.limit());
+		writeInt(out, sourceCRC.getValue());
+		writeInt(out, targetCRC.getValue());
+		CRC32 patchCRC = new CRC32();
+		byte[] patch = out.toByteArray();
+		patchCRC.update(patch);
+		writeInt(out, patchCRC.getValue());
+		return out.toByteArray();
+	}
+
+	private long writeZeros(ByteArrayOutputStream out, CRC32 crc, long length) {
+		writeNumber(out, ((length - 1) << 2) | TARGET_READ);
+		byte[] zeros = new byte[(int) Math.min(length, 0x10000)];
+		long left = length;
+		while (left > 0) {
+			int n = (int) Math.min(left, zeros.length);
+			out.write(zeros, 0, n);
+			crc.update(zeros, 0, n);
+			left -= n;
+		}
+		return length;
+	}
+
+	private void updateCRC(CRC32 crc, long offset, long length) {
+		ByteBuffer buf = source.duplicate();
+		buf.limit((int) (offset + length));
+		buf.position((int) offset);
+		byte[] chunk = new byte[(int) Math.min(length, 0x10000)];
+		while (buf.hasRemaining()) {
+			int n = Math.min(buf.remaining(), chunk.length);
+			buf.get(chunk, 0, n);
+			crc.update(chunk, 0, n);
+		}
+	}
+
+	private static void writeNumber(ByteArrayOutputStream out, long data) {
+		while (true) {
+			int x = (int) (data & 0x7F);
+			data >>>= 7;
+			if (data == 0) {
+				out.write(0x80 | x);
+				break;
+			}
+			out.write(x);
+			data--;
+		}
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, long value) {
+		for (int i = 0; i < 4; i++) {
+			out.write((int) ((value >> (i * 8)) & 0xFF));
+		}
+	}
+
+}
@@ -0,0 +1,412 @@
+package com.dabomstew.pkrandom;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.dabomstew.pkrandom.pokemon.ItemList;
+import com.dabomstew.pkrandom.romhandlers.AbstractDSRomHandler;
+import com.dabomstew.pkrandom.romhandlers.AbstractGBRomHandler;
+import com.dabomstew.pkrandom.romhandlers.Gen1RomHandler;
+import com.dabomstew.pkrandom.romhandlers.Gen2RomHandler;
+import com.dabomstew.pkrandom.romhandlers.Gen3RomHandler;
+import com.dabomstew.pkrandom.romhandlers.Gen4RomHandler;
+import com.dabomstew.pkrandom.romhandlers.Gen5RomHandler;
+import com.dabomstew.pkrandom.romhandlers.RomHandler;
+import com.dabomstew.pkrandom.romhandlers.RomSnapshot;
+
+// Randomizes one base ROM with many seeds without the GUI.
+// The base ROM is read and parsed once; every seed gets its own handler
+// loaded from that snapshot, so seeds can also be run in parallel.
+public class BatchRandomizer {
+
+	private static final String NEWLINE = System.getProperty("line.separator");
+
+	private static final RomHandler.Factory[] FACTORIES = new RomHandler.Factory[] {
+			new Gen1RomHandler.Factory(), new Gen2RomHandler.Factory(),
+			new Gen3RomHandler.Factory(), new Gen4RomHandler.Factory(),
+			new Gen5RomHandler.Factory() };
+
+	private final String config;
+	private final byte[] trainerClasses, trainerNames, nicknames;
+	private final RomHandler.Factory factory;
+	private final RomSnapshot snapshot;
+	// if set, seeds are written as patches with this extension
+	private String patchExtension;
+	// if set, each seed's stage timings are written here as a line of JSON
+	private PrintStream timingsLog;
+	private String presetName;
+	// null to use what the settings recorded
+	private ItemList.Sampling itemSampling;
+	private RandomSource.Version rngVersion;
+
+	public BatchRandomizer(String config, String romFilename)
+			throws IOException {
+		this.config = config;
+		this.trainerClasses = readConfigBytes("trainerclasses.txt");
+		this.trainerNames = readConfigBytes("trainernames.txt");
+		this.nicknames = readConfigBytes("nicknames.txt");
+		this.factory = factoryFor(romFilename);
+		if (this.factory == null) {
+			throw new IOException("Unsupported ROM: " + romFilename);
+		}
+		this.snapshot = factory.create(RandomSource.instance()).snapshotRom(
+				romFilename);
+		if (this.snapshot == null) {
+			throw new IOException("Could not load ROM: " + romFilename);
+		}
+	}
+
+	public static RomHandler.Factory factoryFor(String filename) {
+		for (RomHandler.Factory rhf : FACTORIES) {
+			if (rhf.isLoadable(filename)) {
+				return rhf;
+			}
+		}
+		return null;
+	}
+
+	// a fresh handler holding a pristine copy of the base ROM
+	public RomHandler newHandler() {
+		RomHandler romHandler = factory.create(RandomSource.instance());
+		if (!romHandler.loadRom(snapshot)) {
+			throw new RuntimeException("Could not load ROM from snapshot: "
+					+ snapshot.getFilename());
+		}
+		return romHandler;
+	}
+
+	// settings are parsed again for every seed since tweakForRom changes them
+	public Settings newSettings(RomHandler romHandler)
+			throws UnsupportedEncodingException {
+		Settings settings = Settings.fromString(config);
+		settings.setTrainerClasses(trainerClasses);
+		settings.setTrainerNames(trainerNames);
+		settings.setNicknames(nicknames);
+		if (itemSampling != null) {
+			settings.setItemSampling(itemSampling);
+		}
+		if (rngVersion != null) {
+			settings.setRngVersion(rngVersion);
+		}
+		settings.tweakForRom(romHandler);
+		return settings;
+	}
+
+	// how random items are drawn, overriding what the settings say; like
+	// the RNG version it goes into each log and timings line
+	public void setItemSampling(ItemList.Sampling sampling) {
+		this.itemSampling = sampling;
+	}
+
+	// how seeds turn into random numbers, overriding what the settings say;
+	// seeds only replay under the version they were made with, so it goes
+	// into each log and timings line
+	public void setRngVersion(RandomSource.Version version) {
+		this.rngVersion = version;
+	}
+
+	// parses an -items or -rng argument, null if it isn't one
+	static <E extends Enum<E>> E parseOption(Class<E> type, String name) {
+		for (E value : type.getEnumConstants()) {
+			if (value.name().equalsIgnoreCase(name)) {
+				return value;
+			}
+		}
+		return null;
+	}
+
+	// "ips" or "bps" to write patches instead of ROMs, null for ROMs
+	public void setPatchFormat(String format) {
+		this.patchExtension = format == null ? null : "." + format;
+	}
+
+	/**
+	 * Writes one JSON object per seed to out, holding the seed, ROM,
+	 * generation, presetName, RNG version, item sampling and the per-stage
+	 * timings, so runs can be grouped by generation and settings preset.
+	 */
+	public void setTimingsLog(PrintStream out, String presetName) {
+		this.timingsLog = out;
+		this.presetName = presetName;
+	}
+
+	// <base name>_<seed>.<base or patch extension> inside outputDir
+	public String outputFilename(File outputDir, long seed) {
+		String baseName = new File(snapshot.getFilename()).getName();
+		String ext = "";
+		if (baseName.lastIndexOf('.') > 0) {
+			ext = baseName.substring(baseName.lastIndexOf('.'));
+			baseName = baseName.substring(0, baseName.lastIndexOf('.'));
+		}
+		if (patchExtension != null) {
+			ext = patchExtension;
+		}
+		return new File(outputDir, baseName + "_" + seed + ext)
+				.getAbsolutePath();
+	}
+
+	// returns the check value
+	public int randomize(long seed, String outputFilename, PrintStream log)
+			throws IOException {
+		RomHandler romHandler = newHandler();
+		Settings settings = newSettings(romHandler);
+		Randomizer randomizer = new Randomizer(settings, romHandler);
+		try {
+			int checkValue = randomizer.randomize(outputFilename, log, seed);
+			logTimings(seed, romHandler, settings,
+					randomizer.getStageTimings());
+			return checkValue;
+		} finally {
+			discard(romHandler);
+		}
+	}
+
+	private void logTimings(long seed, RomHandler romHandler,
+			Settings settings, StageTimings timings) {
+		if (timingsLog == null) {
+			return;
+		}
+		String line = "{\"seed\":" + seed + ",\"rom\":"
+				+ StageTimings.jsonString(romHandler.getROMName())
+				+ ",\"romCode\":"
+				+ StageTimings.jsonString(romHandler.getROMCode())
+				+ ",\"gen\":" + romHandler.generationOfPokemon()
+				+ ",\"preset\":" + StageTimings.jsonString(presetName)
+				+ ",\"rngVersion\":"
+				+ StageTimings.jsonString(settings.getRngVersion().name())
+				+ ",\"itemSampling\":"
+				+ StageTimings.jsonString(settings.getItemSampling().name())
+				+ ",\"timings\":" + timings.toJson() + "}";
+		synchronized (timingsLog) {
+			timingsLog.print(line + NEWLINE);
+			timingsLog.flush();
+		}
+	}
+
+	// randomizes without writing anything
+	public RandomizationSummary dryRun(long seed) throws IOException {
+		RomHandler romHandler = newHandler();
+		Settings settings = newSettings(romHandler);
+		Randomizer randomizer = new Randomizer(settings, romHandler);
+		try {
+			return randomizer.dryRun(seed);
+		} finally {
+			discard(romHandler);
+		}
+	}
+
+	// each seed's handler works on its own copy of the rom, which goes back
+	// to the snapshot or is thrown away once the seed is done
+	private static void discard(RomHandler romHandler) {
+		if (romHandler instanceof AbstractDSRomHandler) {
+			((AbstractDSRomHandler) romHandler).discardInnerRom();
+		} else if (romHandler instanceof AbstractGBRomHandler) {
+			((AbstractGBRomHandler) romHandler).discardRom();
+		}
+	}
+
+	// randomizes into outputDir, optionally writing the log next to the ROM
+	public int randomize(long seed, File outputDir, boolean writeLog)
+			throws IOException {
+		String filename = outputFilename(outputDir, seed);
+		PrintStream log;
+		if (writeLog) {
+			FileOutputStream logOut = new FileOutputStream(filename + ".log");
+			logOut.write(0xEF);
+			logOut.write(0xBB);
+			logOut.write(0xBF);
+			log = new PrintStream(logOut, false, "UTF-8");
+		} else {
+			log = Randomizer.nullLog();
+		}
+		try {
+			return randomize(seed, filename, log);
+		} finally {
+			log.close();
+		}
+	}
+
+	/**
+	 * Queues every seed on the executor. Every seed gets its own handler and
+	 * its own random stream, so the results are the same as randomizing the
+	 * seeds one after another. The returned futures are in seed order.
+	 */
+	public List<Future<Integer>> randomizeAll(List<Long> seeds,
+			final File outputDir, final boolean writeLogs,
+			ExecutorService executor) {
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for (final long seed : seeds) {
+			results.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return randomize(seed, outputDir, writeLogs);
+				}
+			}));
+		}
+		return results;
+	}
+
+	public void close() throws IOException {
+		snapshot.close();
+	}
+
+	private static byte[] readConfigBytes(String filename) {
+		try {
+			return FileFunctions.getConfigAsBytes(filename);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	static String readSettingsFile(String filename) throws IOException {
+		FileInputStream fis = new FileInputStream(filename);
+		try {
+			return Settings.read(fis).toString();
+		} finally {
+			fis.close();
+		}
+	}
+
+	// the settings file's name without its folder or extension
+	private static String presetName(String settingsFile) {
+		String name = new File(settingsFile).getName();
+		if (name.lastIndexOf('.') > 0) {
+			name = name.substring(0, name.lastIndexOf('.'));
+		}
+		return name;
+	}
+
+	private static void usage() {
+		System.err.println("Usage: BatchRandomizer (-settings <file.rnqs> | -config <string>)");
+		System.err.println("       -rom <base rom> -out <output folder>");
+		System.err.println("       (-seeds <seed,seed,...> | -seed <first seed> -count <n>)");
+		System.err.println("       [-threads <n>] [-nolog] [-patch ips|bps]");
+		System.err.println("       [-timings <file.jsonl>] [-items rejection|dense]");
+		System.err.println("       [-rng legacy|staged]");
+	}
+
+	public static void main(String[] args) {
+		String config = null, settingsFile = null, romFile = null, outDir = null;
+		List<Long> seeds = new ArrayList<Long>();
+		long firstSeed = 0;
+		int count = 0;
+		boolean writeLogs = true;
+		int threads = 1;
+		String patchFormat = null;
+		String timingsFile = null;
+		ItemList.Sampling itemSampling = null;
+		RandomSource.Version rngVersion = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-settings")) {
+					settingsFile = args[++i];
+				} else if (arg.equals("-config")) {
+					config = args[++i];
+				} else if (arg.equals("-rom")) {
+					romFile = args[++i];
+				} else if (arg.equals("-out")) {
+					outDir = args[++i];
+				} else if (arg.equals("-seeds")) {
+					for (String s : args[++i].split(",")) {
+						seeds.add(Long.parseLong(s.trim()));
+					}
+				} else if (arg.equals("-seed")) {
+					firstSeed = Long.parseLong(args[++i]);
+				} else if (arg.equals("-count")) {
+					count = Integer.parseInt(args[++i]);
+				} else if (arg.equals("-threads")) {
+					threads = Math.max(1, Integer.parseInt(args[++i]));
+				} else if (arg.equals("-patch")) {
+					patchFormat = args[++i].toLowerCase();
+					if (!patchFormat.equals("ips") && !patchFormat.equals("bps")) {
+						usage();
+						System.exit(1);
+					}
+				} else if (arg.equals("-timings")) {
+					timingsFile = args[++i];
+				} else if (arg.equals("-items")) {
+					itemSampling = parseOption(ItemList.Sampling.class,
+							args[++i]);
+					if (itemSampling == null) {
+						usage();
+						System.exit(1);
+					}
+				} else if (arg.equals("-rng")) {
+					rngVersion = parseOption(RandomSource.Version.class,
+							args[++i]);
+					if (rngVersion == null) {
+						usage();
+						System.exit(1);
+					}
+				} else if (arg.equals("-nolog")) {
+					writeLogs = false;
+				} else {
+					usage();
+					System.exit(1);
+				}
+			}
+		} catch (RuntimeException ex) {
+			usage();
+			System.exit(1);
+		}
+		for (int i = 0; i < count; i++) {
+			seeds.add(firstSeed + i);
+		}
+		if ((config == null && settingsFile == null) || romFile == null
+				|| outDir == null || seeds.isEmpty()) {
+			usage();
+			System.exit(1);
+		}
+
+		try {
+			if (settingsFile != null) {
+				config = readSettingsFile(settingsFile);
+			}
+			File outputDir = new File(outDir);
+			outputDir.mkdirs();
+			BatchRandomizer batch = new BatchRandomizer(config, romFile);
+			batch.setPatchFormat(patchFormat);
+			batch.setItemSampling(itemSampling);
+			batch.setRngVersion(rngVersion);
+			PrintStream timingsLog = null;
+			if (timingsFile != null) {
+				timingsLog = new PrintStream(new FileOutputStream(timingsFile),
+						false, "UTF-8");
+				batch.setTimingsLog(timingsLog, settingsFile == null ? "config"
+						: presetName(settingsFile));
+			}
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<Integer>> results = batch.randomizeAll(seeds,
+						outputDir, writeLogs, executor);
+				for (int i = 0; i < seeds.size(); i++) {
+					long seed = seeds.get(i);
+					int checkValue = results.get(i).get();
+					System.out.printf("%d\t%08X\t%s" + NEWLINE, seed,
+							checkValue, batch.outputFilename(outputDir, seed));
+				}
+			} finally {
+				executor.shutdownNow();
+				batch.close();
+				if (timingsLog != null) {
+					timingsLog.close();
+				}
+			}
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+}
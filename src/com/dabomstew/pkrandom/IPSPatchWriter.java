@@ -0,0 +1,93 @@
+package com.dabomstew.pkrandom;
+
+import java.io.ByteArrayOutputStream;
+
+// Builds an IPS patch between two ROM images, in the same format that
+// FileFunctions.applyPatch reads. IPS offsets are 24-bit, so only images up
+// to 16MB can be described.
+public class IPSPatchWriter {
+
+	public static final int MAX_SIZE = 0x1000000;
+
+	private static final int EOF_MARKER = 0x454F46;
+	private static final int MAX_RECORD = 0xFFFF;
+	// unchanged runs shorter than this are folded into the surrounding record
+	private static final int MIN_GAP = 6;
+
+	public static boolean canPatch(byte[] source, byte[] target) {
+		return source.length <= MAX_SIZE && target.length <= MAX_SIZE;
+	}
+
+	public static byte[] create(byte[] source, byte[] target) {
+		if (!canPatch(source, target)) {
+			throw new IllegalArgumentException(
+					"ROM is too large for an IPS patch");
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write('P');
+		out.write('A');
+		out.write('T');
+		out.write('C');
+		out.write('H');
+
+		int i = 0;
+		while (i < target.length) {
+			if (same(source, target, i)) {
+				i++;
+				continue;
+			}
+			int start = i;
+			if (start == EOF_MARKER) {
+				// a record here would read as the end of the patch
+				start--;
+			}
+			int end = i;
+			while (end < target.length && end - start < MAX_RECORD) {
+				if (!same(source, target, end)) {
+					end++;
+					continue;
+				}
+				int gapEnd = end;
+				while (gapEnd < target.length && gapEnd - end < MIN_GAP
+						&& same(source, target, gapEnd)) {
+					gapEnd++;
+				}
+				if (gapEnd - end >= MIN_GAP || gapEnd == target.length) {
+					break;
+				}
+				end = Math.min(gapEnd, start + MAX_RECORD);
+			}
+			writeRecord(out, target, start, end - start);
+			i = end;
+		}
+
+		out.write('E');
+		out.write('O');
+		out.write('F');
+		if (target.length < source.length) {
+			// truncation extension
+			writeNumber(out, target.length, 3);
+		}
+		return out.toByteArray();
+	}
+
+	private static boolean same(byte[] source, byte[] target, int offset) {
+		return offset < source.length && source[offset] == target[offset];
+	}
+
+	private static void writeRecord(ByteArrayOutputStream out, byte[] target,
+			int offset, int length) {
+		writeNumber(out, offset, 3);
+		writeNumber(out, length, 2);
+		out.write(target, offset, length);
+	}
+
+	// IPS numbers are big-endian
+	private static void writeNumber(ByteArrayOutputStream out, int value,
+			int bytes) {
+		for (int i = bytes - 1; i >= 0; i--) {
+			out.write((value >> (i * 8)) & 0xFF);
+		}
+	}
+
+}
@@ -30,63 +30,117 @@ import java.util.Random;
 
 public class RandomSource {
 
-	private static Random source = new Random();
-	private static int calls = 0;
+	/**
+	 * How a seed turns into random numbers. A seed only gives the same ROM
+	 * again under the version it was made with, so new versions are added
+	 * here rather than changing old ones.
+	 */
+	public enum Version {
+		// one java.util.Random for the whole randomization, as every
+		// release so far has used; keeps existing (race) seeds working
+		LEGACY,
+		// a separate StreamRandom for each stage, derived from the seed and
+		// the stage's name, so changing the draws of one stage leaves the
+		// others alone
+		STAGED
+	}
+
+	// Each thread gets its own generator and call counter, so several
+	// randomizations can run side by side without disturbing each other's
+	// sequence. A single-threaded run behaves exactly as before.
+	private static final ThreadLocal<State> state = new ThreadLocal<State>() {
+		@Override
+		protected State initialValue() {
+			return new State();
+		}
+	};
 	private static Random instance = new RandomSourceInstance();
 
+	private static class State {
+		private Random source = new Random();
+		private int calls = 0;
+		private Version version = Version.LEGACY;
+		private long seed;
+	}
+
+	private static Random source() {
+		State st = state.get();
+		st.calls++;
+		return st.source;
+	}
+
 	public static void reset() {
-		source = new Random();
-		calls = 0;
+		State st = state.get();
+		st.source = new Random();
+		st.calls = 0;
+		st.version = Version.LEGACY;
 	}
 
 	public static void seed(long seed) {
-		source.setSeed(seed);
-		calls = 0;
+		seed(seed, Version.LEGACY);
+	}
+
+	public static void seed(long seed, Version version) {
+		State st = state.get();
+		if (version == Version.LEGACY) {
+			if (st.version != Version.LEGACY) {
+				st.source = new Random();
+			}
+			st.source.setSeed(seed);
+		} else {
+			st.source = StreamRandom.forStream(seed, "");
+		}
+		st.calls = 0;
+		st.version = version;
+		st.seed = seed;
+	}
+
+	/**
+	 * Moves this thread on to the named stage of the current seed. Under
+	 * LEGACY this does nothing; under STAGED the stage gets its own stream,
+	 * which starts the same however many numbers earlier stages drew.
+	 */
+	public static void stage(String name) {
+		State st = state.get();
+		if (st.version == Version.STAGED) {
+			st.source = StreamRandom.forStream(st.seed, name);
+		}
 	}
 
 	public static double random() {
-		calls++;
-		return source.nextDouble();
+		return source().nextDouble();
 	}
 
 	public static int nextInt(int size) {
-		calls++;
-		return source.nextInt(size);
+		return source().nextInt(size);
 	}
 
 	public static void nextBytes(byte[] bytes) {
-		calls++;
-		source.nextBytes(bytes);
+		source().nextBytes(bytes);
 	}
 
 	public static int nextInt() {
-		calls++;
-		return source.nextInt();
+		return source().nextInt();
 	}
 
 	public static long nextLong() {
-		calls++;
-		return source.nextLong();
+		return source().nextLong();
 	}
 
 	public static boolean nextBoolean() {
-		calls++;
-		return source.nextBoolean();
+		return source().nextBoolean();
 	}
 
 	public static float nextFloat() {
-		calls++;
-		return source.nextFloat();
+		return source().nextFloat();
 	}
 
 	public static double nextDouble() {
-		calls++;
-		return source.nextDouble();
+		return source().nextDouble();
 	}
 
-	public static synchronized double nextGaussian() {
-		calls++;
-		return source.nextGaussian();
+	public static double nextGaussian() {
+		return source().nextGaussian();
 	}
 
 	public static long pickSeed() {
@@ -103,7 +157,7 @@ public class RandomSource {
 	}
 
 	public static int callsSinceSeed() {
-		return calls;
+		return state.get().calls;
 	}
 
 	private static class RandomSourceInstance extends Random {
@@ -114,7 +168,7 @@ public class RandomSource {
 		private static final long serialVersionUID = -4876737183441746322L;
 
 		@Override
-		public synchronized void setSeed(long seed) {
+		public void setSeed(long seed) {
 			RandomSource.seed(seed);
 		}
 
@@ -154,7 +208,7 @@ public class RandomSource {
 		}
 
 		@Override
-		public synchronized double nextGaussian() {
+		public double nextGaussian() {
 			return RandomSource.nextGaussian();
 		}
 
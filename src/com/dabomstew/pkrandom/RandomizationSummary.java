@@ -0,0 +1,170 @@
+package com.dabomstew.pkrandom;
+
+import java.util.List;
+
+import com.dabomstew.pkrandom.pokemon.EncounterSet;
+import com.dabomstew.pkrandom.pokemon.ItemList;
+import com.dabomstew.pkrandom.pokemon.Move;
+import com.dabomstew.pkrandom.pokemon.Pokemon;
+import com.dabomstew.pkrandom.pokemon.Trainer;
+
+// What a seed produced, as returned by Randomizer.dryRun.
+// Lists the handler can't change for this game are left null.
+public class RandomizationSummary {
+
+	private final long seed;
+	// the seed gives this again only under the same RNG version and item
+	// sampling
+	private final RandomSource.Version rngVersion;
+	private final ItemList.Sampling itemSampling;
+	// only meaningful when the settings have race mode on
+	private final int checkValue;
+	private final int rngCalls;
+	private final StageTimings timings;
+	private final String romName;
+	private final List<Pokemon> pokemon;
+	private final List<Move> moves;
+	private final List<Pokemon> starters;
+	private final List<Pokemon> staticPokemon;
+	private final List<Integer> tmMoves;
+	private final List<Integer> moveTutorMoves;
+	private final List<Trainer> trainers;
+	private final List<EncounterSet> encounters;
+
+	RandomizationSummary(long seed, RandomSource.Version rngVersion,
+			ItemList.Sampling itemSampling, int checkValue, int rngCalls,
+			StageTimings timings, String romName, List<Pokemon> pokemon,
+			List<Move> moves, List<Pokemon> starters,
+			List<Pokemon> staticPokemon, List<Integer> tmMoves,
+			List<Integer> moveTutorMoves, List<Trainer> trainers,
+			List<EncounterSet> encounters) {
+		this.seed = seed;
+		this.rngVersion = rngVersion;
+		this.itemSampling = itemSampling;
+		this.checkValue = checkValue;
+		this.rngCalls = rngCalls;
+		this.timings = timings;
+		this.romName = romName;
+		this.pokemon = pokemon;
+		this.moves = moves;
+		this.starters = starters;
+		this.staticPokemon = staticPokemon;
+		this.tmMoves = tmMoves;
+		this.moveTutorMoves = moveTutorMoves;
+		this.trainers = trainers;
+		this.encounters = encounters;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public RandomSource.Version getRngVersion() {
+		return rngVersion;
+	}
+
+	public ItemList.Sampling getItemSampling() {
+		return itemSampling;
+	}
+
+	public int getCheckValue() {
+		return checkValue;
+	}
+
+	public int getRngCalls() {
+		return rngCalls;
+	}
+
+	public StageTimings getTimings() {
+		return timings;
+	}
+
+	public String getRomName() {
+		return romName;
+	}
+
+	public List<Pokemon> getPokemon() {
+		return pokemon;
+	}
+
+	public List<Move> getMoves() {
+		return moves;
+	}
+
+	public List<Pokemon> getStarters() {
+		return starters;
+	}
+
+	public List<Pokemon> getStaticPokemon() {
+		return staticPokemon;
+	}
+
+	public List<Integer> getTMMoves() {
+		return tmMoves;
+	}
+
+	public List<Integer> getMoveTutorMoves() {
+		return moveTutorMoves;
+	}
+
+	public List<Trainer> getTrainers() {
+		return trainers;
+	}
+
+	public List<EncounterSet> getEncounters() {
+		return encounters;
+	}
+
+	public boolean hasStarter(String name) {
+		return containsNamed(starters, name);
+	}
+
+	public boolean hasStaticPokemon(String name) {
+		return containsNamed(staticPokemon, name);
+	}
+
+	public boolean hasTMMove(String name) {
+		if (tmMoves == null) {
+			return false;
+		}
+		for (int move : tmMoves) {
+			if (moves.get(move).name.equalsIgnoreCase(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean containsNamed(List<Pokemon> list, String name) {
+		if (list == null) {
+			return false;
+		}
+		for (Pokemon pk : list) {
+			if (pk != null && pk.name.equalsIgnoreCase(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(seed).append('\t').append(rngVersion).append('\t')
+				.append(itemSampling).append('\t')
+				.append(String.format("%08X", checkValue));
+		if (starters != null) {
+			sb.append('\t');
+			boolean first = true;
+			for (Pokemon pk : starters) {
+				if (!first) {
+					sb.append(", ");
+				}
+				sb.append(pk.name);
+				first = false;
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -30,6 +30,7 @@ public class Randomizer {
 
 	private final Settings settings;
 	private final RomHandler romHandler;
+	private StageTimings timings;
 
 	public Randomizer(Settings settings, RomHandler romHandler) {
 		this.settings = settings;
@@ -37,11 +38,21 @@ public class Randomizer {
 	}
 
 	public int randomize(final String filename) {
-		return randomize(filename, new PrintStream(new OutputStream() {
+		return randomize(filename, nullLog());
+	}
+
+	public static boolean isPatchFilename(String filename) {
+		String lower = filename.toLowerCase();
+		return lower.endsWith(".ips") || lower.endsWith(".bps");
+	}
+
+	// a log that discards everything written to it
+	public static PrintStream nullLog() {
+		return new PrintStream(new OutputStream() {
 			@Override
 			public void write(int b) {
 			}
-		}));
+		});
 	}
 
 	public int randomize(final String filename, final PrintStream log) {
@@ -51,8 +62,91 @@ public class Randomizer {
 
 	public int randomize(final String filename, final PrintStream log, long seed) {
 		final long startTime = System.currentTimeMillis();
-		RandomSource.seed(seed);
+		int checkValue = randomizeContents(log, seed);
+
+		// Signature...
+		beginStage("save");
+		romHandler.applySignature();
+
+		// Save, as a patch if the filename asks for one
+		// write failures come out of the handler as exceptions; false is
+		// only for a ROM the format can't hold
+		if (isPatchFilename(filename)) {
+			if (!romHandler.savePatch(filename)) {
+				throw new RuntimeException("Could not write patch " + filename
+						+ " (IPS only works for ROMs up to 16MB)");
+			}
+		} else if (!romHandler.saveRom(filename)) {
+			throw new RuntimeException("Could not write ROM " + filename);
+		}
+		timings.end();
+
+		// Log tail
+		log.println("------------------------------------------------------------------");
+		log.println("Randomization of " + romHandler.getROMName()
+				+ " completed.");
+		log.println("Time elapsed: " + (System.currentTimeMillis() - startTime)
+				+ "ms");
+		log.println("RNG Calls: " + RandomSource.callsSinceSeed());
+		log.println("------------------------------------------------------------------");
+
+		return checkValue;
+	}
+
+	// per-stage measurements of the last randomize or dryRun
+	public StageTimings getStageTimings() {
+		return timings;
+	}
+
+	// Runs every randomization step for this seed but never touches the
+	// output file. The handler is left holding the randomized data, so it
+	// should be thrown away afterwards.
+	public RandomizationSummary dryRun(long seed) {
+		return dryRun(nullLog(), seed);
+	}
+
+	public RandomizationSummary dryRun(final PrintStream log, long seed) {
+		int checkValue = randomizeContents(log, seed);
+		int rngCalls = RandomSource.callsSinceSeed();
+		String romName = romHandler.getROMName();
+		List<Pokemon> pokemon = romHandler.getPokemon();
+		List<Move> moves = romHandler.getMoves();
+		List<Pokemon> starters = null;
+		if (romHandler.canChangeStarters()) {
+			starters = romHandler.getStarters();
+		}
+		List<Pokemon> staticPokemon = null;
+		if (romHandler.canChangeStaticPokemon()) {
+			staticPokemon = romHandler.getStaticPokemon();
+		}
+		List<Integer> tmMoves = romHandler.getTMMoves();
+		List<Integer> moveTutorMoves = null;
+		if (romHandler.hasMoveTutors()) {
+			moveTutorMoves = romHandler.getMoveTutorMoves();
+		}
+		return new RandomizationSummary(seed, settings.getRngVersion(),
+				settings.getItemSampling(), checkValue, rngCalls, timings,
+				romName, pokemon, moves, starters, staticPokemon, tmMoves,
+				moveTutorMoves, romHandler.getTrainers(),
+				romHandler.getEncounters(settings.isUseTimeBasedEncounters()));
+	}
+
+	// everything up to (but not including) writing the ROM
+	private int randomizeContents(final PrintStream log, long seed) {
+		// the seed is replayed under whatever version the settings recorded
+		RandomSource.Version rngVersion = settings.getRngVersion();
+		RandomSource.seed(seed, rngVersion);
+		romHandler.setLogStream(log);
+		romHandler.setItemSampling(settings.getItemSampling());
+
+		// Log header: what a replay of this seed needs besides the settings
+		log.println("RNG Version: " + rngVersion);
+		log.println("Item Sampling: " + settings.getItemSampling());
+		log.println("------------------------------------------------------------------");
+
 		final boolean raceMode = settings.isRaceMode();
+		timings = new StageTimings();
+		beginStage("setup");
 
 		int checkValue = 0;
 
@@ -69,6 +163,7 @@ public class Randomizer {
 		}
 
 		// Move updates
+		beginStage("moveUpdates");
 		if (settings.isUpdateMoves()) {
 			romHandler.initMoveUpdates();
 			if (!(romHandler instanceof Gen5RomHandler)) {
@@ -83,6 +178,7 @@ public class Randomizer {
 		List<Move> moves = romHandler.getMoves();
 
 		// Trade evolutions removal
+		beginStage("evolutions");
 		if (settings.isChangeImpossibleEvolutions()) {
 			romHandler
 					.removeTradeEvolutions(!(settings.getMovesetsMod() == Settings.MovesetsMod.UNCHANGED));
@@ -94,6 +190,7 @@ public class Randomizer {
 		}
 
 		// Camel case?
+		beginStage("codeTweaks");
 		if (!(romHandler instanceof Gen5RomHandler)
 				&& !(romHandler instanceof Gen4RomHandler)
 				&& settings.isLowerCasePokemonNames()) {
@@ -148,6 +245,7 @@ public class Randomizer {
 		}
 
 		// Base stats changing
+		beginStage("stats");
 		switch (settings.getBaseStatisticsMod()) {
 		case SHUFFLE:
 			romHandler.shufflePokemonStats();
@@ -167,12 +265,14 @@ public class Randomizer {
 		}
 
 		// Abilities? (new 1.0.2)
+		beginStage("abilities");
 		if (romHandler.abilitiesPerPokemon() > 0
 				&& settings.getAbilitiesMod() == Settings.AbilitiesMod.RANDOMIZE) {
 			romHandler.randomizeAbilities(settings.isAllowWonderGuard());
 		}
 
 		// Pokemon Types
+		beginStage("types");
 		switch (settings.getTypesMod()) {
 		case RANDOM_FOLLOW_EVOLUTIONS:
 			romHandler.randomizePokemonTypes(true);
@@ -185,11 +285,13 @@ public class Randomizer {
 		}
 
 		// Wild Held Items?
+		beginStage("wildHeldItems");
 		if (settings.isRandomizeWildPokemonHeldItems()) {
 			romHandler.randomizeWildHeldItems(settings
 					.isBanBadRandomWildPokemonHeldItems());
 		}
 
+		beginStage("pokemonLog");
 		maybeLogBaseStatAndTypeChanges(log, romHandler);
 		if (raceMode) {
 			for (Pokemon pkmn : romHandler.getPokemon()) {
@@ -202,10 +304,12 @@ public class Randomizer {
 		}
 
 		// Starter Pokemon
+		beginStage("starters");
 		// Applied after type to update the strings correctly based on new types
 		maybeChangeAndLogStarters(log, romHandler);
 
 		// Movesets
+		beginStage("movesets");
 		boolean noBrokenMoves = settings.doBlockBrokenMoves();
 		boolean forceFourLv1s = romHandler.supportsFourStartingMoves()
 				&& settings.isStartWithFourMoves();
@@ -251,6 +355,7 @@ public class Randomizer {
 		}
 
 		// Trainer Pokemon
+		beginStage("trainers");
 		if (settings.getTrainersMod() == Settings.TrainersMod.RANDOM) {
 			romHandler.randomizeTrainerPokes(
 					settings.isRivalCarriesStarterThroughout(),
@@ -295,6 +400,7 @@ public class Randomizer {
 		}
 
 		// Wild Pokemon
+		beginStage("wild");
 		// actually call this code (Kappa)
 		if (settings.isUseMinimumCatchRate()) {
 			if (romHandler instanceof Gen5RomHandler) {
@@ -345,10 +451,12 @@ public class Randomizer {
 		}
 
 		// Static Pokemon
+		beginStage("statics");
 		checkValue = maybeChangeAndLogStaticPokemon(log, romHandler, raceMode,
 				checkValue);
 
 		// TMs
+		beginStage("tms");
 		if (!(settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY)
 				&& settings.getTmsMod() == Settings.TMsMod.RANDOM) {
 			romHandler.randomizeTMMoves(noBrokenMoves,
@@ -389,6 +497,7 @@ public class Randomizer {
 		}
 
 		// Move Tutors (new 1.0.3)
+		beginStage("tutors");
 		if (romHandler.hasMoveTutors()) {
 			if (!(settings.getMovesetsMod() == Settings.MovesetsMod.METRONOME_ONLY)
 					&& settings.getMoveTutorMovesMod() == Settings.MoveTutorMovesMod.RANDOM) {
@@ -433,6 +542,7 @@ public class Randomizer {
 		}
 
 		// In-game trades
+		beginStage("trades");
 		List<IngameTrade> oldTrades = romHandler.getIngameTrades();
 		if (settings.getInGameTradesMod() == Settings.InGameTradesMod.RANDOMIZE_GIVEN) {
 			romHandler.randomizeIngameTrades(false, settings.getNicknames(),
@@ -468,26 +578,13 @@ public class Randomizer {
 		}
 
 		// Field Items
+		beginStage("fieldItems");
 		if (settings.getFieldItemsMod() == Settings.FieldItemsMod.SHUFFLE) {
 			romHandler.shuffleFieldItems();
 		} else if (settings.getFieldItemsMod() == Settings.FieldItemsMod.RANDOM) {
 			romHandler.randomizeFieldItems(settings.isBanBadRandomFieldItems());
 		}
-
-		// Signature...
-		romHandler.applySignature();
-
-		// Save
-		romHandler.saveRom(filename);
-
-		// Log tail
-		log.println("------------------------------------------------------------------");
-		log.println("Randomization of " + romHandler.getROMName()
-				+ " completed.");
-		log.println("Time elapsed: " + (System.currentTimeMillis() - startTime)
-				+ "ms");
-		log.println("RNG Calls: " + RandomSource.callsSinceSeed());
-		log.println("------------------------------------------------------------------");
+		timings.end();
 
 		return checkValue;
 	}
@@ -756,6 +853,12 @@ public class Randomizer {
 		return checkValue;
 	}
 
+	// starts timing the named stage and, under STAGED, its random stream
+	private void beginStage(String name) {
+		timings.begin(name);
+		RandomSource.stage(name);
+	}
+
 	private static int addToCV(int checkValue, int... values) {
 		for (int value : values) {
 			checkValue = Integer.rotateLeft(checkValue, 3);
@@ -27,9 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
-import com.dabomstew.pkrandom.pokemon.Evolution;
 import com.dabomstew.pkrandom.pokemon.Pokemon;
 import com.dabomstew.pkrandom.romhandlers.RomHandler;
 
@@ -71,70 +69,23 @@ public class RomFunctions {
 	}
 
 	public static Set<Pokemon> getBasicOrNoCopyPokemon(RomHandler baseRom) {
-		List<Pokemon> allPokes = baseRom.getPokemon();
-		List<Evolution> evos = baseRom.getEvolutions();
-
-		Set<Pokemon> doCopyPokes = new TreeSet<Pokemon>();
-		for (Evolution e : evos) {
-			if (e.carryStats) {
-				doCopyPokes.add(e.to);
-			}
-		}
-		Set<Pokemon> dontCopyPokes = new TreeSet<Pokemon>();
-		for (Pokemon pkmn : allPokes) {
-			if (pkmn != null) {
-				if (doCopyPokes.contains(pkmn) == false) {
-					dontCopyPokes.add(pkmn);
-				}
-			}
-		}
-		return dontCopyPokes;
+		return baseRom.getEvolutionGraph().basicOrNoCopyPokemon();
 	}
 
 	public static Set<Pokemon> getFirstEvolutions(RomHandler baseRom) {
-		List<Evolution> evos = baseRom.getEvolutions();
-		Set<Pokemon> basicPokemon = getBasicOrNoCopyPokemon(baseRom);
-
-		Set<Pokemon> firstEvos = new TreeSet<Pokemon>();
-		for (Evolution e : evos) {
-			if (basicPokemon.contains(e.from)) {
-				firstEvos.add(e.to);
-			}
-		}
-		return firstEvos;
+		return baseRom.getEvolutionGraph().firstEvolutions();
 	}
 
 	public static Set<Pokemon> getSecondEvolutions(RomHandler baseRom) {
-		List<Evolution> evos = baseRom.getEvolutions();
-		Set<Pokemon> firstEvos = getFirstEvolutions(baseRom);
-
-		Set<Pokemon> secondEvos = new TreeSet<Pokemon>();
-		for (Evolution e : evos) {
-			if (firstEvos.contains(e.from)) {
-				secondEvos.add(e.to);
-			}
-		}
-		return secondEvos;
+		return baseRom.getEvolutionGraph().secondEvolutions();
 	}
 
 	public static boolean pokemonHasEvo(RomHandler baseRom, Pokemon pkmn) {
-		List<Evolution> evos = baseRom.getEvolutions();
-		for (Evolution evo : evos) {
-			if (evo.from == pkmn) {
-				return true;
-			}
-		}
-		return false;
+		return baseRom.getEvolutionGraph().hasEvolution(pkmn);
 	}
 
 	public static Pokemon evolvesFrom(RomHandler baseRom, Pokemon pkmn) {
-		List<Evolution> evos = baseRom.getEvolutions();
-		for (Evolution evo : evos) {
-			if (evo.to == pkmn) {
-				return evo.from;
-			}
-		}
-		return null;
+		return baseRom.getEvolutionGraph().preEvolution(pkmn);
 	}
 
 	public static String camelCase(String original) {
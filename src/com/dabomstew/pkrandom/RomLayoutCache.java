@@ -0,0 +1,294 @@
+package com.dabomstew.pkrandom;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+
+// Offsets and tables that handlers work out from a base ROM when loading it,
+// keyed by a CRC32 and the length of the data they were worked out from,
+// with a SHA-1 of it checked before a stored layout is used. Kept in memory
+// and, if a directory is given, on disk, so reopening a ROM the randomizer
+// has seen before skips the searching and parsing.
+public class RomLayoutCache {
+
+	// bump whenever a handler changes what it stores
+	public static final int FORMAT_VERSION = 2;
+
+	private static final int MAGIC = 0x504B4C43; // PKLC
+	private static final int MEMORY_ENTRIES = 32;
+
+	private static RomLayoutCache defaultCache;
+	private static boolean defaultCacheLoaded = false;
+
+	// least recently used first
+	private final Map<String, Layout> memory = new LinkedHashMap<String, Layout>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Layout> eldest) {
+			return size() > MEMORY_ENTRIES;
+		}
+	};
+	// layouts of images already checksummed, by array identity
+	private final Map<byte[], Layout> images = Collections
+			.synchronizedMap(new WeakHashMap<byte[], Layout>());
+	// null to keep everything in memory only
+	private final File directory;
+
+	public static class Layout {
+		public final long checksum;
+		public final int length;
+		public final String kind;
+		private final byte[] digest;
+		private final Map<String, int[]> ints = new HashMap<String, int[]>();
+		private final Map<String, String[]> strings = new HashMap<String, String[]>();
+
+		private Layout(long checksum, int length, byte[] digest, String kind) {
+			this.checksum = checksum;
+			this.length = length;
+			this.digest = digest;
+			this.kind = kind;
+		}
+
+		// null if nothing is stored under name
+		public synchronized int[] getInts(String name) {
+			int[] values = ints.get(name);
+			return values == null ? null : values.clone();
+		}
+
+		public synchronized void putInts(String name, int[] values) {
+			ints.put(name, values.clone());
+		}
+
+		// null if nothing is stored under name
+		public synchronized String[] getStrings(String name) {
+			String[] values = strings.get(name);
+			return values == null ? null : values.clone();
+		}
+
+		public synchronized void putStrings(String name, String[] values) {
+			strings.put(name, values.clone());
+		}
+
+		private synchronized void write(DataOutputStream out)
+				throws IOException {
+			out.writeInt(ints.size());
+			for (Map.Entry<String, int[]> entry : ints.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().length);
+				for (int value : entry.getValue()) {
+					out.writeInt(value);
+				}
+			}
+			out.writeInt(strings.size());
+			for (Map.Entry<String, String[]> entry : strings.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().length);
+				for (String value : entry.getValue()) {
+					out.writeUTF(value);
+				}
+			}
+		}
+
+		private synchronized void read(DataInputStream in) throws IOException {
+			int intCount = in.readInt();
+			for (int i = 0; i < intCount; i++) {
+				String name = in.readUTF();
+				int[] values = new int[in.readInt()];
+				for (int j = 0; j < values.length; j++) {
+					values[j] = in.readInt();
+				}
+				ints.put(name, values);
+			}
+			int stringCount = in.readInt();
+			for (int i = 0; i < stringCount; i++) {
+				String name = in.readUTF();
+				String[] values = new String[in.readInt()];
+				for (int j = 0; j < values.length; j++) {
+					values[j] = in.readUTF();
+				}
+				strings.put(name, values);
+			}
+		}
+	}
+
+	public RomLayoutCache(File directory) {
+		this.directory = directory;
+		if (directory != null) {
+			directory.mkdirs();
+		}
+	}
+
+	/**
+	 * The cache handlers use: in memory, and also on disk if
+	 * pkrandom.layoutcache.dir is set. Setting pkrandom.layoutcache to "off"
+	 * turns it off, in which case this returns null.
+	 */
+	public static synchronized RomLayoutCache getDefault() {
+		if (!defaultCacheLoaded) {
+			defaultCacheLoaded = true;
+			if (!System.getProperty("pkrandom.layoutcache", "on")
+					.equalsIgnoreCase("off")) {
+				String dir = System.getProperty("pkrandom.layoutcache.dir");
+				defaultCache = new RomLayoutCache(dir == null ? null : new File(
+						dir));
+			}
+		}
+		return defaultCache;
+	}
+
+	private static long checksum(byte[] data, int offset, int length) {
+		CRC32 crc = new CRC32();
+		crc.update(data, offset, length);
+		return crc.getValue();
+	}
+
+	private static byte[] digest(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			// every JVM has SHA-1
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * The layout of a whole ROM image, empty if it hasn't been seen before.
+	 * The image is only checksummed the first time it's asked for, so this
+	 * should be called before the handler changes anything in it.
+	 */
+	public Layout forImage(byte[] image, String kind) {
+		synchronized (images) {
+			Layout layout = images.get(image);
+			if (layout != null && layout.kind.equals(kind)) {
+				return layout;
+			}
+		}
+		Layout layout = get(image, kind);
+		images.put(image, layout);
+		return layout;
+	}
+
+	// the stored layout of data, or an empty one to fill in and save
+	public Layout get(byte[] data, String kind) {
+		long checksum = checksum(data, 0, data.length);
+		byte[] digest = digest(data);
+		String key = key(checksum, data.length, kind);
+		synchronized (this) {
+			Layout layout = memory.get(key);
+			if (layout != null && Arrays.equals(layout.digest, digest)) {
+				return layout;
+			}
+		}
+		Layout layout = null;
+		if (directory != null) {
+			layout = readFile(new File(directory, key), checksum, data.length,
+					digest, kind);
+		}
+		if (layout == null) {
+			layout = new Layout(checksum, data.length, digest, kind);
+		}
+		synchronized (this) {
+			// another thread may have got there first
+			Layout existing = memory.get(key);
+			if (existing != null && Arrays.equals(existing.digest, digest)) {
+				return existing;
+			}
+			memory.put(key, layout);
+		}
+		return layout;
+	}
+
+	// writes the layout out after a handler has added to it
+	public void save(Layout layout) {
+		String key = key(layout.checksum, layout.length, layout.kind);
+		synchronized (this) {
+			memory.put(key, layout);
+		}
+		if (directory != null) {
+			writeFile(key, layout);
+		}
+	}
+
+	public synchronized void clear() {
+		memory.clear();
+		images.clear();
+	}
+
+	private static String key(long checksum, int length, String kind) {
+		return String.format("%08X_%X_%s.layout", checksum, length, kind);
+	}
+
+	// null unless the file's header names exactly the data asked for
+	private static Layout readFile(File file, long checksum, int length,
+			byte[] digest, String kind) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+						|| in.readInt() != length) {
+					return null;
+				}
+				byte[] stored = new byte[digest.length];
+				in.readFully(stored);
+				if (!Arrays.equals(stored, digest)) {
+					return null;
+				}
+				Layout layout = new Layout(checksum, length, digest, kind);
+				layout.read(in);
+				return layout;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	// written under a temporary name first so that a reader never sees half
+	// a file; failing to write just means it isn't cached
+	private void writeFile(String key, Layout layout) {
+		File target = new File(directory, key);
+		try {
+			File tmp = File.createTempFile(key, ".tmp", directory);
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(layout.length);
+				out.write(layout.digest);
+				layout.write(out);
+			} finally {
+				out.close();
+			}
+			// renameTo won't replace an existing file everywhere
+			target.delete();
+			if (!tmp.renameTo(target)) {
+				tmp.delete();
+			}
+		} catch (IOException e) {
+			// not cached
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+package com.dabomstew.pkrandom;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Writes constants/GenNSlots.java from config/genN_offsets.ini: one int
+// constant per key that the handler keeps in its ROM entries, numbered
+// within the kind of entry it is (value, string, array or offset array).
+// Handlers index their entries by these instead of hashing the key on
+// every lookup. Rerun after adding a key to an ini:
+//   java com.dabomstew.pkrandom.RomSlotsGenerator src
+// The keys a handler reads specially (Game, Type, CopyFrom, the static
+// Pokemon and TM text lists and so on) don't get slots, and the rules
+// below have to agree with each loadROMInfo about which those are.
+public class RomSlotsGenerator {
+
+	private static final String NEWLINE = "\n";
+	private static final int WIDTH = 80, TAB = 4;
+
+	private static final int VALUE = 0, STRING = 1, ARRAY = 2,
+			OFFSET_ARRAY = 3;
+	private static final String[] kindNames = { "value", "string", "array",
+			"offsetArray" };
+
+	// keys read straight off the ini line instead of into the entry tables
+	private static final List<List<String>> specialKeys = Arrays.asList(
+			Arrays.asList("StaticPokemonGameCorner[]", "TMText[]", "Game",
+					"Version", "NonJapanese", "Type", "ExtraTableFile",
+					"CRCInHeader", "ExtraTypes", "CopyFrom"), Arrays.asList(
+					"StaticPokemonGameCorner[]", "StaticPokemonCopy[]",
+					"TMText[]", "Game", "Version", "NonJapanese", "Type",
+					"ExtraTableFile", "CRCInHeader", "CopyFrom"), Arrays
+					.asList("StaticPokemon[]", "TMText[]", "MoveTutorText[]",
+							"Game", "Version", "Type", "TableFile",
+							"CopyStaticPokemon", "CopyFrom"), Arrays.asList(
+					"Game", "Type", "CopyFrom", "StaticPokemon[]",
+					"StaticPokemonSupport", "CopyStaticPokemon"), Arrays
+					.asList("Game", "Type", "CopyFrom", "StaticPokemon[]",
+							"StaticPokemonSupport", "CopyStaticPokemon"));
+
+	// values and arrays the handler fills in itself at load time, so they
+	// need a slot without being in the ini
+	private static final List<List<String>> handlerValues = Arrays.asList(
+			Arrays.<String> asList(), Arrays.<String> asList(), Arrays.asList(
+					"CopyTMText", "MapBankCount", "MapHeaders", "MapLabels",
+					"PokemonNames", "WildPokemon"), Arrays.<String> asList(),
+			Arrays.<String> asList());
+	private static final List<List<String>> handlerArrays = Arrays.asList(
+			Arrays.<String> asList(), Arrays.<String> asList(),
+			Arrays.asList("MapBankSizes"), Arrays.<String> asList(),
+			Arrays.<String> asList());
+
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: RomSlotsGenerator <source folder>");
+			System.exit(1);
+		}
+		File base = new File(args[0], "com/dabomstew/pkrandom");
+		try {
+			for (int gen = 1; gen <= 5; gen++) {
+				File ini = new File(base, "config/gen" + gen + "_offsets.ini");
+				File out = new File(base, "constants/Gen" + gen + "Slots.java");
+				write(out, gen, ini.getName(), readKeys(ini, gen));
+				System.out.println("wrote " + out);
+			}
+		} catch (IOException ex) {
+			System.err.println(ex.getMessage());
+			System.exit(1);
+		}
+	}
+
+	// the slotted keys of each kind, sorted so the slots don't move around
+	// when the ini is reordered
+	private static List<Set<String>> readKeys(File ini, int gen)
+			throws IOException {
+		List<Set<String>> keys = Arrays.<Set<String>> asList(
+				new TreeSet<String>(), new TreeSet<String>(),
+				new TreeSet<String>(), new TreeSet<String>());
+		keys.get(VALUE).addAll(handlerValues.get(gen - 1));
+		keys.get(ARRAY).addAll(handlerArrays.get(gen - 1));
+		Set<String> special = new HashSet<String>(specialKeys.get(gen - 1));
+		Scanner sc = new Scanner(new FileInputStream(ini), "UTF-8");
+		try {
+			while (sc.hasNextLine()) {
+				String q = sc.nextLine().trim();
+				if (q.contains("//")) {
+					q = q.substring(0, q.indexOf("//")).trim();
+				}
+				if (q.isEmpty() || (q.startsWith("[") && q.endsWith("]"))) {
+					continue;
+				}
+				String[] r = q.split("=", 2);
+				if (r.length == 1) {
+					continue;
+				}
+				String key = r[0].trim(), value = r[1].trim();
+				if (special.contains(key)) {
+					continue;
+				}
+				int kind = kindOf(gen, key, value);
+				if (kind >= 0) {
+					keys.get(kind).add(key);
+				}
+			}
+		} finally {
+			sc.close();
+		}
+		for (Set<String> names : keys) {
+			for (String name : names) {
+				if (!name.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+					throw new IOException(ini.getName() + ": key " + name
+							+ " can't be a constant name");
+				}
+			}
+		}
+		return keys;
+	}
+
+	// which table loadROMInfo puts an ordinary key in, or -1 for none
+	private static int kindOf(int gen, String key, String value) {
+		boolean list = value.startsWith("[") && value.endsWith("]");
+		if (gen <= 2) {
+			if (key.endsWith("Tweak")) {
+				return -1;
+			}
+			if (list) {
+				boolean empty = value.substring(1, value.length() - 1).trim()
+						.isEmpty();
+				// non-empty StaticPokemon lists go in with the other statics
+				return key.startsWith("StaticPokemon") && !empty ? -1 : ARRAY;
+			}
+			return VALUE;
+		} else if (gen == 3) {
+			return list ? ARRAY : VALUE;
+		}
+		if (gen == 5
+				&& (key.startsWith("StarterOffsets") || key
+						.equals("StaticPokemonFormValues"))) {
+			return OFFSET_ARRAY;
+		}
+		if (list) {
+			return ARRAY;
+		}
+		if (key.endsWith("Offset") || key.endsWith("Count")
+				|| key.endsWith("Number")) {
+			return VALUE;
+		}
+		return STRING;
+	}
+
+	private static void write(File out, int gen, String iniName,
+			List<Set<String>> keys) throws IOException {
+		String className = "Gen" + gen + "Slots";
+		StringBuilder sb = new StringBuilder();
+		line(sb, "package com.dabomstew.pkrandom.constants;");
+		line(sb, "");
+		line(sb, "import java.util.HashMap;");
+		line(sb, "import java.util.Map;");
+		line(sb, "");
+		line(sb, "// Generated from " + iniName
+				+ " by RomSlotsGenerator; don't edit, rerun");
+		line(sb, "// it after adding a key to the ini. Each constant is that "
+				+ "key's index in");
+		line(sb, "// the matching table of a Gen " + gen + " ROM entry.");
+		line(sb, "public class " + className + " {");
+		for (int kind = VALUE; kind <= OFFSET_ARRAY; kind++) {
+			if (keys.get(kind).isEmpty()) {
+				continue;
+			}
+			line(sb, "");
+			line(sb, "\t// " + kindNames[kind] + "s");
+			int slot = 0;
+			for (String name : keys.get(kind)) {
+				line(sb, "\tpublic static final int " + name + " = " + slot
+						+ ";");
+				slot++;
+			}
+		}
+		for (int kind = VALUE; kind <= OFFSET_ARRAY; kind++) {
+			if (keys.get(kind).isEmpty()) {
+				continue;
+			}
+			line(sb, "");
+			StringBuilder names = new StringBuilder();
+			names.append("\tpublic static final String[] " + kindNames[kind]
+					+ "Names = {");
+			int column = width(names);
+			for (String name : keys.get(kind)) {
+				String item = " \"" + name + "\",";
+				if (column + item.length() > WIDTH) {
+					sb.append(names).append(NEWLINE);
+					names.setLength(0);
+					names.append("\t\t\t");
+					column = 3 * TAB;
+					item = item.substring(1);
+				}
+				names.append(item);
+				column += item.length();
+			}
+			names.setLength(names.length() - 1);
+			if (column + 3 > WIDTH) {
+				sb.append(names).append(NEWLINE);
+				names.setLength(0);
+				names.append("\t\t\t");
+			}
+			names.append(" };");
+			line(sb, names.toString());
+		}
+		line(sb, "");
+		line(sb, "\tprivate static final Map<String, Integer> slots;");
+		line(sb, "");
+		line(sb, "\tstatic {");
+		line(sb, "\t\tslots = new HashMap<String, Integer>();");
+		for (int kind = VALUE; kind <= OFFSET_ARRAY; kind++) {
+			if (!keys.get(kind).isEmpty()) {
+				line(sb, "\t\taddSlots(\"" + kindNames[kind] + "\", "
+						+ kindNames[kind] + "Names);");
+			}
+		}
+		line(sb, "\t}");
+		for (int kind = VALUE; kind <= OFFSET_ARRAY; kind++) {
+			if (keys.get(kind).isEmpty()) {
+				continue;
+			}
+			String kindName = kindNames[kind];
+			line(sb, "");
+			line(sb, "\t// -1 if the ini had no such " + kindName
+					+ " when this was generated");
+			line(sb, "\tpublic static int " + kindName + "Slot(String key) {");
+			line(sb, "\t\treturn slot(\"" + kindName + "\", key);");
+			line(sb, "\t}");
+		}
+		line(sb, "");
+		line(sb, "\tprivate static void addSlots(String kind, String[] names) "
+				+ "{");
+		line(sb, "\t\tfor (int i = 0; i < names.length; i++) {");
+		line(sb, "\t\t\tslots.put(kind + \":\" + names[i], i);");
+		line(sb, "\t\t}");
+		line(sb, "\t}");
+		line(sb, "");
+		line(sb, "\tprivate static int slot(String kind, String key) {");
+		line(sb, "\t\tInteger slot = slots.get(kind + \":\" + key);");
+		line(sb, "\t\treturn slot == null ? -1 : slot;");
+		line(sb, "\t}");
+		line(sb, "");
+		line(sb, "}");
+		Writer w = new OutputStreamWriter(new FileOutputStream(out), "UTF-8");
+		try {
+			w.write(sb.toString());
+		} finally {
+			w.close();
+		}
+	}
+
+	private static int width(CharSequence s) {
+		int column = 0;
+		for (int i = 0; i < s.length(); i++) {
+			column += s.charAt(i) == '\t' ? TAB : 1;
+		}
+		return column;
+	}
+
+	private static void line(StringBuilder sb, String s) {
+		sb.append(s).append(NEWLINE);
+	}
+
+}
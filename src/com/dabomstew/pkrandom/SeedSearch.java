@@ -0,0 +1,240 @@
+package com.dabomstew.pkrandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.dabomstew.pkrandom.pokemon.ItemList;
+
+// Looks for seeds whose randomized content matches a filter, using dry runs
+// so that no ROM is ever written.
+public class SeedSearch {
+
+	private static final String NEWLINE = System.getProperty("line.separator");
+
+	public interface Filter {
+		public boolean matches(RandomizationSummary summary);
+	}
+
+	public interface Listener {
+		// called from the search threads, but never by two at once
+		public void matched(Match match);
+	}
+
+	// What's kept of a seed that matched: its check value and starters, but
+	// nothing of the randomized data itself.
+	public static class Match {
+
+		private final long seed;
+		private final int checkValue;
+		private final String description;
+
+		Match(RandomizationSummary summary) {
+			this.seed = summary.getSeed();
+			this.checkValue = summary.getCheckValue();
+			this.description = summary.toString();
+		}
+
+		public long getSeed() {
+			return seed;
+		}
+
+		public int getCheckValue() {
+			return checkValue;
+		}
+
+		@Override
+		public String toString() {
+			return description;
+		}
+
+	}
+
+	private final BatchRandomizer batch;
+
+	public SeedSearch(BatchRandomizer batch) {
+		this.batch = batch;
+	}
+
+	/**
+	 * Dry-runs seeds firstSeed .. firstSeed+count-1 spread across the given
+	 * number of threads, handing each seed that matches to listener as soon
+	 * as it's found, so not in seed order. Summaries are dropped once
+	 * they've been checked. Returns how many seeds matched.
+	 */
+	public long search(final long firstSeed, final long count,
+			final Filter filter, int threads, final Listener listener)
+			throws Exception {
+		final int workers = (int) Math.max(1, Math.min(threads, count));
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		List<Future<Long>> results = new ArrayList<Future<Long>>();
+		try {
+			for (int w = 0; w < workers; w++) {
+				final int worker = w;
+				results.add(executor.submit(new Callable<Long>() {
+					@Override
+					public Long call() throws Exception {
+						long matched = 0;
+						for (long i = worker; i < count; i += workers) {
+							RandomizationSummary summary = batch
+									.dryRun(firstSeed + i);
+							if (filter.matches(summary)) {
+								Match match = new Match(summary);
+								synchronized (listener) {
+									listener.matched(match);
+								}
+								matched++;
+							}
+						}
+						return matched;
+					}
+				}));
+			}
+			long matched = 0;
+			for (Future<Long> result : results) {
+				matched += result.get();
+			}
+			return matched;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// all of the given filters must match
+	public static Filter allOf(final List<Filter> filters) {
+		return new Filter() {
+			@Override
+			public boolean matches(RandomizationSummary summary) {
+				for (Filter f : filters) {
+					if (!f.matches(summary)) {
+						return false;
+					}
+				}
+				return true;
+			}
+		};
+	}
+
+	private static void usage() {
+		System.err.println("Usage: SeedSearch (-settings <file.rnqs> | -config <string>)");
+		System.err.println("       -rom <base rom> -seed <first seed> -count <n>");
+		System.err.println("       [-threads <n>] [-items rejection|dense] [-rng legacy|staged]");
+		System.err.println("       [-cv <hex check value>]");
+		System.err.println("       [-starter <name>]... [-static <name>]... [-tm <move>]...");
+	}
+
+	public static void main(String[] args) {
+		String config = null, settingsFile = null, romFile = null;
+		long firstSeed = 0, count = 0;
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<Filter> filters = new ArrayList<Filter>();
+		ItemList.Sampling itemSampling = null;
+		RandomSource.Version rngVersion = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-settings")) {
+					settingsFile = args[++i];
+				} else if (arg.equals("-config")) {
+					config = args[++i];
+				} else if (arg.equals("-rom")) {
+					romFile = args[++i];
+				} else if (arg.equals("-seed")) {
+					firstSeed = Long.parseLong(args[++i]);
+				} else if (arg.equals("-count")) {
+					count = Long.parseLong(args[++i]);
+				} else if (arg.equals("-threads")) {
+					threads = Math.max(1, Integer.parseInt(args[++i]));
+				} else if (arg.equals("-items")) {
+					itemSampling = BatchRandomizer.parseOption(
+							ItemList.Sampling.class, args[++i]);
+					if (itemSampling == null) {
+						usage();
+						System.exit(1);
+					}
+				} else if (arg.equals("-rng")) {
+					rngVersion = BatchRandomizer.parseOption(
+							RandomSource.Version.class, args[++i]);
+					if (rngVersion == null) {
+						usage();
+						System.exit(1);
+					}
+				} else if (arg.equals("-cv")) {
+					final int cv = (int) Long.parseLong(args[++i], 16);
+					filters.add(new Filter() {
+						@Override
+						public boolean matches(RandomizationSummary summary) {
+							return summary.getCheckValue() == cv;
+						}
+					});
+				} else if (arg.equals("-starter")) {
+					final String name = args[++i];
+					filters.add(new Filter() {
+						@Override
+						public boolean matches(RandomizationSummary summary) {
+							return summary.hasStarter(name);
+						}
+					});
+				} else if (arg.equals("-static")) {
+					final String name = args[++i];
+					filters.add(new Filter() {
+						@Override
+						public boolean matches(RandomizationSummary summary) {
+							return summary.hasStaticPokemon(name);
+						}
+					});
+				} else if (arg.equals("-tm")) {
+					final String name = args[++i];
+					filters.add(new Filter() {
+						@Override
+						public boolean matches(RandomizationSummary summary) {
+							return summary.hasTMMove(name);
+						}
+					});
+				} else {
+					usage();
+					System.exit(1);
+				}
+			}
+		} catch (RuntimeException ex) {
+			usage();
+			System.exit(1);
+		}
+		if ((config == null && settingsFile == null) || romFile == null
+				|| count <= 0) {
+			usage();
+			System.exit(1);
+		}
+
+		try {
+			if (settingsFile != null) {
+				config = BatchRandomizer.readSettingsFile(settingsFile);
+			}
+			BatchRandomizer batch = new BatchRandomizer(config, romFile);
+			batch.setItemSampling(itemSampling);
+			batch.setRngVersion(rngVersion);
+			try {
+				long startTime = System.currentTimeMillis();
+				long matched = new SeedSearch(batch).search(firstSeed, count,
+						allOf(filters), threads, new Listener() {
+							@Override
+							public void matched(Match match) {
+								System.out.print(match + NEWLINE);
+								System.out.flush();
+							}
+						});
+				System.err.printf("%d of %d seeds matched in %dms" + NEWLINE,
+						matched, count, System.currentTimeMillis() - startTime);
+			} finally {
+				batch.close();
+			}
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+}
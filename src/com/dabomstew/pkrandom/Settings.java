@@ -12,6 +12,7 @@ import java.util.zip.CRC32;
 import javax.xml.bind.DatatypeConverter;
 
 import com.dabomstew.pkrandom.pokemon.GenRestrictions;
+import com.dabomstew.pkrandom.pokemon.ItemList;
 import com.dabomstew.pkrandom.pokemon.Pokemon;
 import com.dabomstew.pkrandom.romhandlers.Gen1RomHandler;
 import com.dabomstew.pkrandom.romhandlers.Gen2RomHandler;
@@ -33,6 +34,11 @@ public class Settings {
 	private boolean updatedFromOldVersion = false;
 	private GenRestrictions currentRestrictions;
 	private int currentCodeTweaks;
+	// a seed only gives the same ROM again under the RNG version it was made
+	// with, so it travels with the settings
+	private RandomSource.Version rngVersion = RandomSource.Version.LEGACY;
+	// likewise for the item picks
+	private ItemList.Sampling itemSampling = ItemList.Sampling.REJECTION;
 
 	private boolean updateTypeEffectiveness;
 	private boolean updateMoves;
@@ -344,6 +350,11 @@ public class Settings {
 			out.write(0);
 		}
 
+		// optional fields after the rom name; older strings stop at the rom
+		// name and read back with the defaults
+		out.write(rngVersion.ordinal());
+		out.write(itemSampling.ordinal());
+
 		byte[] current = out.toByteArray();
 		CRC32 checksum = new CRC32();
 		checksum.update(current);
@@ -521,6 +532,17 @@ public class Settings {
 				romNameLength, "US-ASCII");
 		settings.setRomName(romName);
 
+		int extraOffset = LENGTH_OF_SETTINGS_DATA + 1 + romNameLength;
+		int extraEnd = data.length - 16;
+		if (extraOffset < extraEnd) {
+			settings.setRngVersion(restoreOrdinal(RandomSource.Version.class,
+					data[extraOffset], "RNG version"));
+		}
+		if (extraOffset + 1 < extraEnd) {
+			settings.setItemSampling(restoreOrdinal(ItemList.Sampling.class,
+					data[extraOffset + 1], "item sampling"));
+		}
+
 		return settings;
 	}
 
@@ -727,6 +749,24 @@ public class Settings {
 		return this;
 	}
 
+	public RandomSource.Version getRngVersion() {
+		return rngVersion;
+	}
+
+	public Settings setRngVersion(RandomSource.Version rngVersion) {
+		this.rngVersion = rngVersion;
+		return this;
+	}
+
+	public ItemList.Sampling getItemSampling() {
+		return itemSampling;
+	}
+
+	public Settings setItemSampling(ItemList.Sampling itemSampling) {
+		this.itemSampling = itemSampling;
+		return this;
+	}
+
 	public boolean isUpdateTypeEffectiveness() {
 		return updateTypeEffectiveness;
 	}
@@ -1338,6 +1378,19 @@ public class Settings {
 		return getEnum(clazz, bools);
 	}
 
+	// an enum stored as its ordinal; one this version doesn't know means the
+	// settings came from a newer randomizer and can't be replayed here
+	private static <E extends Enum<E>> E restoreOrdinal(Class<E> clazz,
+			byte b, String what) {
+		E[] values = clazz.getEnumConstants();
+		int ordinal = b & 0xFF;
+		if (ordinal >= values.length) {
+			throw new IllegalArgumentException("Unknown " + what + " "
+					+ ordinal + "; the settings need a newer randomizer");
+		}
+		return values[ordinal];
+	}
+
 	@SuppressWarnings("unchecked")
 	public static <E extends Enum<E>> E getEnum(Class<E> clazz,
 			boolean... bools) {
@@ -0,0 +1,265 @@
+package com.dabomstew.pkrandom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Finds every one of a fixed set of hex signatures in a single pass over the
+// data (Aho-Corasick), instead of one RomFunctions.search per signature.
+// Matches are reported the same way RomFunctions.search reports them: in
+// order, and not overlapping other matches of the same signature.
+public class SignatureScanner {
+
+	private static final int ALPHABET = 256;
+
+	private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+	private final List<String> hexes = new ArrayList<String>();
+	private final int[] lengths;
+	// the state after reading a byte in a state: [state * 256 + byte]
+	private final int[] transitions;
+	// the signatures that end in each state, null for none
+	private final int[][] outputs;
+	// results for data that's already been scanned, by array identity
+	private final Map<byte[], Matches> scanned = Collections
+			.synchronizedMap(new WeakHashMap<byte[], Matches>());
+
+	public SignatureScanner(String... hexSignatures) {
+		List<byte[]> signatures = new ArrayList<byte[]>();
+		for (String hex : hexSignatures) {
+			String key = hex.toUpperCase();
+			if (!indexes.containsKey(key)) {
+				byte[] signature = hexToBytes(key);
+				if (signature == null || signature.length == 0) {
+					throw new IllegalArgumentException("Bad signature: " + hex);
+				}
+				indexes.put(key, signatures.size());
+				signatures.add(signature);
+				hexes.add(key);
+			}
+		}
+		lengths = new int[signatures.size()];
+		int maxStates = 1;
+		for (int i = 0; i < lengths.length; i++) {
+			lengths[i] = signatures.get(i).length;
+			maxStates += lengths[i];
+		}
+
+		// trie of the signatures, -1 for no edge
+		int[] trie = new int[maxStates * ALPHABET];
+		Arrays.fill(trie, -1);
+		List<List<Integer>> ends = new ArrayList<List<Integer>>();
+		ends.add(new ArrayList<Integer>());
+		int states = 1;
+		for (int i = 0; i < lengths.length; i++) {
+			int state = 0;
+			for (byte b : signatures.get(i)) {
+				int edge = state * ALPHABET + (b & 0xFF);
+				if (trie[edge] == -1) {
+					trie[edge] = states++;
+					ends.add(new ArrayList<Integer>());
+				}
+				state = trie[edge];
+			}
+			ends.get(state).add(i);
+		}
+
+		// breadth first, filling in failure edges so every state has a
+		// transition for every byte
+		transitions = new int[states * ALPHABET];
+		int[] fail = new int[states];
+		int[] queue = new int[states];
+		int head = 0, tail = 0;
+		for (int b = 0; b < ALPHABET; b++) {
+			int next = trie[b];
+			if (next == -1) {
+				transitions[b] = 0;
+			} else {
+				transitions[b] = next;
+				fail[next] = 0;
+				queue[tail++] = next;
+			}
+		}
+		while (head < tail) {
+			int state = queue[head++];
+			ends.get(state).addAll(ends.get(fail[state]));
+			for (int b = 0; b < ALPHABET; b++) {
+				int next = trie[state * ALPHABET + b];
+				int fallback = transitions[fail[state] * ALPHABET + b];
+				if (next == -1) {
+					transitions[state * ALPHABET + b] = fallback;
+				} else {
+					transitions[state * ALPHABET + b] = next;
+					fail[next] = fallback;
+					queue[tail++] = next;
+				}
+			}
+		}
+
+		outputs = new int[states][];
+		for (int state = 0; state < states; state++) {
+			List<Integer> stateEnds = ends.get(state);
+			if (!stateEnds.isEmpty()) {
+				outputs[state] = new int[stateEnds.size()];
+				for (int i = 0; i < stateEnds.size(); i++) {
+					outputs[state][i] = stateEnds.get(i);
+				}
+			}
+		}
+	}
+
+	// null if the string isn't whole bytes of hex
+	public static byte[] hexToBytes(String hexString) {
+		if (hexString.length() % 2 != 0) {
+			return null;
+		}
+		byte[] bytes = new byte[hexString.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) Integer.parseInt(
+					hexString.substring(i * 2, i * 2 + 2), 16);
+		}
+		return bytes;
+	}
+
+	public boolean contains(String hexString) {
+		return indexes.containsKey(hexString.toUpperCase());
+	}
+
+	/**
+	 * The signatures in data, scanning it only the first time it's asked
+	 * for. Later changes to data aren't seen, so this is for finding things
+	 * by what the ROM looked like when it was loaded.
+	 */
+	public Matches matches(byte[] data) {
+		Matches result = scanned.get(data);
+		if (result == null) {
+			result = scan(data);
+			scanned.put(data, result);
+		}
+		return result;
+	}
+
+	// copy is an unchanged copy of data, so it has the same matches
+	public void copyMatches(byte[] data, byte[] copy) {
+		Matches result = scanned.get(data);
+		if (result != null) {
+			scanned.put(copy, result);
+		}
+	}
+
+	/**
+	 * As matches(data), but for a whole ROM image whose matches are also
+	 * kept in the layout cache under layoutKind, so an image that's been
+	 * scanned before, even by an earlier run, doesn't need scanning again.
+	 */
+	public Matches matches(byte[] data, String layoutKind) {
+		Matches result = scanned.get(data);
+		if (result != null) {
+			return result;
+		}
+		RomLayoutCache cache = RomLayoutCache.getDefault();
+		if (cache == null) {
+			return matches(data);
+		}
+		RomLayoutCache.Layout layout = cache.forImage(data, layoutKind);
+		result = load(layout);
+		if (result == null) {
+			result = scan(data);
+			for (int i = 0; i < hexes.size(); i++) {
+				List<Integer> offsets = result.found.get(i);
+				int[] values = new int[offsets.size()];
+				for (int j = 0; j < values.length; j++) {
+					values[j] = offsets.get(j);
+				}
+				layout.putInts(layoutName(hexes.get(i)), values);
+			}
+			cache.save(layout);
+		}
+		scanned.put(data, result);
+		return result;
+	}
+
+	// null unless the layout has every signature
+	private Matches load(RomLayoutCache.Layout layout) {
+		List<List<Integer>> found = new ArrayList<List<Integer>>();
+		for (String hex : hexes) {
+			int[] values = layout.getInts(layoutName(hex));
+			if (values == null) {
+				return null;
+			}
+			List<Integer> offsets = new ArrayList<Integer>(values.length);
+			for (int value : values) {
+				offsets.add(value);
+			}
+			found.add(offsets);
+		}
+		return new Matches(found);
+	}
+
+	private static String layoutName(String hex) {
+		return "signature." + hex;
+	}
+
+	// always scans data as it is now
+	public Matches scan(byte[] data) {
+		List<List<Integer>> found = new ArrayList<List<Integer>>();
+		int[] nextAllowed = new int[lengths.length];
+		for (int i = 0; i < lengths.length; i++) {
+			found.add(new ArrayList<Integer>());
+		}
+		int state = 0;
+		for (int i = 0; i < data.length; i++) {
+			state = transitions[state * ALPHABET + (data[i] & 0xFF)];
+			int[] output = outputs[state];
+			if (output != null) {
+				for (int signature : output) {
+					int start = i - lengths[signature] + 1;
+					if (start >= nextAllowed[signature]) {
+						found.get(signature).add(start);
+						nextAllowed[signature] = i + 1;
+					}
+				}
+			}
+		}
+		return new Matches(found);
+	}
+
+	public class Matches {
+
+		private final List<List<Integer>> found;
+
+		private Matches(List<List<Integer>> found) {
+			this.found = found;
+		}
+
+		public boolean contains(String hexString) {
+			return SignatureScanner.this.contains(hexString);
+		}
+
+		// every offset of a signature this scanner was built with
+		public List<Integer> offsets(String hexString) {
+			Integer index = indexes.get(hexString.toUpperCase());
+			if (index == null) {
+				throw new IllegalArgumentException("Not scanned for: "
+						+ hexString);
+			}
+			return Collections.unmodifiableList(found.get(index));
+		}
+
+		// the offset, or -1 if not found or -2 if not unique
+		public int find(String hexString) {
+			List<Integer> offsets = offsets(hexString);
+			if (offsets.size() == 0) {
+				return -1;
+			} else if (offsets.size() > 1) {
+				return -2;
+			} else {
+				return offsets.get(0);
+			}
+		}
+	}
+
+}
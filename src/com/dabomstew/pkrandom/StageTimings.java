@@ -0,0 +1,157 @@
+package com.dabomstew.pkrandom;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Wall time, allocation and RNG draws for each stage of one randomization.
+// Stages are measured on the calling thread, so runs on other threads (as in
+// BatchRandomizer) don't count towards each other.
+public class StageTimings {
+
+	public static class Stage {
+		public final String name;
+		public long nanos;
+		// -1 if the JVM can't count allocations
+		public long allocatedBytes;
+		public int rngCalls;
+
+		private Stage(String name) {
+			this.name = name;
+		}
+	}
+
+	// the thread bean and its getThreadAllocatedBytes(long), on JVMs that
+	// have com.sun.management; both null elsewhere
+	private static ThreadMXBean threads;
+	private static Method allocatedBytes;
+
+	static {
+		findAllocationCounter();
+	}
+
+	private final List<Stage> stages = new ArrayList<Stage>();
+	private Stage current;
+	private long startNanos;
+	private long startBytes;
+	private int startCalls;
+
+	private static void findAllocationCounter() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		try {
+			Class<?> counter = Class.forName("com.sun.management.ThreadMXBean");
+			if (!counter.isInstance(bean)
+					|| !(Boolean) counter.getMethod(
+							"isThreadAllocatedMemorySupported").invoke(bean)) {
+				return;
+			}
+			counter.getMethod("setThreadAllocatedMemoryEnabled", boolean.class)
+					.invoke(bean, true);
+			allocatedBytes = counter.getMethod("getThreadAllocatedBytes",
+					long.class);
+			threads = bean;
+		} catch (Exception e) {
+			// no allocation counting on this JVM
+			allocatedBytes = null;
+		}
+	}
+
+	// bytes allocated so far by the calling thread, or -1 if unknown
+	public static long threadAllocatedBytes() {
+		if (threads == null) {
+			return -1;
+		}
+		try {
+			return (Long) allocatedBytes.invoke(threads, Thread.currentThread()
+					.getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	// ends the current stage, if any, and starts measuring the named one
+	public void begin(String name) {
+		end();
+		current = new Stage(name);
+		startCalls = RandomSource.callsSinceSeed();
+		startBytes = threadAllocatedBytes();
+		startNanos = System.nanoTime();
+	}
+
+	public void end() {
+		if (current == null) {
+			return;
+		}
+		current.nanos = System.nanoTime() - startNanos;
+		current.allocatedBytes = startBytes < 0 ? -1 : threadAllocatedBytes()
+				- startBytes;
+		// a stage that reseeds would otherwise go negative
+		current.rngCalls = Math.max(0, RandomSource.callsSinceSeed()
+				- startCalls);
+		stages.add(current);
+		current = null;
+	}
+
+	public List<Stage> getStages() {
+		return Collections.unmodifiableList(stages);
+	}
+
+	public long getTotalNanos() {
+		long total = 0;
+		for (Stage stage : stages) {
+			total += stage.nanos;
+		}
+		return total;
+	}
+
+	/**
+	 * {"totalMs":..,"stages":[{"name":..,"ms":..,"bytes":..,"rngCalls":..},
+	 * ...]} with the stages in the order they ran.
+	 */
+	public String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"totalMs\":").append(millis(getTotalNanos()));
+		sb.append(",\"stages\":[");
+		for (int i = 0; i < stages.size(); i++) {
+			Stage stage = stages.get(i);
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"name\":").append(jsonString(stage.name));
+			sb.append(",\"ms\":").append(millis(stage.nanos));
+			sb.append(",\"bytes\":").append(stage.allocatedBytes);
+			sb.append(",\"rngCalls\":").append(stage.rngCalls);
+			sb.append('}');
+		}
+		sb.append("]}");
+		return sb.toString();
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%d.%03d", nanos / 1000000,
+				nanos / 1000 % 1000);
+	}
+
+	public static String jsonString(String value) {
+		if (value == null) {
+			return "null";
+		}
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.dabomstew.pkrandom;
+
+import java.util.Random;
+
+// A xoshiro256** generator behind the java.util.Random interface, so it can
+// be handed to anything that takes a Random. Unlike Random it isn't
+// synchronized and has 256 bits of state, and forStream derives any number
+// of independent generators from one seed by name.
+public class StreamRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private long s0, s1, s2, s3;
+
+	public StreamRandom(long seed) {
+		super(seed);
+		setSeed(seed);
+	}
+
+	/**
+	 * The generator for the named stream of a seed. The same seed and name
+	 * always give the same sequence, and different names give sequences
+	 * that have nothing to do with each other.
+	 */
+	public static StreamRandom forStream(long seed, String name) {
+		return new StreamRandom(mix64(seed) ^ nameHash(name));
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// clears Random's saved nextGaussian
+		super.setSeed(seed);
+		// SplitMix64 fills the state, which can't then be all zero
+		long x = seed;
+		s0 = mix64(x += GOLDEN_GAMMA);
+		s1 = mix64(x += GOLDEN_GAMMA);
+		s2 = mix64(x += GOLDEN_GAMMA);
+		s3 = mix64(x += GOLDEN_GAMMA);
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	// SplitMix64's output function
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	// 64-bit FNV-1a over the name's chars
+	private static long nameHash(String name) {
+		long hash = 0xCBF29CE484222325L;
+		for (int i = 0; i < name.length(); i++) {
+			hash ^= name.charAt(i);
+			hash *= 0x100000001B3L;
+		}
+		return hash;
+	}
+
+}
@@ -0,0 +1,568 @@
+package com.dabomstew.pkrandom.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
+import com.dabomstew.pkrandom.pokemon.Encounter;
+import com.dabomstew.pkrandom.pokemon.EncounterSet;
+import com.dabomstew.pkrandom.pokemon.Evolution;
+import com.dabomstew.pkrandom.pokemon.EvolutionType;
+import com.dabomstew.pkrandom.pokemon.ExpCurve;
+import com.dabomstew.pkrandom.pokemon.IngameTrade;
+import com.dabomstew.pkrandom.pokemon.ItemList;
+import com.dabomstew.pkrandom.pokemon.Move;
+import com.dabomstew.pkrandom.pokemon.MoveLearnt;
+import com.dabomstew.pkrandom.pokemon.Pokemon;
+import com.dabomstew.pkrandom.pokemon.Trainer;
+import com.dabomstew.pkrandom.pokemon.TrainerPokemon;
+import com.dabomstew.pkrandom.pokemon.Type;
+import com.dabomstew.pkrandom.romhandlers.AbstractRomHandler;
+import com.dabomstew.pkrandom.romhandlers.RomSnapshot;
+
+// A handler with no ROM behind it. Its game data is made up from a seed,
+// in the shape and size of a Gen 5 game, so the randomizer's shared code can
+// be timed without any real ROM.
+public class FixtureRomHandler extends AbstractRomHandler {
+
+	public static final int POKEMON_COUNT = 649;
+	public static final int MOVE_COUNT = 559;
+	public static final int TM_COUNT = 95;
+	public static final int HM_COUNT = 6;
+	public static final int ITEM_COUNT = 638;
+	public static final int TRAINER_COUNT = 600;
+	public static final int AREA_COUNT = 120;
+	public static final int FIELD_ITEM_COUNT = 300;
+	public static final int FIELD_TM_COUNT = 40;
+
+	private static final int[] SPECIAL_ABILITIES = new int[] { 23, 25, 42,
+			71 };
+
+	private final Pokemon[] pokes;
+	private final List<Pokemon> pokemonList;
+	private final List<Move> moves;
+	private final List<Evolution> evolutions = new ArrayList<Evolution>();
+	private final List<Integer> tmMoves = new ArrayList<Integer>();
+	private final List<Integer> hmMoves = new ArrayList<Integer>();
+	private final long fixtureSeed;
+	private CompatibilityMatrix tmhmCompat;
+	private List<Integer> fieldItems = new ArrayList<Integer>();
+	private List<Integer> fieldTMs = new ArrayList<Integer>();
+	private final ItemList allowedItems;
+
+	/**
+	 * The same fixtureSeed always gives the same game; random drives the
+	 * randomization itself, as with a real handler.
+	 */
+	public FixtureRomHandler(Random random, long fixtureSeed) {
+		super(random);
+		this.fixtureSeed = fixtureSeed;
+		Random data = new Random(fixtureSeed);
+
+		pokes = new Pokemon[POKEMON_COUNT + 1];
+		for (int i = 1; i <= POKEMON_COUNT; i++) {
+			Pokemon pk = new Pokemon();
+			pk.number = i;
+			pk.name = "PKMN" + i;
+			pk.primaryType = randomGameType(data);
+			if (data.nextBoolean()) {
+				pk.secondaryType = randomGameType(data);
+				if (pk.secondaryType == pk.primaryType) {
+					pk.secondaryType = null;
+				}
+			}
+			pk.hp = 20 + data.nextInt(131);
+			pk.attack = 20 + data.nextInt(131);
+			pk.defense = 20 + data.nextInt(131);
+			pk.spatk = 20 + data.nextInt(131);
+			pk.spdef = 20 + data.nextInt(131);
+			pk.speed = 20 + data.nextInt(131);
+			pk.ability1 = 1 + data.nextInt(164);
+			pk.ability2 = data.nextBoolean() ? 1 + data.nextInt(164) : 0;
+			pk.ability3 = data.nextInt(50) == 0 ? SPECIAL_ABILITIES[data
+					.nextInt(SPECIAL_ABILITIES.length)] : 0;
+			pk.catchRate = 3 + data.nextInt(253);
+			pk.growthCurve = ExpCurve.MEDIUM_FAST;
+			pokes[i] = pk;
+		}
+		pokemonList = Collections.unmodifiableList(Arrays.asList(pokes));
+
+		// chains of one to three stages
+		for (int i = 1; i <= POKEMON_COUNT;) {
+			int stages = Math.min(1 + data.nextInt(3), POKEMON_COUNT - i + 1);
+			for (int s = 1; s < stages; s++) {
+				evolutions.add(new Evolution(pokes[i + s - 1], pokes[i + s],
+						true, EvolutionType.LEVEL, 16 + s * 16));
+			}
+			i += stages;
+		}
+
+		Move[] moveArray = new Move[MOVE_COUNT + 1];
+		for (int i = 1; i <= MOVE_COUNT; i++) {
+			Move mv = new Move();
+			mv.number = i;
+			mv.internalId = i;
+			mv.name = "MOVE" + i;
+			mv.type = randomGameType(data);
+			mv.power = data.nextInt(4) == 0 ? 0 : 20 + data.nextInt(131);
+			mv.pp = 5 + data.nextInt(8) * 5;
+			mv.hitratio = 70 + data.nextInt(31);
+			mv.effectIndex = data.nextInt(250);
+			moveArray[i] = mv;
+		}
+		moves = Collections.unmodifiableList(Arrays.asList(moveArray));
+
+		List<Integer> moveNumbers = new ArrayList<Integer>();
+		for (int i = 1; i <= MOVE_COUNT; i++) {
+			moveNumbers.add(i);
+		}
+		Collections.shuffle(moveNumbers, data);
+		tmMoves.addAll(moveNumbers.subList(0, TM_COUNT));
+		hmMoves.addAll(moveNumbers.subList(TM_COUNT, TM_COUNT + HM_COUNT));
+
+		tmhmCompat = new CompatibilityMatrix(pokemonList, TM_COUNT + HM_COUNT);
+		for (int i = 1; i <= POKEMON_COUNT; i++) {
+			for (int b = 0; b < (TM_COUNT + HM_COUNT + 7) / 8; b++) {
+				tmhmCompat.setByte(pokes[i], b, (byte) data.nextInt(256));
+			}
+		}
+
+		allowedItems = new ItemList(ITEM_COUNT);
+		allowedItems.banRange(428, 10);
+		allowedItems.tmRange(328, TM_COUNT);
+		for (int i = 0; i < FIELD_ITEM_COUNT; i++) {
+			int item = 1 + data.nextInt(ITEM_COUNT);
+			while (!allowedItems.isAllowed(item) || allowedItems.isTM(item)) {
+				item = 1 + data.nextInt(ITEM_COUNT);
+			}
+			fieldItems.add(item);
+		}
+		for (int i = 1; i <= FIELD_TM_COUNT; i++) {
+			fieldTMs.add(i * 2);
+		}
+	}
+
+	private static Type randomGameType(Random data) {
+		Type t = Type.randomType(data);
+		while (t.isHackOnly) {
+			t = Type.randomType(data);
+		}
+		return t;
+	}
+
+	// trainers, encounters and movesets each have a stream of their own so
+	// that they don't depend on how much of the above was generated
+	private Random tableData(int table) {
+		return new Random(fixtureSeed * 31 + table);
+	}
+
+	@Override
+	protected List<Trainer> loadTrainers() {
+		Random data = tableData(1);
+		List<Trainer> trainers = new ArrayList<Trainer>();
+		for (int i = 0; i < TRAINER_COUNT; i++) {
+			Trainer tr = new Trainer();
+			tr.offset = i;
+			tr.trainerclass = data.nextInt(100);
+			tr.name = "TRAINER" + i;
+			if (i < 24) {
+				tr.tag = "GYM" + (i / 3 + 1);
+			} else if (i < 28) {
+				tr.tag = "ELITE" + (i - 23);
+			} else if (i == 28) {
+				tr.tag = "CHAMPION";
+			} else if (i < 41) {
+				// one battle per starter
+				tr.tag = "RIVAL" + ((i - 29) / 3 + 1) + "-" + (i - 29) % 3;
+			} else if (i < 45) {
+				tr.tag = "UBER";
+			} else if (i < 60) {
+				tr.tag = "THEMED:TRAINER" + i;
+			}
+			int level = 5 + i * 70 / TRAINER_COUNT;
+			int count = 1 + data.nextInt(6);
+			for (int p = 0; p < count; p++) {
+				TrainerPokemon tp = new TrainerPokemon();
+				tp.pokemon = pokes[1 + data.nextInt(POKEMON_COUNT)];
+				tp.level = level + data.nextInt(5);
+				tr.pokemon.add(tp);
+			}
+			trainers.add(tr);
+		}
+		return trainers;
+	}
+
+	@Override
+	protected void saveTrainers(List<Trainer> trainerData) {
+		// nothing to write
+	}
+
+	@Override
+	protected List<EncounterSet> loadEncounters(boolean useTimeOfDay) {
+		Random data = tableData(2);
+		List<EncounterSet> areas = new ArrayList<EncounterSet>();
+		for (int i = 0; i < AREA_COUNT; i++) {
+			EncounterSet area = new EncounterSet();
+			area.displayName = "AREA" + i;
+			area.rate = 10;
+			area.offset = i;
+			area.battleTrappersBanned = data.nextInt(10) == 0;
+			int level = 2 + i * 60 / AREA_COUNT;
+			for (int e = 0; e < 12; e++) {
+				Encounter enc = new Encounter();
+				enc.level = level + data.nextInt(4);
+				enc.pokemon = pokes[1 + data.nextInt(POKEMON_COUNT)];
+				area.encounters.add(enc);
+			}
+			areas.add(area);
+		}
+		return areas;
+	}
+
+	@Override
+	protected void saveEncounters(boolean useTimeOfDay,
+			List<EncounterSet> encounters) {
+		// nothing to write
+	}
+
+	@Override
+	protected Map<Pokemon, List<MoveLearnt>> loadMovesLearnt() {
+		Random data = tableData(3);
+		Map<Pokemon, List<MoveLearnt>> movesets = new TreeMap<Pokemon, List<MoveLearnt>>();
+		for (int i = 1; i <= POKEMON_COUNT; i++) {
+			List<MoveLearnt> learnt = new ArrayList<MoveLearnt>();
+			int count = 8 + data.nextInt(9);
+			int level = 1;
+			for (int m = 0; m < count; m++) {
+				MoveLearnt ml = new MoveLearnt();
+				ml.move = 1 + data.nextInt(MOVE_COUNT);
+				ml.level = level;
+				if (m > 0) {
+					level += 1 + data.nextInt(6);
+				}
+				learnt.add(ml);
+			}
+			movesets.put(pokes[i], learnt);
+		}
+		return movesets;
+	}
+
+	@Override
+	protected void saveMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+		// nothing to write
+	}
+
+	@Override
+	public List<Pokemon> getPokemon() {
+		return pokemonList;
+	}
+
+	@Override
+	public List<Evolution> getEvolutions() {
+		return evolutions;
+	}
+
+	@Override
+	public void setEvolutions(List<Evolution> evos) {
+		evolutions.clear();
+		evolutions.addAll(evos);
+		evolutionsChanged();
+	}
+
+	@Override
+	public void removeEvosForPokemonPool() {
+	}
+
+	@Override
+	public void removeTradeEvolutions(boolean changeMoveEvos) {
+	}
+
+	@Override
+	public List<Move> getMoves() {
+		return moves;
+	}
+
+	@Override
+	public List<Integer> getTMMoves() {
+		return tmMoves;
+	}
+
+	@Override
+	public List<Integer> getHMMoves() {
+		return hmMoves;
+	}
+
+	@Override
+	public void setTMMoves(List<Integer> moveIndexes) {
+		tmMoves.clear();
+		tmMoves.addAll(moveIndexes);
+	}
+
+	@Override
+	public int getTMCount() {
+		return TM_COUNT;
+	}
+
+	@Override
+	public int getHMCount() {
+		return HM_COUNT;
+	}
+
+	@Override
+	public CompatibilityMatrix getTMHMCompatibility() {
+		return tmhmCompat;
+	}
+
+	@Override
+	public void setTMHMCompatibility(CompatibilityMatrix compatData) {
+		tmhmCompat = compatData;
+	}
+
+	@Override
+	public List<Integer> getEarlyRequiredHMMoves() {
+		return hmMoves.subList(0, 1);
+	}
+
+	@Override
+	public List<Integer> getFieldMoves() {
+		return hmMoves;
+	}
+
+	@Override
+	public boolean hasMoveTutors() {
+		return false;
+	}
+
+	@Override
+	public List<Integer> getMoveTutorMoves() {
+		return new ArrayList<Integer>();
+	}
+
+	@Override
+	public void setMoveTutorMoves(List<Integer> moves) {
+	}
+
+	@Override
+	public CompatibilityMatrix getMoveTutorCompatibility() {
+		return CompatibilityMatrix.empty();
+	}
+
+	@Override
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData) {
+	}
+
+	@Override
+	public ItemList getAllowedItems() {
+		return allowedItems;
+	}
+
+	@Override
+	public ItemList getNonBadItems() {
+		return allowedItems;
+	}
+
+	@Override
+	public List<Integer> getRegularFieldItems() {
+		return fieldItems;
+	}
+
+	@Override
+	public void setRegularFieldItems(List<Integer> items) {
+		fieldItems = items;
+	}
+
+	@Override
+	public List<Integer> getCurrentFieldTMs() {
+		return fieldTMs;
+	}
+
+	@Override
+	public List<Integer> getRequiredFieldTMs() {
+		return fieldTMs.subList(0, 5);
+	}
+
+	@Override
+	public void setFieldTMs(List<Integer> fieldTMs) {
+		this.fieldTMs = fieldTMs;
+	}
+
+	@Override
+	public List<Pokemon> getStarters() {
+		return Arrays.asList(pokes[1], pokes[4], pokes[7]);
+	}
+
+	@Override
+	public boolean setStarters(List<Pokemon> newStarters) {
+		return true;
+	}
+
+	@Override
+	public List<Integer> getStarterHeldItems() {
+		return new ArrayList<Integer>();
+	}
+
+	@Override
+	public void setStarterHeldItems(List<Integer> items) {
+	}
+
+	@Override
+	public boolean canChangeStaticPokemon() {
+		return false;
+	}
+
+	@Override
+	public List<Pokemon> getStaticPokemon() {
+		return new ArrayList<Pokemon>();
+	}
+
+	@Override
+	public boolean setStaticPokemon(List<Pokemon> staticPokemon) {
+		return false;
+	}
+
+	@Override
+	public List<IngameTrade> getIngameTrades() {
+		return new ArrayList<IngameTrade>();
+	}
+
+	@Override
+	public void setIngameTrades(List<IngameTrade> trades) {
+	}
+
+	@Override
+	public List<String> getTrainerNames() {
+		return new ArrayList<String>();
+	}
+
+	@Override
+	public void setTrainerNames(List<String> trainerNames) {
+	}
+
+	@Override
+	public TrainerNameMode trainerNameMode() {
+		return TrainerNameMode.MAX_LENGTH;
+	}
+
+	@Override
+	public List<Integer> getTCNameLengthsByTrainer() {
+		return new ArrayList<Integer>();
+	}
+
+	@Override
+	public List<String> getTrainerClassNames() {
+		return new ArrayList<String>();
+	}
+
+	@Override
+	public void setTrainerClassNames(List<String> trainerClassNames) {
+	}
+
+	@Override
+	public boolean fixedTrainerClassNamesLength() {
+		return false;
+	}
+
+	@Override
+	public String[] getItemNames() {
+		return new String[ITEM_COUNT + 1];
+	}
+
+	@Override
+	public void shufflePokemonStats() {
+	}
+
+	@Override
+	public boolean hasDVs() {
+		return false;
+	}
+
+	@Override
+	public boolean supportsFourStartingMoves() {
+		return true;
+	}
+
+	@Override
+	public int abilitiesPerPokemon() {
+		return 3;
+	}
+
+	@Override
+	public int highestAbilityIndex() {
+		return 164;
+	}
+
+	@Override
+	public int generationOfPokemon() {
+		return 5;
+	}
+
+	@Override
+	public int getGen() {
+		return 5;
+	}
+
+	@Override
+	public int internalStringLength(String string) {
+		return string.length();
+	}
+
+	@Override
+	public void applySignature() {
+	}
+
+	@Override
+	public boolean loadRom(String filename) {
+		return false;
+	}
+
+	@Override
+	public RomSnapshot snapshotRom(String filename) {
+		return null;
+	}
+
+	@Override
+	public boolean loadRom(RomSnapshot snapshot) {
+		return false;
+	}
+
+	@Override
+	public boolean saveRom(String filename) {
+		return false;
+	}
+
+	@Override
+	public boolean savePatch(String filename) {
+		return false;
+	}
+
+	@Override
+	public String loadedFilename() {
+		return "fixture";
+	}
+
+	@Override
+	public String getDefaultExtension() {
+		return "nds";
+	}
+
+	@Override
+	public String getROMName() {
+		return "Fixture";
+	}
+
+	@Override
+	public String getROMCode() {
+		return "FIXT";
+	}
+
+	@Override
+	public String getSupportLevel() {
+		return "None";
+	}
+
+}
@@ -0,0 +1,262 @@
+package com.dabomstew.pkrandom.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.dabomstew.pkrandom.StageTimings;
+import com.dabomstew.pkrandom.romhandlers.RomHandler;
+
+// Times the randomizer's shared hot paths against FixtureRomHandler, so
+// changes to the pickers can be compared without a ROM.
+// Every operation gets a freshly generated game and its own seed; only the
+// randomization call itself is timed.
+public class HotPathBenchmark {
+
+	private static final String NEWLINE = System.getProperty("line.separator");
+
+	public static abstract class Case {
+		public final String name;
+
+		public Case(String name) {
+			this.name = name;
+		}
+
+		public abstract void run(RomHandler romHandler);
+	}
+
+	public static class Result {
+		public final String name;
+		public final int ops;
+		public final long totalNanos;
+		// -1 if the JVM can't count allocations
+		public final long totalBytes;
+
+		private Result(String name, int ops, long totalNanos, long totalBytes) {
+			this.name = name;
+			this.ops = ops;
+			this.totalNanos = totalNanos;
+			this.totalBytes = totalBytes;
+		}
+
+		public double opsPerSecond() {
+			return ops * 1e9 / totalNanos;
+		}
+
+		public double nanosPerOp() {
+			return (double) totalNanos / ops;
+		}
+
+		public double bytesPerOp() {
+			return totalBytes < 0 ? -1 : (double) totalBytes / ops;
+		}
+
+		// MB allocated per second of randomization
+		public double allocationRate() {
+			return totalBytes < 0 ? -1 : totalBytes * 1e9 / totalNanos
+					/ (1024 * 1024);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-32s %10.1f ops/s %12.0f ns/op %12.0f B/op %8.1f MB/s",
+					name, opsPerSecond(), nanosPerOp(), bytesPerOp(),
+					allocationRate());
+		}
+	}
+
+	private final long fixtureSeed;
+
+	public HotPathBenchmark(long fixtureSeed) {
+		this.fixtureSeed = fixtureSeed;
+	}
+
+	public static List<Case> defaultCases() {
+		List<Case> cases = new ArrayList<Case>();
+		cases.add(new Case("randomizeMovesLearnt") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizeMovesLearnt(false, true, true);
+			}
+		});
+		cases.add(new Case("randomizeMovesLearnt typed") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizeMovesLearnt(true, true, true);
+			}
+		});
+		cases.add(new Case("randomizeTrainerPokes") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizeTrainerPokes(true, false, false, true);
+			}
+		});
+		cases.add(new Case("randomizeTrainerPokes power") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizeTrainerPokes(true, true, false, true);
+			}
+		});
+		cases.add(new Case("typeThemeTrainerPokes") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.typeThemeTrainerPokes(true, false, true, false,
+						true);
+			}
+		});
+		cases.add(new Case("typeThemeTrainerPokes power") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.typeThemeTrainerPokes(true, true, false, false,
+						true);
+			}
+		});
+		cases.add(new Case("randomEncounters random") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomEncounters(false, false, false, false, false);
+			}
+		});
+		cases.add(new Case("randomEncounters catchEmAll") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomEncounters(false, true, false, false, false);
+			}
+		});
+		cases.add(new Case("randomEncounters typeThemed") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomEncounters(false, false, true, false, false);
+			}
+		});
+		cases.add(new Case("randomEncounters power") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomEncounters(false, false, false, true, false);
+			}
+		});
+		cases.add(new Case("area1to1Encounters catchEmAll") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.area1to1Encounters(false, true, false, false, false);
+			}
+		});
+		cases.add(new Case("area1to1Encounters typeThemed") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.area1to1Encounters(false, false, true, false, false);
+			}
+		});
+		cases.add(new Case("area1to1Encounters power") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.area1to1Encounters(false, false, false, true, false);
+			}
+		});
+		cases.add(new Case("game1to1Encounters") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.game1to1Encounters(false, false, false);
+			}
+		});
+		cases.add(new Case("game1to1Encounters power") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.game1to1Encounters(false, true, false);
+			}
+		});
+		cases.add(new Case("randomizePokemonStats") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizePokemonStats(true);
+			}
+		});
+		cases.add(new Case("randomizeTMHMCompatibility") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizeTMHMCompatibility(true);
+			}
+		});
+		cases.add(new Case("randomizeFieldItems") {
+			@Override
+			public void run(RomHandler romHandler) {
+				romHandler.randomizeFieldItems(true);
+			}
+		});
+		return cases;
+	}
+
+	// a loaded game, as a handler would have it right after loadRom
+	public RomHandler newHandler(long seed) {
+		RomHandler romHandler = new FixtureRomHandler(new Random(seed),
+				fixtureSeed);
+		romHandler.setPokemonPool(null);
+		romHandler.getTrainers();
+		romHandler.getEncounters(false);
+		romHandler.getMovesLearnt();
+		return romHandler;
+	}
+
+	public Result measure(Case c, int warmupOps, int ops) {
+		for (int i = 0; i < warmupOps; i++) {
+			c.run(newHandler(-1 - i));
+		}
+		boolean countAllocations = StageTimings.threadAllocatedBytes() >= 0;
+		long totalNanos = 0;
+		long totalBytes = countAllocations ? 0 : -1;
+		for (int i = 0; i < ops; i++) {
+			RomHandler romHandler = newHandler(i);
+			long bytesBefore = StageTimings.threadAllocatedBytes();
+			long start = System.nanoTime();
+			c.run(romHandler);
+			totalNanos += System.nanoTime() - start;
+			if (countAllocations) {
+				totalBytes += StageTimings.threadAllocatedBytes() - bytesBefore;
+			}
+		}
+		return new Result(c.name, ops, totalNanos, totalBytes);
+	}
+
+	private static void usage() {
+		System.err.println("Usage: HotPathBenchmark [-warmup <ops>] [-ops <ops>]");
+		System.err.println("       [-fixture <seed>] [-only <case name prefix>]...");
+	}
+
+	public static void main(String[] args) {
+		int warmupOps = 50, ops = 200;
+		long fixtureSeed = 1;
+		List<String> only = new ArrayList<String>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-warmup")) {
+					warmupOps = Integer.parseInt(args[++i]);
+				} else if (arg.equals("-ops")) {
+					ops = Math.max(1, Integer.parseInt(args[++i]));
+				} else if (arg.equals("-fixture")) {
+					fixtureSeed = Long.parseLong(args[++i]);
+				} else if (arg.equals("-only")) {
+					only.add(args[++i]);
+				} else {
+					usage();
+					System.exit(1);
+				}
+			}
+		} catch (RuntimeException ex) {
+			usage();
+			System.exit(1);
+		}
+
+		HotPathBenchmark benchmark = new HotPathBenchmark(fixtureSeed);
+		for (Case c : defaultCases()) {
+			boolean wanted = only.isEmpty();
+			for (String prefix : only) {
+				wanted |= c.name.startsWith(prefix);
+			}
+			if (wanted) {
+				System.out.print(benchmark.measure(c, warmupOps, ops) + NEWLINE);
+			}
+		}
+	}
+
+}
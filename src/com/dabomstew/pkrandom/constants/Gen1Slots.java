@@ -0,0 +1,116 @@
+package com.dabomstew.pkrandom.constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Generated from gen1_offsets.ini by RomSlotsGenerator; don't edit, rerun
+// it after adding a key to the ini. Each constant is that key's index in
+// the matching table of a Gen 1 ROM entry.
+public class Gen1Slots {
+
+	// values
+	public static final int CanChangeStarterText = 0;
+	public static final int CanChangeTrainerText = 1;
+	public static final int CopyStaticPokemon = 2;
+	public static final int CopyTMText = 3;
+	public static final int ExtraTrainerMovesTableOffset = 4;
+	public static final int GoodRodOffset = 5;
+	public static final int GymLeaderMovesTableOffset = 6;
+	public static final int HiddenItemRoutine = 7;
+	public static final int InternalPokemonCount = 8;
+	public static final int IntroCryOffset = 9;
+	public static final int IntroPokemonOffset = 10;
+	public static final int ItemNamesOffset = 11;
+	public static final int MapAddresses = 12;
+	public static final int MapBanks = 13;
+	public static final int MapNameTableOffset = 14;
+	public static final int MewStatsOffset = 15;
+	public static final int MoveCount = 16;
+	public static final int MoveDataOffset = 17;
+	public static final int MoveNamesOffset = 18;
+	public static final int OldRodOffset = 19;
+	public static final int PatchPokedex = 20;
+	public static final int PokedexOrder = 21;
+	public static final int PokedexRamOffset = 22;
+	public static final int PokemonMovesetsDataSize = 23;
+	public static final int PokemonMovesetsExtraSpaceOffset = 24;
+	public static final int PokemonMovesetsTableOffset = 25;
+	public static final int PokemonNamesLength = 26;
+	public static final int PokemonNamesOffset = 27;
+	public static final int PokemonStatsOffset = 28;
+	public static final int SpecialMapList = 29;
+	public static final int SpecialMapPointerTable = 30;
+	public static final int StarterPokedexBranchOffset = 31;
+	public static final int StarterPokedexOffOffset = 32;
+	public static final int StarterPokedexOnOffset = 33;
+	public static final int StaticPokemonSupport = 34;
+	public static final int SuperRodTableOffset = 35;
+	public static final int TMMovesOffset = 36;
+	public static final int TextDelayFunctionOffset = 37;
+	public static final int TradeNameLength = 38;
+	public static final int TradeTableOffset = 39;
+	public static final int TradeTableSize = 40;
+	public static final int TrainerDataTableOffset = 41;
+	public static final int TypeEffectivenessOffset = 42;
+	public static final int WildPokemonTableOffset = 43;
+
+	// arrays
+	public static final int StarterOffsets1 = 0;
+	public static final int StarterOffsets2 = 1;
+	public static final int StarterOffsets3 = 2;
+	public static final int TradesUnused = 3;
+	public static final int TrainerClassNamesOffsets = 4;
+	public static final int TrainerDataClassCounts = 5;
+
+	public static final String[] valueNames = { "CanChangeStarterText",
+			"CanChangeTrainerText", "CopyStaticPokemon", "CopyTMText",
+			"ExtraTrainerMovesTableOffset", "GoodRodOffset",
+			"GymLeaderMovesTableOffset", "HiddenItemRoutine",
+			"InternalPokemonCount", "IntroCryOffset", "IntroPokemonOffset",
+			"ItemNamesOffset", "MapAddresses", "MapBanks", "MapNameTableOffset",
+			"MewStatsOffset", "MoveCount", "MoveDataOffset", "MoveNamesOffset",
+			"OldRodOffset", "PatchPokedex", "PokedexOrder", "PokedexRamOffset",
+			"PokemonMovesetsDataSize", "PokemonMovesetsExtraSpaceOffset",
+			"PokemonMovesetsTableOffset", "PokemonNamesLength",
+			"PokemonNamesOffset", "PokemonStatsOffset", "SpecialMapList",
+			"SpecialMapPointerTable", "StarterPokedexBranchOffset",
+			"StarterPokedexOffOffset", "StarterPokedexOnOffset",
+			"StaticPokemonSupport", "SuperRodTableOffset", "TMMovesOffset",
+			"TextDelayFunctionOffset", "TradeNameLength", "TradeTableOffset",
+			"TradeTableSize", "TrainerDataTableOffset",
+			"TypeEffectivenessOffset", "WildPokemonTableOffset" };
+
+	public static final String[] arrayNames = { "StarterOffsets1",
+			"StarterOffsets2", "StarterOffsets3", "TradesUnused",
+			"TrainerClassNamesOffsets", "TrainerDataClassCounts" };
+
+	private static final Map<String, Integer> slots;
+
+	static {
+		slots = new HashMap<String, Integer>();
+		addSlots("value", valueNames);
+		addSlots("array", arrayNames);
+	}
+
+	// -1 if the ini had no such value when this was generated
+	public static int valueSlot(String key) {
+		return slot("value", key);
+	}
+
+	// -1 if the ini had no such array when this was generated
+	public static int arraySlot(String key) {
+		return slot("array", key);
+	}
+
+	private static void addSlots(String kind, String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			slots.put(kind + ":" + names[i], i);
+		}
+	}
+
+	private static int slot(String kind, String key) {
+		Integer slot = slots.get(kind + ":" + key);
+		return slot == null ? -1 : slot;
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.dabomstew.pkrandom.constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Generated from gen2_offsets.ini by RomSlotsGenerator; don't edit, rerun
+// it after adding a key to the ini. Each constant is that key's index in
+// the matching table of a Gen 2 ROM entry.
+public class Gen2Slots {
+
+	// values
+	public static final int BCCWildsOffset = 0;
+	public static final int CanChangeStarterText = 1;
+	public static final int CanChangeTrainerText = 2;
+	public static final int CopyStaticPokemon = 3;
+	public static final int CopyTMText = 4;
+	public static final int FishingWildsOffset = 5;
+	public static final int FleeingDataOffset = 6;
+	public static final int GameCornerPokemonNameLength = 7;
+	public static final int HeadbuttTableSize = 8;
+	public static final int HeadbuttWildsOffset = 9;
+	public static final int IntroCryOffset = 10;
+	public static final int IntroSpriteOffset = 11;
+	public static final int ItemNamesOffset = 12;
+	public static final int LandmarkCount = 13;
+	public static final int LandmarkTableOffset = 14;
+	public static final int MapHeaders = 15;
+	public static final int MoveDataOffset = 16;
+	public static final int MoveNamesOffset = 17;
+	public static final int MoveTutorMenuNewSpace = 18;
+	public static final int MoveTutorMenuOffset = 19;
+	public static final int PokemonMovesetsTableOffset = 20;
+	public static final int PokemonNamesLength = 21;
+	public static final int PokemonNamesOffset = 22;
+	public static final int PokemonStatsOffset = 23;
+	public static final int StaticPokemonSupport = 24;
+	public static final int SupportsFourStartingMoves = 25;
+	public static final int TMMovesOffset = 26;
+	public static final int TextDelayFunctionOffset = 27;
+	public static final int TradeNameLength = 28;
+	public static final int TradeOTLength = 29;
+	public static final int TradeTableOffset = 30;
+	public static final int TradeTableSize = 31;
+	public static final int TrainerClassAmount = 32;
+	public static final int TrainerClassNamesOffset = 33;
+	public static final int TrainerDataTableOffset = 34;
+	public static final int WildPokemonOffset = 35;
+
+	// arrays
+	public static final int MoveTutorMoves = 0;
+	public static final int StarterHeldItems = 1;
+	public static final int StarterOffsets1 = 2;
+	public static final int StarterOffsets2 = 3;
+	public static final int StarterOffsets3 = 4;
+	public static final int TradesUnused = 5;
+	public static final int TrainerDataClassCounts = 6;
+
+	public static final String[] valueNames = { "BCCWildsOffset",
+			"CanChangeStarterText", "CanChangeTrainerText", "CopyStaticPokemon",
+			"CopyTMText", "FishingWildsOffset", "FleeingDataOffset",
+			"GameCornerPokemonNameLength", "HeadbuttTableSize",
+			"HeadbuttWildsOffset", "IntroCryOffset", "IntroSpriteOffset",
+			"ItemNamesOffset", "LandmarkCount", "LandmarkTableOffset",
+			"MapHeaders", "MoveDataOffset", "MoveNamesOffset",
+			"MoveTutorMenuNewSpace", "MoveTutorMenuOffset",
+			"PokemonMovesetsTableOffset", "PokemonNamesLength",
+			"PokemonNamesOffset", "PokemonStatsOffset", "StaticPokemonSupport",
+			"SupportsFourStartingMoves", "TMMovesOffset",
+			"TextDelayFunctionOffset", "TradeNameLength", "TradeOTLength",
+			"TradeTableOffset", "TradeTableSize", "TrainerClassAmount",
+			"TrainerClassNamesOffset", "TrainerDataTableOffset",
+			"WildPokemonOffset" };
+
+	public static final String[] arrayNames = { "MoveTutorMoves",
+			"StarterHeldItems", "StarterOffsets1", "StarterOffsets2",
+			"StarterOffsets3", "TradesUnused", "TrainerDataClassCounts" };
+
+	private static final Map<String, Integer> slots;
+
+	static {
+		slots = new HashMap<String, Integer>();
+		addSlots("value", valueNames);
+		addSlots("array", arrayNames);
+	}
+
+	// -1 if the ini had no such value when this was generated
+	public static int valueSlot(String key) {
+		return slot("value", key);
+	}
+
+	// -1 if the ini had no such array when this was generated
+	public static int arraySlot(String key) {
+		return slot("array", key);
+	}
+
+	private static void addSlots(String kind, String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			slots.put(kind + ":" + names[i], i);
+		}
+	}
+
+	private static int slot(String kind, String key) {
+		Integer slot = slots.get(kind + ":" + key);
+		return slot == null ? -1 : slot;
+	}
+
+}
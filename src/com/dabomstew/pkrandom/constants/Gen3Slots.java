@@ -0,0 +1,113 @@
+package com.dabomstew.pkrandom.constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Generated from gen3_offsets.ini by RomSlotsGenerator; don't edit, rerun
+// it after adding a key to the ini. Each constant is that key's index in
+// the matching table of a Gen 3 ROM entry.
+public class Gen3Slots {
+
+	// values
+	public static final int AbilityNameLength = 0;
+	public static final int AbilityNames = 1;
+	public static final int CopyTMText = 2;
+	public static final int FreeSpace = 3;
+	public static final int IntroCryOffset = 4;
+	public static final int IntroOtherOffset = 5;
+	public static final int IntroPaletteOffset = 6;
+	public static final int IntroSpriteOffset = 7;
+	public static final int ItemBallPic = 8;
+	public static final int ItemCount = 9;
+	public static final int ItemData = 10;
+	public static final int ItemEntrySize = 11;
+	public static final int ItemImages = 12;
+	public static final int MapBankCount = 13;
+	public static final int MapHeaders = 14;
+	public static final int MapLabels = 15;
+	public static final int MoveData = 16;
+	public static final int MoveDescriptions = 17;
+	public static final int MoveNameLength = 18;
+	public static final int MoveNames = 19;
+	public static final int MoveTutorData = 20;
+	public static final int MoveTutorMoves = 21;
+	public static final int PokemonEvolutions = 22;
+	public static final int PokemonFrontSprites = 23;
+	public static final int PokemonMovesets = 24;
+	public static final int PokemonNameLength = 25;
+	public static final int PokemonNames = 26;
+	public static final int PokemonNormalPalettes = 27;
+	public static final int PokemonStats = 28;
+	public static final int PokemonTMHMCompat = 29;
+	public static final int RunIndoorsTweakOffset = 30;
+	public static final int StarterItems = 31;
+	public static final int StarterPokemon = 32;
+	public static final int StaticPokemonSupport = 33;
+	public static final int TmMoves = 34;
+	public static final int TmMovesDuplicate = 35;
+	public static final int TradeTableOffset = 36;
+	public static final int TradeTableSize = 37;
+	public static final int TrainerClassCount = 38;
+	public static final int TrainerClassNameLength = 39;
+	public static final int TrainerClassNames = 40;
+	public static final int TrainerCount = 41;
+	public static final int TrainerData = 42;
+	public static final int TrainerEntrySize = 43;
+	public static final int TrainerNameLength = 44;
+	public static final int WildPokemon = 45;
+
+	// arrays
+	public static final int BattleTrappersBanned = 0;
+	public static final int MapBankSizes = 1;
+	public static final int TmPals = 2;
+	public static final int TradesUnused = 3;
+
+	public static final String[] valueNames = { "AbilityNameLength",
+			"AbilityNames", "CopyTMText", "FreeSpace", "IntroCryOffset",
+			"IntroOtherOffset", "IntroPaletteOffset", "IntroSpriteOffset",
+			"ItemBallPic", "ItemCount", "ItemData", "ItemEntrySize",
+			"ItemImages", "MapBankCount", "MapHeaders", "MapLabels", "MoveData",
+			"MoveDescriptions", "MoveNameLength", "MoveNames", "MoveTutorData",
+			"MoveTutorMoves", "PokemonEvolutions", "PokemonFrontSprites",
+			"PokemonMovesets", "PokemonNameLength", "PokemonNames",
+			"PokemonNormalPalettes", "PokemonStats", "PokemonTMHMCompat",
+			"RunIndoorsTweakOffset", "StarterItems", "StarterPokemon",
+			"StaticPokemonSupport", "TmMoves", "TmMovesDuplicate",
+			"TradeTableOffset", "TradeTableSize", "TrainerClassCount",
+			"TrainerClassNameLength", "TrainerClassNames", "TrainerCount",
+			"TrainerData", "TrainerEntrySize", "TrainerNameLength",
+			"WildPokemon" };
+
+	public static final String[] arrayNames = { "BattleTrappersBanned",
+			"MapBankSizes", "TmPals", "TradesUnused" };
+
+	private static final Map<String, Integer> slots;
+
+	static {
+		slots = new HashMap<String, Integer>();
+		addSlots("value", valueNames);
+		addSlots("array", arrayNames);
+	}
+
+	// -1 if the ini had no such value when this was generated
+	public static int valueSlot(String key) {
+		return slot("value", key);
+	}
+
+	// -1 if the ini had no such array when this was generated
+	public static int arraySlot(String key) {
+		return slot("array", key);
+	}
+
+	private static void addSlots(String kind, String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			slots.put(kind + ":" + names[i], i);
+		}
+	}
+
+	private static int slot(String kind, String key) {
+		Integer slot = slots.get(kind + ":" + key);
+		return slot == null ? -1 : slot;
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.dabomstew.pkrandom.constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Generated from gen4_offsets.ini by RomSlotsGenerator; don't edit, rerun
+// it after adding a key to the ini. Each constant is that key's index in
+// the matching table of a Gen 4 ROM entry.
+public class Gen4Slots {
+
+	// values
+	public static final int AbilityNamesTextOffset = 0;
+	public static final int FossilTableOffset = 1;
+	public static final int FossilTableOvlNumber = 2;
+	public static final int HiddenItemCount = 3;
+	public static final int HiddenItemTableOffset = 4;
+	public static final int IngameTradesTextOffset = 5;
+	public static final int ItemBallsScriptOffset = 6;
+	public static final int ItemDescriptionsTextOffset = 7;
+	public static final int ItemNamesTextOffset = 8;
+	public static final int MoveDescriptionsTextOffset = 9;
+	public static final int MoveNamesTextOffset = 10;
+	public static final int MoveTutorBytesCount = 11;
+	public static final int MoveTutorCompatBytesCount = 12;
+	public static final int MoveTutorCompatOffset = 13;
+	public static final int MoveTutorCompatOvlNumber = 14;
+	public static final int MoveTutorCount = 15;
+	public static final int MoveTutorMovesOffset = 16;
+	public static final int MoveTutorMovesOvlNumber = 17;
+	public static final int MysteryEggOffset = 18;
+	public static final int PokedexSpeciesTextOffset = 19;
+	public static final int PokemonNamesTextOffset = 20;
+	public static final int StarterLocationTextOffset = 21;
+	public static final int StarterPokemonOffset = 22;
+	public static final int StarterPokemonOvlNumber = 23;
+	public static final int StarterScreenTextOffset = 24;
+	public static final int TrainerClassesTextOffset = 25;
+	public static final int TrainerNamesTextOffset = 26;
+
+	// strings
+	public static final int BabyPokemon = 0;
+	public static final int Events = 1;
+	public static final int HasExtraPokemonNames = 2;
+	public static final int InGameTrades = 3;
+	public static final int MoveData = 4;
+	public static final int MoveTutorCompat = 5;
+	public static final int MoveTutorCompatBytes = 6;
+	public static final int PokemonEvolutions = 7;
+	public static final int PokemonMovesets = 8;
+	public static final int PokemonStats = 9;
+	public static final int Scripts = 10;
+	public static final int Text = 11;
+	public static final int TrainerData = 12;
+	public static final int TrainerPokemon = 13;
+	public static final int WildPokemon = 14;
+
+	// arrays
+	public static final int IngameTradePersonTextOffsets = 0;
+	public static final int ItemBallsSkip = 1;
+	public static final int StaticPokemonTrades = 2;
+
+	public static final String[] valueNames = { "AbilityNamesTextOffset",
+			"FossilTableOffset", "FossilTableOvlNumber", "HiddenItemCount",
+			"HiddenItemTableOffset", "IngameTradesTextOffset",
+			"ItemBallsScriptOffset", "ItemDescriptionsTextOffset",
+			"ItemNamesTextOffset", "MoveDescriptionsTextOffset",
+			"MoveNamesTextOffset", "MoveTutorBytesCount",
+			"MoveTutorCompatBytesCount", "MoveTutorCompatOffset",
+			"MoveTutorCompatOvlNumber", "MoveTutorCount",
+			"MoveTutorMovesOffset", "MoveTutorMovesOvlNumber",
+			"MysteryEggOffset", "PokedexSpeciesTextOffset",
+			"PokemonNamesTextOffset", "StarterLocationTextOffset",
+			"StarterPokemonOffset", "StarterPokemonOvlNumber",
+			"StarterScreenTextOffset", "TrainerClassesTextOffset",
+			"TrainerNamesTextOffset" };
+
+	public static final String[] stringNames = { "BabyPokemon", "Events",
+			"HasExtraPokemonNames", "InGameTrades", "MoveData",
+			"MoveTutorCompat", "MoveTutorCompatBytes", "PokemonEvolutions",
+			"PokemonMovesets", "PokemonStats", "Scripts", "Text", "TrainerData",
+			"TrainerPokemon", "WildPokemon" };
+
+	public static final String[] arrayNames = { "IngameTradePersonTextOffsets",
+			"ItemBallsSkip", "StaticPokemonTrades" };
+
+	private static final Map<String, Integer> slots;
+
+	static {
+		slots = new HashMap<String, Integer>();
+		addSlots("value", valueNames);
+		addSlots("string", stringNames);
+		addSlots("array", arrayNames);
+	}
+
+	// -1 if the ini had no such value when this was generated
+	public static int valueSlot(String key) {
+		return slot("value", key);
+	}
+
+	// -1 if the ini had no such string when this was generated
+	public static int stringSlot(String key) {
+		return slot("string", key);
+	}
+
+	// -1 if the ini had no such array when this was generated
+	public static int arraySlot(String key) {
+		return slot("array", key);
+	}
+
+	private static void addSlots(String kind, String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			slots.put(kind + ":" + names[i], i);
+		}
+	}
+
+	private static int slot(String kind, String key) {
+		Integer slot = slots.get(kind + ":" + key);
+		return slot == null ? -1 : slot;
+	}
+
+}
@@ -0,0 +1,123 @@
+package com.dabomstew.pkrandom.constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Generated from gen5_offsets.ini by RomSlotsGenerator; don't edit, rerun
+// it after adding a key to the ini. Each constant is that key's index in
+// the matching table of a Gen 5 ROM entry.
+public class Gen5Slots {
+
+	// values
+	public static final int AbilityNamesTextOffset = 0;
+	public static final int HiddenItemsScriptOffset = 1;
+	public static final int IngameTradesTextOffset = 2;
+	public static final int ItemBallsScriptOffset = 3;
+	public static final int ItemDescriptionsTextOffset = 4;
+	public static final int ItemNamesTextOffset = 5;
+	public static final int MoveDescriptionsTextOffset = 6;
+	public static final int MoveNamesTextOffset = 7;
+	public static final int MoveTutorDataOffset = 8;
+	public static final int MoveTutorOvlNumber = 9;
+	public static final int PokedexGivenFileOffset = 10;
+	public static final int PokemonNamesTextOffset = 11;
+	public static final int StarterLocationTextOffset = 12;
+	public static final int TrainerClassesTextOffset = 13;
+	public static final int TrainerMugshotsTextOffset = 14;
+	public static final int TrainerNamesTextOffset = 15;
+
+	// strings
+	public static final int BabyPokemon = 0;
+	public static final int DriftveilPokemon = 1;
+	public static final int HabitatList = 2;
+	public static final int HiddenHollows = 3;
+	public static final int InGameTrades = 4;
+	public static final int MoveData = 5;
+	public static final int PokemonAreaData = 6;
+	public static final int PokemonEvolutions = 7;
+	public static final int PokemonGraphics = 8;
+	public static final int PokemonMovesets = 9;
+	public static final int PokemonStats = 10;
+	public static final int Scripts = 11;
+	public static final int StarterGraphics = 12;
+	public static final int TextStory = 13;
+	public static final int TextStrings = 14;
+	public static final int TrainerData = 15;
+	public static final int TrainerPokemon = 16;
+	public static final int WildPokemon = 17;
+
+	// arrays
+	public static final int HiddenItemsSkip = 0;
+	public static final int ItemBallsSkip = 1;
+	public static final int TradesUnused = 2;
+
+	// offsetArrays
+	public static final int StarterOffsets1 = 0;
+	public static final int StarterOffsets2 = 1;
+	public static final int StarterOffsets3 = 2;
+	public static final int StaticPokemonFormValues = 3;
+
+	public static final String[] valueNames = { "AbilityNamesTextOffset",
+			"HiddenItemsScriptOffset", "IngameTradesTextOffset",
+			"ItemBallsScriptOffset", "ItemDescriptionsTextOffset",
+			"ItemNamesTextOffset", "MoveDescriptionsTextOffset",
+			"MoveNamesTextOffset", "MoveTutorDataOffset", "MoveTutorOvlNumber",
+			"PokedexGivenFileOffset", "PokemonNamesTextOffset",
+			"StarterLocationTextOffset", "TrainerClassesTextOffset",
+			"TrainerMugshotsTextOffset", "TrainerNamesTextOffset" };
+
+	public static final String[] stringNames = { "BabyPokemon",
+			"DriftveilPokemon", "HabitatList", "HiddenHollows", "InGameTrades",
+			"MoveData", "PokemonAreaData", "PokemonEvolutions",
+			"PokemonGraphics", "PokemonMovesets", "PokemonStats", "Scripts",
+			"StarterGraphics", "TextStory", "TextStrings", "TrainerData",
+			"TrainerPokemon", "WildPokemon" };
+
+	public static final String[] arrayNames = { "HiddenItemsSkip",
+			"ItemBallsSkip", "TradesUnused" };
+
+	public static final String[] offsetArrayNames = { "StarterOffsets1",
+			"StarterOffsets2", "StarterOffsets3", "StaticPokemonFormValues" };
+
+	private static final Map<String, Integer> slots;
+
+	static {
+		slots = new HashMap<String, Integer>();
+		addSlots("value", valueNames);
+		addSlots("string", stringNames);
+		addSlots("array", arrayNames);
+		addSlots("offsetArray", offsetArrayNames);
+	}
+
+	// -1 if the ini had no such value when this was generated
+	public static int valueSlot(String key) {
+		return slot("value", key);
+	}
+
+	// -1 if the ini had no such string when this was generated
+	public static int stringSlot(String key) {
+		return slot("string", key);
+	}
+
+	// -1 if the ini had no such array when this was generated
+	public static int arraySlot(String key) {
+		return slot("array", key);
+	}
+
+	// -1 if the ini had no such offsetArray when this was generated
+	public static int offsetArraySlot(String key) {
+		return slot("offsetArray", key);
+	}
+
+	private static void addSlots(String kind, String[] names) {
+		for (int i = 0; i < names.length; i++) {
+			slots.put(kind + ":" + names[i], i);
+		}
+	}
+
+	private static int slot(String kind, String key) {
+		Integer slot = slots.get(kind + ":" + key);
+		return slot == null ? -1 : slot;
+	}
+
+}
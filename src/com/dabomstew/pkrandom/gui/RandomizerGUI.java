@@ -56,6 +56,7 @@ import com.dabomstew.pkrandom.Randomizer;
 import com.dabomstew.pkrandom.Settings;
 import com.dabomstew.pkrandom.Utils;
 import com.dabomstew.pkrandom.pokemon.GenRestrictions;
+import com.dabomstew.pkrandom.pokemon.ItemList;
 import com.dabomstew.pkrandom.pokemon.Pokemon;
 import com.dabomstew.pkrandom.romhandlers.AbstractDSRomHandler;
 import com.dabomstew.pkrandom.romhandlers.Gen1RomHandler;
@@ -86,6 +87,10 @@ public class RandomizerGUI extends javax.swing.JFrame {
 	private boolean presetMode;
 	private GenRestrictions currentRestrictions;
 	private int currentCodeTweaks;
+	// kept from loaded settings so a preset's seed replays under its version
+	// and item sampling
+	private RandomSource.Version rngVersion = RandomSource.Version.LEGACY;
+	private ItemList.Sampling itemSampling = ItemList.Sampling.REJECTION;
 
 	private static String rootPath = "./";
 
@@ -308,12 +313,22 @@ public class RandomizerGUI extends javax.swing.JFrame {
 		}
 	}
 
+	// lets go of the loaded rom, deleting any files a DS rom spilled to disk
+	private void closeRom() {
+		if (this.romHandler instanceof AbstractDSRomHandler) {
+			((AbstractDSRomHandler) this.romHandler).discardInnerRom();
+		}
+		this.romHandler = null;
+	}
+
 	// form initial state
 
 	private void initialiseState() {
 		this.romHandler = null;
 		this.currentRestrictions = null;
 		this.currentCodeTweaks = 0;
+		this.rngVersion = RandomSource.Version.LEGACY;
+		this.itemSampling = ItemList.Sampling.REJECTION;
 		updateCodeTweaksButtonText();
 		initialFormState();
 		this.romOpenChooser.setCurrentDirectory(new File(rootPath));
@@ -589,6 +604,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
 
 			for (RomHandler.Factory rhf : checkHandlers) {
 				if (rhf.isLoadable(fh.getAbsolutePath())) {
+					closeRom();
 					this.romHandler = rhf.create(RandomSource.instance());
 					opDialog = new OperationDialog(
 							bundle.getString("RandomizerGUI.loadingText"),
@@ -658,6 +674,8 @@ public class RandomizerGUI extends javax.swing.JFrame {
 		try {
 			this.currentRestrictions = null;
 			this.currentCodeTweaks = 0;
+			this.rngVersion = RandomSource.Version.LEGACY;
+			this.itemSampling = ItemList.Sampling.REJECTION;
 			updateCodeTweaksButtonText();
 			this.riRomNameLabel.setText(this.romHandler.getROMName());
 			this.riRomCodeLabel.setText(this.romHandler.getROMCode());
@@ -1374,6 +1392,8 @@ public class RandomizerGUI extends javax.swing.JFrame {
 		}
 		this.currentCodeTweaks = settings.getCurrentCodeTweaks();
 		updateCodeTweaksButtonText();
+		this.rngVersion = settings.getRngVersion();
+		this.itemSampling = settings.getItemSampling();
 
 		this.enableOrDisableSubControls();
 	}
@@ -1488,6 +1508,8 @@ public class RandomizerGUI extends javax.swing.JFrame {
 
 		settings.setCurrentRestrictions(currentRestrictions);
 		settings.setCurrentCodeTweaks(currentCodeTweaks);
+		settings.setRngVersion(rngVersion);
+		settings.setItemSampling(itemSampling);
 
 		settings.setTrainerNames(trainerNames);
 		settings.setTrainerClasses(trainerClasses);
@@ -1603,7 +1625,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
 											RandomizerGUI.this,
 											bundle.getString("RandomizerGUI.randomizationDone"));
 									// Done
-									RandomizerGUI.this.romHandler = null;
+									closeRom();
 									initialFormState();
 								} else {
 									// Compile a config string
@@ -1613,7 +1635,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
 											seed, configString);
 
 									// Done
-									RandomizerGUI.this.romHandler = null;
+									closeRom();
 									initialFormState();
 								}
 							}
@@ -1624,7 +1646,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
 							public void run() {
 								RandomizerGUI.this.opDialog.setVisible(false);
 								verboseLog = System.out;
-								RandomizerGUI.this.romHandler = null;
+								closeRom();
 								initialFormState();
 							}
 						});
@@ -1661,6 +1683,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
 			// Apply it
 			long seed = pld.getSeed();
 			String config = pld.getConfigString();
+			closeRom();
 			this.romHandler = pld.getROM();
 			this.romLoaded();
 			Settings settings;
@@ -1671,7 +1694,7 @@ public class RandomizerGUI extends javax.swing.JFrame {
 			} catch (UnsupportedEncodingException e) {
 				// settings load failed
 				// TODO better handling of this
-				this.romHandler = null;
+				closeRom();
 				initialFormState();
 			}
 			romSaveChooser.setSelectedFile(null);
@@ -1701,12 +1724,12 @@ public class RandomizerGUI extends javax.swing.JFrame {
 							pld.getTrainerClasses(), pld.getTrainerNames(),
 							pld.getNicknames());
 				} else {
-					this.romHandler = null;
+					closeRom();
 					initialFormState();
 				}
 
 			} else {
-				this.romHandler = null;
+				closeRom();
 				initialFormState();
 			}
 		}
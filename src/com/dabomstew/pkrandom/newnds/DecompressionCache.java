@@ -0,0 +1,230 @@
+package com.dabomstew.pkrandom.newnds;
+
+/*----------------------------------------------------------------------------*/
+/*--  DecompressionCache.java - decompressed arm9 and overlay images,       --*/
+/*--                            keyed by the compressed data and file ID.   --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class DecompressionCache {
+
+	private static DecompressionCache defaultCache;
+	private static boolean defaultCacheLoaded = false;
+
+	// Files and entries are named by the compressed data's CRC32 and length,
+	// and hold its SHA-1 and the decompressed length, which have to match
+	// before an image is used.
+	private static final int DIGEST_LENGTH = 20;
+	private static final int HEADER_LENGTH = DIGEST_LENGTH + 4;
+
+	// least recently used first
+	private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<String, Entry>(
+			16, 0.75f, true);
+	private final long memoryLimit;
+	private long memoryUsed = 0;
+	// null to keep everything in memory only
+	private final File directory;
+
+	public DecompressionCache(File directory, long memoryLimit) {
+		this.directory = directory;
+		this.memoryLimit = memoryLimit;
+		if (directory != null) {
+			directory.mkdirs();
+		}
+	}
+
+	/**
+	 * The cache NDS roms use: in memory, holding up to pkrandom.blzcache.limit
+	 * megabytes (default 64), and also on disk if pkrandom.blzcache.dir is
+	 * set. Setting pkrandom.blzcache to "off" turns it off, in which case
+	 * this returns null.
+	 */
+	public static synchronized DecompressionCache getDefault() {
+		if (!defaultCacheLoaded) {
+			defaultCacheLoaded = true;
+			if (!System.getProperty("pkrandom.blzcache", "on")
+					.equalsIgnoreCase("off")) {
+				String dir = System.getProperty("pkrandom.blzcache.dir");
+				long limit = Long.getLong("pkrandom.blzcache.limit", 64);
+				defaultCache = new DecompressionCache(dir == null ? null
+						: new File(dir), limit * 1024 * 1024);
+			}
+		}
+		return defaultCache;
+	}
+
+	// Returns a fresh copy of the image compressed was decompressed to, or
+	// null if there isn't one.
+	public byte[] get(byte[] compressed, int fileID) {
+		String key = key(compressed, fileID);
+		byte[] digest = digest(compressed);
+		synchronized (this) {
+			Entry entry = memory.get(key);
+			if (entry != null && Arrays.equals(entry.digest, digest)) {
+				return copy(entry.data);
+			}
+		}
+		if (directory == null) {
+			return null;
+		}
+		byte[] data = readFile(new File(directory, key), digest);
+		if (data != null) {
+			remember(key, new Entry(digest, copy(data)));
+		}
+		return data;
+	}
+
+	// Caches a copy of data as what compressed decompresses to.
+	public void put(byte[] compressed, int fileID, byte[] data) {
+		String key = key(compressed, fileID);
+		byte[] digest = digest(compressed);
+		remember(key, new Entry(digest, copy(data)));
+		if (directory != null) {
+			writeFile(key, digest, data);
+		}
+	}
+
+	public synchronized void clear() {
+		memory.clear();
+		memoryUsed = 0;
+	}
+
+	private synchronized void remember(String key, Entry entry) {
+		Entry old = memory.put(key, entry);
+		if (old != null) {
+			memoryUsed -= old.data.length;
+		}
+		memoryUsed += entry.data.length;
+		Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+		while (memoryUsed > memoryLimit && it.hasNext()) {
+			Map.Entry<String, Entry> eldest = it.next();
+			memoryUsed -= eldest.getValue().data.length;
+			it.remove();
+		}
+	}
+
+	private static String key(byte[] compressed, int fileID) {
+		CRC32 crc = new CRC32();
+		crc.update(compressed);
+		return String.format("%08X_%X_%s.bin", crc.getValue(),
+				compressed.length, fileID < 0 ? "arm9" : String.valueOf(fileID));
+	}
+
+	private static byte[] digest(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			// every JVM has SHA-1
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte[] copy(byte[] data) {
+		byte[] copy = new byte[data.length];
+		System.arraycopy(data, 0, copy, 0, data.length);
+		return copy;
+	}
+
+	// null unless the file is whole and was written for data with digest
+	private static byte[] readFile(File file, byte[] digest) {
+		if (!file.isFile() || file.length() < HEADER_LENGTH) {
+			return null;
+		}
+		try {
+			FileInputStream fis = new FileInputStream(file);
+			try {
+				byte[] contents = new byte[(int) file.length()];
+				int read = 0;
+				while (read < contents.length) {
+					int n = fis.read(contents, read, contents.length - read);
+					if (n < 0) {
+						return null;
+					}
+					read += n;
+				}
+				for (int i = 0; i < DIGEST_LENGTH; i++) {
+					if (contents[i] != digest[i]) {
+						return null;
+					}
+				}
+				int length = ((contents[DIGEST_LENGTH] & 0xFF) << 24)
+						| ((contents[DIGEST_LENGTH + 1] & 0xFF) << 16)
+						| ((contents[DIGEST_LENGTH + 2] & 0xFF) << 8)
+						| (contents[DIGEST_LENGTH + 3] & 0xFF);
+				if (length != contents.length - HEADER_LENGTH) {
+					return null;
+				}
+				return Arrays.copyOfRange(contents, HEADER_LENGTH,
+						contents.length);
+			} finally {
+				fis.close();
+			}
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	// written under a temporary name first so that a reader never sees half
+	// a file; failing to write just means it isn't cached
+	private void writeFile(String key, byte[] digest, byte[] data) {
+		File target = new File(directory, key);
+		try {
+			File tmp = File.createTempFile(key, ".tmp", directory);
+			FileOutputStream fos = new FileOutputStream(tmp);
+			try {
+				fos.write(digest);
+				fos.write(new byte[] { (byte) (data.length >>> 24),
+						(byte) (data.length >>> 16), (byte) (data.length >>> 8),
+						(byte) data.length });
+				fos.write(data);
+			} finally {
+				fos.close();
+			}
+			if (!tmp.renameTo(target)) {
+				tmp.delete();
+			}
+		} catch (IOException e) {
+			// not cached
+		}
+	}
+
+	private static class Entry {
+		private final byte[] digest;
+		private final byte[] data;
+
+		private Entry(byte[] digest, byte[] data) {
+			this.digest = digest;
+			this.data = data;
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.dabomstew.pkrandom.newnds;
+
+/*----------------------------------------------------------------------------*/
+/*--  HeapOverrideStore.java - keeps extracted NDS files on the Java heap.  --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeapOverrideStore implements OverrideStore {
+
+	private Map<Integer, byte[]> contents = new HashMap<Integer, byte[]>();
+
+	@Override
+	public void put(int key, byte[] data) {
+		byte[] old = contents.get(key);
+		if (old != null && old.length == data.length) {
+			// copy new in
+			System.arraycopy(data, 0, old, 0, data.length);
+		} else {
+			byte[] copy = new byte[data.length];
+			System.arraycopy(data, 0, copy, 0, data.length);
+			contents.put(key, copy);
+		}
+	}
+
+	@Override
+	public byte[] get(int key) {
+		byte[] data = contents.get(key);
+		if (data == null) {
+			return null;
+		}
+		byte[] copy = new byte[data.length];
+		System.arraycopy(data, 0, copy, 0, data.length);
+		return copy;
+	}
+
+	@Override
+	public boolean contains(int key) {
+		return contents.containsKey(key);
+	}
+
+	public void remove(int key) {
+		contents.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		contents.clear();
+	}
+
+	@Override
+	public OverrideStore newStore() {
+		return new HeapOverrideStore();
+	}
+
+}
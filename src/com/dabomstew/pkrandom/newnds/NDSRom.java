@@ -1,19 +1,21 @@
 package com.dabomstew.pkrandom.newnds;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import com.dabomstew.pkrandom.BPSPatchWriter;
 import com.dabomstew.pkrandom.RomFunctions;
-import com.dabomstew.pkrandom.gui.RandomizerGUI;
+import com.dabomstew.pkrandom.RomLayoutCache;
 
 import cuecompressors.BLZCoder;
+import cuecompressors.BLZEncoder;
 
 /*----------------------------------------------------------------------------*/
 /*--  NDSRom.java - base class for opening/saving ROMs                      --*/
@@ -40,99 +42,221 @@ public class NDSRom {
 
 	private String romCode;
 	private String romFilename;
-	private RandomAccessFile baseRom;
+	// read-only mapping of the whole base ROM
+	private ByteBuffer romData;
 	private boolean romOpen;
 	private Map<String, NDSFile> files;
 	private Map<Integer, NDSFile> filesByID;
 	private Map<Integer, NDSY9Entry> arm9overlaysByFileID;
 	private NDSY9Entry[] arm9overlays;
 	private byte[] fat;
-	private String tmpFolder;
-	private boolean writingEnabled;
+	private OverrideStore store;
 	private boolean arm9_open, arm9_changed, arm9_has_footer;
 	private boolean arm9_compressed;
 	private int arm9_szmode, arm9_szoffset;
 	private byte[] arm9_footer;
-	private byte[] arm9_ramstored;
 
 	private static final int arm9_align = 0x1FF, arm7_align = 0x1FF;
 	private static final int fnt_align = 0x1FF, fat_align = 0x1FF;
 	private static final int banner_align = 0x1FF, file_align = 0x1FF;
 
+	// store key for the arm9 binary, which has no file ID of its own
+	private static final int ARM9_KEY = -1;
+
 	public NDSRom(String filename) throws IOException {
+		this(filename, defaultStore());
+	}
+
+	public NDSRom(String filename, OverrideStore store) throws IOException {
 		this.romFilename = filename;
-		this.baseRom = new RandomAccessFile(filename, "r");
-		this.romOpen = true;
-		// TMP folder?
-		String rawFilename = new File(filename).getName();
-		String dataFolder = "tmp_"
-				+ rawFilename.substring(0, rawFilename.lastIndexOf('.'));
-		// remove nonsensical chars
-		dataFolder = dataFolder.replaceAll("[^A-Za-z0-9_]+", "");
-		File tmpFolder = new File(RandomizerGUI.getRootPath() + dataFolder);
-		tmpFolder.mkdir();
-		if (tmpFolder.canWrite()) {
-			writingEnabled = true;
-			this.tmpFolder = RandomizerGUI.getRootPath() + dataFolder
-					+ File.separator;
-			tmpFolder.deleteOnExit();
+		this.store = store;
+		mapROM();
+		readFileSystem();
+		arm9_open = false;
+		arm9_changed = false;
+	}
+
+	/**
+	 * The store used when none is given: on the heap unless the
+	 * pkrandom.ndsstore system property says "offheap", or "spill" to move
+	 * files to temporary files once pkrandom.ndsstore.limit megabytes
+	 * (default 64) are held in memory.
+	 */
+	public static OverrideStore defaultStore() {
+		String kind = System.getProperty("pkrandom.ndsstore", "heap");
+		if (kind.equalsIgnoreCase("offheap")) {
+			return new OffHeapOverrideStore();
+		} else if (kind.equalsIgnoreCase("spill")) {
+			long limit = Long.getLong("pkrandom.ndsstore.limit", 64);
+			return new SpillingOverrideStore(limit * 1024 * 1024);
 		} else {
-			writingEnabled = false;
+			return new HeapOverrideStore();
+		}
+	}
+
+	// working copy sharing the already-parsed file system of another rom
+	private NDSRom(NDSRom base) {
+		this.romCode = base.romCode;
+		this.romFilename = base.romFilename;
+		// the mapping is read-only, so it can be shared too
+		this.romData = base.romData;
+		this.romOpen = base.romData != null;
+		// the FAT is only ever read, so it can be shared
+		this.fat = base.fat;
+		this.store = base.store.newStore();
+		this.files = new HashMap<String, NDSFile>();
+		this.filesByID = new HashMap<Integer, NDSFile>();
+		for (NDSFile baseFile : base.filesByID.values()) {
+			NDSFile nf = baseFile.copyFor(this);
+			files.put(nf.fullPath, nf);
+			filesByID.put(nf.fileID, nf);
+		}
+		this.arm9overlays = new NDSY9Entry[base.arm9overlays.length];
+		this.arm9overlaysByFileID = new HashMap<Integer, NDSY9Entry>();
+		for (int i = 0; i < arm9overlays.length; i++) {
+			NDSY9Entry overlay = base.arm9overlays[i].copyFor(this);
+			arm9overlays[i] = overlay;
+			arm9overlaysByFileID.put(overlay.fileID, overlay);
 		}
-		readFileSystem();
 		arm9_open = false;
 		arm9_changed = false;
-		arm9_ramstored = null;
+	}
+
+	/**
+	 * Creates a fresh working copy of this ROM without re-reading its file
+	 * system. The copy shares the read-only mapping of the ROM file, so
+	 * several copies can be read and saved at the same time.
+	 */
+	public NDSRom fork() {
+		return new NDSRom(this);
+	}
+
+	private void mapROM() throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(this.romFilename, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			// the mapping stays valid after the channel is closed
+			this.romData = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			raf.close();
+		}
+		this.romOpen = true;
 	}
 
 	public void reopenROM() throws IOException {
 		if (!this.romOpen) {
-			this.baseRom = new RandomAccessFile(this.romFilename, "r");
-			this.romOpen = true;
+			mapROM();
 		}
 	}
 
+	// Drops this rom's reference to the mapping; the mapping itself goes
+	// away once no fork is using it any more.
 	public void closeROM() throws IOException {
-		if (this.romOpen && this.baseRom != null) {
-			this.baseRom.close();
-			this.baseRom = null;
+		if (this.romOpen) {
+			this.romData = null;
 			this.romOpen = false;
 		}
 	}
 
+	// Done with this rom for good: drops the mapping and deletes anything its
+	// store moved out to disk.
+	public void discard() {
+		this.romData = null;
+		this.romOpen = false;
+		store.clear();
+	}
+
 	private void readFileSystem() throws IOException {
 		// read rom code
-		baseRom.seek(0x0C);
-		byte[] sig = new byte[4];
-		baseRom.read(sig);
+		byte[] sig = readROMBytes(0x0C, 4);
 		this.romCode = new String(sig, "US-ASCII");
-		
-		baseRom.seek(0x40);
-		int fntOffset = readFromFile(baseRom, 4);
-		readFromFile(baseRom, 4); // fntSize not needed
-		int fatOffset = readFromFile(baseRom, 4);
-		int fatSize = readFromFile(baseRom, 4);
+
+		int fntOffset = readFromROM(0x40, 4);
+		int fntSize = readFromROM(0x44, 4);
+		int fatOffset = readFromROM(0x48, 4);
+		int fatSize = readFromROM(0x4C, 4);
 
 		// Read full FAT table
-		baseRom.seek(fatOffset);
-		fat = new byte[fatSize];
-		baseRom.readFully(fat);
+		fat = readROMBytes(fatOffset, fatSize);
 
-		Map<Integer, String> directoryPaths = new HashMap<Integer, String>();
-		directoryPaths.put(0xF000, "");
-		int dircount = readFromFile(baseRom, fntOffset + 0x6, 2);
 		files = new HashMap<String, NDSFile>();
 		filesByID = new HashMap<Integer, NDSFile>();
 
+		// parse files
+		Map<Integer, String> filenames = readFilenames(fntOffset, fntSize);
+		for (int fileID : filenames.keySet()) {
+			String fullFilename = filenames.get(fileID);
+			NDSFile nf = new NDSFile(this);
+			int start = readFromByteArr(fat, fileID * 8, 4);
+			int end = readFromByteArr(fat, fileID * 8 + 4, 4);
+			nf.offset = start;
+			nf.size = end - start;
+			nf.fullPath = fullFilename;
+			nf.fileID = fileID;
+			files.put(fullFilename, nf);
+			filesByID.put(fileID, nf);
+		}
+
+		readOverlayTable();
+	}
+
+	/**
+	 * Full path of every file by file ID. The FNT only changes along with
+	 * its checksum, so this is taken from the layout cache when the same
+	 * table has been read before.
+	 */
+	private Map<Integer, String> readFilenames(int fntOffset, int fntSize)
+			throws IOException {
+		RomLayoutCache cache = RomLayoutCache.getDefault();
+		RomLayoutCache.Layout layout = null;
+		// the checksum is only worth anything if it covers the whole table
+		if (cache != null && fntSize > 0) {
+			byte[] fnt = readROMBytes(fntOffset, fntSize);
+			layout = cache.get(fnt, "ndsfnt");
+			int[] fileIDs = layout.getInts("FileIDs");
+			String[] paths = layout.getStrings("FilePaths");
+			if (fileIDs != null && paths != null
+					&& fileIDs.length == paths.length) {
+				Map<Integer, String> filenames = new TreeMap<Integer, String>();
+				for (int i = 0; i < fileIDs.length; i++) {
+					filenames.put(fileIDs[i], paths[i]);
+				}
+				return filenames;
+			}
+		}
+		Map<Integer, String> filenames = parseFilenames(fntOffset);
+		if (layout != null) {
+			int[] fileIDs = new int[filenames.size()];
+			String[] paths = new String[filenames.size()];
+			int i = 0;
+			for (Map.Entry<Integer, String> entry : filenames.entrySet()) {
+				fileIDs[i] = entry.getKey();
+				paths[i] = entry.getValue();
+				i++;
+			}
+			layout.putInts("FileIDs", fileIDs);
+			layout.putStrings("FilePaths", paths);
+			cache.save(layout);
+		}
+		return filenames;
+	}
+
+	private Map<Integer, String> parseFilenames(int fntOffset)
+			throws IOException {
+		Map<Integer, String> directoryPaths = new HashMap<Integer, String>();
+		directoryPaths.put(0xF000, "");
+		int dircount = readFromROM(fntOffset + 0x6, 2);
+
 		// read fnt table
-		baseRom.seek(fntOffset);
 		int[] subTableOffsets = new int[dircount];
 		int[] firstFileIDs = new int[dircount];
 		int[] parentDirIDs = new int[dircount];
 		for (int i = 0; i < dircount && i < 0x1000; i++) {
-			subTableOffsets[i] = readFromFile(baseRom, 4) + fntOffset;
-			firstFileIDs[i] = readFromFile(baseRom, 2);
-			parentDirIDs[i] = readFromFile(baseRom, 2);
+			int entryOffset = fntOffset + i * 8;
+			subTableOffsets[i] = readFromROM(entryOffset, 4) + fntOffset;
+			firstFileIDs[i] = readFromROM(entryOffset + 4, 2);
+			parentDirIDs[i] = readFromROM(entryOffset + 6, 2);
 		}
 
 		// get dirnames
@@ -169,7 +293,7 @@ public class NDSRom {
 			}
 		}
 
-		// parse files
+		Map<Integer, String> fullFilenames = new TreeMap<Integer, String>();
 		for (int fileID : filenames.keySet()) {
 			String filename = filenames.get(fileID);
 			int directory = fileDirectories.get(fileID);
@@ -178,26 +302,20 @@ public class NDSRom {
 			if (!dirPath.isEmpty()) {
 				fullFilename = dirPath + "/" + filename;
 			}
-			NDSFile nf = new NDSFile(this);
-			int start = readFromByteArr(fat, fileID * 8, 4);
-			int end = readFromByteArr(fat, fileID * 8 + 4, 4);
-			nf.offset = start;
-			nf.size = end - start;
-			nf.fullPath = fullFilename;
-			nf.fileID = fileID;
-			files.put(fullFilename, nf);
-			filesByID.put(fileID, nf);
+			fullFilenames.put(fileID, fullFilename);
 		}
+		return fullFilenames;
+	}
 
+	private void readOverlayTable() throws IOException {
 		// arm9 overlays
-		int arm9_ovl_table_offset = readFromFile(baseRom, 0x50, 4);
-		int arm9_ovl_table_size = readFromFile(baseRom, 0x54, 4);
+		int arm9_ovl_table_offset = readFromROM(0x50, 4);
+		int arm9_ovl_table_size = readFromROM(0x54, 4);
 		int arm9_ovl_count = arm9_ovl_table_size / 32;
-		byte[] y9table = new byte[arm9_ovl_table_size];
+		byte[] y9table = readROMBytes(arm9_ovl_table_offset,
+				arm9_ovl_table_size);
 		arm9overlays = new NDSY9Entry[arm9_ovl_count];
 		arm9overlaysByFileID = new HashMap<Integer, NDSY9Entry>();
-		baseRom.seek(arm9_ovl_table_offset);
-		baseRom.readFully(y9table);
 
 		// parse overlays
 		for (int i = 0; i < arm9_ovl_count; i++) {
@@ -227,22 +345,105 @@ public class NDSRom {
 
 		// Initialise new ROM
 		RandomAccessFile fNew = new RandomAccessFile(filename, "rw");
+		RandomAccessFile fOld = new RandomAccessFile(this.romFilename, "r");
+		try {
+			fNew.setLength(0);
+			writeROM(new ChannelOutput(fOld.getChannel(), fNew.getChannel()));
+		} finally {
+			fOld.close();
+			fNew.close();
+		}
+		closeROM();
+	}
+
+	// Writes a BPS patch from this rom's original file to what saveTo would
+	// produce, without building the new image.
+	public void savePatchTo(String filename) throws IOException {
+		this.reopenROM();
+		BPSPatchWriter patch = new BPSPatchWriter(romData);
+		int targetSize = writeROM(new PatchOutput(patch));
+		FileOutputStream fos = new FileOutputStream(filename);
+		try {
+			fos.write(patch.build(targetSize));
+		} finally {
+			fos.close();
+		}
+		closeROM();
+	}
+
+	// Where writeROM sends the new rom's contents
+	private interface RomOutput {
+		// an unchanged region of the original rom, returns its length
+		public int copy(long from, long to, int bytes) throws IOException;
+
+		// new data that takes the place of oldBytes at from in the original
+		// rom (from < 0 if there was nothing), returns its length
+		public int write(long to, byte[] data, long from, int oldBytes)
+				throws IOException;
+	}
+
+	private static class ChannelOutput implements RomOutput {
+		private final FileChannel in, out;
+
+		private ChannelOutput(FileChannel in, FileChannel out) {
+			this.in = in;
+			this.out = out;
+		}
+
+		@Override
+		public int copy(long from, long to, int bytes) throws IOException {
+			return transfer(in, from, out, to, bytes);
+		}
+
+		@Override
+		public int write(long to, byte[] data, long from, int oldBytes)
+				throws IOException {
+			return NDSRom.write(out, to, data);
+		}
+	}
+
+	private static class PatchOutput implements RomOutput {
+		private final BPSPatchWriter patch;
+
+		private PatchOutput(BPSPatchWriter patch) {
+			this.patch = patch;
+		}
+
+		@Override
+		public int copy(long from, long to, int bytes) {
+			patch.copy(to, from, bytes);
+			return bytes;
+		}
+
+		@Override
+		public int write(long to, byte[] data, long from, int oldBytes) {
+			if (from < 0) {
+				patch.write(to, data);
+			} else {
+				patch.write(to, data, from, oldBytes);
+			}
+			return data.length;
+		}
+	}
 
-		int headersize = readFromFile(this.baseRom, 0x84, 4);
-		this.baseRom.seek(0);
-		copy(this.baseRom, fNew, headersize);
+	// Unchanged regions are copied from the old file; the header, FAT and y9
+	// table are built in memory and written once. Returns the new rom's size.
+	private int writeROM(RomOutput out) throws IOException {
+		int headersize = readFromROM(0x84, 4);
+		byte[] header = readROMBytes(0, headersize);
+		int pos = headersize;
 
 		// arm9
-		int arm9_offset = ((int) (fNew.getFilePointer() + arm9_align))
-				& (~arm9_align);
-		int old_arm9_offset = readFromFile(this.baseRom, 0x20, 4);
-		int arm9_size = readFromFile(this.baseRom, 0x2C, 4);
+		int arm9_offset = (pos + arm9_align) & (~arm9_align);
+		int old_arm9_offset = readFromROM(0x20, 4);
+		int arm9_size = readFromROM(0x2C, 4);
+		int old_arm9_size = arm9_size;
 		if (arm9_open && arm9_changed) {
 			// custom arm9
 			byte[] newARM9 = getARM9();
 			if (arm9_compressed) {
-				newARM9 = new BLZCoder(null).BLZ_EncodePub(newARM9, true,
-						false, "arm9.bin");
+				newARM9 = new BLZEncoder(BLZEncoder.defaultLevel()).encode(
+						newARM9, true, false);
 				if (arm9_szoffset > 0) {
 					int newValue = arm9_szmode == 1 ? newARM9.length
 							: newARM9.length + 0x4000;
@@ -251,69 +452,63 @@ public class NDSRom {
 			}
 			arm9_size = newARM9.length;
 			// copy new arm9
-			fNew.seek(arm9_offset);
-			fNew.write(newARM9);
+			pos = arm9_offset
+					+ out.write(arm9_offset, newARM9, old_arm9_offset,
+							old_arm9_size);
 			// footer?
 			if (arm9_has_footer) {
-				fNew.write(arm9_footer);
+				pos += out.write(pos, arm9_footer, old_arm9_offset
+						+ old_arm9_size, arm9_footer.length);
 			}
 
 		} else {
 			// copy arm9+footer
-			this.baseRom.seek(old_arm9_offset);
-			fNew.seek(arm9_offset);
-			copy(this.baseRom, fNew, arm9_size + 12);
+			pos = arm9_offset
+					+ out.copy(old_arm9_offset, arm9_offset, arm9_size + 12);
 		}
 
 		// arm9 ovl
-		int arm9_ovl_offset = (int) fNew.getFilePointer();
+		int arm9_ovl_offset = pos;
 		int arm9_ovl_size = arm9overlays.length * 32;
 
 		// don't actually write arm9 ovl yet
 
 		// arm7
-		int arm7_offset = ((int) (arm9_ovl_offset + arm9_ovl_size + arm7_align))
+		int arm7_offset = (arm9_ovl_offset + arm9_ovl_size + arm7_align)
 				& (~arm7_align);
-		int old_arm7_offset = readFromFile(this.baseRom, 0x30, 4);
-		int arm7_size = readFromFile(this.baseRom, 0x3C, 4);
+		int old_arm7_offset = readFromROM(0x30, 4);
+		int arm7_size = readFromROM(0x3C, 4);
 		// copy arm7
-		this.baseRom.seek(old_arm7_offset);
-		fNew.seek(arm7_offset);
-		copy(this.baseRom, fNew, arm7_size);
+		pos = arm7_offset
+				+ out.copy(old_arm7_offset, arm7_offset, arm7_size);
 
 		// arm7 ovl
-		int arm7_ovl_offset = (int) fNew.getFilePointer();
-		int old_arm7_ovl_offset = readFromFile(this.baseRom, 0x58, 4);
-		int arm7_ovl_size = readFromFile(this.baseRom, 0x5C, 4);
+		int arm7_ovl_offset = pos;
+		int old_arm7_ovl_offset = readFromROM(0x58, 4);
+		int arm7_ovl_size = readFromROM(0x5C, 4);
 
 		// copy arm7 ovl
-		this.baseRom.seek(old_arm7_ovl_offset);
-		fNew.seek(arm7_ovl_offset);
-		copy(this.baseRom, fNew, arm7_ovl_size);
+		pos = arm7_ovl_offset
+				+ out.copy(old_arm7_ovl_offset, arm7_ovl_offset, arm7_ovl_size);
 
 		// banner
-		int banner_offset = ((int) (fNew.getFilePointer() + banner_align))
-				& (~banner_align);
-		int old_banner_offset = readFromFile(this.baseRom, 0x68, 4);
+		int banner_offset = (pos + banner_align) & (~banner_align);
+		int old_banner_offset = readFromROM(0x68, 4);
 		int banner_size = 0x840;
 		// copy banner
-		this.baseRom.seek(old_banner_offset);
-		fNew.seek(banner_offset);
-		copy(this.baseRom, fNew, banner_size);
+		pos = banner_offset
+				+ out.copy(old_banner_offset, banner_offset, banner_size);
 
 		// filename table (doesn't change)
-		int fnt_offset = ((int) (fNew.getFilePointer() + fnt_align))
-				& (~fnt_align);
-		int old_fnt_offset = readFromFile(this.baseRom, 0x40, 4);
-		int fnt_size = readFromFile(this.baseRom, 0x44, 4);
+		int fnt_offset = (pos + fnt_align) & (~fnt_align);
+		int old_fnt_offset = readFromROM(0x40, 4);
+		int fnt_size = readFromROM(0x44, 4);
 		// copy fnt
-		this.baseRom.seek(old_fnt_offset);
-		fNew.seek(fnt_offset);
-		copy(this.baseRom, fNew, fnt_size);
+		pos = fnt_offset
+				+ out.copy(old_fnt_offset, fnt_offset, fnt_size);
 
 		// make space for the FAT table
-		int fat_offset = ((int) (fNew.getFilePointer() + fat_align))
-				& (~fat_align);
+		int fat_offset = (pos + fat_align) & (~fat_align);
 		int fat_size = fat.length;
 
 		// Now for actual files
@@ -332,10 +527,10 @@ public class NDSRom {
 						.getOverrideContents();
 				if (customContents != null) {
 					// copy custom
-					fNew.seek(offset_of_file);
-					fNew.write(customContents);
+					file_len = out.write(offset_of_file, customContents,
+							readFromByteArr(fat, fid * 8, 4),
+							fileLength(fid));
 					copiedCustom = true;
-					file_len = customContents.length;
 				}
 			}
 			if (arm9overlaysByFileID.containsKey(fid)) {
@@ -344,10 +539,10 @@ public class NDSRom {
 				byte[] customContents = entry.getOverrideContents();
 				if (customContents != null) {
 					// copy custom
-					fNew.seek(offset_of_file);
-					fNew.write(customContents);
+					file_len = out.write(offset_of_file, customContents,
+							readFromByteArr(fat, fid * 8, 4),
+							fileLength(fid));
 					copiedCustom = true;
-					file_len = customContents.length;
 				}
 				// regardless, fill in y9 table
 				writeToByteArr(y9table, overlay_id * 32, 4, overlay_id);
@@ -369,10 +564,8 @@ public class NDSRom {
 				// copy from original ROM
 				int file_starts = readFromByteArr(fat, fid * 8, 4);
 				int file_ends = readFromByteArr(fat, fid * 8 + 4, 4);
-				file_len = file_ends - file_starts;
-				this.baseRom.seek(file_starts);
-				fNew.seek(offset_of_file);
-				copy(this.baseRom, fNew, file_len);
+				file_len = out.copy(file_starts, offset_of_file,
+						file_ends - file_starts);
 			}
 			// write to new FAT
 			writeToByteArr(newfat, fid * 8, 4, offset_of_file);
@@ -382,12 +575,11 @@ public class NDSRom {
 		}
 
 		// write new FAT table
-		fNew.seek(fat_offset);
-		fNew.write(newfat);
+		out.write(fat_offset, newfat, readFromROM(0x48, 4), fat.length);
 
 		// write y9 table
-		fNew.seek(arm9_ovl_offset);
-		fNew.write(y9table);
+		out.write(arm9_ovl_offset, y9table, readFromROM(0x50, 4),
+				readFromROM(0x54, 4));
 
 		// tidy up ending
 		// base_offset is the end of the last file
@@ -395,8 +587,7 @@ public class NDSRom {
 		newfilesize = (newfilesize + 3) & ~3;
 		int application_end_offset = newfilesize;
 		if (newfilesize != base_offset) {
-			fNew.seek(newfilesize - 1);
-			fNew.write(0);
+			out.write(newfilesize - 1, new byte[1], -1, 0);
 		}
 
 		// calculate device capacity;
@@ -418,43 +609,57 @@ public class NDSRom {
 		int devicecap = ((devcap < 0) ? 0 : devcap);
 
 		// Update offsets in ROM header
-		writeToFile(fNew, 0x20, 4, arm9_offset);
-		writeToFile(fNew, 0x2C, 4, arm9_size);
-		writeToFile(fNew, 0x30, 4, arm7_offset);
-		writeToFile(fNew, 0x3C, 4, arm7_size);
-		writeToFile(fNew, 0x40, 4, fnt_offset);
-		writeToFile(fNew, 0x48, 4, fat_offset);
-		writeToFile(fNew, 0x50, 4, arm9_ovl_offset);
-		writeToFile(fNew, 0x58, 4, arm7_ovl_offset);
-		writeToFile(fNew, 0x68, 4, banner_offset);
-		writeToFile(fNew, 0x80, 4, application_end_offset);
-		writeToFile(fNew, 0x14, 1, devicecap);
+		writeToByteArr(header, 0x20, 4, arm9_offset);
+		writeToByteArr(header, 0x2C, 4, arm9_size);
+		writeToByteArr(header, 0x30, 4, arm7_offset);
+		writeToByteArr(header, 0x3C, 4, arm7_size);
+		writeToByteArr(header, 0x40, 4, fnt_offset);
+		writeToByteArr(header, 0x48, 4, fat_offset);
+		writeToByteArr(header, 0x50, 4, arm9_ovl_offset);
+		writeToByteArr(header, 0x58, 4, arm7_ovl_offset);
+		writeToByteArr(header, 0x68, 4, banner_offset);
+		writeToByteArr(header, 0x80, 4, application_end_offset);
+		writeToByteArr(header, 0x14, 1, devicecap);
 
 		// Update header CRC
-		fNew.seek(0);
-		byte[] headerForCRC = new byte[0x15E];
-		fNew.readFully(headerForCRC);
-		short crc = CRC16.calculate(headerForCRC, 0, 0x15E);
-		writeToFile(fNew, 0x15E, 2, (crc & 0xFFFF));
-
-		// done
-		fNew.close();
-		closeROM();
+		short crc = CRC16.calculate(header, 0, 0x15E);
+		writeToByteArr(header, 0x15E, 2, (crc & 0xFFFF));
+
+		// and write the whole header in one go
+		out.write(0, header, 0, headersize);
+		return application_end_offset;
+	}
+
+	private int fileLength(int fid) {
+		return readFromByteArr(fat, fid * 8 + 4, 4)
+				- readFromByteArr(fat, fid * 8, 4);
 	}
 
-	private void copy(RandomAccessFile from, RandomAccessFile to, int bytes)
+	// positional write of all of data, returns the number of bytes written
+	private static int write(FileChannel out, long position, byte[] data)
 			throws IOException {
-		int sizeof_copybuf = Math.min(256 * 1024, bytes);
-		byte[] copybuf = new byte[sizeof_copybuf];
-		while (bytes > 0) {
-			int size2 = (bytes >= sizeof_copybuf) ? sizeof_copybuf : bytes;
-			int read = from.read(copybuf, 0, size2);
-			to.write(copybuf, 0, read);
-			bytes -= read;
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		while (buf.hasRemaining()) {
+			position += out.write(buf, position);
 		}
-		copybuf = null;
+		return data.length;
 	}
-	
+
+	// zero-copy transfer of an unchanged region, returns its length
+	private static int transfer(FileChannel in, long from, FileChannel out,
+			long to, int bytes) throws IOException {
+		out.position(to);
+		long done = 0;
+		while (done < bytes) {
+			long n = in.transferTo(from + done, bytes - done, out);
+			if (n <= 0) {
+				throw new IOException("Unexpected end of ROM file");
+			}
+			done += n;
+		}
+		return bytes;
+	}
+
 	// get rom code for opened rom
 	public String getCode() {
 		return this.romCode;
@@ -481,18 +686,14 @@ public class NDSRom {
 		if (!arm9_open) {
 			arm9_open = true;
 			this.reopenROM();
-			int arm9_offset = readFromFile(this.baseRom, 0x20, 4);
-			int arm9_size = readFromFile(this.baseRom, 0x2C, 4);
-			byte[] arm9 = new byte[arm9_size];
-			this.baseRom.seek(arm9_offset);
-			this.baseRom.readFully(arm9);
+			int arm9_offset = readFromROM(0x20, 4);
+			int arm9_size = readFromROM(0x2C, 4);
+			byte[] arm9 = readROMBytes(arm9_offset, arm9_size);
 			// footer check
-			int nitrocode = readFromFile(this.baseRom, 4);
+			int nitrocode = readFromROM(arm9_offset + arm9_size, 4);
 			if (nitrocode == 0xDEC00621) {
 				// found a footer
-				arm9_footer = new byte[12];
-				writeToByteArr(arm9_footer, 0, 4, 0xDEC00621);
-				this.baseRom.read(arm9_footer, 4, 8);
+				arm9_footer = readROMBytes(arm9_offset + arm9_size, 12);
 				arm9_has_footer = true;
 			} else {
 				arm9_has_footer = false;
@@ -546,39 +747,37 @@ public class NDSRom {
 			}
 
 			if (arm9_compressed) {
-				arm9 = new BLZCoder(null).BLZ_DecodePub(arm9, "arm9.bin");
+				arm9 = decompress(ARM9_KEY, arm9, "arm9.bin");
 			}
 
-			// Now actually make the copy or w/e
-			if (writingEnabled) {
-				File arm9file = new File(tmpFolder + "arm9.bin");
-				FileOutputStream fos = new FileOutputStream(arm9file);
-				fos.write(arm9);
-				fos.close();
-				arm9file.deleteOnExit();
-				this.arm9_ramstored = null;
-				return arm9;
-			} else {
-				this.arm9_ramstored = arm9;
-				byte[] newcopy = new byte[arm9.length];
-				System.arraycopy(arm9, 0, newcopy, 0, arm9.length);
-				return newcopy;
-			}
+			// Now keep a copy for later
+			store.put(ARM9_KEY, arm9);
+			return arm9;
 		} else {
-			if (writingEnabled) {
-				FileInputStream fis = new FileInputStream(tmpFolder
-						+ "arm9.bin");
-				byte[] file = new byte[fis.available()];
-				fis.read(file);
-				fis.close();
-				return file;
-			} else {
-				byte[] newcopy = new byte[this.arm9_ramstored.length];
-				System.arraycopy(this.arm9_ramstored, 0, newcopy, 0,
-						this.arm9_ramstored.length);
-				return newcopy;
+			return store.get(ARM9_KEY);
+		}
+	}
+
+	/**
+	 * BLZ-decodes the arm9 (ARM9_KEY) or an overlay as found in the base rom.
+	 * The result only depends on the compressed data, so it's kept in the
+	 * decompression cache under that data for other working copies and later
+	 * runs.
+	 */
+	byte[] decompress(int fileID, byte[] data, String reference)
+			throws IOException {
+		DecompressionCache cache = DecompressionCache.getDefault();
+		if (cache == null) {
+			return new BLZCoder(null).BLZ_DecodePub(data, reference);
+		}
+		byte[] decoded = cache.get(data, fileID);
+		if (decoded == null) {
+			decoded = new BLZCoder(null).BLZ_DecodePub(data, reference);
+			if (decoded != null) {
+				cache.put(data, fileID, decoded);
 			}
 		}
+		return decoded;
 	}
 
 	// returns null if file doesn't exist
@@ -599,22 +798,7 @@ public class NDSRom {
 			getARM9();
 		}
 		arm9_changed = true;
-		if (writingEnabled) {
-			FileOutputStream fos = new FileOutputStream(new File(tmpFolder
-					+ "arm9.bin"));
-			fos.write(arm9);
-			fos.close();
-		} else {
-			if (this.arm9_ramstored.length == arm9.length) {
-				// copy new in
-				System.arraycopy(arm9, 0, this.arm9_ramstored, 0, arm9.length);
-			} else {
-				// make new array
-				this.arm9_ramstored = null;
-				this.arm9_ramstored = new byte[arm9.length];
-				System.arraycopy(arm9, 0, this.arm9_ramstored, 0, arm9.length);
-			}
-		}
+		store.put(ARM9_KEY, arm9);
 	}
 
 	private void firstPassDirectory(int dir, int subTableOffset,
@@ -622,20 +806,21 @@ public class NDSRom {
 			Map<Integer, String> filenames,
 			Map<Integer, Integer> fileDirectories) throws IOException {
 		// read subtable
-		baseRom.seek(subTableOffset);
+		int pos = subTableOffset;
 		while (true) {
-			int control = baseRom.read();
+			int control = romData.get(pos++) & 0xFF;
 			if (control == 0x00) {
 				// done
 				break;
 			}
 			int namelen = control & 0x7F;
-			byte[] rawname = new byte[namelen];
-			baseRom.readFully(rawname);
+			byte[] rawname = readROMBytes(pos, namelen);
+			pos += namelen;
 			String name = new String(rawname, "US-ASCII");
 			if ((control & 0x80) > 0x00) {
 				// sub-directory
-				int subDirectoryID = readFromFile(baseRom, 2);
+				int subDirectoryID = readFromROM(pos, 2);
+				pos += 2;
 				directoryNames[subDirectoryID - 0xF000] = name;
 			} else {
 				int fileID = firstFileID++;
@@ -647,16 +832,26 @@ public class NDSRom {
 
 	// Helper methods to get variable-size ints out of files
 
-	public String getTmpFolder() {
-		return tmpFolder;
+	public OverrideStore getStore() {
+		return store;
 	}
 
-	public RandomAccessFile getBaseRom() {
-		return baseRom;
+	// little-endian value straight from the mapped ROM
+	public int readFromROM(int offset, int size) {
+		int result = 0;
+		for (int i = 0; i < size; i++) {
+			result |= (romData.get(offset + i) & 0xFF) << (i * 8);
+		}
+		return result;
 	}
 
-	public boolean isWritingEnabled() {
-		return writingEnabled;
+	// copy of a region of the mapped ROM; safe to call from several threads
+	public byte[] readROMBytes(int offset, int size) {
+		byte[] buf = new byte[size];
+		ByteBuffer src = romData.duplicate();
+		src.position(offset);
+		src.get(buf);
+		return buf;
 	}
 
 	public int readFromByteArr(byte[] data, int offset, int size) {
@@ -1,12 +1,8 @@
 package com.dabomstew.pkrandom.newnds;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 
-import cuecompressors.BLZCoder;
+import cuecompressors.BLZEncoder;
 
 /*----------------------------------------------------------------------------*/
 /*--  NDSY9Entry.java - an entry in the arm9 overlay system                 --*/
@@ -40,108 +36,77 @@ public class NDSY9Entry {
 	public int static_start, static_end;
 	public int compressed_size;
 	public int compress_flag;
-	public Extracted status = Extracted.NOT;
-	public String extFilename;
-	public byte[] data;
+	// extracted: contents are in the parent's store
+	// changed: contents were written and must be saved instead of the original
+	private boolean extracted, changed;
 	private boolean decompressed_data = false;
 
 	public NDSY9Entry(NDSRom parent) {
 		this.parent = parent;
 	}
 
+	// unextracted copy of this entry belonging to another rom
+	NDSY9Entry copyFor(NDSRom newParent) {
+		NDSY9Entry entry = new NDSY9Entry(newParent);
+		entry.offset = this.offset;
+		entry.size = this.original_size;
+		entry.original_size = this.original_size;
+		entry.fileID = this.fileID;
+		entry.overlay_id = this.overlay_id;
+		entry.ram_address = this.ram_address;
+		entry.ram_size = this.ram_size;
+		entry.bss_size = this.bss_size;
+		entry.static_start = this.static_start;
+		entry.static_end = this.static_end;
+		entry.compressed_size = this.compressed_size;
+		entry.compress_flag = this.compress_flag;
+		return entry;
+	}
+
 	public byte[] getContents() throws IOException {
-		if (this.status == Extracted.NOT) {
+		if (!this.extracted) {
 			// extract file
 			parent.reopenROM();
-			RandomAccessFile rom = parent.getBaseRom();
-			byte[] buf = new byte[this.original_size];
-			rom.seek(this.offset);
-			rom.readFully(buf);
+			byte[] buf = parent.readROMBytes(this.offset, this.original_size);
 			// Compression?
 			if (compress_flag != 0
 					&& this.original_size == this.compressed_size
 					&& this.compressed_size != 0) {
-				buf = new BLZCoder(null).BLZ_DecodePub(buf, "overlay "
+				buf = parent.decompress(this.fileID, buf, "overlay "
 						+ overlay_id);
 				decompressed_data = true;
 			}
-			if (parent.isWritingEnabled()) {
-				// make a file
-				String tmpDir = parent.getTmpFolder();
-				String fullPath = String.format("overlay_%04d", overlay_id);
-				String tmpFilename = fullPath.replaceAll("[^A-Za-z0-9_]+", "");
-				this.extFilename = tmpFilename;
-				File tmpFile = new File(tmpDir + extFilename);
-				FileOutputStream fos = new FileOutputStream(tmpFile);
-				fos.write(buf);
-				fos.close();
-				tmpFile.deleteOnExit();
-				this.status = Extracted.TO_FILE;
-				this.data = null;
-				return buf;
-			} else {
-				this.status = Extracted.TO_RAM;
-				this.data = buf;
-				byte[] newcopy = new byte[buf.length];
-				System.arraycopy(buf, 0, newcopy, 0, buf.length);
-				return newcopy;
-			}
-		} else if (this.status == Extracted.TO_RAM) {
-			byte[] newcopy = new byte[this.data.length];
-			System.arraycopy(this.data, 0, newcopy, 0, this.data.length);
-			return newcopy;
+			parent.getStore().put(this.fileID, buf);
+			this.extracted = true;
+			return buf;
 		} else {
-			String tmpDir = parent.getTmpFolder();
-			FileInputStream fis = new FileInputStream(tmpDir + this.extFilename);
-			byte[] file = new byte[fis.available()];
-			fis.read(file);
-			fis.close();
-			return file;
+			return parent.getStore().get(this.fileID);
 		}
 	}
 
 	public void writeOverride(byte[] data) throws IOException {
-		if (status == Extracted.NOT) {
-			// temp extract
+		if (!this.extracted) {
+			// extract first so we know whether to compress it again
 			getContents();
 		}
 		size = data.length;
-		if (status == Extracted.TO_FILE) {
-			String tmpDir = parent.getTmpFolder();
-			FileOutputStream fos = new FileOutputStream(new File(tmpDir
-					+ this.extFilename));
-			fos.write(data);
-			fos.close();
-		} else {
-			if (this.data.length == data.length) {
-				// copy new in
-				System.arraycopy(data, 0, this.data, 0, data.length);
-			} else {
-				// make new array
-				this.data = null;
-				this.data = new byte[data.length];
-				System.arraycopy(data, 0, this.data, 0, data.length);
-			}
-		}
+		parent.getStore().put(this.fileID, data);
+		this.changed = true;
 	}
 
 	// returns null if no override
 	public byte[] getOverrideContents() throws IOException {
-		if (status == Extracted.NOT) {
+		if (!this.changed) {
 			return null;
 		}
 		byte[] buf = getContents();
 		if (this.decompressed_data) {
-			buf = new BLZCoder(null).BLZ_EncodePub(buf, false, false,
-					"overlay " + overlay_id);
+			buf = new BLZEncoder(BLZEncoder.defaultLevel()).encode(buf,
+					false, false);
 			// update our compressed size
 			this.compressed_size = buf.length;
 		}
 		return buf;
 	}
 
-	private enum Extracted {
-		NOT, TO_FILE, TO_RAM;
-	}
-
 }
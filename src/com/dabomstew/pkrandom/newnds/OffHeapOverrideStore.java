@@ -0,0 +1,74 @@
+package com.dabomstew.pkrandom.newnds;
+
+/*----------------------------------------------------------------------------*/
+/*--  OffHeapOverrideStore.java - keeps extracted NDS files in direct       --*/
+/*--                              buffers outside the Java heap.            --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+public class OffHeapOverrideStore implements OverrideStore {
+
+	private Map<Integer, ByteBuffer> contents = new HashMap<Integer, ByteBuffer>();
+
+	@Override
+	public void put(int key, byte[] data) {
+		ByteBuffer buf = contents.get(key);
+		if (buf == null || buf.capacity() < data.length) {
+			buf = ByteBuffer.allocateDirect(data.length);
+			contents.put(key, buf);
+		}
+		buf.clear();
+		buf.put(data);
+		buf.flip();
+	}
+
+	@Override
+	public byte[] get(int key) {
+		ByteBuffer buf = contents.get(key);
+		if (buf == null) {
+			return null;
+		}
+		byte[] data = new byte[buf.limit()];
+		buf.duplicate().get(data);
+		return data;
+	}
+
+	@Override
+	public boolean contains(int key) {
+		return contents.containsKey(key);
+	}
+
+	@Override
+	public void clear() {
+		// direct buffers are freed once they're collected
+		contents.clear();
+	}
+
+	@Override
+	public OverrideStore newStore() {
+		return new OffHeapOverrideStore();
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.dabomstew.pkrandom.newnds;
+
+/*----------------------------------------------------------------------------*/
+/*--  OverrideStore.java - keeps the contents of files extracted from an    --*/
+/*--                       NDS rom (and any changes made to them),          --*/
+/*--                       keyed by file ID.                                --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.io.IOException;
+
+public interface OverrideStore {
+
+	// Stores data under key. The store keeps its own copy, so the caller is
+	// free to modify data afterwards.
+	public void put(int key, byte[] data) throws IOException;
+
+	// Returns a fresh copy of what is stored under key, or null if nothing is.
+	public byte[] get(int key) throws IOException;
+
+	public boolean contains(int key);
+
+	// Forgets everything, releasing any memory or disk space used.
+	public void clear();
+
+	// An empty store of the same kind and limits as this one.
+	public OverrideStore newStore();
+
+}
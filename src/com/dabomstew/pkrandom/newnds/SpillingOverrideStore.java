@@ -0,0 +1,125 @@
+package com.dabomstew.pkrandom.newnds;
+
+/*----------------------------------------------------------------------------*/
+/*--  SpillingOverrideStore.java - keeps extracted NDS files on the heap    --*/
+/*--                    until a size limit is reached, then moves further   --*/
+/*--                    files out to temporary files.                       --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SpillingOverrideStore implements OverrideStore {
+
+	private final long heapLimit;
+	private final HeapOverrideStore heap = new HeapOverrideStore();
+	private final Map<Integer, Integer> heapSizes = new HashMap<Integer, Integer>();
+	private final Map<Integer, File> spilled = new HashMap<Integer, File>();
+	private long heapUsed;
+
+	public SpillingOverrideStore(long heapLimit) {
+		this.heapLimit = heapLimit;
+	}
+
+	@Override
+	public void put(int key, byte[] data) throws IOException {
+		// drop any copy already on the heap
+		if (heapSizes.containsKey(key)) {
+			heapUsed -= heapSizes.remove(key);
+			heap.remove(key);
+		}
+		if (heapUsed + data.length <= heapLimit) {
+			File old = spilled.remove(key);
+			if (old != null) {
+				old.delete();
+			}
+			heap.put(key, data);
+			heapSizes.put(key, data.length);
+			heapUsed += data.length;
+			return;
+		}
+		File file = spilled.get(key);
+		if (file == null) {
+			// unique per entry, so several roms never share a file
+			file = File.createTempFile("ndsfile", ".bin");
+			spilled.put(key, file);
+		}
+		FileOutputStream fos = new FileOutputStream(file);
+		try {
+			fos.write(data);
+		} finally {
+			fos.close();
+		}
+	}
+
+	@Override
+	public byte[] get(int key) throws IOException {
+		if (heapSizes.containsKey(key)) {
+			return heap.get(key);
+		}
+		File file = spilled.get(key);
+		if (file == null) {
+			return null;
+		}
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			byte[] data = new byte[(int) file.length()];
+			int read = 0;
+			while (read < data.length) {
+				int r = fis.read(data, read, data.length - read);
+				if (r < 0) {
+					throw new IOException("Spilled file was truncated");
+				}
+				read += r;
+			}
+			return data;
+		} finally {
+			fis.close();
+		}
+	}
+
+	@Override
+	public boolean contains(int key) {
+		return heapSizes.containsKey(key) || spilled.containsKey(key);
+	}
+
+	@Override
+	public void clear() {
+		heap.clear();
+		heapSizes.clear();
+		heapUsed = 0;
+		for (File file : spilled.values()) {
+			file.delete();
+		}
+		spilled.clear();
+	}
+
+	@Override
+	public OverrideStore newStore() {
+		return new SpillingOverrideStore(heapLimit);
+	}
+
+}
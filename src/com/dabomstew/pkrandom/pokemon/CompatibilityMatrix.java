@@ -0,0 +1,186 @@
+package com.dabomstew.pkrandom.pokemon;
+
+/*----------------------------------------------------------------------------*/
+/*--  CompatibilityMatrix.java - which Pokemon can learn which TMs/HMs      --*/
+/*--                            or move tutor moves.                        --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A row of bits per Pokemon, one per TM/HM or move tutor move. Columns are
+ * numbered from 1, in the same order as the handler's move list, so column
+ * n is the n-th TM (HMs follow the TMs) or tutor move.
+ * 
+ * Rows are packed into longs with column n at bit n-1, which is also the
+ * layout of the games' own compatibility bitfields; handlers copy them in
+ * and out a byte or word at a time.
+ */
+public class CompatibilityMatrix {
+
+	private final int columns;
+	private final int wordsPerRow;
+	private final List<Pokemon> pokemon = new ArrayList<Pokemon>();
+	// row r holds the Pokemon numbered r
+	private final long[] bits;
+
+	public CompatibilityMatrix(List<Pokemon> pokes, int columns) {
+		this.columns = columns;
+		this.wordsPerRow = (columns + 63) >>> 6;
+		int maxNumber = 0;
+		for (Pokemon pk : pokes) {
+			if (pk != null) {
+				pokemon.add(pk);
+				maxNumber = Math.max(maxNumber, pk.number);
+			}
+		}
+		Collections.sort(pokemon);
+		this.bits = new long[(maxNumber + 1) * wordsPerRow];
+	}
+
+	// an empty matrix, for games without move tutors
+	public static CompatibilityMatrix empty() {
+		return new CompatibilityMatrix(Collections.<Pokemon> emptyList(), 0);
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	// the Pokemon with a row, in number order
+	public List<Pokemon> getPokemon() {
+		return Collections.unmodifiableList(pokemon);
+	}
+
+	public boolean get(Pokemon pk, int column) {
+		int bit = column - 1;
+		return (bits[rowStart(pk) + (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	public void set(Pokemon pk, int column, boolean value) {
+		int bit = column - 1;
+		int word = rowStart(pk) + (bit >>> 6);
+		if (value) {
+			bits[word] |= 1L << bit;
+		} else {
+			bits[word] &= ~(1L << bit);
+		}
+	}
+
+	// every Pokemon can learn every column
+	public void fill() {
+		for (Pokemon pk : pokemon) {
+			int start = rowStart(pk);
+			for (int w = 0; w < wordsPerRow; w++) {
+				bits[start + w] = wordMask(w);
+			}
+		}
+	}
+
+	/**
+	 * Adds the columns set in mask (laid out like a row, see columnMask) to
+	 * the Pokemon's row.
+	 */
+	public void or(Pokemon pk, long[] mask) {
+		int start = rowStart(pk);
+		for (int w = 0; w < wordsPerRow; w++) {
+			bits[start + w] |= mask[w] & wordMask(w);
+		}
+	}
+
+	// an all-clear mask to build up with setInMask and pass to or
+	public long[] columnMask() {
+		return new long[wordsPerRow];
+	}
+
+	public static void setInMask(long[] mask, int column) {
+		int bit = column - 1;
+		mask[bit >>> 6] |= 1L << bit;
+	}
+
+	/**
+	 * Reads count (at most 64) bits of a row starting at firstColumn, with
+	 * firstColumn in the lowest bit. Columns past the end read as 0.
+	 */
+	public long getBits(Pokemon pk, int firstColumn, int count) {
+		count = Math.min(count, columns - firstColumn + 1);
+		if (count <= 0) {
+			return 0;
+		}
+		int start = rowStart(pk);
+		int bit = firstColumn - 1;
+		int word = bit >>> 6;
+		int shift = bit & 63;
+		long value = bits[start + word] >>> shift;
+		if (shift != 0 && shift + count > 64) {
+			value |= bits[start + word + 1] << (64 - shift);
+		}
+		return value & lowBits(count);
+	}
+
+	/**
+	 * Writes the low count (at most 64) bits of value into a row starting at
+	 * firstColumn. Bits that would land past the last column are dropped.
+	 */
+	public void setBits(Pokemon pk, int firstColumn, int count, long value) {
+		count = Math.min(count, columns - firstColumn + 1);
+		if (count <= 0) {
+			return;
+		}
+		value &= lowBits(count);
+		int start = rowStart(pk);
+		int bit = firstColumn - 1;
+		int word = bit >>> 6;
+		int shift = bit & 63;
+		long mask = lowBits(count);
+		bits[start + word] = (bits[start + word] & ~(mask << shift))
+				| (value << shift);
+		if (shift != 0 && shift + count > 64) {
+			bits[start + word + 1] = (bits[start + word + 1] & ~(mask >>> (64 - shift)))
+					| (value >>> (64 - shift));
+		}
+	}
+
+	// byte index of the row as a game bitfield, columns 8*index+1 onwards
+	public byte getByte(Pokemon pk, int index) {
+		return (byte) getBits(pk, index * 8 + 1, 8);
+	}
+
+	public void setByte(Pokemon pk, int index, byte value) {
+		setBits(pk, index * 8 + 1, 8, value & 0xFF);
+	}
+
+	private int rowStart(Pokemon pk) {
+		return pk.number * wordsPerRow;
+	}
+
+	// the bits of word w that hold real columns
+	private long wordMask(int w) {
+		return lowBits(Math.min(64, columns - w * 64));
+	}
+
+	private static long lowBits(int count) {
+		return count >= 64 ? -1L : (1L << count) - 1;
+	}
+
+}
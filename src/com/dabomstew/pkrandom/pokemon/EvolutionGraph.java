@@ -0,0 +1,198 @@
+package com.dabomstew.pkrandom.pokemon;
+
+/*----------------------------------------------------------------------------*/
+/*--  EvolutionGraph.java - the evolutions of a game, indexed both ways.    --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A read-only view of a game's evolutions with each Pokemon's evolutions
+ * and pre-evolutions indexed by Pokemon number. Lists keep the order the
+ * handler returned the evolutions in, so "first" lookups give the same
+ * answers as scanning getEvolutions().
+ * 
+ * The graph holds its own lists, but the Evolution objects in them are the
+ * handler's, so they must not be modified through the graph. Anything that
+ * needs to change evolutions should get a fresh list from the handler and
+ * write it back with setEvolutions.
+ */
+public class EvolutionGraph {
+
+	private final List<Evolution> evolutions;
+	private final List<List<Evolution>> from, to;
+	private final Set<Pokemon> basicOrNoCopy, firstEvolutions,
+			secondEvolutions;
+	private final int[] timesEvolves;
+
+	public EvolutionGraph(List<Pokemon> pokemon, List<Evolution> evos) {
+		int size = 0;
+		for (Pokemon pk : pokemon) {
+			if (pk != null) {
+				size = Math.max(size, pk.number + 1);
+			}
+		}
+		for (Evolution evo : evos) {
+			size = Math.max(size, Math.max(evo.from.number, evo.to.number) + 1);
+		}
+		this.evolutions = Collections.unmodifiableList(new ArrayList<Evolution>(
+				evos));
+		this.from = new ArrayList<List<Evolution>>(size);
+		this.to = new ArrayList<List<Evolution>>(size);
+		for (int i = 0; i < size; i++) {
+			from.add(new ArrayList<Evolution>(1));
+			to.add(new ArrayList<Evolution>(1));
+		}
+		for (Evolution evo : evos) {
+			from.get(evo.from.number).add(evo);
+			to.get(evo.to.number).add(evo);
+		}
+
+		// Pokemon that don't get their stats carried from a pre-evolution
+		Set<Pokemon> doCopyPokes = new TreeSet<Pokemon>();
+		for (Evolution e : evos) {
+			if (e.carryStats) {
+				doCopyPokes.add(e.to);
+			}
+		}
+		basicOrNoCopy = new TreeSet<Pokemon>();
+		for (Pokemon pk : pokemon) {
+			if (pk != null && !doCopyPokes.contains(pk)) {
+				basicOrNoCopy.add(pk);
+			}
+		}
+		firstEvolutions = new TreeSet<Pokemon>();
+		for (Evolution e : evos) {
+			if (basicOrNoCopy.contains(e.from)) {
+				firstEvolutions.add(e.to);
+			}
+		}
+		secondEvolutions = new TreeSet<Pokemon>();
+		for (Evolution e : evos) {
+			if (firstEvolutions.contains(e.from)) {
+				secondEvolutions.add(e.to);
+			}
+		}
+
+		timesEvolves = new int[size];
+		Arrays.fill(timesEvolves, -1);
+	}
+
+	// all evolutions, in the handler's order
+	public List<Evolution> getEvolutions() {
+		return evolutions;
+	}
+
+	public List<Evolution> evolutionsFrom(Pokemon pk) {
+		return pk.number < from.size() ? Collections.unmodifiableList(from
+				.get(pk.number)) : Collections.<Evolution> emptyList();
+	}
+
+	public List<Evolution> evolutionsTo(Pokemon pk) {
+		return pk.number < to.size() ? Collections.unmodifiableList(to
+				.get(pk.number)) : Collections.<Evolution> emptyList();
+	}
+
+	public boolean hasEvolution(Pokemon pk) {
+		return !evolutionsFrom(pk).isEmpty();
+	}
+
+	// the first Pokemon pk evolves into, or null
+	public Pokemon firstEvolution(Pokemon pk) {
+		List<Evolution> evos = evolutionsFrom(pk);
+		return evos.isEmpty() ? null : evos.get(0).to;
+	}
+
+	// the first Pokemon that evolves into pk, or null
+	public Pokemon preEvolution(Pokemon pk) {
+		List<Evolution> evos = evolutionsTo(pk);
+		return evos.isEmpty() ? null : evos.get(0).from;
+	}
+
+	// how many pre-evolutions pk has: 0 for a basic Pokemon
+	public int stage(Pokemon pk) {
+		int stage = 0;
+		Pokemon current = preEvolution(pk);
+		while (current != null && current != pk && stage < from.size()) {
+			stage++;
+			current = preEvolution(current);
+		}
+		return stage;
+	}
+
+	// the basic Pokemon at the start of pk's family
+	public Pokemon familyRoot(Pokemon pk) {
+		Pokemon root = pk;
+		for (int i = 0; i < from.size(); i++) {
+			Pokemon pre = preEvolution(root);
+			if (pre == null || pre == pk) {
+				break;
+			}
+			root = pre;
+		}
+		return root;
+	}
+
+	// the longest chain of evolutions starting at pk
+	public int timesEvolves(Pokemon pk) {
+		if (pk.number >= timesEvolves.length) {
+			return 0;
+		}
+		if (timesEvolves[pk.number] < 0) {
+			timesEvolves[pk.number] = timesEvolves(pk,
+					new ArrayList<Pokemon>());
+		}
+		return timesEvolves[pk.number];
+	}
+
+	// seen is the chain so far, so loops in hacked games end
+	private int timesEvolves(Pokemon current, List<Pokemon> seen) {
+		seen.add(current);
+		int currEvos = 0;
+		for (Evolution e : evolutionsFrom(current)) {
+			if (!seen.contains(e.to)) {
+				currEvos = Math.max(currEvos, 1 + timesEvolves(e.to, seen));
+			}
+		}
+		seen.remove(seen.size() - 1);
+		return currEvos;
+	}
+
+	// Pokemon that don't get their stats from a pre-evolution: basic
+	// Pokemon and the results of split evolutions
+	public Set<Pokemon> basicOrNoCopyPokemon() {
+		return new TreeSet<Pokemon>(basicOrNoCopy);
+	}
+
+	public Set<Pokemon> firstEvolutions() {
+		return new TreeSet<Pokemon>(firstEvolutions);
+	}
+
+	public Set<Pokemon> secondEvolutions() {
+		return new TreeSet<Pokemon>(secondEvolutions);
+	}
+
+}
@@ -4,8 +4,19 @@ import java.util.Random;
 
 public class ItemList {
 
+	public enum Sampling {
+		// redraw over every index until one is wanted, as older versions did;
+		// keeps the item picks of existing seeds
+		REJECTION,
+		// one draw from just the wanted indexes
+		DENSE
+	}
+
 	private boolean[] items;
 	private boolean[] tms;
+	// the wanted indexes for DENSE sampling, in index order; built on first
+	// use and dropped whenever the list changes
+	private int[] allowedIndexes, nonTMIndexes, tmIndexes;
 
 	public ItemList(int highestIndex) {
 		items = new boolean[highestIndex + 1];
@@ -30,23 +41,62 @@ public class ItemList {
 	}
 
 	public void banSingles(int... indexes) {
+		clearIndexes();
 		for (int index : indexes) {
 			items[index] = false;
 		}
 	}
 
 	public void banRange(int startIndex, int length) {
+		clearIndexes();
 		for (int i = 0; i < length; i++) {
 			items[i + startIndex] = false;
 		}
 	}
 
 	public void tmRange(int startIndex, int length) {
+		clearIndexes();
 		for (int i = 0; i < length; i++) {
 			tms[i + startIndex] = true;
 		}
 	}
 
+	private synchronized void clearIndexes() {
+		allowedIndexes = null;
+		nonTMIndexes = null;
+		tmIndexes = null;
+	}
+
+	private synchronized void buildIndexes() {
+		if (allowedIndexes != null) {
+			return;
+		}
+		int allowed = 0, nonTMs = 0, tmCount = 0;
+		for (int i = 0; i < items.length; i++) {
+			allowed += items[i] ? 1 : 0;
+			nonTMs += items[i] && !tms[i] ? 1 : 0;
+			tmCount += tms[i] ? 1 : 0;
+		}
+		int[] newAllowed = new int[allowed];
+		int[] newNonTMs = new int[nonTMs];
+		int[] newTMs = new int[tmCount];
+		allowed = nonTMs = tmCount = 0;
+		for (int i = 0; i < items.length; i++) {
+			if (items[i]) {
+				newAllowed[allowed++] = i;
+				if (!tms[i]) {
+					newNonTMs[nonTMs++] = i;
+				}
+			}
+			if (tms[i]) {
+				newTMs[tmCount++] = i;
+			}
+		}
+		allowedIndexes = newAllowed;
+		nonTMIndexes = newNonTMs;
+		tmIndexes = newTMs;
+	}
+
 	public int randomItem(Random random) {
 		int chosen = 0;
 		while (!items[chosen]) {
@@ -71,6 +121,57 @@ public class ItemList {
 		return chosen;
 	}
 
+	public Sampler sampler(Sampling sampling) {
+		return new Sampler(sampling);
+	}
+
+	/**
+	 * Draws from this list the given way. REJECTION is the same as calling
+	 * the list's own random methods; DENSE takes exactly one nextInt per
+	 * item, however much of the list is banned, but picks different items
+	 * for the same seed. A DENSE sampler draws from the list as it was when
+	 * the sampler was made.
+	 */
+	public class Sampler {
+		private final Sampling sampling;
+		private final int[] allowed, nonTMs, tmList;
+
+		private Sampler(Sampling sampling) {
+			this.sampling = sampling;
+			if (sampling == Sampling.DENSE) {
+				synchronized (ItemList.this) {
+					buildIndexes();
+					allowed = allowedIndexes;
+					nonTMs = nonTMIndexes;
+					tmList = tmIndexes;
+				}
+			} else {
+				allowed = nonTMs = tmList = null;
+			}
+		}
+
+		public int randomItem(Random random) {
+			if (sampling == Sampling.REJECTION) {
+				return ItemList.this.randomItem(random);
+			}
+			return allowed[random.nextInt(allowed.length)];
+		}
+
+		public int randomNonTM(Random random) {
+			if (sampling == Sampling.REJECTION) {
+				return ItemList.this.randomNonTM(random);
+			}
+			return nonTMs[random.nextInt(nonTMs.length)];
+		}
+
+		public int randomTM(Random random) {
+			if (sampling == Sampling.REJECTION) {
+				return ItemList.this.randomTM(random);
+			}
+			return tmList[random.nextInt(tmList.length)];
+		}
+	}
+
 	public ItemList copy() {
 		ItemList other = new ItemList(items.length - 1);
 		System.arraycopy(items, 0, other.items, 0, items.length);
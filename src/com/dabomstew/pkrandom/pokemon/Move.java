@@ -34,6 +34,21 @@ public class Move {
 	public Type type;
 	public int effectIndex;
 
+	public Move() {
+	}
+
+	// a copy that can be randomized without changing this one
+	public Move(Move other) {
+		name = other.name;
+		number = other.number;
+		internalId = other.internalId;
+		power = other.power;
+		pp = other.pp;
+		hitratio = other.hitratio;
+		type = other.type;
+		effectIndex = other.effectIndex;
+	}
+
 	public String toString() {
 		return "#" + number + " " + name + " - Power: " + power + ", Base PP: "
 				+ pp + ", Type: " + type + ", Hit%: " + (hitratio)
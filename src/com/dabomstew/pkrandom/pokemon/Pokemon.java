@@ -50,6 +50,30 @@ public class Pokemon implements Comparable<Pokemon> {
 	public Pokemon() {
 	}
 
+	// a copy that can be randomized without changing this one
+	public Pokemon(Pokemon other) {
+		name = other.name;
+		number = other.number;
+		primaryType = other.primaryType;
+		secondaryType = other.secondaryType;
+		hp = other.hp;
+		attack = other.attack;
+		defense = other.defense;
+		spatk = other.spatk;
+		spdef = other.spdef;
+		speed = other.speed;
+		special = other.special;
+		ability1 = other.ability1;
+		ability2 = other.ability2;
+		ability3 = other.ability3;
+		catchRate = other.catchRate;
+		guaranteedHeldItem = other.guaranteedHeldItem;
+		commonHeldItem = other.commonHeldItem;
+		rareHeldItem = other.rareHeldItem;
+		darkGrassHeldItem = other.darkGrassHeldItem;
+		growthCurve = other.growthCurve;
+	}
+
 	public void shuffleStats(Random random) {
 		List<Integer> stats = Arrays.asList(hp, attack, defense, spatk, spdef,
 				speed);
@@ -25,6 +25,8 @@ package com.dabomstew.pkrandom.romhandlers;
 /*----------------------------------------------------------------------------*/
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeMap;
@@ -56,10 +58,44 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 			throw new RuntimeException(e);
 		}
 		loadedFN = filename;
+		clearModelCache();
 		loadedROM(baseRom.getCode());
 		return true;
 	}
 
+	// this handler loads its own working copy of the snapshot's file system
+	// and is kept as the snapshot's original, so it mustn't be randomized
+	@Override
+	public RomSnapshot snapshotRom(String filename) {
+		if (!this.detectNDSRom(getROMCodeFromFile(filename))) {
+			return null;
+		}
+		NDSRom ndsBase;
+		try {
+			ndsBase = new NDSRom(filename);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		baseRom = ndsBase.fork();
+		loadedFN = filename;
+		clearModelCache();
+		loadedROM(baseRom.getCode());
+		return new RomSnapshot(filename, ndsBase, this);
+	}
+
+	@Override
+	public boolean loadRom(RomSnapshot snapshot) {
+		if (!snapshot.isNDS() || snapshot.original().getClass() != getClass()
+				|| !this.detectNDSRom(snapshot.getNDSCode())) {
+			return false;
+		}
+		baseRom = snapshot.forkNDS();
+		loadedFN = snapshot.getFilename();
+		clearModelCache();
+		loadedFrom((AbstractDSRomHandler) snapshot.original());
+		return true;
+	}
+
 	@Override
 	public String loadedFilename() {
 		return loadedFN;
@@ -75,6 +111,10 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 
 	protected abstract void loadedROM(String romCode);
 
+	// as loadedROM, but taking what doesn't change from a handler that has
+	// already loaded the same ROM
+	protected abstract void loadedFrom(AbstractDSRomHandler original);
+
 	protected abstract void savingROM();
 
 	@Override
@@ -88,70 +128,94 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 		return true;
 	}
 
+	@Override
+	public boolean savePatch(String filename) {
+		// DS ROMs are all bigger than IPS can address
+		if (filename.toLowerCase().endsWith(".ips")) {
+			return false;
+		}
+		savingROM();
+		try {
+			baseRom.savePatchTo(filename);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		return true;
+	}
+
 	public void closeInnerRom() throws IOException {
 		baseRom.closeROM();
 	}
 
+	// for when this handler won't be used again
+	public void discardInnerRom() {
+		if (baseRom != null) {
+			baseRom.discard();
+		}
+	}
+
 	@Override
 	public boolean canChangeStaticPokemon() {
 		return false;
 	}
 
 	public NARCContents readNARC(String subpath) throws IOException {
-		Map<String, byte[]> frames = readNitroFrames(subpath);
+		byte[] wholeFile = this.readFile(subpath);
+		Map<String, int[]> frames = findNitroFrames(wholeFile);
 		if (!frames.containsKey("FATB") || !frames.containsKey("FNTB")
 				|| !frames.containsKey("FIMG")) {
 			System.err.println("Not a valid narc file");
 			return null;
 		}
-		// File contents
-		NARCContents narc = new NARCContents();
-		byte[] fatbframe = frames.get("FATB");
-		byte[] fimgframe = frames.get("FIMG");
-		int fileCount = readLong(fatbframe, 0);
+		// File offsets; the contents stay in wholeFile until they're used
+		int fatb = frames.get("FATB")[0];
+		int[] fimg = frames.get("FIMG");
+		int fileCount = readLong(wholeFile, fatb);
+		int[] starts = new int[fileCount];
+		int[] ends = new int[fileCount];
 		for (int i = 0; i < fileCount; i++) {
-			int startOffset = readLong(fatbframe, 4 + i * 8);
-			int endOffset = readLong(fatbframe, 8 + i * 8);
-			int length = (endOffset - startOffset);
-			byte[] thisFile = new byte[length];
-			try {
-				System.arraycopy(fimgframe, startOffset, thisFile, 0, length);
-			} catch (ArrayIndexOutOfBoundsException ex) {
-				System.out.printf(
-						"AIOBEX: start %d length %d size of frame %d\n",
-						startOffset, length, fimgframe.length);
-			}
-			narc.files.add(thisFile);
+			starts[i] = readLong(wholeFile, fatb + 4 + i * 8);
+			ends[i] = readLong(wholeFile, fatb + 8 + i * 8);
 		}
 		// Filenames?
-		byte[] fntbframe = frames.get("FNTB");
-		int unk1 = readLong(fntbframe, 0);
+		List<String> filenames = new ArrayList<String>();
+		boolean hasFilenames;
+		int fntb = frames.get("FNTB")[0];
+		int unk1 = readLong(wholeFile, fntb);
 		if (unk1 == 8) {
 			// Filenames exist
-			narc.hasFilenames = true;
-			int offset = 8;
+			hasFilenames = true;
+			int offset = fntb + 8;
 			for (int i = 0; i < fileCount; i++) {
-				int fnLength = (fntbframe[offset] & 0xFF);
+				int fnLength = (wholeFile[offset] & 0xFF);
 				offset++;
-				byte[] filenameBA = new byte[fnLength];
-				System.arraycopy(fntbframe, offset, filenameBA, 0, fnLength);
-				String filename = new String(filenameBA, "US-ASCII");
-				narc.filenames.add(filename);
+				String filename = new String(wholeFile, offset, fnLength,
+						"US-ASCII");
+				filenames.add(filename);
 			}
 		} else {
-			narc.hasFilenames = false;
+			hasFilenames = false;
 			for (int i = 0; i < fileCount; i++) {
-				narc.filenames.add(null);
+				filenames.add(null);
 			}
 		}
-		return narc;
+		return new NARCContents(subpath, wholeFile, fimg[0], fimg[1], starts,
+				ends, filenames, hasFilenames);
+	}
+
+	protected static NARCContents copyNARC(NARCContents narc) {
+		return narc == null ? null : narc.copy();
 	}
 
 	public void writeNARC(String subpath, NARCContents narc) throws IOException {
+		if (narc.isUnchanged(subpath)) {
+			// the file already holds exactly this narc
+			return;
+		}
 		// Get bytes required for FIMG frame
 		int bytesRequired = 0;
-		for (byte[] file : narc.files) {
-			bytesRequired += Math.ceil(file.length / 4.0) * 4;
+		for (int i = 0; i < narc.files.size(); i++) {
+			bytesRequired += Math.ceil(narc.fileLength(i) / 4.0) * 4;
 		}
 		// FIMG frame & FATB frame build
 
@@ -176,14 +240,14 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 
 		writeLong(fatbFrame, 8, narc.files.size());
 		for (int i = 0; i < narc.files.size(); i++) {
-			byte[] file = narc.files.get(i);
-			int bytesRequiredForFile = (int) (Math.ceil(file.length / 4.0) * 4);
-			System.arraycopy(file, 0, fimgFrame, offset + 8, file.length);
-			for (int filler = file.length; filler < bytesRequiredForFile; filler++) {
+			int fileLength = narc.fileLength(i);
+			int bytesRequiredForFile = (int) (Math.ceil(fileLength / 4.0) * 4);
+			narc.copyFile(i, fimgFrame, offset + 8);
+			for (int filler = fileLength; filler < bytesRequiredForFile; filler++) {
 				fimgFrame[offset + 8 + filler] = (byte) 0xFF;
 			}
 			writeLong(fatbFrame, 12 + i * 8, offset);
-			writeLong(fatbFrame, 16 + i * 8, offset + file.length);
+			writeLong(fatbFrame, 16 + i * 8, offset + fileLength);
 			offset += bytesRequiredForFile;
 		}
 
@@ -237,18 +301,18 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 		System.arraycopy(fimgFrame, 0, nitroFile, 16 + fatbFrame.length
 				+ fntbFrame.length, fimgFrame.length);
 		this.writeFile(subpath, nitroFile);
+		narc.markRebuilt();
 	}
 
-	private Map<String, byte[]> readNitroFrames(String filename)
+	// frame magic -> {offset of the frame's data, length of the data}
+	private Map<String, int[]> findNitroFrames(byte[] wholeFile)
 			throws IOException {
-		byte[] wholeFile = this.readFile(filename);
-
 		// Read the number of frames
 		int frameCount = readWord(wholeFile, 0x0E);
 
 		// each frame
 		int offset = 0x10;
-		Map<String, byte[]> frames = new TreeMap<String, byte[]>();
+		Map<String, int[]> frames = new TreeMap<String, int[]>();
 		for (int i = 0; i < frameCount; i++) {
 			byte[] magic = new byte[] { wholeFile[offset + 3],
 					wholeFile[offset + 2], wholeFile[offset + 1],
@@ -261,14 +325,12 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 			if (i == frameCount - 1 && offset + frame_size < wholeFile.length) {
 				frame_size = wholeFile.length - offset;
 			}
-			byte[] frame = new byte[frame_size - 8];
-			System.arraycopy(wholeFile, offset + 8, frame, 0, frame_size - 8);
-			frames.put(magicS, frame);
+			frames.put(magicS, new int[] { offset + 8, frame_size - 8 });
 			offset += frame_size;
 		}
 		return frames;
 	}
-	
+
 	protected static String getROMCodeFromFile(String filename) {
 		try {
 			FileInputStream fis = new FileInputStream(filename);
@@ -348,22 +410,6 @@ public abstract class AbstractDSRomHandler extends AbstractRomHandler {
 		baseRom.writeOverlay(number, data);
 	}
 
-	protected void readByteIntoFlags(byte[] data, boolean[] flags,
-			int offsetIntoFlags, int offsetIntoData) {
-		int thisByte = data[offsetIntoData] & 0xFF;
-		for (int i = 0; i < 8 && (i + offsetIntoFlags) < flags.length; i++) {
-			flags[offsetIntoFlags + i] = ((thisByte >> i) & 0x01) == 0x01;
-		}
-	}
-
-	protected byte getByteFromFlags(boolean[] flags, int offsetIntoFlags) {
-		int thisByte = 0;
-		for (int i = 0; i < 8 && (i + offsetIntoFlags) < flags.length; i++) {
-			thisByte |= (flags[offsetIntoFlags + i] ? 1 : 0) << i;
-		}
-		return (byte) thisByte;
-	}
-
 	protected int typeTMPaletteNumber(Type t) {
 		if (t == null) {
 			return 411; // CURSE
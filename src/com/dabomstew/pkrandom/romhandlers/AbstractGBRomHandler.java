@@ -27,12 +27,22 @@ package com.dabomstew.pkrandom.romhandlers;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Random;
 
+import com.dabomstew.pkrandom.BPSPatchWriter;
+import com.dabomstew.pkrandom.FileFunctions;
+import com.dabomstew.pkrandom.IPSPatchWriter;
+
 public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 
 	protected byte[] rom;
 	private String loadedFN;
+	// the snapshot this rom came from, if any, for building patches
+	private RomSnapshot loadedSnapshot;
+	// pages of rom written since it was loaded, so a snapshot's image can
+	// be put back without copying the whole of it
+	private BitSet writtenPages = new BitSet();
 
 	public AbstractGBRomHandler(Random random) {
 		super(random);
@@ -45,11 +55,54 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 			return false;
 		}
 		this.rom = loaded;
+		writtenPages = new BitSet();
 		loadedFN = filename;
+		loadedSnapshot = null;
+		clearModelCache();
 		loadedRom();
 		return true;
 	}
 
+	// this handler keeps the loaded ROM as the snapshot's original, so it
+	// mustn't be randomized itself
+	@Override
+	public RomSnapshot snapshotRom(String filename) {
+		if (!loadRom(filename)) {
+			return null;
+		}
+		return new RomSnapshot(filename, rom, this);
+	}
+
+	@Override
+	public boolean loadRom(RomSnapshot snapshot) {
+		if (snapshot.isNDS() || snapshot.original().getClass() != getClass()) {
+			return false;
+		}
+		byte[] loaded = snapshot.takeImage();
+		// the image is as it was loaded, so anything detecting it scans for
+		// is the same as for the original
+		if (!detectRom(loaded)) {
+			snapshot.returnImage(loaded, new BitSet());
+			return false;
+		}
+		this.rom = loaded;
+		writtenPages = new BitSet();
+		loadedFN = snapshot.getFilename();
+		loadedSnapshot = snapshot;
+		clearModelCache();
+		loadedFrom((AbstractGBRomHandler) snapshot.original());
+		return true;
+	}
+
+	// hands a snapshot's image back for the next working copy; this handler
+	// can't be used after
+	public void discardRom() {
+		if (loadedSnapshot != null && rom != null) {
+			loadedSnapshot.returnImage(rom, writtenPages);
+		}
+		rom = null;
+	}
+
 	@Override
 	public String loadedFilename() {
 		return loadedFN;
@@ -64,7 +117,37 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 			fos.close();
 			return true;
 		} catch (IOException ex) {
-			return false;
+			throw new RuntimeException(ex);
+		}
+	}
+
+	@Override
+	public boolean savePatch(String filename) {
+		savingRom();
+		byte[] base = loadedSnapshot != null ? loadedSnapshot.image()
+				: loadFile(loadedFN);
+		if (base.length == 0) {
+			throw new RuntimeException("Could not read " + loadedFN
+					+ " to patch against");
+		}
+		byte[] patch;
+		if (filename.toLowerCase().endsWith(".ips")) {
+			if (!IPSPatchWriter.canPatch(base, rom)) {
+				return false;
+			}
+			patch = IPSPatchWriter.create(base, rom);
+		} else {
+			BPSPatchWriter bps = new BPSPatchWriter(base);
+			bps.write(0, rom, 0, base.length);
+			patch = bps.build(rom.length);
+		}
+		try {
+			FileOutputStream fos = new FileOutputStream(filename);
+			fos.write(patch);
+			fos.close();
+			return true;
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
 		}
 	}
 
@@ -77,6 +160,10 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 
 	public abstract void loadedRom();
 
+	// as loadedRom, but taking what doesn't change from a handler that has
+	// already loaded the same ROM
+	protected abstract void loadedFrom(AbstractGBRomHandler original);
+
 	public abstract void savingRom();
 
 	protected static byte[] loadFile(String filename) {
@@ -103,22 +190,6 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 		}
 	}
 
-	protected void readByteIntoFlags(boolean[] flags, int offsetIntoFlags,
-			int offsetIntoROM) {
-		int thisByte = rom[offsetIntoROM] & 0xFF;
-		for (int i = 0; i < 8 && (i + offsetIntoFlags) < flags.length; i++) {
-			flags[offsetIntoFlags + i] = ((thisByte >> i) & 0x01) == 0x01;
-		}
-	}
-
-	protected byte getByteFromFlags(boolean[] flags, int offsetIntoFlags) {
-		int thisByte = 0;
-		for (int i = 0; i < 8 && (i + offsetIntoFlags) < flags.length; i++) {
-			thisByte |= (flags[offsetIntoFlags + i] ? 1 : 0) << i;
-		}
-		return (byte) thisByte;
-	}
-
 	protected int readWord(int offset) {
 		return readWord(rom, offset);
 	}
@@ -128,7 +199,30 @@ public abstract class AbstractGBRomHandler extends AbstractRomHandler {
 	}
 
 	protected void writeWord(int offset, int value) {
-		writeWord(rom, offset, value);
+		writeByte(offset, value % 0x100);
+		writeByte(offset + 1, (value / 0x100) % 0x100);
+	}
+
+	// every change to rom goes through these, so the pages it touched are
+	// known
+	protected void writeByte(int offset, int value) {
+		rom[offset] = (byte) value;
+		writtenPages.set(offset / RomSnapshot.PAGE_SIZE);
+	}
+
+	protected void writeBytes(int offset, byte[] data, int start, int length) {
+		System.arraycopy(data, start, rom, offset, length);
+		if (length > 0) {
+			writtenPages.set(offset / RomSnapshot.PAGE_SIZE,
+					(offset + length - 1) / RomSnapshot.PAGE_SIZE + 1);
+		}
+	}
+
+	protected void applyPatch(String patchName) throws IOException {
+		FileFunctions.applyPatch(rom, patchName);
+		// a patch can write anywhere
+		writtenPages.set(0, (rom.length + RomSnapshot.PAGE_SIZE - 1)
+				/ RomSnapshot.PAGE_SIZE);
 	}
 
 	protected void writeWord(byte[] data, int offset, int value) {
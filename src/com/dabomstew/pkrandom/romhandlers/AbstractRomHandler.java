@@ -29,9 +29,12 @@ package com.dabomstew.pkrandom.romhandlers;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -48,9 +51,11 @@ import javax.swing.JOptionPane;
 import com.dabomstew.pkrandom.FileFunctions;
 import com.dabomstew.pkrandom.RomFunctions;
 import com.dabomstew.pkrandom.gui.RandomizerGUI;
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
+import com.dabomstew.pkrandom.pokemon.EvolutionGraph;
 import com.dabomstew.pkrandom.pokemon.ExpCurve;
 import com.dabomstew.pkrandom.pokemon.GenRestrictions;
 import com.dabomstew.pkrandom.pokemon.IngameTrade;
@@ -72,6 +77,14 @@ public abstract class AbstractRomHandler implements RomHandler {
 	protected List<Pokemon> mainPokemonList;
 	protected List<Pokemon> noLegendaryList, onlyLegendaryList;
 	protected final Random random;
+	private PrintStream logStream;
+	private EvolutionGraph evolutionGraph;
+	// parsed tables, shared by every consumer until the ROM is reloaded
+	private List<Trainer> cachedTrainers;
+	private List<EncounterSet> cachedEncounters;
+	private boolean cachedEncountersUseTimeOfDay;
+	private Map<Pokemon, List<MoveLearnt>> cachedMovesLearnt;
+	private ItemList.Sampling itemSampling = ItemList.Sampling.REJECTION;
 
 	/* Constructor */
 
@@ -81,6 +94,99 @@ public abstract class AbstractRomHandler implements RomHandler {
 
 	/* Public Methods, implemented here for all gens */
 
+	@Override
+	public EvolutionGraph getEvolutionGraph() {
+		if (evolutionGraph == null) {
+			evolutionGraph = new EvolutionGraph(this.getPokemon(),
+					this.getEvolutions());
+		}
+		return evolutionGraph;
+	}
+
+	// handlers call this whenever the evolutions may have changed
+	protected void evolutionsChanged() {
+		evolutionGraph = null;
+	}
+
+	// handlers call this when a new ROM has been loaded
+	protected void clearModelCache() {
+		evolutionsChanged();
+		cachedTrainers = null;
+		cachedEncounters = null;
+		cachedMovesLearnt = null;
+	}
+
+	// copies of another handler's loaded Pokemon and moves, so a handler
+	// starting from the same ROM doesn't have to decode them again
+	protected static Pokemon[] copyPokemon(Pokemon[] pokes) {
+		Pokemon[] copy = new Pokemon[pokes.length];
+		for (int i = 0; i < pokes.length; i++) {
+			copy[i] = pokes[i] == null ? null : new Pokemon(pokes[i]);
+		}
+		return copy;
+	}
+
+	protected static Move[] copyMoves(Move[] moves) {
+		Move[] copy = new Move[moves.length];
+		for (int i = 0; i < moves.length; i++) {
+			copy[i] = moves[i] == null ? null : new Move(moves[i]);
+		}
+		return copy;
+	}
+
+	/*
+	 * Trainers, encounters and movesets are decoded once and the same models
+	 * are handed to every caller. Setters write the table straight back to
+	 * the ROM (other handler code reads some of these tables directly) and
+	 * keep the models they were given, so nothing is decoded twice.
+	 */
+
+	@Override
+	public List<Trainer> getTrainers() {
+		if (cachedTrainers == null) {
+			cachedTrainers = this.loadTrainers();
+		}
+		return cachedTrainers;
+	}
+
+	@Override
+	public void setTrainers(List<Trainer> trainerData) {
+		this.saveTrainers(trainerData);
+		cachedTrainers = trainerData;
+	}
+
+	@Override
+	public List<EncounterSet> getEncounters(boolean useTimeOfDay) {
+		if (cachedEncounters == null
+				|| cachedEncountersUseTimeOfDay != useTimeOfDay) {
+			cachedEncounters = this.loadEncounters(useTimeOfDay);
+			cachedEncountersUseTimeOfDay = useTimeOfDay;
+		}
+		return cachedEncounters;
+	}
+
+	@Override
+	public void setEncounters(boolean useTimeOfDay,
+			List<EncounterSet> encounters) {
+		this.saveEncounters(useTimeOfDay, encounters);
+		cachedEncounters = encounters;
+		cachedEncountersUseTimeOfDay = useTimeOfDay;
+	}
+
+	@Override
+	public Map<Pokemon, List<MoveLearnt>> getMovesLearnt() {
+		if (cachedMovesLearnt == null) {
+			cachedMovesLearnt = this.loadMovesLearnt();
+		}
+		return cachedMovesLearnt;
+	}
+
+	@Override
+	public void setMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+		this.saveMovesLearnt(movesets);
+		cachedMovesLearnt = movesets;
+	}
+
 	protected void checkPokemonRestrictions() {
 		if (!restrictionsSet) {
 			setPokemonPool(null);
@@ -93,7 +199,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 		if (restrictions != null) {
 			mainPokemonList = new ArrayList<Pokemon>();
 			List<Pokemon> allPokemon = this.getPokemon();
-			List<Evolution> evos = this.getEvolutions();
+			List<Evolution> evos = this.getEvolutionGraph().getEvolutions();
 
 			if (restrictions.allow_gen1) {
 				addPokesFromRange(mainPokemonList, allPokemon, 1, 151);
@@ -198,7 +304,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 	@Override
 	public void randomizePokemonStats(boolean evolutionSanity) {
 		List<Pokemon> allPokes = this.getPokemon();
-		List<Evolution> evolutions = this.getEvolutions();
+		EvolutionGraph evolutions = this.getEvolutionGraph();
 		if (evolutionSanity) {
 			// Spread stats up MOST evolutions.
 			Set<Pokemon> dontCopyPokes = RomFunctions
@@ -207,17 +313,19 @@ public abstract class AbstractRomHandler implements RomHandler {
 			for (Pokemon pk : dontCopyPokes) {
 				pk.randomizeStatsWithinBST(this.random);
 			}
+			// evolutions whose stats have been carried already
+			Set<Evolution> done = new HashSet<Evolution>();
 			// go "up" evolutions looking for pre-evos to do first
-			for (Evolution evo : evolutions) {
-				if (evo.carryStats) {
+			for (Evolution evo : evolutions.getEvolutions()) {
+				if (evo.carryStats && !done.contains(evo)) {
 					Stack<Evolution> currentStack = new Stack<Evolution>();
 					Evolution current = evo;
 					while (current != null) {
 						Evolution last = current;
 						currentStack.push(last);
 						current = null;
-						for (Evolution evo2 : evolutions) {
-							if (last.from == evo2.to && evo2.carryStats) {
+						for (Evolution evo2 : evolutions.evolutionsTo(last.from)) {
+							if (evo2.carryStats && !done.contains(evo2)) {
 								current = evo2;
 								break;
 							}
@@ -226,8 +334,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 					// now we have a stack of evolutions
 					while (!currentStack.isEmpty()) {
 						Evolution useEvo = currentStack.pop();
-						useEvo.carryStats = false; // so we don't waste time
-													// later
+						done.add(useEvo); // so we don't waste time later
 						Pokemon to = useEvo.to;
 						Pokemon from = useEvo.from;
 						to.copyRandomizedStatsUpEvolution(from);
@@ -487,7 +594,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 		if (twoEvoPokes == null) {
 			// Prepare the list
 			List<Pokemon> remainingPokes = allPokemonWithoutNull();
-			List<Evolution> allEvos = this.getEvolutions();
+			List<Evolution> allEvos = this.getEvolutionGraph().getEvolutions();
 			Map<Pokemon, Pokemon> reverseKeepPokemon = new TreeMap<Pokemon, Pokemon>();
 			for (Evolution e : allEvos) {
 				reverseKeepPokemon.put(e.to, e.from);
@@ -517,58 +624,20 @@ public abstract class AbstractRomHandler implements RomHandler {
 		// Assume EITHER catch em all OR type themed OR match strength for now
 		if (catchEmAll) {
 
-			List<Pokemon> allPokes = noLegendaries ? new ArrayList<Pokemon>(
-					noLegendaryList) : new ArrayList<Pokemon>(mainPokemonList);
-			allPokes.removeAll(banned);
+			CatchEmAllPool allPokes = catchEmAllPool(noLegendaries, banned);
 			for (EncounterSet area : currentEncounters) {
 				for (Encounter enc : area.encounters) {
 					// Pick a random pokemon
-					int picked = this.random.nextInt(allPokes.size());
-					enc.pokemon = allPokes.get(picked);
-					int n_trials = 0;
-					while(n_trials < 50 && enc.level < 10 && !isGoodCatchable(enc.pokemon)) {
-						n_trials += 1;
-						picked = this.random.nextInt(allPokes.size());
-						enc.pokemon = allPokes.get(picked);
-					}
-					if (area.battleTrappersBanned
-							&& hasBattleTrappingAbility(enc.pokemon)) {
-						// Skip past this Pokemon for now and just pick a random
-						// one
-						List<Pokemon> pickable = noLegendaries ? new ArrayList<Pokemon>(
-								noLegendaryList) : new ArrayList<Pokemon>(
-								mainPokemonList);
-						pickable.removeAll(banned);
-						if (pickable.size() == 0) {
-							JOptionPane.showMessageDialog(null,
-									"ERROR: Couldn't replace a Pokemon!");
-							return;
-						}
-						while (hasBattleTrappingAbility(enc.pokemon)) {
-							picked = this.random.nextInt(pickable.size());
-							enc.pokemon = pickable.get(picked);
-						}
-					} else {
-						// Picked this Pokemon, remove it
-						allPokes.remove(picked);
-						if (allPokes.size() == 0) {
-							// Start again
-							allPokes.addAll(noLegendaries ? noLegendaryList
-									: mainPokemonList);
-							allPokes.removeAll(banned);
-						}
-					}
+					enc.pokemon = allPokes.pick(this.random, enc.level < 10,
+							area.battleTrappersBanned);
 				}
 			}
 		} else if (typeThemed) {
-			Map<Type, List<Pokemon>> cachedPokeLists = new TreeMap<Type, List<Pokemon>>();
+			TypePoolTable typePools = new TypePoolTable(mainPokemonList, null);
 			for (EncounterSet area : currentEncounters) {
 				Type areaTheme = randomType();
-				if (!cachedPokeLists.containsKey(areaTheme)) {
-					cachedPokeLists.put(areaTheme,
-							pokemonOfType(areaTheme, noLegendaries));
-				}
-				List<Pokemon> possiblePokemon = cachedPokeLists.get(areaTheme);
+				List<Pokemon> possiblePokemon = typePools.get(areaTheme,
+						noLegendaries);
 				for (Encounter enc : area.encounters) {
 					// Pick a random themed pokemon
 					enc.pokemon = possiblePokemon.get(this.random
@@ -584,9 +653,10 @@ public abstract class AbstractRomHandler implements RomHandler {
 			List<Pokemon> allowedPokes = noLegendaries ? new ArrayList<Pokemon>(
 					noLegendaryList) : new ArrayList<Pokemon>(mainPokemonList);
 			allowedPokes.removeAll(banned);
+			PowerLevelIndex allowedIndex = new PowerLevelIndex(allowedPokes);
 			for (EncounterSet area : currentEncounters) {
 				for (Encounter enc : area.encounters) {
-					enc.pokemon = pickWildPowerLvlReplacement(allowedPokes,
+					enc.pokemon = pickWildPowerLvlReplacement(allowedIndex,
 							enc.pokemon, area.battleTrappersBanned, false, null);
 				}
 			}
@@ -617,9 +687,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 		List<Pokemon> banned = this.bannedForWildEncounters();
 		// Assume EITHER catch em all OR type themed for now
 		if (catchEmAll) {
-			List<Pokemon> allPokes = noLegendaries ? new ArrayList<Pokemon>(
-					noLegendaryList) : new ArrayList<Pokemon>(mainPokemonList);
-			allPokes.removeAll(banned);
+			CatchEmAllPool allPokes = catchEmAllPool(noLegendaries, banned);
 			for (EncounterSet area : currentEncounters) {
 				int max_level = 0;
 				for(Encounter enc : area.encounters) {
@@ -630,42 +698,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 				// Build area map using catch em all
 				Map<Pokemon, Pokemon> areaMap = new TreeMap<Pokemon, Pokemon>();
 				for (Pokemon areaPk : inArea) {
-					int picked = this.random.nextInt(allPokes.size());
-					Pokemon pickedMN = allPokes.get(picked);
-					int n_trials = 0;
-					while(n_trials < 50 && max_level < 10 && !isGoodCatchable(pickedMN)) {
-						n_trials += 1;
-						picked = this.random.nextInt(allPokes.size());
-						pickedMN = allPokes.get(picked);
-					}
-					if (area.battleTrappersBanned
-							&& hasBattleTrappingAbility(pickedMN)) {
-						// Skip past this Pokemon for now and just pick a random
-						// one
-						List<Pokemon> pickable = noLegendaries ? new ArrayList<Pokemon>(
-								noLegendaryList) : new ArrayList<Pokemon>(
-								mainPokemonList);
-						pickable.removeAll(banned);
-						if (pickable.size() == 0) {
-							JOptionPane.showMessageDialog(null,
-									"ERROR: Couldn't replace a Pokemon!");
-							return;
-						}
-						while (hasBattleTrappingAbility(pickedMN)) {
-							picked = this.random.nextInt(pickable.size());
-							pickedMN = pickable.get(picked);
-						}
-						areaMap.put(areaPk, pickedMN);
-					} else {
-						areaMap.put(areaPk, pickedMN);
-						allPokes.remove(picked);
-						if (allPokes.size() == 0) {
-							// Start again
-							allPokes.addAll(noLegendaries ? noLegendaryList
-									: mainPokemonList);
-							allPokes.removeAll(banned);
-						}
-					}
+					areaMap.put(areaPk, allPokes.pick(this.random,
+							max_level < 10, area.battleTrappersBanned));
 				}
 				for (Encounter enc : area.encounters) {
 					// Apply the map
@@ -673,15 +707,11 @@ public abstract class AbstractRomHandler implements RomHandler {
 				}
 			}
 		} else if (typeThemed) {
-			Map<Type, List<Pokemon>> cachedPokeLists = new TreeMap<Type, List<Pokemon>>();
+			TypePoolTable typePools = new TypePoolTable(mainPokemonList, null);
 			for (EncounterSet area : currentEncounters) {
 				Type areaTheme = randomType();
-				if (!cachedPokeLists.containsKey(areaTheme)) {
-					cachedPokeLists.put(areaTheme,
-							pokemonOfType(areaTheme, noLegendaries));
-				}
 				List<Pokemon> possiblePokemon = new ArrayList<Pokemon>(
-						cachedPokeLists.get(areaTheme));
+						typePools.get(areaTheme, noLegendaries));
 				possiblePokemon.removeAll(banned);
 				// Poke-set
 				Set<Pokemon> inArea = pokemonInArea(area);
@@ -695,7 +725,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 						// Skip past this Pokemon for now and just pick a random
 						// one
 						List<Pokemon> pickable = new ArrayList<Pokemon>(
-								cachedPokeLists.get(areaTheme));
+								typePools.get(areaTheme, noLegendaries));
 						pickable.removeAll(banned);
 						if (pickable.size() == 0) {
 							// Try all Pokemon instead
@@ -719,8 +749,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 						possiblePokemon.remove(picked);
 						if (possiblePokemon.size() == 0) {
 							// Start again
-							possiblePokemon.addAll(cachedPokeLists
-									.get(areaTheme));
+							possiblePokemon.addAll(typePools.get(areaTheme,
+									noLegendaries));
 							possiblePokemon.removeAll(banned);
 						}
 					}
@@ -734,6 +764,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 			List<Pokemon> allowedPokes = noLegendaries ? new ArrayList<Pokemon>(
 					noLegendaryList) : new ArrayList<Pokemon>(mainPokemonList);
 			allowedPokes.removeAll(banned);
+			PowerLevelIndex allowedIndex = new PowerLevelIndex(allowedPokes);
 			for (EncounterSet area : currentEncounters) {
 				// Poke-set
 				Set<Pokemon> inArea = pokemonInArea(area);
@@ -741,7 +772,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 				Map<Pokemon, Pokemon> areaMap = new TreeMap<Pokemon, Pokemon>();
 				List<Pokemon> usedPks = new ArrayList<Pokemon>();
 				for (Pokemon areaPk : inArea) {
-					Pokemon picked = pickWildPowerLvlReplacement(allowedPokes,
+					Pokemon picked = pickWildPowerLvlReplacement(allowedIndex,
 							areaPk, area.battleTrappersBanned, false, usedPks);
 					areaMap.put(areaPk, picked);
 					usedPks.add(picked);
@@ -801,6 +832,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 			remainingLeft.remove(bannedPK);
 			remainingRight.remove(bannedPK);
 		}
+		PowerLevelIndex remainingIndex = usePowerLevels ? new PowerLevelIndex(
+				remainingRight) : null;
 		while (remainingLeft.isEmpty() == false) {
 			if (usePowerLevels) {
 				int pickedLeft = this.random.nextInt(remainingLeft.size());
@@ -811,10 +844,11 @@ public abstract class AbstractRomHandler implements RomHandler {
 					pickedRightP = remainingRight.get(0);
 				} else {
 					// pick on power level with the current one blocked
-					pickedRightP = pickWildPowerLvlReplacement(remainingRight,
+					pickedRightP = pickWildPowerLvlReplacement(remainingIndex,
 							pickedLeftP, false, true, null);
 				}
 				remainingRight.remove(pickedRightP);
+				remainingIndex.remove(pickedRightP);
 				translateMap.put(pickedLeftP, pickedRightP);
 			} else {
 				int pickedLeft = this.random.nextInt(remainingLeft.size());
@@ -835,6 +869,9 @@ public abstract class AbstractRomHandler implements RomHandler {
 				remainingRight.addAll(noLegendaries ? noLegendaryList
 						: mainPokemonList);
 				remainingRight.removeAll(banned);
+				if (remainingIndex != null) {
+					remainingIndex.restoreAll();
+				}
 			}
 		}
 
@@ -847,6 +884,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 		}
 
 		List<EncounterSet> currentEncounters = this.getEncounters(useTimeOfDay);
+		PowerLevelIndex pickableIndex = null;
 
 		for (EncounterSet area : currentEncounters) {
 			for (Encounter enc : area.encounters) {
@@ -865,7 +903,10 @@ public abstract class AbstractRomHandler implements RomHandler {
 						return;
 					}
 					if (usePowerLevels) {
-						enc.pokemon = pickWildPowerLvlReplacement(pickable,
+						if (pickableIndex == null) {
+							pickableIndex = new PowerLevelIndex(pickable);
+						}
+						enc.pokemon = pickWildPowerLvlReplacement(pickableIndex,
 								enc.pokemon, true, false, null);
 					} else {
 						while (hasBattleTrappingAbility(enc.pokemon)) {
@@ -887,9 +928,10 @@ public abstract class AbstractRomHandler implements RomHandler {
 			boolean noEarlyWonderGuard) {
 		checkPokemonRestrictions();
 		List<Trainer> currentTrainers = this.getTrainers();
-		cachedReplacementLists = new TreeMap<Type, List<Pokemon>>();
-		cachedAllList = noLegendaries ? new ArrayList<Pokemon>(noLegendaryList)
-				: new ArrayList<Pokemon>(mainPokemonList);
+		cachedTypePools = new TypePoolTable(mainPokemonList,
+				getEvolutionGraph());
+		cachedReplacementIndexes = new TreeMap<Type, PowerLevelIndex>();
+		cachedAllIndex = null;
 
 		// Fully random is easy enough - randomize then worry about rival
 		// carrying starter at the end
@@ -920,63 +962,49 @@ public abstract class AbstractRomHandler implements RomHandler {
 			boolean noLegendaries, boolean noEarlyWonderGuard) {
 		checkPokemonRestrictions();
 		List<Trainer> currentTrainers = this.getTrainers();
-		cachedReplacementLists = new TreeMap<Type, List<Pokemon>>();
-		cachedAllList = noLegendaries ? new ArrayList<Pokemon>(noLegendaryList)
-				: new ArrayList<Pokemon>(mainPokemonList);
-		typeWeightings = new TreeMap<Type, Integer>();
-		totalTypeWeighting = 0;
+		cachedTypePools = new TypePoolTable(mainPokemonList,
+				getEvolutionGraph());
+		cachedReplacementIndexes = new TreeMap<Type, PowerLevelIndex>();
+		cachedAllIndex = null;
+		typeWeightings = null;
 
 		// Construct groupings for types
 		// Anything starting with GYM or ELITE or CHAMPION is a group
-		Set<Trainer> assignedTrainers = new TreeSet<Trainer>();
+		// Tags are parsed once; groups are keyed by the interned group name
+		// and kept sorted, which is the order their types are drawn in
+		boolean[] assignedTrainers = new boolean[currentTrainers.size()];
 		Map<String, List<Trainer>> groups = new TreeMap<String, List<Trainer>>();
-		for (Trainer t : currentTrainers) {
-			if (t.tag != null && t.tag.equals("IRIVAL")) {
-				continue; // skip
-			}
-			String group = t.tag == null ? "" : t.tag;
-			if (group.contains("-")) {
-				group = group.substring(0, group.indexOf('-'));
-			}
-			if (group.startsWith("GYM") || group.startsWith("ELITE")
-					|| group.startsWith("CHAMPION")
-					|| group.startsWith("THEMED")) {
-				// Yep this is a group
-				if (!groups.containsKey(group)) {
-					groups.put(group, new ArrayList<Trainer>());
+		for (int i = 0; i < currentTrainers.size(); i++) {
+			String group = trainerGroup(currentTrainers.get(i));
+			if (group != null) {
+				List<Trainer> trainersInGroup = groups.get(group);
+				if (trainersInGroup == null) {
+					trainersInGroup = new ArrayList<Trainer>();
+					groups.put(group, trainersInGroup);
 				}
-				groups.get(group).add(t);
-				assignedTrainers.add(t);
-			} else if (group.startsWith("GIO")) {
-				// Giovanni has same grouping as his gym, gym 8
-				if (!groups.containsKey("GYM8")) {
-					groups.put("GYM8", new ArrayList<Trainer>());
-				}
-				groups.get("GYM8").add(t);
-				assignedTrainers.add(t);
+				trainersInGroup.add(currentTrainers.get(i));
+				assignedTrainers[i] = true;
 			}
 		}
 
 		// Give a type to each group
 		// Gym & elite types have to be unique
 		// So do uber types, including the type we pick for champion
-		Set<Type> usedGymTypes = new TreeSet<Type>();
-		Set<Type> usedEliteTypes = new TreeSet<Type>();
-		Set<Type> usedUberTypes = new TreeSet<Type>();
-		for (String group : groups.keySet()) {
-			List<Trainer> trainersInGroup = groups.get(group);
-			Type typeForGroup = pickType(weightByFrequency, noLegendaries);
+		Set<Type> usedGymTypes = EnumSet.noneOf(Type.class);
+		Set<Type> usedEliteTypes = EnumSet.noneOf(Type.class);
+		Set<Type> usedUberTypes = EnumSet.noneOf(Type.class);
+		for (Map.Entry<String, List<Trainer>> groupEntry : groups.entrySet()) {
+			String group = groupEntry.getKey();
+			List<Trainer> trainersInGroup = groupEntry.getValue();
+			Type typeForGroup;
 			if (group.startsWith("GYM")) {
-				while (usedGymTypes.contains(typeForGroup)) {
-					typeForGroup = pickType(weightByFrequency, noLegendaries);
-				}
-				usedGymTypes.add(typeForGroup);
-			}
-			if (group.startsWith("ELITE")) {
-				while (usedEliteTypes.contains(typeForGroup)) {
-					typeForGroup = pickType(weightByFrequency, noLegendaries);
-				}
-				usedEliteTypes.add(typeForGroup);
+				typeForGroup = pickUnusedType(usedGymTypes, weightByFrequency,
+						noLegendaries);
+			} else if (group.startsWith("ELITE")) {
+				typeForGroup = pickUnusedType(usedEliteTypes,
+						weightByFrequency, noLegendaries);
+			} else {
+				typeForGroup = pickType(weightByFrequency, noLegendaries);
 			}
 			if (group.equals("CHAMPION")) {
 				usedUberTypes.add(typeForGroup);
@@ -992,20 +1020,20 @@ public abstract class AbstractRomHandler implements RomHandler {
 		}
 
 		// Give a type to each unassigned trainer
-		for (Trainer t : currentTrainers) {
+		for (int i = 0; i < currentTrainers.size(); i++) {
+			Trainer t = currentTrainers.get(i);
 			if (t.tag != null && t.tag.equals("IRIVAL")) {
 				continue; // skip
 			}
 
-			if (!assignedTrainers.contains(t)) {
-				Type typeForTrainer = pickType(weightByFrequency, noLegendaries);
+			if (!assignedTrainers[i]) {
+				Type typeForTrainer;
 				// Ubers: can't have the same type as each other
 				if (t.tag != null && t.tag.equals("UBER")) {
-					while (usedUberTypes.contains(typeForTrainer)) {
-						typeForTrainer = pickType(weightByFrequency,
-								noLegendaries);
-					}
-					usedUberTypes.add(typeForTrainer);
+					typeForTrainer = pickUnusedType(usedUberTypes,
+							weightByFrequency, noLegendaries);
+				} else {
+					typeForTrainer = pickType(weightByFrequency, noLegendaries);
 				}
 				for (TrainerPokemon tp : t.pokemon) {
 					boolean shedAllowed = (!noEarlyWonderGuard)
@@ -1039,6 +1067,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 				: Collections.EMPTY_LIST;
 		allBanned.addAll(banned);
 		allBanned.addAll(this.getMovesBannedFromLevelup());
+		MoveCandidateIndex candidates = new MoveCandidateIndex(
+				this.getMoves(), allBanned);
 		for (Pokemon pkmn : movesets.keySet()) {
 			Set<Integer> learnt = new TreeSet<Integer>();
 			List<MoveLearnt> moves = movesets.get(pkmn);
@@ -1060,7 +1090,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 				}
 			}
 			// Last level 1 move should be replaced with a damaging one
-			int damagingMove = pickMove(pkmn, typeThemed, true, allBanned);
+			int damagingMove = pickMove(pkmn, typeThemed, true, candidates);
 			// Find last lv1 move
 			// lv1index ends up as the index of the first non-lv1 move
 			int lv1index = 0;
@@ -1079,9 +1109,9 @@ public abstract class AbstractRomHandler implements RomHandler {
 				if (i == (lv1index - 1)) {
 					continue;
 				}
-				int picked = pickMove(pkmn, typeThemed, false, allBanned);
+				int picked = pickMove(pkmn, typeThemed, false, candidates);
 				while (learnt.contains(picked)) {
-					picked = pickMove(pkmn, typeThemed, false, allBanned);
+					picked = pickMove(pkmn, typeThemed, false, candidates);
 				}
 				moves.get(i).move = picked;
 				learnt.add(picked);
@@ -1258,17 +1288,27 @@ public abstract class AbstractRomHandler implements RomHandler {
 		// Get current compatibility
 		// new: increase HM chances if required early on
 		List<Integer> requiredEarlyOn = this.getEarlyRequiredHMMoves();
-		Map<Pokemon, boolean[]> compat = this.getTMHMCompatibility();
+		CompatibilityMatrix compat = this.getTMHMCompatibility();
 		List<Integer> tmHMs = new ArrayList<Integer>(this.getTMMoves());
 		List<Integer> HMMoves = this.getHMMoves();
 		tmHMs.addAll(HMMoves);
 		List<Move> moveData = this.getMoves();
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compat.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
-			for (int i = 1; i <= tmHMs.size(); i++) {
-				int move = tmHMs.get(i - 1);
-				Move mv = moveData.get(move);
+		// per-column move data, looked up once rather than per Pokemon
+		int columns = tmHMs.size();
+		Move[] columnMoves = new Move[columns + 1];
+		boolean[] earlyColumns = new boolean[columns + 1];
+		boolean[] alwaysColumns = new boolean[columns + 1];
+		for (int i = 1; i <= columns; i++) {
+			int move = tmHMs.get(i - 1);
+			columnMoves[i] = moveData.get(move);
+			earlyColumns[i] = requiredEarlyOn.contains(move);
+			// exclude gen 1 surf
+			alwaysColumns[i] = !(getGen() == 1 && move == 57)
+					&& HMMoves.contains(move);
+		}
+		for (Pokemon pkmn : compat.getPokemon()) {
+			for (int i = 1; i <= columns; i++) {
+				Move mv = columnMoves[i];
 				double probability = 0.6;
 				if (preferSameType) {
 					if (pkmn.primaryType.equals(mv.type)
@@ -1281,14 +1321,13 @@ public abstract class AbstractRomHandler implements RomHandler {
 						probability = 0.25;
 					}
 				}
-				if (requiredEarlyOn.contains(move)) {
+				if (earlyColumns[i]) {
 					probability = Math.min(1.0, probability * 1.5);
 				}
-				// exclude gen 1 surf
-				if(!(getGen() == 1 && move == 57) && HMMoves.contains(move)) {
+				if (alwaysColumns[i]) {
 					probability = 1.0;
 				}
-				flags[i] = (this.random.nextDouble() < probability);
+				compat.set(pkmn, i, this.random.nextDouble() < probability);
 			}
 		}
 
@@ -1298,13 +1337,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 
 	@Override
 	public void fullTMHMCompatibility() {
-		Map<Pokemon, boolean[]> compat = this.getTMHMCompatibility();
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compat.entrySet()) {
-			boolean[] flags = compatEntry.getValue();
-			for (int i = 1; i < flags.length; i++) {
-				flags[i] = true;
-			}
-		}
+		CompatibilityMatrix compat = this.getTMHMCompatibility();
+		compat.fill();
 		this.setTMHMCompatibility(compat);
 	}
 
@@ -1313,19 +1347,9 @@ public abstract class AbstractRomHandler implements RomHandler {
 		// if a pokemon learns a move in its moveset
 		// and there is a TM of that move, make sure
 		// that TM can be learned.
-		Map<Pokemon, boolean[]> compat = this.getTMHMCompatibility();
+		CompatibilityMatrix compat = this.getTMHMCompatibility();
 		Map<Pokemon, List<MoveLearnt>> movesets = this.getMovesLearnt();
-		List<Integer> tmMoves = this.getTMMoves();
-		for (Pokemon pkmn : compat.keySet()) {
-			List<MoveLearnt> moveset = movesets.get(pkmn);
-			boolean[] pkmnCompat = compat.get(pkmn);
-			for (MoveLearnt ml : moveset) {
-				if (tmMoves.contains(ml.move)) {
-					int tmIndex = tmMoves.indexOf(ml.move);
-					pkmnCompat[tmIndex + 1] = true;
-				}
-			}
-		}
+		ensureCompatSanity(compat, movesets, this.getTMMoves());
 		this.setTMHMCompatibility(compat);
 	}
 
@@ -1374,15 +1398,17 @@ public abstract class AbstractRomHandler implements RomHandler {
 			return;
 		}
 		// Get current compatibility
-		Map<Pokemon, boolean[]> compat = this.getMoveTutorCompatibility();
+		CompatibilityMatrix compat = this.getMoveTutorCompatibility();
 		List<Integer> mts = this.getMoveTutorMoves();
 		List<Move> moveData = this.getMoves();
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compat.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
-			for (int i = 1; i <= mts.size(); i++) {
-				int move = mts.get(i - 1);
-				Move mv = moveData.get(move);
+		int columns = mts.size();
+		Move[] columnMoves = new Move[columns + 1];
+		for (int i = 1; i <= columns; i++) {
+			columnMoves[i] = moveData.get(mts.get(i - 1));
+		}
+		for (Pokemon pkmn : compat.getPokemon()) {
+			for (int i = 1; i <= columns; i++) {
+				Move mv = columnMoves[i];
 				double probability = 0.5;
 				if (preferSameType) {
 					if (pkmn.primaryType.equals(mv.type)
@@ -1395,7 +1421,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 						probability = 0.25;
 					}
 				}
-				flags[i] = (this.random.nextDouble() < probability);
+				compat.set(pkmn, i, this.random.nextDouble() < probability);
 			}
 		}
 
@@ -1409,13 +1435,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 		if (!this.hasMoveTutors()) {
 			return;
 		}
-		Map<Pokemon, boolean[]> compat = this.getMoveTutorCompatibility();
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compat.entrySet()) {
-			boolean[] flags = compatEntry.getValue();
-			for (int i = 1; i < flags.length; i++) {
-				flags[i] = true;
-			}
-		}
+		CompatibilityMatrix compat = this.getMoveTutorCompatibility();
+		compat.fill();
 		this.setMoveTutorCompatibility(compat);
 	}
 
@@ -1427,21 +1448,31 @@ public abstract class AbstractRomHandler implements RomHandler {
 		// if a pokemon learns a move in its moveset
 		// and there is a tutor of that move, make sure
 		// that tutor can be learned.
-		Map<Pokemon, boolean[]> compat = this.getMoveTutorCompatibility();
+		CompatibilityMatrix compat = this.getMoveTutorCompatibility();
 		Map<Pokemon, List<MoveLearnt>> movesets = this.getMovesLearnt();
-		List<Integer> mtMoves = this.getMoveTutorMoves();
-		for (Pokemon pkmn : compat.keySet()) {
-			List<MoveLearnt> moveset = movesets.get(pkmn);
-			boolean[] pkmnCompat = compat.get(pkmn);
-			for (MoveLearnt ml : moveset) {
-				if (mtMoves.contains(ml.move)) {
-					int mtIndex = mtMoves.indexOf(ml.move);
-					pkmnCompat[mtIndex + 1] = true;
+		ensureCompatSanity(compat, movesets, this.getMoveTutorMoves());
+		this.setMoveTutorCompatibility(compat);
+
+	}
+
+	// sets the column of every move in each Pokemon's level-up moveset
+	private void ensureCompatSanity(CompatibilityMatrix compat,
+			Map<Pokemon, List<MoveLearnt>> movesets, List<Integer> columnMoves) {
+		// column of each move, the first one if a move is taught twice
+		Map<Integer, Integer> columnOf = new HashMap<Integer, Integer>();
+		for (int i = columnMoves.size(); i >= 1; i--) {
+			columnOf.put(columnMoves.get(i - 1), i);
+		}
+		for (Pokemon pkmn : compat.getPokemon()) {
+			long[] mask = compat.columnMask();
+			for (MoveLearnt ml : movesets.get(pkmn)) {
+				Integer column = columnOf.get(ml.move);
+				if (column != null) {
+					CompatibilityMatrix.setInMask(mask, column);
 				}
 			}
+			compat.or(pkmn, mask);
 		}
-		this.setMoveTutorCompatibility(compat);
-
 	}
 
 	@SuppressWarnings("unchecked")
@@ -1547,6 +1578,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 
 		// Done choosing, save
 		this.setTrainerNames(newTrainerNames);
+		// trainer models carry their display names
+		cachedTrainers = null;
 	}
 
 	@Override
@@ -1650,6 +1683,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 
 		// Done choosing, save
 		this.setTrainerClassNames(newClassNames);
+		cachedTrainers = null;
 	}
 
 	@Override
@@ -1658,11 +1692,25 @@ public abstract class AbstractRomHandler implements RomHandler {
 		return Integer.MAX_VALUE;
 	}
 
+	@Override
+	public void setItemSampling(ItemList.Sampling sampling) {
+		this.itemSampling = sampling;
+	}
+
+	@Override
+	public ItemList.Sampling getItemSampling() {
+		return itemSampling;
+	}
+
+	private ItemList.Sampler itemSampler(ItemList items) {
+		return items.sampler(itemSampling);
+	}
+
 	@Override
 	public void randomizeWildHeldItems(boolean banBadItems) {
 		List<Pokemon> pokemon = allPokemonWithoutNull();
-		ItemList possibleItems = banBadItems ? this.getNonBadItems() : this
-				.getAllowedItems();
+		ItemList.Sampler possibleItems = itemSampler(banBadItems ? this
+				.getNonBadItems() : this.getAllowedItems());
 		for (Pokemon pk : pokemon) {
 			if (pk.guaranteedHeldItem == -1 && pk.commonHeldItem == -1
 					&& pk.rareHeldItem == -1 && pk.darkGrassHeldItem == -1) {
@@ -1770,8 +1818,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 	public void randomizeStarterHeldItems(boolean banBadItems) {
 		List<Integer> oldHeldItems = this.getStarterHeldItems();
 		List<Integer> newHeldItems = new ArrayList<Integer>();
-		ItemList possibleItems = banBadItems ? this.getNonBadItems() : this
-				.getAllowedItems();
+		ItemList.Sampler possibleItems = itemSampler(banBadItems ? this
+				.getNonBadItems() : this.getAllowedItems());
 		for (int i = 0; i < oldHeldItems.size(); i++) {
 			newHeldItems.add(possibleItems.randomItem(this.random));
 		}
@@ -1792,8 +1840,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 
 	@Override
 	public void randomizeFieldItems(boolean banBadItems) {
-		ItemList possibleItems = banBadItems ? this.getNonBadItems() : this
-				.getAllowedItems();
+		ItemList.Sampler possibleItems = itemSampler(banBadItems ? this
+				.getNonBadItems() : this.getAllowedItems());
 		List<Integer> currentItems = this.getRegularFieldItems();
 		List<Integer> currentTMs = this.getCurrentFieldTMs();
 		List<Integer> requiredTMs = this.getRequiredFieldTMs();
@@ -1909,7 +1957,7 @@ public abstract class AbstractRomHandler implements RomHandler {
 		List<Pokemon> usedGivens = new ArrayList<Pokemon>();
 		List<String> usedOTs = new ArrayList<String>();
 		List<String> usedNicknames = new ArrayList<String>();
-		ItemList possibleItems = this.getAllowedItems();
+		ItemList.Sampler possibleItems = itemSampler(this.getAllowedItems());
 
 		int nickCount = nicknames.size();
 		int trnameCount = singleTrainerNames.size();
@@ -2483,94 +2531,99 @@ public abstract class AbstractRomHandler implements RomHandler {
 	}
 
 	private int pickMove(Pokemon pkmn, boolean typeThemed, boolean damaging,
-			List<Integer> bannedForThisGame) {
-
-		// If damaging, we want a move with at least 80% accuracy and 2 power
-		List<Move> allMoves = this.getMoves();
-		Type typeOfMove = null;
-		double picked = this.random.nextDouble();
-		// Type?
-		if (typeThemed) {
-			if (pkmn.primaryType == Type.NORMAL
-					|| pkmn.secondaryType == Type.NORMAL) {
-				if (pkmn.secondaryType == null) {
-					// Pure NORMAL: 75% normal, 25% random
-					if (picked < 0.75) {
+			MoveCandidateIndex candidates) {
+		// Rerolls keep any damaging roll, so a reroll of a status pick may
+		// ask for an accurate damaging move instead
+		while (true) {
+			// If damaging, we want a move with at least 80% accuracy and 2 power
+			Type typeOfMove = null;
+			double picked = this.random.nextDouble();
+			// Type?
+			if (typeThemed) {
+				if (pkmn.primaryType == Type.NORMAL
+						|| pkmn.secondaryType == Type.NORMAL) {
+					if (pkmn.secondaryType == null) {
+						// Pure NORMAL: 75% normal, 25% random
+						if (picked < 0.75) {
+							typeOfMove = Type.NORMAL;
+						}
+						// else random
+					} else {
+						// Find the other type
+						// Normal/OTHER: 30% normal, 55% other, 15% random
+						Type otherType = pkmn.primaryType;
+						if (otherType == Type.NORMAL) {
+							otherType = pkmn.secondaryType;
+						}
+						if (picked < 0.3) {
+							typeOfMove = Type.NORMAL;
+						} else if (picked < 0.85) {
+							typeOfMove = otherType;
+						}
+						// else random
+					}
+				} else if (pkmn.secondaryType != null) {
+					// Primary/Secondary: 50% primary, 30% secondary, 5% normal, 15%
+					// random
+					if (picked < 0.5) {
+						typeOfMove = pkmn.primaryType;
+					} else if (picked < 0.8) {
+						typeOfMove = pkmn.secondaryType;
+					} else if (picked < 0.85) {
 						typeOfMove = Type.NORMAL;
 					}
 					// else random
 				} else {
-					// Find the other type
-					// Normal/OTHER: 30% normal, 55% other, 15% random
-					Type otherType = pkmn.primaryType;
-					if (otherType == Type.NORMAL) {
-						otherType = pkmn.secondaryType;
-					}
-					if (picked < 0.3) {
+					// Primary/None: 60% primary, 20% normal, 20% random
+					if (picked < 0.6) {
+						typeOfMove = pkmn.primaryType;
+					} else if (picked < 0.8) {
 						typeOfMove = Type.NORMAL;
-					} else if (picked < 0.85) {
-						typeOfMove = otherType;
 					}
 					// else random
 				}
-			} else if (pkmn.secondaryType != null) {
-				// Primary/Secondary: 50% primary, 30% secondary, 5% normal, 15%
-				// random
-				if (picked < 0.5) {
-					typeOfMove = pkmn.primaryType;
-				} else if (picked < 0.8) {
-					typeOfMove = pkmn.secondaryType;
-				} else if (picked < 0.85) {
-					typeOfMove = Type.NORMAL;
-				}
-				// else random
-			} else {
-				// Primary/None: 60% primary, 20% normal, 20% random
-				if (picked < 0.6) {
-					typeOfMove = pkmn.primaryType;
-				} else if (picked < 0.8) {
-					typeOfMove = Type.NORMAL;
-				}
-				// else random
-			}
-		}
-		// Physical or special move
-		double phys = pkmn.attack / 100.0;
-		double spec = pkmn.spatk / 100.0;
-		boolean is_special = (spec >= phys);
-		double p = Math.abs(spec - phys);
-		p = 1 - 1 / (1 + Math.exp(-2 * p));;
-		if(this.random.nextDouble() < p)
-			is_special ^= true;
-		boolean high_acc = damaging;
-		damaging = damaging || this.random.nextDouble() < 0.6;
-
-		// Filter by type, and if necessary, by damage
-		List<Move> canPick = new ArrayList<Move>();
-		for (Move mv : allMoves) {
-			if (mv != null && !RomFunctions.bannedRandomMoves[mv.number]
-					&& !bannedForThisGame.contains(mv.number)
-					&& (mv.type == typeOfMove || typeOfMove == null)) {
-				boolean isGoodMove = (mv.power >= 40 && !RomFunctions.bannedForDamagingMove[mv.number] && !(is_special ^ mv.type.isSpecial()));
-				isGoodMove &= !high_acc || mv.hitratio > 79;
-				if(mv.type == Type.NORMAL) {
-					isGoodMove = isGoodMove && this.random.nextDouble() < 0.7;
-				}
-				if(damaging ^ isGoodMove == false) {
-					canPick.add(mv);
-				}
-			}
-		}
-		// If we ended up with no results, reroll
-		if (canPick.size() == 0) {
-			return pickMove(pkmn, typeThemed, damaging, bannedForThisGame);
-		} else {
-			// pick a random one
-			// System.out.println(pkmn.name + "\t" + canPick.get(this.random.nextInt(canPick.size())).name + "\t" + damaging + "\t" + is_special + "\t" + p);
-			return canPick.get(this.random.nextInt(canPick.size())).number;
+			}
+			// Physical or special move
+			double phys = pkmn.attack / 100.0;
+			double spec = pkmn.spatk / 100.0;
+			boolean is_special = (spec >= phys);
+			double p = Math.abs(spec - phys);
+			p = 1 - 1 / (1 + Math.exp(-2 * p));;
+			if(this.random.nextDouble() < p)
+				is_special ^= true;
+			boolean high_acc = damaging;
+			damaging = damaging || this.random.nextDouble() < 0.6;
+
+			// Filter by type, and if necessary, by damage
+			int move = candidates.pick(this.random, typeOfMove, is_special,
+					high_acc, damaging);
+			// If we ended up with no results, reroll
+			if (move >= 0) {
+				return move;
+			}
 		}
 	}
 
+	// the wild Pokemon pool for catch em all, without the banned ones
+	private CatchEmAllPool catchEmAllPool(boolean noLegendaries,
+			List<Pokemon> banned) {
+		BitSet bannedNumbers = new BitSet();
+		for (Pokemon pk : banned) {
+			bannedNumbers.set(pk.number);
+		}
+		List<Pokemon> pool = new ArrayList<Pokemon>();
+		for (Pokemon pk : noLegendaries ? noLegendaryList : mainPokemonList) {
+			if (!bannedNumbers.get(pk.number)) {
+				pool.add(pk);
+			}
+		}
+		boolean[] goodCatchable = new boolean[pool.size()];
+		for (int i = 0; i < goodCatchable.length; i++) {
+			goodCatchable[i] = isGoodCatchable(pool.get(i));
+		}
+		return new CatchEmAllPool(pool, goodCatchable);
+	}
+
 	Set<Pokemon> bannedCatchables = null;
 	private boolean isGoodCatchable(Pokemon pk) {
 		if(bannedCatchables == null) {
@@ -2591,18 +2644,6 @@ public abstract class AbstractRomHandler implements RomHandler {
 		return firstEvolution(pk) == null && pk.goodStats() && pk.bst() <= 600;
 	}
 
-	private List<Pokemon> pokemonOfType(Type type, boolean noLegendaries) {
-		List<Pokemon> typedPokes = new ArrayList<Pokemon>();
-		for (Pokemon pk : mainPokemonList) {
-			if (pk != null && (!noLegendaries || !pk.isLegendary())) {
-				if (pk.primaryType == type || pk.secondaryType == type) {
-					typedPokes.add(pk);
-				}
-			}
-		}
-		return typedPokes;
-	}
-
 	private List<Pokemon> allPokemonWithoutNull() {
 		List<Pokemon> allPokes = new ArrayList<Pokemon>(this.getPokemon());
 		allPokes.remove(0);
@@ -2617,16 +2658,20 @@ public abstract class AbstractRomHandler implements RomHandler {
 		return inArea;
 	}
 
-	private Map<Type, Integer> typeWeightings;
+	// by type ordinal, 0 for types not in the game
+	private int[] typeWeightings;
 	private int totalTypeWeighting;
 
 	private Type pickType(boolean weightByFrequency, boolean noLegendaries) {
-		if (totalTypeWeighting == 0) {
+		if (typeWeightings == null) {
 			// Determine weightings
-			for (Type t : Type.values()) {
+			Type[] types = Type.values();
+			typeWeightings = new int[types.length];
+			totalTypeWeighting = 0;
+			for (Type t : types) {
 				if (typeInGame(t)) {
-					int pkWithTyping = pokemonOfType(t, noLegendaries).size();
-					typeWeightings.put(t, pkWithTyping);
+					int pkWithTyping = cachedTypePools.count(t, noLegendaries);
+					typeWeightings[t.ordinal()] = pkWithTyping;
 					totalTypeWeighting += pkWithTyping;
 				}
 			}
@@ -2635,8 +2680,8 @@ public abstract class AbstractRomHandler implements RomHandler {
 		if (weightByFrequency) {
 			int typePick = this.random.nextInt(totalTypeWeighting);
 			int typePos = 0;
-			for (Type t : typeWeightings.keySet()) {
-				int weight = typeWeightings.get(t);
+			for (Type t : Type.values()) {
+				int weight = typeWeightings[t.ordinal()];
 				if (typePos + weight > typePick) {
 					return t;
 				}
@@ -2648,6 +2693,56 @@ public abstract class AbstractRomHandler implements RomHandler {
 		}
 	}
 
+	/**
+	 * Picks a type that isn't in used yet and adds it, rerolling like the
+	 * original loop did so seeds are unchanged. Once every pickable type is
+	 * used up the set starts over, rather than rerolling forever on games
+	 * with more groups than types.
+	 */
+	private Type pickUnusedType(Set<Type> used, boolean weightByFrequency,
+			boolean noLegendaries) {
+		Type picked = pickType(weightByFrequency, noLegendaries);
+		if (used.size() >= pickableTypeCount(weightByFrequency)) {
+			used.clear();
+		}
+		while (used.contains(picked)) {
+			picked = pickType(weightByFrequency, noLegendaries);
+		}
+		used.add(picked);
+		return picked;
+	}
+
+	private int pickableTypeCount(boolean weightByFrequency) {
+		int count = 0;
+		for (Type t : Type.values()) {
+			if (weightByFrequency ? typeWeightings[t.ordinal()] > 0
+					: typeInGame(t)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// the type themed group a trainer belongs to, or null for none
+	private static String trainerGroup(Trainer t) {
+		if (t.tag == null || t.tag.equals("IRIVAL")) {
+			return null;
+		}
+		String group = t.tag;
+		int dash = group.indexOf('-');
+		if (dash >= 0) {
+			group = group.substring(0, dash);
+		}
+		if (group.startsWith("GYM") || group.startsWith("ELITE")
+				|| group.startsWith("CHAMPION") || group.startsWith("THEMED")) {
+			return group.intern();
+		} else if (group.startsWith("GIO")) {
+			// Giovanni has same grouping as his gym, gym 8
+			return "GYM8";
+		}
+		return null;
+	}
+
 	private void rivalCarriesStarterUpdate(List<Trainer> currentTrainers,
 			String prefix, int pokemonOffset) {
 		// Find the highest rival battle #
@@ -2828,189 +2923,147 @@ public abstract class AbstractRomHandler implements RomHandler {
 		// This method works ASSUMING a pokemon has no weird split evolutions
 		// with different levels on each side
 		// Which is true for every pokemon so far.
-		Pokemon[] pokeBuffer = new Pokemon[20];
-		List<Evolution> evos = this.getEvolutions();
-		return innerTimesEvolves(evos, pk, pokeBuffer, 0);
-	}
-
-	private int innerTimesEvolves(List<Evolution> evos, Pokemon currPoke,
-			Pokemon[] seenPokes, int seenPokesIndex) {
-		seenPokes[seenPokesIndex++] = currPoke;
-		int currEvos = 0;
-		for (Evolution e : evos) {
-			if (e.from == currPoke) {
-				boolean valid = true;
-				for (int i = 0; i < seenPokesIndex; i++) {
-					if (seenPokes[i] == e.to) {
-						valid = false;
-						break;
-					}
-				}
-				if (valid) {
-					currEvos = Math.max(currEvos, 1 + this.innerTimesEvolves(
-							evos, e.to, seenPokes, seenPokesIndex));
-				}
-			}
-		}
-		return currEvos;
+		return this.getEvolutionGraph().timesEvolves(pk);
 	}
 
 	private Pokemon firstEvolution(Pokemon pk) {
-		List<Evolution> evos = this.getEvolutions();
-		for (Evolution e : evos) {
-			if (e.from == pk) {
-				return e.to;
-			}
-		}
-		return null;
+		return this.getEvolutionGraph().firstEvolution(pk);
 	}
 
-	// yes this is necessary
-	private Map<Pokemon, Integer> cachedTimesEvolves = new HashMap<Pokemon, Integer>();
-
-	private Pokemon getRandomEvolvedPokemon(List<Pokemon> pickFrom, int level) {
-		List<Pokemon> canPick = new ArrayList<Pokemon>();
-		for(Pokemon pk : pickFrom) {
-			if(!cachedTimesEvolves.containsKey(pk)) {
-				cachedTimesEvolves.put(pk, timesEvolves(pk));
-			}
-			int timesEvolves = cachedTimesEvolves.get(pk);
-			// if 3-stage, must evolve at least once by level 16
-			if(timesEvolves >= 2 && level >= 16)
-				continue;
-			// must fully evolve by level 30
-			if(timesEvolves >= 1 && level >= 37)
-				continue;
-			canPick.add(pk);
-		}
-
+	private Pokemon getRandomEvolvedPokemon(Type type, boolean noLegendaries,
+			int level) {
+		// if 3-stage, must evolve at least once by level 16
+		// must fully evolve by level 37
+		List<Pokemon> canPick = cachedTypePools.evolvedForLevel(type,
+				noLegendaries, level);
 		return canPick.get(this.random.nextInt(canPick.size()));
 	}
 
-	private Map<Type, List<Pokemon>> cachedReplacementLists;
-	private List<Pokemon> cachedAllList;
+	private TypePoolTable cachedTypePools;
+	private Map<Type, PowerLevelIndex> cachedReplacementIndexes;
+	private PowerLevelIndex cachedAllIndex;
 
 	private Pokemon pickReplacement(Pokemon current, boolean usePowerLevels,
 			Type type, boolean noLegendaries, boolean wonderGuardAllowed, int level) {
-		List<Pokemon> pickFrom = cachedAllList;
-		if (type != null) {
-			if (!cachedReplacementLists.containsKey(type)) {
-				cachedReplacementLists.put(type,
-						pokemonOfType(type, noLegendaries));
-			}
-			pickFrom = cachedReplacementLists.get(type);
-		}
+		List<Pokemon> pickFrom = cachedTypePools.get(type, noLegendaries);
 
 		if (usePowerLevels) {
-			// start with within 10% and add 5% either direction till we find
-			// something
-			int currentBST = current.bstForPowerLevels();
-			int minTarget = currentBST - currentBST / 10;
-			int maxTarget = currentBST + currentBST / 10;
-			List<Pokemon> canPick = new ArrayList<Pokemon>();
-			int expandRounds = 0;
-			while (canPick.isEmpty()
-					|| (canPick.size() < 3 && expandRounds < 2)) {
-				for (Pokemon pk : pickFrom) {
-					if (pk.bstForPowerLevels() >= minTarget
-							&& pk.bstForPowerLevels() <= maxTarget
-							&& (wonderGuardAllowed || (pk.ability1 != WONDER_GUARD_INDEX
-									&& pk.ability2 != WONDER_GUARD_INDEX && pk.ability3 != WONDER_GUARD_INDEX))) {
-						canPick.add(pk);
-					}
+			PowerLevelIndex index;
+			if (type == null) {
+				if (cachedAllIndex == null) {
+					cachedAllIndex = new PowerLevelIndex(pickFrom);
 				}
-				minTarget -= currentBST / 20;
-				maxTarget += currentBST / 20;
-				expandRounds++;
+				index = cachedAllIndex;
+			} else {
+				if (!cachedReplacementIndexes.containsKey(type)) {
+					cachedReplacementIndexes.put(type, new PowerLevelIndex(
+							pickFrom));
+				}
+				index = cachedReplacementIndexes.get(type);
 			}
-			return canPick.get(this.random.nextInt(canPick.size()));
+			return index.pick(this.random, current, wonderGuardAllowed, false,
+					false, null);
 		} else {
 			if (wonderGuardAllowed) {
-				return getRandomEvolvedPokemon(pickFrom, level);
+				return getRandomEvolvedPokemon(type, noLegendaries, level);
 			} else {
-				Pokemon pk = getRandomEvolvedPokemon(pickFrom, level);
-				while (pk.ability1 == WONDER_GUARD_INDEX
-						|| pk.ability2 == WONDER_GUARD_INDEX
-						|| pk.ability3 == WONDER_GUARD_INDEX) {
-					pk = getRandomEvolvedPokemon(pickFrom, level);
+				Pokemon pk = getRandomEvolvedPokemon(type, noLegendaries, level);
+				while (hasWonderGuard(pk)) {
+					pk = getRandomEvolvedPokemon(type, noLegendaries, level);
 				}
 				return pk;
 			}
 		}
 	}
 
-	private Pokemon pickWildPowerLvlReplacement(List<Pokemon> pokemonPool,
+	private Pokemon pickWildPowerLvlReplacement(PowerLevelIndex pokemonPool,
 			Pokemon current, boolean banBattleTrappers, boolean banSamePokemon,
 			List<Pokemon> usedUp) {
-		// start with within 10% and add 5% either direction till we find
-		// something
-		int currentBST = current.bstForPowerLevels();
-		int minTarget = currentBST - currentBST / 10;
-		int maxTarget = currentBST + currentBST / 10;
-		List<Pokemon> canPick = new ArrayList<Pokemon>();
-		int expandRounds = 0;
-		while (canPick.isEmpty() || (canPick.size() < 3 && expandRounds < 2)) {
-			for (Pokemon pk : pokemonPool) {
-				if (pk.bstForPowerLevels() >= minTarget
-						&& pk.bstForPowerLevels() <= maxTarget
-						&& (!banBattleTrappers || !hasBattleTrappingAbility(pk))
-						&& (!banSamePokemon || pk != current)
-						&& (usedUp == null || !usedUp.contains(pk))) {
-					canPick.add(pk);
-				}
-			}
-			minTarget -= currentBST / 20;
-			maxTarget += currentBST / 20;
-			expandRounds++;
-		}
-		return canPick.get(this.random.nextInt(canPick.size()));
+		return pokemonPool.pick(this.random, current, true, banBattleTrappers,
+				banSamePokemon, usedUp);
+	}
+
+	static boolean hasWonderGuard(Pokemon pokemon) {
+		return pokemon.ability1 == WONDER_GUARD_INDEX
+				|| pokemon.ability2 == WONDER_GUARD_INDEX
+				|| pokemon.ability3 == WONDER_GUARD_INDEX;
 	}
 
-	private static final List<Integer> battleTrappingAbilities = Arrays.asList(
-			23, 42, 71);
+	private static final int[] battleTrappingAbilities = new int[] { 23, 42,
+			71 };
 
-	private boolean hasBattleTrappingAbility(Pokemon pokemon) {
-		return battleTrappingAbilities.contains(pokemon.ability1)
-				|| battleTrappingAbilities.contains(pokemon.ability2)
-				|| battleTrappingAbilities.contains(pokemon.ability3);
+	static boolean hasBattleTrappingAbility(Pokemon pokemon) {
+		for (int ability : battleTrappingAbilities) {
+			if (pokemon.ability1 == ability || pokemon.ability2 == ability
+					|| pokemon.ability3 == ability) {
+				return true;
+			}
+		}
+		return false;
 	}
 
+	/* Table access provided by each generation's handler */
+
+	protected abstract List<Trainer> loadTrainers();
+
+	protected abstract void saveTrainers(List<Trainer> trainerData);
+
+	protected abstract List<EncounterSet> loadEncounters(boolean useTimeOfDay);
+
+	protected abstract void saveEncounters(boolean useTimeOfDay,
+			List<EncounterSet> encounters);
+
+	protected abstract Map<Pokemon, List<MoveLearnt>> loadMovesLearnt();
+
+	protected abstract void saveMovesLearnt(
+			Map<Pokemon, List<MoveLearnt>> movesets);
+
 	/* Helper methods used by subclasses */
 
+	@Override
+	public void setLogStream(PrintStream logStream) {
+		this.logStream = logStream;
+	}
+
+	// falls back to the GUI's log when no stream was given
+	protected PrintStream logStream() {
+		return logStream != null ? logStream : RandomizerGUI.verboseLog;
+	}
+
 	protected void log(String log) {
-		RandomizerGUI.verboseLog.println(log);
+		logStream().println(log);
 	}
 
 	protected void logBlankLine() {
-		RandomizerGUI.verboseLog.println();
+		logStream().println();
 	}
 
 	protected void logEvoChangeLevel(String pkFrom, String pkTo, int level) {
-		RandomizerGUI.verboseLog.printf("Made %s evolve into %s at level %d",
+		logStream().printf("Made %s evolve into %s at level %d",
 				pkFrom, pkTo, level);
-		RandomizerGUI.verboseLog.println();
+		logStream().println();
 	}
 
 	protected void logEvoChangeLevelWithItem(String pkFrom, String pkTo,
 			String itemName) {
-		RandomizerGUI.verboseLog.printf(
+		logStream().printf(
 				"Made %s evolve into %s by leveling up holding %s", pkFrom,
 				pkTo, itemName);
-		RandomizerGUI.verboseLog.println();
+		logStream().println();
 	}
 
 	protected void logEvoChangeStone(String pkFrom, String pkTo, String itemName) {
-		RandomizerGUI.verboseLog.printf("Made %s evolve into %s using a %s",
+		logStream().printf("Made %s evolve into %s using a %s",
 				pkFrom, pkTo, itemName);
-		RandomizerGUI.verboseLog.println();
+		logStream().println();
 	}
 
 	protected void logEvoChangeLevelWithPkmn(String pkFrom, String pkTo,
 			String otherRequired) {
-		RandomizerGUI.verboseLog.printf(
+		logStream().printf(
 				"Made %s evolve into %s by leveling up with %s in the party",
 				pkFrom, pkTo, otherRequired);
-		RandomizerGUI.verboseLog.println();
+		logStream().println();
 	}
 
 	/* Default Implementations */
@@ -0,0 +1,123 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  CatchEmAllPool.java - the not-yet-used Pokemon for catch em all       --*/
+/*--                        wild encounters.                                --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.util.List;
+import java.util.Random;
+
+import com.dabomstew.pkrandom.pokemon.Pokemon;
+
+/**
+ * The Pokemon still to be handed out by catch em all encounters. Picks are
+ * made by index into the remaining Pokemon in pool order, exactly as with
+ * ArrayList.get/remove, so results are unchanged; the remaining set is kept
+ * in a Fenwick tree so that finding and removing a pick is O(log n), and the
+ * pool refills in place once it has been used up.
+ */
+class CatchEmAllPool {
+
+	private final Pokemon[] pool;
+	private final boolean[] goodCatchable;
+	private final boolean[] battleTrapper;
+	// Fenwick tree over pool positions, 1 for each one still remaining
+	private final int[] tree;
+	private final int topStep;
+	private int remaining;
+
+	public CatchEmAllPool(List<Pokemon> pokemonPool, boolean[] goodCatchable) {
+		int size = pokemonPool.size();
+		this.pool = pokemonPool.toArray(new Pokemon[size]);
+		this.goodCatchable = goodCatchable;
+		this.battleTrapper = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			battleTrapper[i] = AbstractRomHandler
+					.hasBattleTrappingAbility(pool[i]);
+		}
+		this.tree = new int[size + 1];
+		this.topStep = Integer.highestOneBit(Math.max(size, 1));
+		refill();
+	}
+
+	/**
+	 * Picks a remaining Pokemon. Low level areas get up to 50 rerolls to land
+	 * on something worth catching. If battle trappers are banned and the pick
+	 * is one, it is replaced by any non-trapper from the whole pool and
+	 * nothing is used up; otherwise the pick is taken out of the pool.
+	 */
+	public Pokemon pick(Random random, boolean lowLevel,
+			boolean banBattleTrappers) {
+		int picked = select(random.nextInt(remaining));
+		int trials = 0;
+		while (trials < 50 && lowLevel && !goodCatchable[picked]) {
+			trials++;
+			picked = select(random.nextInt(remaining));
+		}
+		if (banBattleTrappers && battleTrapper[picked]) {
+			while (battleTrapper[picked]) {
+				picked = random.nextInt(pool.length);
+			}
+			return pool[picked];
+		}
+		take(picked);
+		if (remaining == 0) {
+			// Start again
+			refill();
+		}
+		return pool[picked];
+	}
+
+	private void refill() {
+		for (int i = 1; i < tree.length; i++) {
+			tree[i] = 1;
+		}
+		for (int i = 1; i < tree.length; i++) {
+			int parent = i + (i & -i);
+			if (parent < tree.length) {
+				tree[parent] += tree[i];
+			}
+		}
+		remaining = pool.length;
+	}
+
+	private void take(int position) {
+		for (int i = position + 1; i < tree.length; i += i & -i) {
+			tree[i]--;
+		}
+		remaining--;
+	}
+
+	// pool position of the index-th (from 0) remaining Pokemon
+	private int select(int index) {
+		int pos = 0;
+		for (int step = topStep; step > 0; step >>= 1) {
+			int next = pos + step;
+			if (next < tree.length && tree[next] <= index) {
+				pos = next;
+				index -= tree[next];
+			}
+		}
+		return pos;
+	}
+
+}
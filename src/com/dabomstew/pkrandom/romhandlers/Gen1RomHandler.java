@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -43,6 +44,8 @@ import com.dabomstew.pkrandom.FileFunctions;
 import com.dabomstew.pkrandom.RomFunctions;
 import com.dabomstew.pkrandom.constants.GBConstants;
 import com.dabomstew.pkrandom.constants.Gen1Constants;
+import com.dabomstew.pkrandom.constants.Gen1Slots;
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
@@ -121,21 +124,62 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		private int crcInHeader = -1;
 		private Map<String, String> codeTweaks = new HashMap<String, String>();
 		private List<TMTextEntry> tmTexts = new ArrayList<TMTextEntry>();
-		private Map<String, Integer> entries = new HashMap<String, Integer>();
-		private Map<String, int[]> arrayEntries = new HashMap<String, int[]>();
+		private int[] entries = new int[Gen1Slots.valueNames.length];
+		// which entries have been set, so CopyFrom can copy just those
+		private BitSet entriesSet = new BitSet();
+		private int[][] arrayEntries = new int[Gen1Slots.arrayNames.length][];
 		private List<Integer> staticPokemonSingle = new ArrayList<Integer>();
 		private List<GameCornerPokemon> staticPokemonGameCorner = new ArrayList<GameCornerPokemon>();
 		private Map<Integer, Type> extraTypeLookup = new HashMap<Integer, Type>();
 		private Map<Type, Integer> extraTypeReverse = new HashMap<Type, Integer>();
 
-		private int getValue(String key) {
-			if (!entries.containsKey(key)) {
-				entries.put(key, 0);
+		private int getValue(int slot) {
+			return entries[slot];
+		}
+
+		private void setValue(int slot, int value) {
+			entries[slot] = value;
+			entriesSet.set(slot);
+		}
+
+		// ini keys go in at the slots RomSlotsGenerator gave them
+		private void putValue(String key, int value) {
+			int slot = Gen1Slots.valueSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				setValue(slot, value);
+			}
+		}
+
+		private void putArray(String key, int[] values) {
+			int slot = Gen1Slots.arraySlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				arrayEntries[slot] = values;
+			}
+		}
+
+		// everything other has set, over whatever this has
+		private void copyEntries(RomEntry other) {
+			for (int i = 0; i < entries.length; i++) {
+				if (other.entriesSet.get(i)) {
+					setValue(i, other.entries[i]);
+				}
+			}
+			for (int i = 0; i < arrayEntries.length; i++) {
+				if (other.arrayEntries[i] != null) {
+					arrayEntries[i] = other.arrayEntries[i];
+				}
 			}
-			return entries.get(key);
 		}
 	}
 
+	private static final int[] starterOffsetSlots = {
+			Gen1Slots.StarterOffsets1, Gen1Slots.StarterOffsets2,
+			Gen1Slots.StarterOffsets3 };
+
 	private static List<RomEntry> roms;
 
 	static {
@@ -248,22 +292,22 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 								if (r[1].equalsIgnoreCase(otherEntry.name)) {
 									// copy from here
 									boolean cSP = (current
-											.getValue("CopyStaticPokemon") == 1);
+											.getValue(Gen1Slots.CopyStaticPokemon) == 1);
 									boolean cTT = (current
-											.getValue("CopyTMText") == 1);
-									current.arrayEntries
-											.putAll(otherEntry.arrayEntries);
-									current.entries.putAll(otherEntry.entries);
+											.getValue(Gen1Slots.CopyTMText) == 1);
+									current.copyEntries(otherEntry);
 									if (cSP) {
 										current.staticPokemonSingle
 												.addAll(otherEntry.staticPokemonSingle);
 										current.staticPokemonGameCorner
 												.addAll(otherEntry.staticPokemonGameCorner);
-										current.entries.put(
-												"StaticPokemonSupport", 1);
+										current.setValue(
+												Gen1Slots.StaticPokemonSupport,
+														1);
 									} else {
-										current.entries.put(
-												"StaticPokemonSupport", 0);
+										current.setValue(
+												Gen1Slots.StaticPokemonSupport,
+														0);
 									}
 									if (cTT) {
 										current.tmTexts
@@ -278,7 +322,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 										r[1].length() - 1).split(",");
 								if (offsets.length == 1
 										&& offsets[0].trim().isEmpty()) {
-									current.arrayEntries.put(r[0], new int[0]);
+									current.putArray(r[0], new int[0]);
 								} else {
 									int[] offs = new int[offsets.length];
 									int c = 0;
@@ -291,13 +335,13 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 													.add(off);
 										}
 									} else {
-										current.arrayEntries.put(r[0], offs);
+										current.putArray(r[0], offs);
 									}
 								}
 
 							} else {
 								int offs = parseRIInt(r[1]);
-								current.entries.put(r[0], offs);
+								current.putValue(r[0], offs);
 							}
 						}
 					}
@@ -376,9 +420,32 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		loadMapNames();
 	}
 
+	@Override
+	protected void loadedFrom(AbstractGBRomHandler original) {
+		Gen1RomHandler from = (Gen1RomHandler) original;
+		// the lookup and text tables, names and maps are only read once
+		// loaded, so they can be shared
+		romEntry = from.romEntry;
+		pokeNumToRBYTable = from.pokeNumToRBYTable;
+		pokeRBYToNumTable = from.pokeRBYToNumTable;
+		moveNumToRomTable = from.moveNumToRomTable;
+		moveRomToNumTable = from.moveRomToNumTable;
+		pokedexCount = from.pokedexCount;
+		tb = from.tb;
+		d = from.d;
+		longestTableToken = from.longestTableToken;
+		maps = from.maps;
+		itemNames = from.itemNames;
+		mapNames = from.mapNames;
+		xAccNerfed = false;
+		pokes = copyPokemon(from.pokes);
+		pokemonList = Arrays.asList(pokes);
+		moves = copyMoves(from.moves);
+	}
+
 	private void loadPokedexOrder() {
-		int pkmnCount = romEntry.getValue("InternalPokemonCount");
-		int orderOffset = romEntry.getValue("PokedexOrder");
+		int pkmnCount = romEntry.getValue(Gen1Slots.InternalPokemonCount);
+		int orderOffset = romEntry.getValue(Gen1Slots.PokedexOrder);
 		pokedexCount = 0;
 		for (int i = 1; i <= pkmnCount; i++) {
 			int pokedexNum = rom[orderOffset + i - 1] & 0xFF;
@@ -458,8 +525,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	private String[] readMoveNames() {
-		int moveCount = romEntry.getValue("MoveCount");
-		int offset = romEntry.getValue("MoveNamesOffset");
+		int moveCount = romEntry.getValue(Gen1Slots.MoveCount);
+		int offset = romEntry.getValue(Gen1Slots.MoveNamesOffset);
 		String[] moveNames = new String[moveCount + 1];
 		for (int i = 1; i <= moveCount; i++) {
 			moveNames[i] = readVariableLengthString(offset);
@@ -470,8 +537,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	private void loadMoves() {
 		String[] moveNames = readMoveNames();
-		int moveCount = romEntry.getValue("MoveCount");
-		int movesOffset = romEntry.getValue("MoveDataOffset");
+		int moveCount = romEntry.getValue(Gen1Slots.MoveCount);
+		int movesOffset = romEntry.getValue(Gen1Slots.MoveDataOffset);
 		// check real move count
 		int trueMoveCount = 0;
 		for (int i = 1; i <= moveCount; i++) {
@@ -509,13 +576,13 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void saveMoves() {
-		int movesOffset = romEntry.getValue("MoveDataOffset");
+		int movesOffset = romEntry.getValue(Gen1Slots.MoveDataOffset);
 		for (Move m : moves) {
 			if (m != null) {
 				int i = m.internalId;
-				rom[movesOffset + (i - 1) * 6 + 1] = (byte) m.effectIndex;
-				rom[movesOffset + (i - 1) * 6 + 2] = (byte) m.power;
-				rom[movesOffset + (i - 1) * 6 + 3] = typeToByte(m.type);
+				writeByte(movesOffset + (i - 1) * 6 + 1, (byte) m.effectIndex);
+				writeByte(movesOffset + (i - 1) * 6 + 2, (byte) m.power);
+				writeByte(movesOffset + (i - 1) * 6 + 3, typeToByte(m.type));
 				int hitratio = (int) Math.round(m.hitratio * 2.55);
 				if (hitratio < 0) {
 					hitratio = 0;
@@ -523,8 +590,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 				if (hitratio > 255) {
 					hitratio = 255;
 				}
-				rom[movesOffset + (i - 1) * 6 + 4] = (byte) hitratio;
-				rom[movesOffset + (i - 1) * 6 + 5] = (byte) m.pp;
+				writeByte(movesOffset + (i - 1) * 6 + 4, (byte) hitratio);
+				writeByte(movesOffset + (i - 1) * 6 + 5, (byte) m.pp);
 			}
 		}
 	}
@@ -538,7 +605,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		// Fetch our names
 		String[] pokeNames = readPokemonNames();
 		// Get base stats
-		int pokeStatsOffset = romEntry.getValue("PokemonStatsOffset");
+		int pokeStatsOffset = romEntry.getValue(Gen1Slots.PokemonStatsOffset);
 		for (int i = 1; i <= pokedexCount; i++) {
 			pokes[i] = new Pokemon();
 			pokes[i].number = i;
@@ -551,22 +618,22 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		// Mew override for R/B
 		if (!romEntry.isYellow) {
 			loadBasicPokeStats(pokes[Gen1Constants.mewIndex],
-					romEntry.getValue("MewStatsOffset"));
+					romEntry.getValue(Gen1Slots.MewStatsOffset));
 		}
 
 	}
 
 	private void savePokemonStats() {
 		// Write pokemon names
-		int offs = romEntry.getValue("PokemonNamesOffset");
-		int nameLength = romEntry.getValue("PokemonNamesLength");
+		int offs = romEntry.getValue(Gen1Slots.PokemonNamesOffset);
+		int nameLength = romEntry.getValue(Gen1Slots.PokemonNamesLength);
 		for (int i = 1; i <= pokedexCount; i++) {
 			int rbynum = pokeNumToRBYTable[i];
 			int stringOffset = offs + (rbynum - 1) * nameLength;
 			writeFixedLengthString(pokes[i].name, stringOffset, nameLength);
 		}
 		// Write pokemon stats
-		int pokeStatsOffset = romEntry.getValue("PokemonStatsOffset");
+		int pokeStatsOffset = romEntry.getValue(Gen1Slots.PokemonStatsOffset);
 		for (int i = 1; i <= pokedexCount; i++) {
 			if (i == Gen1Constants.mewIndex) {
 				continue;
@@ -578,7 +645,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		int mewOffset = romEntry.isYellow ? pokeStatsOffset
 				+ (Gen1Constants.mewIndex - 1)
 				* Gen1Constants.baseStatsEntrySize : romEntry
-				.getValue("MewStatsOffset");
+				.getValue(Gen1Slots.MewStatsOffset);
 		saveBasicPokeStats(pokes[Gen1Constants.mewIndex], mewOffset);
 	}
 
@@ -611,27 +678,30 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void saveBasicPokeStats(Pokemon pkmn, int offset) {
-		rom[offset + Gen1Constants.bsHPOffset] = (byte) pkmn.hp;
-		rom[offset + Gen1Constants.bsAttackOffset] = (byte) pkmn.attack;
-		rom[offset + Gen1Constants.bsDefenseOffset] = (byte) pkmn.defense;
-		rom[offset + Gen1Constants.bsSpeedOffset] = (byte) pkmn.speed;
-		rom[offset + Gen1Constants.bsSpecialOffset] = (byte) pkmn.special;
-		rom[offset + Gen1Constants.bsPrimaryTypeOffset] = typeToByte(pkmn.primaryType);
+		writeByte(offset + Gen1Constants.bsHPOffset, (byte) pkmn.hp);
+		writeByte(offset + Gen1Constants.bsAttackOffset, (byte) pkmn.attack);
+		writeByte(offset + Gen1Constants.bsDefenseOffset, (byte) pkmn.defense);
+		writeByte(offset + Gen1Constants.bsSpeedOffset, (byte) pkmn.speed);
+		writeByte(offset + Gen1Constants.bsSpecialOffset, (byte) pkmn.special);
+		writeByte(offset + Gen1Constants.bsPrimaryTypeOffset,
+				typeToByte(pkmn.primaryType));
 		if (pkmn.secondaryType == null) {
-			rom[offset + Gen1Constants.bsSecondaryTypeOffset] = rom[offset
-					+ Gen1Constants.bsPrimaryTypeOffset];
+			writeByte(offset + Gen1Constants.bsSecondaryTypeOffset,
+					rom[offset + Gen1Constants.bsPrimaryTypeOffset]);
 		} else {
-			rom[offset + Gen1Constants.bsSecondaryTypeOffset] = typeToByte(pkmn.secondaryType);
+			writeByte(offset + Gen1Constants.bsSecondaryTypeOffset,
+					typeToByte(pkmn.secondaryType));
 		}
-		rom[offset + Gen1Constants.bsCatchRateOffset] = (byte) pkmn.catchRate;
-		rom[offset + Gen1Constants.bsGrowthCurveOffset] = pkmn.growthCurve
-				.toByte();
+		writeByte(offset + Gen1Constants.bsCatchRateOffset,
+				(byte) pkmn.catchRate);
+		writeByte(offset + Gen1Constants.bsGrowthCurveOffset,
+				pkmn.growthCurve.toByte());
 	}
 
 	private String[] readPokemonNames() {
-		int offs = romEntry.getValue("PokemonNamesOffset");
-		int nameLength = romEntry.getValue("PokemonNamesLength");
-		int pkmnCount = romEntry.getValue("InternalPokemonCount");
+		int offs = romEntry.getValue(Gen1Slots.PokemonNamesOffset);
+		int nameLength = romEntry.getValue(Gen1Slots.PokemonNamesLength);
+		int pkmnCount = romEntry.getValue(Gen1Slots.InternalPokemonCount);
 		String[] names = new String[pkmnCount + 1];
 		for (int i = 1; i <= pkmnCount; i++) {
 			names[i] = readFixedLengthString(offs + (i - 1) * nameLength,
@@ -692,9 +762,9 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	private void writeFixedLengthString(String str, int offset, int length) {
 		byte[] translated = translateString(str);
 		int len = Math.min(translated.length, length);
-		System.arraycopy(translated, 0, rom, offset, len);
+		writeBytes(offset, translated, 0, len);
 		while (len < length) {
-			rom[offset + len] = GBConstants.stringTerminator;
+			writeByte(offset + len, GBConstants.stringTerminator);
 			len++;
 		}
 	}
@@ -735,9 +805,9 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	private void writeFixedLengthScriptString(String str, int offset, int length) {
 		byte[] translated = translateString(str);
 		int len = Math.min(translated.length, length);
-		System.arraycopy(translated, 0, rom, offset, len);
+		writeBytes(offset, translated, 0, len);
 		while (len < length) {
-			rom[offset + len] = GBConstants.stringNull;
+			writeByte(offset + len, GBConstants.stringNull);
 			len++;
 		}
 	}
@@ -771,13 +841,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	public List<Pokemon> getStarters() {
 		// Get the starters
 		List<Pokemon> starters = new ArrayList<Pokemon>();
-		starters.add(pokes[pokeRBYToNumTable[rom[romEntry.arrayEntries
-				.get("StarterOffsets1")[0]] & 0xFF]]);
-		starters.add(pokes[pokeRBYToNumTable[rom[romEntry.arrayEntries
-				.get("StarterOffsets2")[0]] & 0xFF]]);
-		if (!romEntry.isYellow) {
-			starters.add(pokes[pokeRBYToNumTable[rom[romEntry.arrayEntries
-					.get("StarterOffsets3")[0]] & 0xFF]]);
+		int starterCount = romEntry.isYellow ? 2 : 3;
+		for (int i = 0; i < starterCount; i++) {
+			int offset = romEntry.arrayEntries[starterOffsetSlots[i]][0];
+			starters.add(pokes[pokeRBYToNumTable[rom[offset] & 0xFF]]);
 		}
 		return starters;
 	}
@@ -798,10 +865,9 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		// Patch starter bytes
 		for (int i = 0; i < starterAmount; i++) {
 			byte starter = (byte) pokeNumToRBYTable[newStarters.get(i).number];
-			int[] offsets = romEntry.arrayEntries.get("StarterOffsets"
-					+ (i + 1));
+			int[] offsets = romEntry.arrayEntries[starterOffsetSlots[i]];
 			for (int offset : offsets) {
-				rom[offset] = starter;
+				writeByte(offset, starter);
 			}
 		}
 
@@ -810,7 +876,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		if (!romEntry.isYellow) {
 
 			// Starter text
-			if (romEntry.getValue("CanChangeStarterText") > 0) {
+			if (romEntry.getValue(Gen1Slots.CanChangeStarterText) > 0) {
 				List<Integer> starterTextOffsets = RomFunctions.search(rom,
 						traduire("So! You want the"));
 				for (int i = 0; i < 3 && i < starterTextOffsets.size(); i++) {
@@ -823,7 +889,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 			// Patch starter pokedex routine?
 			// Can only do in 1M roms because of size concerns
-			if (romEntry.getValue("PatchPokedex") > 0) {
+			if (romEntry.getValue(Gen1Slots.PatchPokedex) > 0) {
 
 				// Starter pokedex required RAM values
 				// RAM offset => value
@@ -832,7 +898,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 				for (int i = 0; i < 3; i++) {
 					int pkDexNum = newStarters.get(i).number;
 					int ramOffset = (pkDexNum - 1) / 8
-							+ romEntry.getValue("PokedexRamOffset");
+							+ romEntry.getValue(Gen1Slots.PokedexRamOffset);
 					int bitShift = (pkDexNum - 1) % 8;
 					int writeValue = 1 << bitShift;
 					if (onValues.containsKey(ramOffset)) {
@@ -845,13 +911,14 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 				// Starter pokedex offset/pointer calculations
 
-				int pkDexOnOffset = romEntry.getValue("StarterPokedexOnOffset");
+				int pkDexOnOffset = romEntry
+						.getValue(Gen1Slots.StarterPokedexOnOffset);
 				int pkDexOffOffset = romEntry
-						.getValue("StarterPokedexOffOffset");
+						.getValue(Gen1Slots.StarterPokedexOffOffset);
 
 				int sizeForOnRoutine = 5 * onValues.size() + 3;
 				int writeOnRoutineTo = romEntry
-						.getValue("StarterPokedexBranchOffset");
+						.getValue(Gen1Slots.StarterPokedexBranchOffset);
 				int writeOffRoutineTo = writeOnRoutineTo + sizeForOnRoutine;
 				int offsetForOnRoutine = makeGBPointer(writeOnRoutineTo);
 				int offsetForOffRoutine = makeGBPointer(writeOffRoutineTo);
@@ -862,39 +929,39 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 				// Branch to our new routine(s)
 
 				// Turn bytes on
-				rom[pkDexOnOffset] = GBConstants.gbZ80Jump;
+				writeByte(pkDexOnOffset, GBConstants.gbZ80Jump);
 				writeWord(pkDexOnOffset + 1, offsetForOnRoutine);
-				rom[pkDexOnOffset + 3] = GBConstants.gbZ80Nop;
-				rom[pkDexOnOffset + 4] = GBConstants.gbZ80Nop;
+				writeByte(pkDexOnOffset + 3, GBConstants.gbZ80Nop);
+				writeByte(pkDexOnOffset + 4, GBConstants.gbZ80Nop);
 
 				// Turn bytes off
-				rom[pkDexOffOffset] = GBConstants.gbZ80Jump;
+				writeByte(pkDexOffOffset, GBConstants.gbZ80Jump);
 				writeWord(pkDexOffOffset + 1, offsetForOffRoutine);
-				rom[pkDexOffOffset + 3] = GBConstants.gbZ80Nop;
+				writeByte(pkDexOffOffset + 3, GBConstants.gbZ80Nop);
 
 				// Put together the two scripts
-				rom[writeOffRoutineTo] = GBConstants.gbZ80XorA;
+				writeByte(writeOffRoutineTo, GBConstants.gbZ80XorA);
 				int turnOnOffset = writeOnRoutineTo;
 				int turnOffOffset = writeOffRoutineTo + 1;
 				for (int ramOffset : onValues.keySet()) {
 					int onValue = onValues.get(ramOffset);
 					// Turn on code
-					rom[turnOnOffset++] = GBConstants.gbZ80LdA;
-					rom[turnOnOffset++] = (byte) onValue;
+					writeByte(turnOnOffset++, GBConstants.gbZ80LdA);
+					writeByte(turnOnOffset++, (byte) onValue);
 					// Turn on code for ram writing
-					rom[turnOnOffset++] = GBConstants.gbZ80LdAToFar;
-					rom[turnOnOffset++] = (byte) (ramOffset % 0x100);
-					rom[turnOnOffset++] = (byte) (ramOffset / 0x100);
+					writeByte(turnOnOffset++, GBConstants.gbZ80LdAToFar);
+					writeByte(turnOnOffset++, (byte) (ramOffset % 0x100));
+					writeByte(turnOnOffset++, (byte) (ramOffset / 0x100));
 					// Turn off code for ram writing
-					rom[turnOffOffset++] = GBConstants.gbZ80LdAToFar;
-					rom[turnOffOffset++] = (byte) (ramOffset % 0x100);
-					rom[turnOffOffset++] = (byte) (ramOffset / 0x100);
+					writeByte(turnOffOffset++, GBConstants.gbZ80LdAToFar);
+					writeByte(turnOffOffset++, (byte) (ramOffset % 0x100));
+					writeByte(turnOffOffset++, (byte) (ramOffset / 0x100));
 				}
 				// Jump back
-				rom[turnOnOffset++] = GBConstants.gbZ80Jump;
+				writeByte(turnOnOffset++, GBConstants.gbZ80Jump);
 				writeWord(turnOnOffset, retOnOffset);
 
-				rom[turnOffOffset++] = GBConstants.gbZ80Jump;
+				writeByte(turnOffOffset++, GBConstants.gbZ80Jump);
 				writeWord(turnOffOffset, retOffOffset);
 			}
 
@@ -923,12 +990,12 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public List<EncounterSet> getEncounters(boolean useTimeOfDay) {
+	protected List<EncounterSet> loadEncounters(boolean useTimeOfDay) {
 		List<EncounterSet> encounters = new ArrayList<EncounterSet>();
 
 		// grass & water
 		List<Integer> usedOffsets = new ArrayList<Integer>();
-		int tableOffset = romEntry.getValue("WildPokemonTableOffset");
+		int tableOffset = romEntry.getValue(Gen1Slots.WildPokemonTableOffset);
 		int tableBank = bankOf(tableOffset);
 		int mapID = -1;
 
@@ -969,7 +1036,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		}
 
 		// old rod
-		int oldRodOffset = romEntry.getValue("OldRodOffset");
+		int oldRodOffset = romEntry.getValue(Gen1Slots.OldRodOffset);
 		EncounterSet oldRodSet = new EncounterSet();
 		oldRodSet.displayName = "Old Rod Fishing";
 		Encounter oldRodEnc = new Encounter();
@@ -979,7 +1046,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		encounters.add(oldRodSet);
 
 		// good rod
-		int goodRodOffset = romEntry.getValue("GoodRodOffset");
+		int goodRodOffset = romEntry.getValue(Gen1Slots.GoodRodOffset);
 		EncounterSet goodRodSet = new EncounterSet();
 		goodRodSet.displayName = "Good Rod Fishing";
 		for (int grSlot = 0; grSlot < 2; grSlot++) {
@@ -993,7 +1060,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 		// super rod
 		if (romEntry.isYellow) {
-			int superRodOffset = romEntry.getValue("SuperRodTableOffset");
+			int superRodOffset = romEntry
+					.getValue(Gen1Slots.SuperRodTableOffset);
 			while ((rom[superRodOffset] & 0xFF) != 0xFF) {
 				int map = rom[superRodOffset++] & 0xFF;
 				EncounterSet thisSet = new EncounterSet();
@@ -1009,7 +1077,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 			}
 		} else {
 			// red/blue
-			int superRodOffset = romEntry.getValue("SuperRodTableOffset");
+			int superRodOffset = romEntry
+					.getValue(Gen1Slots.SuperRodTableOffset);
 			int superRodBank = bankOf(superRodOffset);
 			List<Integer> usedSROffsets = new ArrayList<Integer>();
 			while ((rom[superRodOffset] & 0xFF) != 0xFF) {
@@ -1046,13 +1115,13 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setEncounters(boolean useTimeOfDay,
+	protected void saveEncounters(boolean useTimeOfDay,
 			List<EncounterSet> encounters) {
 		Iterator<EncounterSet> encsetit = encounters.iterator();
 
 		// grass & water
 		List<Integer> usedOffsets = new ArrayList<Integer>();
-		int tableOffset = romEntry.getValue("WildPokemonTableOffset");
+		int tableOffset = romEntry.getValue(Gen1Slots.WildPokemonTableOffset);
 		int tableBank = bankOf(tableOffset);
 
 		while (readWord(tableOffset) != Gen1Constants.encounterTableEnd) {
@@ -1067,8 +1136,9 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 						EncounterSet thisSet = encsetit.next();
 						for (int slot = 0; slot < Gen1Constants.encounterTableSize; slot++) {
 							Encounter enc = thisSet.encounters.get(slot);
-							rom[offset] = (byte) enc.level;
-							rom[offset + 1] = (byte) pokeNumToRBYTable[enc.pokemon.number];
+							writeByte(offset, (byte) enc.level);
+							writeByte(offset + 1,
+									(byte) pokeNumToRBYTable[enc.pokemon.number]);
 							offset += 2;
 						}
 					}
@@ -1078,37 +1148,42 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		}
 
 		// old rod
-		int oldRodOffset = romEntry.getValue("OldRodOffset");
+		int oldRodOffset = romEntry.getValue(Gen1Slots.OldRodOffset);
 		EncounterSet oldRodSet = encsetit.next();
 		Encounter oldRodEnc = oldRodSet.encounters.get(0);
-		rom[oldRodOffset + 2] = (byte) oldRodEnc.level;
-		rom[oldRodOffset + 1] = (byte) pokeNumToRBYTable[oldRodEnc.pokemon.number];
+		writeByte(oldRodOffset + 2, (byte) oldRodEnc.level);
+		writeByte(oldRodOffset + 1,
+				(byte) pokeNumToRBYTable[oldRodEnc.pokemon.number]);
 
 		// good rod
-		int goodRodOffset = romEntry.getValue("GoodRodOffset");
+		int goodRodOffset = romEntry.getValue(Gen1Slots.GoodRodOffset);
 		EncounterSet goodRodSet = encsetit.next();
 		for (int grSlot = 0; grSlot < 2; grSlot++) {
 			Encounter enc = goodRodSet.encounters.get(grSlot);
-			rom[goodRodOffset + grSlot * 2] = (byte) enc.level;
-			rom[goodRodOffset + grSlot * 2 + 1] = (byte) pokeNumToRBYTable[enc.pokemon.number];
+			writeByte(goodRodOffset + grSlot * 2, (byte) enc.level);
+			writeByte(goodRodOffset + grSlot * 2 + 1,
+					(byte) pokeNumToRBYTable[enc.pokemon.number]);
 		}
 
 		// super rod
 		if (romEntry.isYellow) {
-			int superRodOffset = romEntry.getValue("SuperRodTableOffset");
+			int superRodOffset = romEntry
+					.getValue(Gen1Slots.SuperRodTableOffset);
 			while ((rom[superRodOffset] & 0xFF) != 0xFF) {
 				superRodOffset++;
 				EncounterSet thisSet = encsetit.next();
 				for (int encN = 0; encN < Gen1Constants.yellowSuperRodTableSize; encN++) {
 					Encounter enc = thisSet.encounters.get(encN);
-					rom[superRodOffset + 1] = (byte) enc.level;
-					rom[superRodOffset] = (byte) pokeNumToRBYTable[enc.pokemon.number];
+					writeByte(superRodOffset + 1, (byte) enc.level);
+					writeByte(superRodOffset,
+							(byte) pokeNumToRBYTable[enc.pokemon.number]);
 					superRodOffset += 2;
 				}
 			}
 		} else {
 			// red/blue
-			int superRodOffset = romEntry.getValue("SuperRodTableOffset");
+			int superRodOffset = romEntry
+					.getValue(Gen1Slots.SuperRodTableOffset);
 			int superRodBank = bankOf(superRodOffset);
 			List<Integer> usedSROffsets = new ArrayList<Integer>();
 			while ((rom[superRodOffset] & 0xFF) != 0xFF) {
@@ -1122,8 +1197,9 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 					EncounterSet thisSet = encsetit.next();
 					for (int encN = 0; encN < pokesInSet; encN++) {
 						Encounter enc = thisSet.encounters.get(encN);
-						rom[setOffset] = (byte) enc.level;
-						rom[setOffset + 1] = (byte) pokeNumToRBYTable[enc.pokemon.number];
+						writeByte(setOffset, (byte) enc.level);
+						writeByte(setOffset + 1,
+								(byte) pokeNumToRBYTable[enc.pokemon.number]);
 						setOffset += 2;
 					}
 				}
@@ -1136,11 +1212,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		return pokemonList;
 	}
 
-	public List<Trainer> getTrainers() {
-		int traineroffset = romEntry.getValue("TrainerDataTableOffset");
+	protected List<Trainer> loadTrainers() {
+		int traineroffset = romEntry.getValue(Gen1Slots.TrainerDataTableOffset);
 		int traineramount = Gen1Constants.trainerClassCount;
-		int[] trainerclasslimits = romEntry.arrayEntries
-				.get("TrainerDataClassCounts");
+		int[] trainerclasslimits = romEntry.arrayEntries[Gen1Slots.TrainerDataClassCounts];
 
 		int[] pointers = new int[traineramount + 1];
 		for (int i = 1; i <= traineramount; i++) {
@@ -1197,11 +1272,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		return allTrainers;
 	}
 
-	public void setTrainers(List<Trainer> trainerData) {
-		int traineroffset = romEntry.getValue("TrainerDataTableOffset");
+	protected void saveTrainers(List<Trainer> trainerData) {
+		int traineroffset = romEntry.getValue(Gen1Slots.TrainerDataTableOffset);
 		int traineramount = Gen1Constants.trainerClassCount;
-		int[] trainerclasslimits = romEntry.arrayEntries
-				.get("TrainerDataClassCounts");
+		int[] trainerclasslimits = romEntry.arrayEntries[Gen1Slots.TrainerDataClassCounts];
 
 		int[] pointers = new int[traineramount + 1];
 		for (int i = 1; i <= traineramount; i++) {
@@ -1223,41 +1297,45 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 				if (tr.poketype == 0) {
 					// Regular trainer
 					int fixedLevel = tr.pokemon.get(0).level;
-					rom[offs] = (byte) fixedLevel;
+					writeByte(offs, (byte) fixedLevel);
 					offs++;
 					while (tPokes.hasNext()) {
 						TrainerPokemon tpk = tPokes.next();
-						rom[offs] = (byte) pokeNumToRBYTable[tpk.pokemon.number];
+						writeByte(offs,
+								(byte) pokeNumToRBYTable[tpk.pokemon.number]);
 						offs++;
 					}
 				} else {
 					// Special trainer
-					rom[offs] = (byte) 0xFF;
+					writeByte(offs, (byte) 0xFF);
 					offs++;
 					while (tPokes.hasNext()) {
 						TrainerPokemon tpk = tPokes.next();
-						rom[offs] = (byte) tpk.level;
-						rom[offs + 1] = (byte) pokeNumToRBYTable[tpk.pokemon.number];
+						writeByte(offs, (byte) tpk.level);
+						writeByte(offs + 1,
+								(byte) pokeNumToRBYTable[tpk.pokemon.number]);
 						offs += 2;
 					}
 				}
-				rom[offs] = 0;
+				writeByte(offs, 0);
 				offs++;
 			}
 		}
 
 		// Custom Moves AI Table
 		// Zero it out entirely.
-		rom[romEntry.getValue("ExtraTrainerMovesTableOffset")] = (byte) 0xFF;
+		writeByte(romEntry.getValue(Gen1Slots.ExtraTrainerMovesTableOffset),
+				(byte) 0xFF);
 
 		// Champion Rival overrides in Red/Blue
 		if (!isYellow()) {
 			// hacky relative offset (very likely to work but maybe not always)
-			int champRivalJump = romEntry.getValue("GymLeaderMovesTableOffset")
+			int champRivalJump = romEntry
+					.getValue(Gen1Slots.GymLeaderMovesTableOffset)
 					- Gen1Constants.champRivalOffsetFromGymLeaderMoves;
 			// nop out this jump
-			rom[champRivalJump] = GBConstants.gbZ80Nop;
-			rom[champRivalJump + 1] = GBConstants.gbZ80Nop;
+			writeByte(champRivalJump, GBConstants.gbZ80Nop);
+			writeByte(champRivalJump + 1, GBConstants.gbZ80Nop);
 		}
 
 	}
@@ -1282,29 +1360,30 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	@Override
 	public void fixTypeEffectiveness() {
 		// TODO rewrite to use table properly
-		int base = romEntry.getValue("TypeEffectivenessOffset");
+		int base = romEntry.getValue(Gen1Slots.TypeEffectivenessOffset);
 		log("--Fixing Type Effectiveness--");
 		// Change Poison SE to bug (should be neutral)
 		// to Ice NE to Fire (is currently neutral)
 		log("Replaced: Poison super effective vs Bug => Ice not very effective vs Fire");
-		rom[base + 135] = typeToByte(Type.ICE);
-		rom[base + 136] = typeToByte(Type.FIRE);
-		rom[base + 137] = 5; // Not very effective
+		writeByte(base + 135, typeToByte(Type.ICE));
+		writeByte(base + 136, typeToByte(Type.FIRE));
+		writeByte(base + 137, 5); // Not very effective
 		// Change BUG SE to Poison to Bug NE to Poison
 		log("Changed: Bug super effective vs Poison => Bug not very effective vs Poison");
-		rom[base + 203] = 5; // Not very effective
+		writeByte(base + 203, 5); // Not very effective
 		// Change Ghost 0E to Psychic to Ghost SE to Psychic
 		log("Changed: Psychic immune to Ghost => Ghost super effective vs Psychic");
-		rom[base + 227] = 20; // Super effective
+		writeByte(base + 227, 20); // Super effective
 		logBlankLine();
 	}
 
 	@Override
-	public Map<Pokemon, List<MoveLearnt>> getMovesLearnt() {
+	protected Map<Pokemon, List<MoveLearnt>> loadMovesLearnt() {
 		Map<Pokemon, List<MoveLearnt>> movesets = new TreeMap<Pokemon, List<MoveLearnt>>();
-		int pointersOffset = romEntry.getValue("PokemonMovesetsTableOffset");
-		int pokeStatsOffset = romEntry.getValue("PokemonStatsOffset");
-		int pkmnCount = romEntry.getValue("InternalPokemonCount");
+		int pointersOffset = romEntry
+				.getValue(Gen1Slots.PokemonMovesetsTableOffset);
+		int pokeStatsOffset = romEntry.getValue(Gen1Slots.PokemonStatsOffset);
+		int pkmnCount = romEntry.getValue(Gen1Slots.InternalPokemonCount);
 		for (int i = 1; i <= pkmnCount; i++) {
 			int pointer = readWord(pointersOffset + (i - 1) * 2);
 			int realPointer = calculateOffset(bankOf(pointersOffset), pointer);
@@ -1314,7 +1393,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 				if (pokeRBYToNumTable[i] == Gen1Constants.mewIndex
 						&& !romEntry.isYellow) {
 					// Mewww
-					statsOffset = romEntry.getValue("MewStatsOffset");
+					statsOffset = romEntry.getValue(Gen1Slots.MewStatsOffset);
 				} else {
 					statsOffset = (pokeRBYToNumTable[i] - 1) * 0x1C
 							+ pokeStatsOffset;
@@ -1353,7 +1432,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+	protected void saveMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
 		// new method for moves learnt
 		writeEvosAndMovesLearnt(null, movesets);
 	}
@@ -1361,7 +1440,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Pokemon> getStaticPokemon() {
 		List<Pokemon> statics = new ArrayList<Pokemon>();
-		if (romEntry.getValue("StaticPokemonSupport") > 0) {
+		if (romEntry.getValue(Gen1Slots.StaticPokemonSupport) > 0) {
 			for (int offset : romEntry.staticPokemonSingle) {
 				statics.add(pokes[pokeRBYToNumTable[rom[offset] & 0xFF]]);
 			}
@@ -1374,7 +1453,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public boolean setStaticPokemon(List<Pokemon> staticPokemon) {
-		if (romEntry.getValue("StaticPokemonSupport") == 0) {
+		if (romEntry.getValue(Gen1Slots.StaticPokemonSupport) == 0) {
 			return false;
 		}
 		// Checks
@@ -1386,8 +1465,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 		// Singular entries
 		for (int i = 0; i < singleSize; i++) {
-			rom[romEntry.staticPokemonSingle.get(i)] = (byte) pokeNumToRBYTable[staticPokemon
-					.get(i).number];
+			writeByte(romEntry.staticPokemonSingle.get(i),
+					(byte) pokeNumToRBYTable[staticPokemon.get(i).number]);
 		}
 
 		// Game corner
@@ -1396,7 +1475,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 					+ singleSize).number];
 			int[] offsets = romEntry.staticPokemonGameCorner.get(i).offsets;
 			for (int offset : offsets) {
-				rom[offset] = pokeNum;
+				writeByte(offset, pokeNum);
 			}
 		}
 		return true;
@@ -1404,13 +1483,13 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public boolean canChangeStaticPokemon() {
-		return (romEntry.getValue("StaticPokemonSupport") > 0);
+		return (romEntry.getValue(Gen1Slots.StaticPokemonSupport) > 0);
 	}
 
 	@Override
 	public List<Integer> getTMMoves() {
 		List<Integer> tms = new ArrayList<Integer>();
-		int offset = romEntry.getValue("TMMovesOffset");
+		int offset = romEntry.getValue(Gen1Slots.TMMovesOffset);
 		for (int i = 1; i <= Gen1Constants.tmCount; i++) {
 			tms.add(moveRomToNumTable[rom[offset + (i - 1)] & 0xFF]);
 		}
@@ -1420,7 +1499,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Integer> getHMMoves() {
 		List<Integer> hms = new ArrayList<Integer>();
-		int offset = romEntry.getValue("TMMovesOffset");
+		int offset = romEntry.getValue(Gen1Slots.TMMovesOffset);
 		for (int i = 1; i <= Gen1Constants.hmCount; i++) {
 			hms.add(moveRomToNumTable[rom[offset + Gen1Constants.tmCount
 					+ (i - 1)] & 0xFF]);
@@ -1430,21 +1509,22 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTMMoves(List<Integer> moveIndexes) {
-		int offset = romEntry.getValue("TMMovesOffset");
+		int offset = romEntry.getValue(Gen1Slots.TMMovesOffset);
 		for (int i = 1; i <= Gen1Constants.tmCount; i++) {
-			rom[offset + (i - 1)] = (byte) moveNumToRomTable[moveIndexes
-					.get(i - 1)];
+			writeByte(offset + (i - 1),
+					(byte) moveNumToRomTable[moveIndexes.get(i - 1)]);
 		}
 
 		// Gym Leader TM Moves (RB only)
 		if (!romEntry.isYellow) {
 			int[] tms = Gen1Constants.gymLeaderTMs;
-			int glMovesOffset = romEntry.getValue("GymLeaderMovesTableOffset");
+			int glMovesOffset = romEntry
+					.getValue(Gen1Slots.GymLeaderMovesTableOffset);
 			for (int i = 0; i < tms.length; i++) {
 				// Set the special move used by gym (i+1) to
 				// the move we just wrote to TM tms[i]
-				rom[glMovesOffset + i * 2] = (byte) moveNumToRomTable[moveIndexes
-						.get(tms[i] - 1)];
+				writeByte(glMovesOffset + i * 2,
+						(byte) moveNumToRomTable[moveIndexes.get(tms[i] - 1)]);
 			}
 		}
 
@@ -1470,37 +1550,34 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getTMHMCompatibility() {
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
-		int pokeStatsOffset = romEntry.getValue("PokemonStatsOffset");
+	public CompatibilityMatrix getTMHMCompatibility() {
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, pokedexCount + 1), Gen1Constants.tmCount
+				+ Gen1Constants.hmCount);
+		int pokeStatsOffset = romEntry.getValue(Gen1Slots.PokemonStatsOffset);
 		for (int i = 1; i <= pokedexCount; i++) {
 			int baseStatsOffset = (romEntry.isYellow || i != Gen1Constants.mewIndex) ? (pokeStatsOffset + (i - 1)
 					* Gen1Constants.baseStatsEntrySize)
-					: romEntry.getValue("MewStatsOffset");
+					: romEntry.getValue(Gen1Slots.MewStatsOffset);
 			Pokemon pkmn = pokes[i];
-			boolean[] flags = new boolean[Gen1Constants.tmCount
-					+ Gen1Constants.hmCount + 1];
 			for (int j = 0; j < 7; j++) {
-				readByteIntoFlags(flags, j * 8 + 1, baseStatsOffset
-						+ Gen1Constants.bsTMHMCompatOffset + j);
+				compat.setByte(pkmn, j, rom[baseStatsOffset
+						+ Gen1Constants.bsTMHMCompatOffset + j]);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setTMHMCompatibility(Map<Pokemon, boolean[]> compatData) {
-		int pokeStatsOffset = romEntry.getValue("PokemonStatsOffset");
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
+	public void setTMHMCompatibility(CompatibilityMatrix compatData) {
+		int pokeStatsOffset = romEntry.getValue(Gen1Slots.PokemonStatsOffset);
+		for (Pokemon pkmn : compatData.getPokemon()) {
 			int baseStatsOffset = (romEntry.isYellow || pkmn.number != Gen1Constants.mewIndex) ? (pokeStatsOffset + (pkmn.number - 1)
 					* Gen1Constants.baseStatsEntrySize)
-					: romEntry.getValue("MewStatsOffset");
+					: romEntry.getValue(Gen1Slots.MewStatsOffset);
 			for (int j = 0; j < 7; j++) {
-				rom[baseStatsOffset + Gen1Constants.bsTMHMCompatOffset + j] = getByteFromFlags(
-						flags, j * 8 + 1);
+				writeByte(baseStatsOffset + Gen1Constants.bsTMHMCompatOffset + j,
+						compatData.getByte(pkmn, j));
 			}
 		}
 	}
@@ -1521,12 +1598,12 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getMoveTutorCompatibility() {
-		return new TreeMap<Pokemon, boolean[]>();
+	public CompatibilityMatrix getMoveTutorCompatibility() {
+		return CompatibilityMatrix.empty();
 	}
 
 	@Override
-	public void setMoveTutorCompatibility(Map<Pokemon, boolean[]> compatData) {
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData) {
 		// Do nothing
 	}
 
@@ -1543,16 +1620,17 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public String getSupportLevel() {
-		return (romEntry.getValue("StaticPokemonSupport") > 0) ? "Complete"
-				: "No Static Pokemon";
+		return (romEntry.getValue(Gen1Slots.StaticPokemonSupport) > 0)
+				? "Complete" : "No Static Pokemon";
 	}
 
 	@Override
 	public List<Evolution> getEvolutions() {
 		List<Evolution> evos = new ArrayList<Evolution>();
-		int pointersOffset = romEntry.getValue("PokemonMovesetsTableOffset");
+		int pointersOffset = romEntry
+				.getValue(Gen1Slots.PokemonMovesetsTableOffset);
 		List<Evolution> evosForThisPoke = new ArrayList<Evolution>();
-		int pkmnCount = romEntry.getValue("InternalPokemonCount");
+		int pkmnCount = romEntry.getValue(Gen1Slots.InternalPokemonCount);
 		for (int i = 1; i <= pkmnCount; i++) {
 			int pointer = readWord(pointersOffset + (i - 1) * 2);
 			int realPointer = calculateOffset(bankOf(pointersOffset), pointer);
@@ -1586,6 +1664,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setEvolutions(List<Evolution> evos) {
+		evolutionsChanged();
 		this.writeEvosAndMovesLearnt(evos, null);
 	}
 
@@ -1608,7 +1687,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	private List<String> getTrainerClassesForText() {
-		int[] offsets = romEntry.arrayEntries.get("TrainerClassNamesOffsets");
+		int[] offsets = romEntry.arrayEntries[Gen1Slots.TrainerClassNamesOffsets];
 		List<String> tcNames = new ArrayList<String>();
 		int offset = offsets[offsets.length - 1];
 		for (int j = 0; j < Gen1Constants.tclassesCounts[1]; j++) {
@@ -1621,7 +1700,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<String> getTrainerNames() {
-		int[] offsets = romEntry.arrayEntries.get("TrainerClassNamesOffsets");
+		int[] offsets = romEntry.arrayEntries[Gen1Slots.TrainerClassNamesOffsets];
 		List<String> trainerNames = new ArrayList<String>();
 		int offset = offsets[offsets.length - 1];
 		for (int j = 0; j < Gen1Constants.tclassesCounts[1]; j++) {
@@ -1636,9 +1715,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTrainerNames(List<String> trainerNames) {
-		if (romEntry.getValue("CanChangeTrainerText") > 0) {
-			int[] offsets = romEntry.arrayEntries
-					.get("TrainerClassNamesOffsets");
+		if (romEntry.getValue(Gen1Slots.CanChangeTrainerText) > 0) {
+			int[] offsets = romEntry.arrayEntries[Gen1Slots.TrainerClassNamesOffsets];
 			Iterator<String> trainerNamesI = trainerNames.iterator();
 			int offset = offsets[offsets.length - 1];
 			for (int j = 0; j < Gen1Constants.tclassesCounts[1]; j++) {
@@ -1666,7 +1744,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<String> getTrainerClassNames() {
-		int[] offsets = romEntry.arrayEntries.get("TrainerClassNamesOffsets");
+		int[] offsets = romEntry.arrayEntries[Gen1Slots.TrainerClassNamesOffsets];
 		List<String> trainerClassNames = new ArrayList<String>();
 		if (offsets.length == 2) {
 			for (int i = 0; i < offsets.length; i++) {
@@ -1694,9 +1772,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTrainerClassNames(List<String> trainerClassNames) {
-		if (romEntry.getValue("CanChangeTrainerText") > 0) {
-			int[] offsets = romEntry.arrayEntries
-					.get("TrainerClassNamesOffsets");
+		if (romEntry.getValue(Gen1Slots.CanChangeTrainerText) > 0) {
+			int[] offsets = romEntry.arrayEntries[Gen1Slots.TrainerClassNamesOffsets];
 			Iterator<String> tcNamesIter = trainerClassNames.iterator();
 			if (offsets.length == 2) {
 				for (int i = 0; i < offsets.length; i++) {
@@ -1768,7 +1845,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		if (romEntry.codeTweaks.get("CritRateTweak") != null) {
 			available |= CodeTweaks.FIX_CRIT_RATE;
 		}
-		if (romEntry.getValue("TextDelayFunctionOffset") != 0) {
+		if (romEntry.getValue(Gen1Slots.TextDelayFunctionOffset) != 0) {
 			available |= CodeTweaks.FASTEST_TEXT;
 		}
 		return available;
@@ -1791,8 +1868,9 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void applyFastestTextPatch() {
-		if (romEntry.getValue("TextDelayFunctionOffset") != 0) {
-			rom[romEntry.getValue("TextDelayFunctionOffset")] = GBConstants.gbZ80Ret;
+		if (romEntry.getValue(Gen1Slots.TextDelayFunctionOffset) != 0) {
+			writeByte(romEntry.getValue(Gen1Slots.TextDelayFunctionOffset),
+					GBConstants.gbZ80Ret);
 		}
 	}
 
@@ -1803,7 +1881,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		}
 
 		try {
-			FileFunctions.applyPatch(rom, patchName);
+			applyPatch(patchName);
 			return true;
 		} catch (IOException e) {
 			return false;
@@ -1840,8 +1918,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		// First off, intro Pokemon
 		// 160 add yellow intro random
 		int introPokemon = pokeNumToRBYTable[this.randomPokemon().number];
-		rom[romEntry.getValue("IntroPokemonOffset")] = (byte) introPokemon;
-		rom[romEntry.getValue("IntroCryOffset")] = (byte) introPokemon;
+		writeByte(romEntry.getValue(Gen1Slots.IntroPokemonOffset),
+				(byte) introPokemon);
+		writeByte(romEntry.getValue(Gen1Slots.IntroCryOffset),
+				(byte) introPokemon);
 
 	}
 
@@ -1861,7 +1941,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		itemNames[0] = "glitch";
 		// trying to emulate pretty much what the game does here
 		// normal items
-		int origOffset = romEntry.getValue("ItemNamesOffset");
+		int origOffset = romEntry.getValue(Gen1Slots.ItemNamesOffset);
 		int itemNameOffset = origOffset;
 		for (int index = 1; index <= 0x100; index++) {
 			if (itemNameOffset / GBConstants.bankSize > origOffset
@@ -1927,8 +2007,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void preloadMaps() {
-		int mapBanks = romEntry.getValue("MapBanks");
-		int mapAddresses = romEntry.getValue("MapAddresses");
+		int mapBanks = romEntry.getValue(Gen1Slots.MapBanks);
+		int mapAddresses = romEntry.getValue(Gen1Slots.MapAddresses);
 
 		preloadMap(mapBanks, mapAddresses, 0);
 	}
@@ -2020,7 +2100,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 
 	private void loadMapNames() {
 		mapNames = new String[256];
-		int mapNameTableOffset = romEntry.getValue("MapNameTableOffset");
+		int mapNameTableOffset = romEntry
+				.getValue(Gen1Slots.MapNameTableOffset);
 		int mapNameBank = bankOf(mapNameTableOffset);
 		// external names
 		List<Integer> usedExternal = new ArrayList<Integer>();
@@ -2074,13 +2155,13 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 			}
 		}
 
-		int hiRoutine = romEntry.getValue("HiddenItemRoutine");
-		int spclTable = romEntry.getValue("SpecialMapPointerTable");
+		int hiRoutine = romEntry.getValue(Gen1Slots.HiddenItemRoutine);
+		int spclTable = romEntry.getValue(Gen1Slots.SpecialMapPointerTable);
 		int spclBank = bankOf(spclTable);
 
 		if (!isYellow()) {
 
-			int spclList = romEntry.getValue("SpecialMapList");
+			int spclList = romEntry.getValue(Gen1Slots.SpecialMapList);
 
 			int lOffs = spclList;
 			int idx = 0;
@@ -2151,8 +2232,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 			int itemHere = rom[offset] & 0xFF;
 			if (Gen1Constants.allowedItems.isTM(itemHere)) {
 				// Replace this with a TM from the list
-				rom[offset] = (byte) (iterTMs.next()
-						+ Gen1Constants.tmsStartIndex - 1);
+				writeByte(offset,
+						(byte) (iterTMs.next() + Gen1Constants.tmsStartIndex - 1));
 			}
 		}
 	}
@@ -2182,7 +2263,7 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 			if (Gen1Constants.allowedItems.isAllowed(itemHere)
 					&& !(Gen1Constants.allowedItems.isTM(itemHere))) {
 				// Replace it
-				rom[offset] = (byte) (iterItems.next().intValue());
+				writeByte(offset, (byte) (iterItems.next().intValue()));
 			}
 		}
 
@@ -2193,10 +2274,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		List<IngameTrade> trades = new ArrayList<IngameTrade>();
 
 		// info
-		int tableOffset = romEntry.getValue("TradeTableOffset");
-		int tableSize = romEntry.getValue("TradeTableSize");
-		int nicknameLength = romEntry.getValue("TradeNameLength");
-		int[] unused = romEntry.arrayEntries.get("TradesUnused");
+		int tableOffset = romEntry.getValue(Gen1Slots.TradeTableOffset);
+		int tableSize = romEntry.getValue(Gen1Slots.TradeTableSize);
+		int nicknameLength = romEntry.getValue(Gen1Slots.TradeNameLength);
+		int[] unused = romEntry.arrayEntries[Gen1Slots.TradesUnused];
 		int unusedOffset = 0;
 		int entryLength = nicknameLength + 3;
 
@@ -2220,10 +2301,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 	public void setIngameTrades(List<IngameTrade> trades) {
 
 		// info
-		int tableOffset = romEntry.getValue("TradeTableOffset");
-		int tableSize = romEntry.getValue("TradeTableSize");
-		int nicknameLength = romEntry.getValue("TradeNameLength");
-		int[] unused = romEntry.arrayEntries.get("TradesUnused");
+		int tableOffset = romEntry.getValue(Gen1Slots.TradeTableOffset);
+		int tableSize = romEntry.getValue(Gen1Slots.TradeTableSize);
+		int nicknameLength = romEntry.getValue(Gen1Slots.TradeNameLength);
+		int[] unused = romEntry.arrayEntries[Gen1Slots.TradesUnused];
 		int unusedOffset = 0;
 		int entryLength = nicknameLength + 3;
 		int tradeOffset = 0;
@@ -2235,9 +2316,11 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 			}
 			IngameTrade trade = trades.get(tradeOffset++);
 			int entryOffset = tableOffset + entry * entryLength;
-			rom[entryOffset] = (byte) pokeNumToRBYTable[trade.requestedPokemon.number];
-			rom[entryOffset + 1] = (byte) pokeNumToRBYTable[trade.givenPokemon.number];
-			if (romEntry.getValue("CanChangeTrainerText") > 0) {
+			writeByte(entryOffset,
+					(byte) pokeNumToRBYTable[trade.requestedPokemon.number]);
+			writeByte(entryOffset + 1,
+					(byte) pokeNumToRBYTable[trade.givenPokemon.number]);
+			if (romEntry.getValue(Gen1Slots.CanChangeTrainerText) > 0) {
 				writeFixedLengthString(trade.nickname, entryOffset + 3,
 						nicknameLength);
 			}
@@ -2279,17 +2362,19 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		// until the end of the bank.
 		// so for yellow, extraspace is disabled.
 		// specify null to either argument to copy old values
-		int pokeStatsOffset = romEntry.getValue("PokemonStatsOffset");
-		int movesEvosStart = romEntry.getValue("PokemonMovesetsTableOffset");
+		int pokeStatsOffset = romEntry.getValue(Gen1Slots.PokemonStatsOffset);
+		int movesEvosStart = romEntry
+				.getValue(Gen1Slots.PokemonMovesetsTableOffset);
 		int movesEvosBank = bankOf(movesEvosStart);
-		int pkmnCount = romEntry.getValue("InternalPokemonCount");
+		int pkmnCount = romEntry.getValue(Gen1Slots.InternalPokemonCount);
 		byte[] pointerTable = new byte[pkmnCount * 2];
-		int mainDataBlockSize = romEntry.getValue("PokemonMovesetsDataSize");
+		int mainDataBlockSize = romEntry
+				.getValue(Gen1Slots.PokemonMovesetsDataSize);
 		int mainDataBlockOffset = movesEvosStart + pointerTable.length;
 		byte[] mainDataBlock = new byte[mainDataBlockSize];
 		int offsetInMainData = 0;
 		int extraSpaceOffset = romEntry
-				.getValue("PokemonMovesetsExtraSpaceOffset");
+				.getValue(Gen1Slots.PokemonMovesetsExtraSpaceOffset);
 		int extraSpaceBank = bankOf(extraSpaceOffset);
 		boolean extraSpaceEnabled = false;
 		byte[] extraDataBlock = null;
@@ -2374,7 +2459,8 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 					int statsOffset = 0;
 					if (pokeNum == Gen1Constants.mewIndex && !romEntry.isYellow) {
 						// Mewww
-						statsOffset = romEntry.getValue("MewStatsOffset");
+						statsOffset = romEntry
+								.getValue(Gen1Slots.MewStatsOffset);
 					} else {
 						statsOffset = (pokeNum - 1)
 								* Gen1Constants.baseStatsEntrySize
@@ -2383,15 +2469,16 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 					int movenum = 0;
 					while (movenum < 4 && ourMoves.size() > movenum
 							&& ourMoves.get(movenum).level == 1) {
-						rom[statsOffset + Gen1Constants.bsLevel1MovesOffset
-								+ movenum] = (byte) moveNumToRomTable[ourMoves
-								.get(movenum).move];
+						writeByte(statsOffset
+								+ Gen1Constants.bsLevel1MovesOffset + movenum,
+								(byte) moveNumToRomTable[ourMoves
+										.get(movenum).move]);
 						movenum++;
 					}
 					// Write out the rest of zeroes
 					for (int mn = movenum; mn < 4; mn++) {
-						rom[statsOffset + Gen1Constants.bsLevel1MovesOffset
-								+ mn] = 0;
+						writeByte(statsOffset
+								+ Gen1Constants.bsLevel1MovesOffset + mn, 0);
 					}
 					// Add the non level 1 moves to the data stream
 					while (movenum < ourMoves.size()) {
@@ -2476,12 +2563,10 @@ public class Gen1RomHandler extends AbstractGBRomHandler {
 		}
 
 		// Done, write final results to ROM
-		System.arraycopy(pointerTable, 0, rom, movesEvosStart,
-				pointerTable.length);
-		System.arraycopy(mainDataBlock, 0, rom, mainDataBlockOffset,
-				mainDataBlock.length);
+		writeBytes(movesEvosStart, pointerTable, 0, pointerTable.length);
+		writeBytes(mainDataBlockOffset, mainDataBlock, 0, mainDataBlock.length);
 		if (extraSpaceEnabled) {
-			System.arraycopy(extraDataBlock, 0, rom, extraSpaceOffset,
+			writeBytes(extraSpaceOffset, extraDataBlock, 0,
 					extraDataBlock.length);
 		}
 	}
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -43,6 +44,8 @@ import com.dabomstew.pkrandom.FileFunctions;
 import com.dabomstew.pkrandom.RomFunctions;
 import com.dabomstew.pkrandom.constants.GBConstants;
 import com.dabomstew.pkrandom.constants.Gen2Constants;
+import com.dabomstew.pkrandom.constants.Gen2Slots;
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
@@ -280,17 +283,54 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		private int crcInHeader = -1;
 		private Map<String, String> codeTweaks = new HashMap<String, String>();
 		private List<TMTextEntry> tmTexts = new ArrayList<TMTextEntry>();
-		private Map<String, Integer> entries = new HashMap<String, Integer>();
-		private Map<String, int[]> arrayEntries = new HashMap<String, int[]>();
+		private int[] entries = new int[Gen2Slots.valueNames.length];
+		// which entries have been set, so CopyFrom can copy just those
+		private BitSet entriesSet = new BitSet();
+		private int[][] arrayEntries = new int[Gen2Slots.arrayNames.length][];
 		private List<Integer> staticPokemonSingle = new ArrayList<Integer>();
 		private Map<Integer, Integer> staticPokemonGameCorner = new TreeMap<Integer, Integer>();
 		private Map<Integer, Integer> staticPokemonCopy = new TreeMap<Integer, Integer>();
 
-		private int getValue(String key) {
-			if (!entries.containsKey(key)) {
-				entries.put(key, 0);
+		private int getValue(int slot) {
+			return entries[slot];
+		}
+
+		private void setValue(int slot, int value) {
+			entries[slot] = value;
+			entriesSet.set(slot);
+		}
+
+		// ini keys go in at the slots RomSlotsGenerator gave them
+		private void putValue(String key, int value) {
+			int slot = Gen2Slots.valueSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				setValue(slot, value);
+			}
+		}
+
+		private void putArray(String key, int[] values) {
+			int slot = Gen2Slots.arraySlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				arrayEntries[slot] = values;
+			}
+		}
+
+		// everything other has set, over whatever this has
+		private void copyEntries(RomEntry other) {
+			for (int i = 0; i < entries.length; i++) {
+				if (other.entriesSet.get(i)) {
+					setValue(i, other.entries[i]);
+				}
+			}
+			for (int i = 0; i < arrayEntries.length; i++) {
+				if (other.arrayEntries[i] != null) {
+					arrayEntries[i] = other.arrayEntries[i];
+				}
 			}
-			return entries.get(key);
 		}
 	}
 
@@ -300,6 +340,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		private String template;
 	}
 
+	private static final int[] starterOffsetSlots = {
+			Gen2Slots.StarterOffsets1, Gen2Slots.StarterOffsets2,
+			Gen2Slots.StarterOffsets3 };
+
 	private static List<RomEntry> roms;
 
 	static {
@@ -393,12 +437,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 								if (r[1].equalsIgnoreCase(otherEntry.name)) {
 									// copy from here
 									boolean cSP = (current
-											.getValue("CopyStaticPokemon") == 1);
+											.getValue(Gen2Slots.CopyStaticPokemon) == 1);
 									boolean cTT = (current
-											.getValue("CopyTMText") == 1);
-									current.arrayEntries
-											.putAll(otherEntry.arrayEntries);
-									current.entries.putAll(otherEntry.entries);
+											.getValue(Gen2Slots.CopyTMText) == 1);
+									current.copyEntries(otherEntry);
 									if (cSP) {
 										current.staticPokemonSingle
 												.addAll(otherEntry.staticPokemonSingle);
@@ -406,11 +448,13 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 												.putAll(otherEntry.staticPokemonGameCorner);
 										current.staticPokemonCopy
 												.putAll(otherEntry.staticPokemonCopy);
-										current.entries.put(
-												"StaticPokemonSupport", 1);
+										current.setValue(
+												Gen2Slots.StaticPokemonSupport,
+												1);
 									} else {
-										current.entries.put(
-												"StaticPokemonSupport", 0);
+										current.setValue(
+												Gen2Slots.StaticPokemonSupport,
+												0);
 									}
 									if (cTT) {
 										current.tmTexts
@@ -425,7 +469,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 										r[1].length() - 1).split(",");
 								if (offsets.length == 1
 										&& offsets[0].trim().isEmpty()) {
-									current.arrayEntries.put(r[0], new int[0]);
+									current.putArray(r[0], new int[0]);
 								} else {
 									int[] offs = new int[offsets.length];
 									int c = 0;
@@ -438,12 +482,12 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 													.add(off);
 										}
 									} else {
-										current.arrayEntries.put(r[0], offs);
+										current.putArray(r[0], offs);
 									}
 								}
 							} else {
 								int offs = parseRIInt(r[1]);
-								current.entries.put(r[0], offs);
+								current.putValue(r[0], offs);
 							}
 						}
 					}
@@ -526,6 +570,26 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		loadItemNames();
 	}
 
+	@Override
+	protected void loadedFrom(AbstractGBRomHandler original) {
+		Gen2RomHandler from = (Gen2RomHandler) original;
+		// the text tables, names and item offsets are only read once loaded,
+		// so they can be shared
+		romEntry = from.romEntry;
+		tb = from.tb;
+		d = from.d;
+		longestTableToken = from.longestTableToken;
+		isVietCrystal = from.isVietCrystal;
+		havePatchedFleeing = false;
+		pokes = copyPokemon(from.pokes);
+		pokemonList = Arrays.asList(pokes);
+		moves = copyMoves(from.moves);
+		landmarkNames = from.landmarkNames;
+		mapNames = from.mapNames;
+		itemOffs = from.itemOffs;
+		itemNames = from.itemNames;
+	}
+
 	private static RomEntry checkRomEntry(byte[] rom) {
 		int version = rom[GBConstants.versionOffset] & 0xFF;
 		int nonjap = rom[GBConstants.jpFlagOffset] & 0xFF;
@@ -595,7 +659,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		pokes = new Pokemon[Gen2Constants.pokemonCount + 1];
 		// Fetch our names
 		String[] pokeNames = readPokemonNames();
-		int offs = romEntry.getValue("PokemonStatsOffset");
+		int offs = romEntry.getValue(Gen2Slots.PokemonStatsOffset);
 		// Get base stats
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
 			pokes[i] = new Pokemon();
@@ -610,14 +674,14 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	private void savePokemonStats() {
 		// Write pokemon names
-		int offs = romEntry.getValue("PokemonNamesOffset");
-		int len = romEntry.getValue("PokemonNamesLength");
+		int offs = romEntry.getValue(Gen2Slots.PokemonNamesOffset);
+		int len = romEntry.getValue(Gen2Slots.PokemonNamesLength);
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
 			int stringOffset = offs + (i - 1) * len;
 			writeFixedLengthString(pokes[i].name, stringOffset, len);
 		}
 		// Write pokemon stats
-		int offs2 = romEntry.getValue("PokemonStatsOffset");
+		int offs2 = romEntry.getValue(Gen2Slots.PokemonStatsOffset);
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
 			saveBasicPokeStats(pokes[i], offs2 + (i - 1)
 					* Gen2Constants.baseStatsEntrySize);
@@ -625,7 +689,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	private String[] readMoveNames() {
-		int offset = romEntry.getValue("MoveNamesOffset");
+		int offset = romEntry.getValue(Gen2Slots.MoveNamesOffset);
 		String[] moveNames = new String[Gen2Constants.moveCount + 1];
 		for (int i = 1; i <= Gen2Constants.moveCount; i++) {
 			moveNames[i] = readVariableLengthString(offset);
@@ -637,7 +701,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	private void loadMoves() {
 		moves = new Move[Gen2Constants.moveCount + 1];
 		String[] moveNames = readMoveNames();
-		int offs = romEntry.getValue("MoveDataOffset");
+		int offs = romEntry.getValue(Gen2Slots.MoveDataOffset);
 		for (int i = 1; i <= Gen2Constants.moveCount; i++) {
 			moves[i] = new Move();
 			moves[i].name = moveNames[i];
@@ -652,12 +716,12 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void saveMoves() {
-		int offs = romEntry.getValue("MoveDataOffset");
+		int offs = romEntry.getValue(Gen2Slots.MoveDataOffset);
 		for (int i = 1; i <= 251; i++) {
-			rom[offs + (i - 1) * 7] = (byte) moves[i].effectIndex;
-			rom[offs + (i - 1) * 7 + 1] = (byte) moves[i].power;
-			rom[offs + (i - 1) * 7 + 2] = Gen2Constants
-					.typeToByte(moves[i].type);
+			writeByte(offs + (i - 1) * 7, (byte) moves[i].effectIndex);
+			writeByte(offs + (i - 1) * 7 + 1, (byte) moves[i].power);
+			writeByte(offs + (i - 1) * 7 + 2,
+					Gen2Constants.typeToByte(moves[i].type));
 			int hitratio = (int) Math.round(moves[i].hitratio * 2.55);
 			if (hitratio < 0) {
 				hitratio = 0;
@@ -665,8 +729,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			if (hitratio > 255) {
 				hitratio = 255;
 			}
-			rom[offs + (i - 1) * 7 + 3] = (byte) hitratio;
-			rom[offs + (i - 1) * 7 + 4] = (byte) moves[i].pp;
+			writeByte(offs + (i - 1) * 7 + 3, (byte) hitratio);
+			writeByte(offs + (i - 1) * 7 + 4, (byte) moves[i].pp);
 		}
 	}
 
@@ -701,32 +765,35 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void saveBasicPokeStats(Pokemon pkmn, int offset) {
-		rom[offset + Gen2Constants.bsHPOffset] = (byte) pkmn.hp;
-		rom[offset + Gen2Constants.bsAttackOffset] = (byte) pkmn.attack;
-		rom[offset + Gen2Constants.bsDefenseOffset] = (byte) pkmn.defense;
-		rom[offset + Gen2Constants.bsSpeedOffset] = (byte) pkmn.speed;
-		rom[offset + Gen2Constants.bsSpAtkOffset] = (byte) pkmn.spatk;
-		rom[offset + Gen2Constants.bsSpDefOffset] = (byte) pkmn.spdef;
-		rom[offset + Gen2Constants.bsPrimaryTypeOffset] = Gen2Constants
-				.typeToByte(pkmn.primaryType);
+		writeByte(offset + Gen2Constants.bsHPOffset, (byte) pkmn.hp);
+		writeByte(offset + Gen2Constants.bsAttackOffset, (byte) pkmn.attack);
+		writeByte(offset + Gen2Constants.bsDefenseOffset, (byte) pkmn.defense);
+		writeByte(offset + Gen2Constants.bsSpeedOffset, (byte) pkmn.speed);
+		writeByte(offset + Gen2Constants.bsSpAtkOffset, (byte) pkmn.spatk);
+		writeByte(offset + Gen2Constants.bsSpDefOffset, (byte) pkmn.spdef);
+		writeByte(offset + Gen2Constants.bsPrimaryTypeOffset,
+				Gen2Constants.typeToByte(pkmn.primaryType));
 		if (pkmn.secondaryType == null) {
-			rom[offset + Gen2Constants.bsSecondaryTypeOffset] = rom[offset
-					+ Gen2Constants.bsPrimaryTypeOffset];
+			writeByte(offset + Gen2Constants.bsSecondaryTypeOffset,
+					rom[offset + Gen2Constants.bsPrimaryTypeOffset]);
 		} else {
-			rom[offset + Gen2Constants.bsSecondaryTypeOffset] = Gen2Constants
-					.typeToByte(pkmn.secondaryType);
+			writeByte(offset + Gen2Constants.bsSecondaryTypeOffset,
+					Gen2Constants.typeToByte(pkmn.secondaryType));
 		}
-		rom[offset + Gen2Constants.bsCatchRateOffset] = (byte) pkmn.catchRate;
+		writeByte(offset + Gen2Constants.bsCatchRateOffset,
+				(byte) pkmn.catchRate);
 
-		rom[offset + Gen2Constants.bsCommonHeldItemOffset] = (byte) pkmn.commonHeldItem;
-		rom[offset + Gen2Constants.bsRareHeldItemOffset] = (byte) pkmn.rareHeldItem;
-		rom[offset + Gen2Constants.bsGrowthCurveOffset] = pkmn.growthCurve
-				.toByte();
+		writeByte(offset + Gen2Constants.bsCommonHeldItemOffset,
+				(byte) pkmn.commonHeldItem);
+		writeByte(offset + Gen2Constants.bsRareHeldItemOffset,
+				(byte) pkmn.rareHeldItem);
+		writeByte(offset + Gen2Constants.bsGrowthCurveOffset,
+				pkmn.growthCurve.toByte());
 	}
 
 	private String[] readPokemonNames() {
-		int offs = romEntry.getValue("PokemonNamesOffset");
-		int len = romEntry.getValue("PokemonNamesLength");
+		int offs = romEntry.getValue(Gen2Slots.PokemonNamesOffset);
+		int len = romEntry.getValue(Gen2Slots.PokemonNamesLength);
 		String[] names = new String[Gen2Constants.pokemonCount + 1];
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
 			names[i] = readFixedLengthString(offs + (i - 1) * len, len);
@@ -798,9 +865,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	private void writeFixedLengthString(String str, int offset, int length) {
 		byte[] translated = translateString(str);
 		int len = Math.min(translated.length, length);
-		System.arraycopy(translated, 0, rom, offset, len);
+		writeBytes(offset, translated, 0, len);
 		while (len < length) {
-			rom[offset + len] = GBConstants.stringTerminator;
+			writeByte(offset + len, GBConstants.stringTerminator);
 			len++;
 		}
 	}
@@ -808,9 +875,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	private void writeFixedLengthScriptString(String str, int offset, int length) {
 		byte[] translated = translateString(str);
 		int len = Math.min(translated.length, length);
-		System.arraycopy(translated, 0, rom, offset, len);
+		writeBytes(offset, translated, 0, len);
 		while (len < length) {
-			rom[offset + len] = GBConstants.stringNull;
+			writeByte(offset + len, GBConstants.stringNull);
 			len++;
 		}
 	}
@@ -865,9 +932,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	public List<Pokemon> getStarters() {
 		// Get the starters
 		List<Pokemon> starters = new ArrayList<Pokemon>();
-		starters.add(pokes[rom[romEntry.arrayEntries.get("StarterOffsets1")[0]] & 0xFF]);
-		starters.add(pokes[rom[romEntry.arrayEntries.get("StarterOffsets2")[0]] & 0xFF]);
-		starters.add(pokes[rom[romEntry.arrayEntries.get("StarterOffsets3")[0]] & 0xFF]);
+		for (int i = 0; i < 3; i++) {
+			int offset = romEntry.arrayEntries[starterOffsetSlots[i]][0];
+			starters.add(pokes[rom[offset] & 0xFF]);
+		}
 		return starters;
 	}
 
@@ -881,15 +949,14 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 		for (int i = 0; i < 3; i++) {
 			byte starter = (byte) newStarters.get(i).number;
-			int[] offsets = romEntry.arrayEntries.get("StarterOffsets"
-					+ (i + 1));
+			int[] offsets = romEntry.arrayEntries[starterOffsetSlots[i]];
 			for (int offset : offsets) {
-				rom[offset] = starter;
+				writeByte(offset, starter);
 			}
 		}
 
 		// Attempt to replace text
-		if (romEntry.getValue("CanChangeStarterText") > 0) {
+		if (romEntry.getValue(Gen2Slots.CanChangeStarterText) > 0) {
 			List<Integer> cyndaTexts = RomFunctions.search(rom,
 					traduire(Gen2Constants.starterNames[0]));
 			int offset = cyndaTexts.get(romEntry.isCrystal ? 1 : 0);
@@ -917,7 +984,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Integer> getStarterHeldItems() {
 		List<Integer> sHeldItems = new ArrayList<Integer>();
-		int[] shiOffsets = romEntry.arrayEntries.get("StarterHeldItems");
+		int[] shiOffsets = romEntry.arrayEntries[Gen2Slots.StarterHeldItems];
 		for (int offset : shiOffsets) {
 			sHeldItems.add(rom[offset] & 0xFF);
 		}
@@ -926,13 +993,13 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setStarterHeldItems(List<Integer> items) {
-		int[] shiOffsets = romEntry.arrayEntries.get("StarterHeldItems");
+		int[] shiOffsets = romEntry.arrayEntries[Gen2Slots.StarterHeldItems];
 		if (items.size() != shiOffsets.length) {
 			return;
 		}
 		Iterator<Integer> sHeldItems = items.iterator();
 		for (int offset : shiOffsets) {
-			rom[offset] = sHeldItems.next().byteValue();
+			writeByte(offset, sHeldItems.next().byteValue());
 		}
 	}
 
@@ -944,8 +1011,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public List<EncounterSet> getEncounters(boolean useTimeOfDay) {
-		int offset = romEntry.getValue("WildPokemonOffset");
+	protected List<EncounterSet> loadEncounters(boolean useTimeOfDay) {
+		int offset = romEntry.getValue(Gen2Slots.WildPokemonOffset);
 		List<EncounterSet> areas = new ArrayList<EncounterSet>();
 		offset = readLandEncounters(offset, areas, useTimeOfDay); // Johto
 		offset = readSeaEncounters(offset, areas); // Johto
@@ -955,7 +1022,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		offset = readSeaEncounters(offset, areas); // Specials
 
 		// Fishing Data
-		offset = romEntry.getValue("FishingWildsOffset");
+		offset = romEntry.getValue(Gen2Slots.FishingWildsOffset);
 		int rootOffset = offset;
 		for (int k = 0; k < Gen2Constants.fishingGroupCount; k++) {
 			EncounterSet es = new EncounterSet();
@@ -1004,8 +1071,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		}
 
 		// Headbutt Data
-		offset = romEntry.getValue("HeadbuttWildsOffset");
-		int limit = romEntry.getValue("HeadbuttTableSize");
+		offset = romEntry.getValue(Gen2Slots.HeadbuttWildsOffset);
+		int limit = romEntry.getValue(Gen2Slots.HeadbuttTableSize);
 		for (int i = 0; i < limit; i++) {
 			EncounterSet es = new EncounterSet();
 			es.displayName = "Headbutt Trees Set " + (i + 1);
@@ -1023,7 +1090,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		}
 
 		// Bug Catching Contest Data
-		offset = romEntry.getValue("BCCWildsOffset");
+		offset = romEntry.getValue(Gen2Slots.BCCWildsOffset);
 		EncounterSet bccES = new EncounterSet();
 		bccES.displayName = "Bug Catching Contest";
 		while ((rom[offset] & 0xFF) != 0xFF) {
@@ -1109,12 +1176,12 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setEncounters(boolean useTimeOfDay,
+	protected void saveEncounters(boolean useTimeOfDay,
 			List<EncounterSet> encounters) {
 		if (!havePatchedFleeing) {
 			patchFleeing();
 		}
-		int offset = romEntry.getValue("WildPokemonOffset");
+		int offset = romEntry.getValue(Gen2Slots.WildPokemonOffset);
 		Iterator<EncounterSet> areas = encounters.iterator();
 		offset = writeLandEncounters(offset, areas, useTimeOfDay); // Johto
 		offset = writeSeaEncounters(offset, areas); // Johto
@@ -1124,7 +1191,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		offset = writeSeaEncounters(offset, areas); // Specials
 
 		// Fishing Data
-		offset = romEntry.getValue("FishingWildsOffset");
+		offset = romEntry.getValue(Gen2Slots.FishingWildsOffset);
 		for (int k = 0; k < Gen2Constants.fishingGroupCount; k++) {
 			EncounterSet es = areas.next();
 			Iterator<Encounter> encs = es.encounters.iterator();
@@ -1134,16 +1201,16 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 					if (!useTimeOfDay) {
 						// overwrite with a static encounter
 						Encounter enc = encs.next();
-						rom[offset++] = (byte) enc.pokemon.number;
-						rom[offset++] = (byte) enc.level;
+						writeByte(offset++, (byte) enc.pokemon.number);
+						writeByte(offset++, (byte) enc.level);
 					} else {
 						// else handle below
 						offset += 2;
 					}
 				} else {
 					Encounter enc = encs.next();
-					rom[offset++] = (byte) enc.pokemon.number;
-					rom[offset++] = (byte) enc.level;
+					writeByte(offset++, (byte) enc.pokemon.number);
+					writeByte(offset++, (byte) enc.level);
 				}
 			}
 		}
@@ -1153,37 +1220,37 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 				Iterator<Encounter> encs = es.encounters.iterator();
 				for (int i = 0; i < Gen2Constants.pokesPerTSFishingGroup; i++) {
 					Encounter enc = encs.next();
-					rom[offset++] = (byte) enc.pokemon.number;
-					rom[offset++] = (byte) enc.level;
+					writeByte(offset++, (byte) enc.pokemon.number);
+					writeByte(offset++, (byte) enc.level);
 				}
 			}
 		}
 
 		// Headbutt Data
-		offset = romEntry.getValue("HeadbuttWildsOffset");
-		int limit = romEntry.getValue("HeadbuttTableSize");
+		offset = romEntry.getValue(Gen2Slots.HeadbuttWildsOffset);
+		int limit = romEntry.getValue(Gen2Slots.HeadbuttTableSize);
 		for (int i = 0; i < limit; i++) {
 			EncounterSet es = areas.next();
 			Iterator<Encounter> encs = es.encounters.iterator();
 			while ((rom[offset] & 0xFF) != 0xFF) {
 				Encounter enc = encs.next();
 				offset++;
-				rom[offset++] = (byte) enc.pokemon.number;
-				rom[offset++] = (byte) enc.level;
+				writeByte(offset++, (byte) enc.pokemon.number);
+				writeByte(offset++, (byte) enc.level);
 			}
 			offset++;
 		}
 
 		// Bug Catching Contest Data
-		offset = romEntry.getValue("BCCWildsOffset");
+		offset = romEntry.getValue(Gen2Slots.BCCWildsOffset);
 		EncounterSet bccES = areas.next();
 		Iterator<Encounter> bccEncs = bccES.encounters.iterator();
 		while ((rom[offset] & 0xFF) != 0xFF) {
 			offset++;
 			Encounter enc = bccEncs.next();
-			rom[offset++] = (byte) enc.pokemon.number;
-			rom[offset++] = (byte) enc.level;
-			rom[offset++] = (byte) enc.maxLevel;
+			writeByte(offset++, (byte) enc.pokemon.number);
+			writeByte(offset++, (byte) enc.level);
+			writeByte(offset++, (byte) enc.maxLevel);
 		}
 
 	}
@@ -1197,9 +1264,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 					Iterator<Encounter> encountersHere = encset.encounters
 							.iterator();
 					for (int j = 0; j < Gen2Constants.landEncounterSlots; j++) {
-						rom[offset + 5
+						writeByte(offset + 5
 								+ (i * Gen2Constants.landEncounterSlots * 2)
-								+ (j * 2) + 1] = (byte) encountersHere.next().pokemon.number;
+								+ (j * 2) + 1,
+								(byte) encountersHere.next().pokemon.number);
 					}
 				}
 			} else {
@@ -1209,9 +1277,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 					Iterator<Encounter> encountersHere = encset.encounters
 							.iterator();
 					for (int j = 0; j < Gen2Constants.landEncounterSlots; j++) {
-						rom[offset + 5
+						writeByte(offset + 5
 								+ (i * Gen2Constants.landEncounterSlots * 2)
-								+ (j * 2) + 1] = (byte) encountersHere.next().pokemon.number;
+								+ (j * 2) + 1,
+								(byte) encountersHere.next().pokemon.number);
 					}
 				}
 			}
@@ -1225,7 +1294,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			EncounterSet encset = areas.next();
 			Iterator<Encounter> encountersHere = encset.encounters.iterator();
 			for (int j = 0; j < Gen2Constants.seaEncounterSlots; j++) {
-				rom[offset + 3 + (j * 2) + 1] = (byte) encountersHere.next().pokemon.number;
+				writeByte(offset + 3 + (j * 2) + 1,
+						(byte) encountersHere.next().pokemon.number);
 			}
 			offset += 3 + Gen2Constants.seaEncounterSlots * 2;
 		}
@@ -1233,11 +1303,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public List<Trainer> getTrainers() {
-		int traineroffset = romEntry.getValue("TrainerDataTableOffset");
-		int traineramount = romEntry.getValue("TrainerClassAmount");
-		int[] trainerclasslimits = romEntry.arrayEntries
-				.get("TrainerDataClassCounts");
+	protected List<Trainer> loadTrainers() {
+		int traineroffset = romEntry.getValue(Gen2Slots.TrainerDataTableOffset);
+		int traineramount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+		int[] trainerclasslimits = romEntry.arrayEntries[Gen2Slots.TrainerDataClassCounts];
 
 		int[] pointers = new int[traineramount + 1];
 		for (int i = 1; i <= traineramount; i++) {
@@ -1295,11 +1364,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setTrainers(List<Trainer> trainerData) {
-		int traineroffset = romEntry.getValue("TrainerDataTableOffset");
-		int traineramount = romEntry.getValue("TrainerClassAmount");
-		int[] trainerclasslimits = romEntry.arrayEntries
-				.get("TrainerDataClassCounts");
+	protected void saveTrainers(List<Trainer> trainerData) {
+		int traineroffset = romEntry.getValue(Gen2Slots.TrainerDataTableOffset);
+		int traineramount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+		int[] trainerclasslimits = romEntry.arrayEntries[Gen2Slots.TrainerDataClassCounts];
 
 		int[] pointers = new int[traineramount + 1];
 		for (int i = 1; i <= traineramount; i++) {
@@ -1322,26 +1390,26 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 				offs += trnamelen + 1;
 				// Poketype
 				tr.poketype = 0; // remove held items and moves
-				rom[offs++] = (byte) tr.poketype;
+				writeByte(offs++, (byte) tr.poketype);
 				Iterator<TrainerPokemon> tPokes = tr.pokemon.iterator();
 				for (int tpnum = 0; tpnum < tr.pokemon.size(); tpnum++) {
 					TrainerPokemon tp = tPokes.next();
-					rom[offs] = (byte) tp.level;
-					rom[offs + 1] = (byte) tp.pokemon.number;
+					writeByte(offs, (byte) tp.level);
+					writeByte(offs + 1, (byte) tp.pokemon.number);
 					offs += 2;
 					if (tr.poketype == 2 || tr.poketype == 3) {
-						rom[offs] = (byte) tp.heldItem;
+						writeByte(offs, (byte) tp.heldItem);
 						offs++;
 					}
 					if (tr.poketype % 2 == 1) {
-						rom[offs] = (byte) tp.move1;
-						rom[offs + 1] = (byte) tp.move2;
-						rom[offs + 2] = (byte) tp.move3;
-						rom[offs + 3] = (byte) tp.move4;
+						writeByte(offs, (byte) tp.move1);
+						writeByte(offs + 1, (byte) tp.move2);
+						writeByte(offs + 2, (byte) tp.move3);
+						writeByte(offs + 3, (byte) tp.move4);
 						offs += 4;
 					}
 				}
-				rom[offs] = (byte) 0xFF;
+				writeByte(offs, (byte) 0xFF);
 				offs++;
 			}
 		}
@@ -1354,9 +1422,10 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, List<MoveLearnt>> getMovesLearnt() {
+	protected Map<Pokemon, List<MoveLearnt>> loadMovesLearnt() {
 		Map<Pokemon, List<MoveLearnt>> movesets = new TreeMap<Pokemon, List<MoveLearnt>>();
-		int pointersOffset = romEntry.getValue("PokemonMovesetsTableOffset");
+		int pointersOffset = romEntry
+				.getValue(Gen2Slots.PokemonMovesetsTableOffset);
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
 			int pointer = readWord(pointersOffset + (i - 1) * 2);
 			int realPointer = calculateOffset(bankOf(pointersOffset), pointer);
@@ -1384,7 +1453,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+	protected void saveMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
 		writeEvosAndMovesLearnt(null, movesets);
 	}
 
@@ -1397,7 +1466,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Pokemon> getStaticPokemon() {
 		List<Pokemon> statics = new ArrayList<Pokemon>();
-		if (romEntry.getValue("StaticPokemonSupport") > 0) {
+		if (romEntry.getValue(Gen2Slots.StaticPokemonSupport) > 0) {
 			for (int offset : romEntry.staticPokemonSingle) {
 				statics.add(pokes[rom[offset] & 0xFF]);
 			}
@@ -1411,7 +1480,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public boolean setStaticPokemon(List<Pokemon> staticPokemon) {
-		if (romEntry.getValue("StaticPokemonSupport") == 0) {
+		if (romEntry.getValue(Gen2Slots.StaticPokemonSupport) == 0) {
 			return false;
 		}
 		if (!havePatchedFleeing) {
@@ -1424,16 +1493,19 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 		Iterator<Pokemon> statics = staticPokemon.iterator();
 		for (int offset : romEntry.staticPokemonSingle) {
-			rom[offset] = (byte) statics.next().number;
+			writeByte(offset, (byte) statics.next().number);
 		}
 
-		int gcNameLength = romEntry.getValue("GameCornerPokemonNameLength");
+		int gcNameLength = romEntry
+				.getValue(Gen2Slots.GameCornerPokemonNameLength);
 
 		// Sort out static Pokemon
 		for (int offset : romEntry.staticPokemonGameCorner.keySet()) {
-			rom[offset] = (byte) statics.next().number;
-			rom[offset + Gen2Constants.gameCornerRepeatPKIndex1] = rom[offset];
-			rom[offset + Gen2Constants.gameCornerRepeatPKIndex2] = rom[offset];
+			writeByte(offset, (byte) statics.next().number);
+			writeByte(offset + Gen2Constants.gameCornerRepeatPKIndex1,
+					rom[offset]);
+			writeByte(offset + Gen2Constants.gameCornerRepeatPKIndex2,
+					rom[offset]);
 			writePaddedPokemonName(pokes[rom[offset] & 0xFF].name,
 					gcNameLength, romEntry.staticPokemonGameCorner.get(offset));
 		}
@@ -1441,14 +1513,14 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		// Copies?
 		for (int offset : romEntry.staticPokemonCopy.keySet()) {
 			int copyTo = romEntry.staticPokemonCopy.get(offset);
-			rom[copyTo] = rom[offset];
+			writeByte(copyTo, rom[offset]);
 		}
 		return true;
 	}
 
 	@Override
 	public boolean canChangeStaticPokemon() {
-		return (romEntry.getValue("StaticPokemonSupport") > 0);
+		return (romEntry.getValue(Gen2Slots.StaticPokemonSupport) > 0);
 	}
 
 	@Override
@@ -1460,14 +1532,14 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		String paddedName = String.format("%-" + length + "s", name);
 		byte[] rawData = traduire(paddedName);
 		for (int i = 0; i < length; i++) {
-			rom[offset + i] = rawData[i];
+			writeByte(offset + i, rawData[i]);
 		}
 	}
 
 	@Override
 	public List<Integer> getTMMoves() {
 		List<Integer> tms = new ArrayList<Integer>();
-		int offset = romEntry.getValue("TMMovesOffset");
+		int offset = romEntry.getValue(Gen2Slots.TMMovesOffset);
 		for (int i = 1; i <= Gen2Constants.tmCount; i++) {
 			tms.add(rom[offset + (i - 1)] & 0xFF);
 		}
@@ -1477,7 +1549,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Integer> getHMMoves() {
 		List<Integer> hms = new ArrayList<Integer>();
-		int offset = romEntry.getValue("TMMovesOffset");
+		int offset = romEntry.getValue(Gen2Slots.TMMovesOffset);
 		for (int i = 1; i <= Gen2Constants.hmCount; i++) {
 			hms.add(rom[offset + Gen2Constants.tmCount + (i - 1)] & 0xFF);
 		}
@@ -1486,9 +1558,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTMMoves(List<Integer> moveIndexes) {
-		int offset = romEntry.getValue("TMMovesOffset");
+		int offset = romEntry.getValue(Gen2Slots.TMMovesOffset);
 		for (int i = 1; i <= Gen2Constants.tmCount; i++) {
-			rom[offset + (i - 1)] = moveIndexes.get(i - 1).byteValue();
+			writeByte(offset + (i - 1), moveIndexes.get(i - 1).byteValue());
 		}
 
 		// TM Text
@@ -1512,44 +1584,43 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getTMHMCompatibility() {
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
+	public CompatibilityMatrix getTMHMCompatibility() {
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, Gen2Constants.pokemonCount + 1),
+				Gen2Constants.tmCount + Gen2Constants.hmCount);
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
-			int baseStatsOffset = romEntry.getValue("PokemonStatsOffset")
+			int baseStatsOffset = romEntry
+					.getValue(Gen2Slots.PokemonStatsOffset)
 					+ (i - 1) * Gen2Constants.baseStatsEntrySize;
 			Pokemon pkmn = pokes[i];
-			boolean[] flags = new boolean[Gen2Constants.tmCount
-					+ Gen2Constants.hmCount + 1];
 			for (int j = 0; j < 8; j++) {
-				readByteIntoFlags(flags, j * 8 + 1, baseStatsOffset
-						+ Gen2Constants.bsTMHMCompatOffset + j);
+				compat.setByte(pkmn, j, rom[baseStatsOffset
+						+ Gen2Constants.bsTMHMCompatOffset + j]);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setTMHMCompatibility(Map<Pokemon, boolean[]> compatData) {
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
-			int baseStatsOffset = romEntry.getValue("PokemonStatsOffset")
+	public void setTMHMCompatibility(CompatibilityMatrix compatData) {
+		for (Pokemon pkmn : compatData.getPokemon()) {
+			int baseStatsOffset = romEntry
+					.getValue(Gen2Slots.PokemonStatsOffset)
 					+ (pkmn.number - 1) * Gen2Constants.baseStatsEntrySize;
 			for (int j = 0; j < 8; j++) {
 				if (!romEntry.isCrystal || j != 7) {
-					rom[baseStatsOffset + Gen2Constants.bsTMHMCompatOffset + j] = getByteFromFlags(
-							flags, j * 8 + 1);
+					writeByte(baseStatsOffset + Gen2Constants.bsTMHMCompatOffset + j,
+							compatData.getByte(pkmn, j));
 				} else {
 					// Move tutor data
 					// bits 1,2,3 of byte 7
-					int changedByte = getByteFromFlags(flags, j * 8 + 1) & 0xFF;
+					int changedByte = compatData.getByte(pkmn, j) & 0xFF;
 					int currentByte = rom[baseStatsOffset
 							+ Gen2Constants.bsTMHMCompatOffset + j];
 					changedByte |= ((currentByte >> 1) & 0x01) << 1;
 					changedByte |= ((currentByte >> 2) & 0x01) << 2;
 					changedByte |= ((currentByte >> 3) & 0x01) << 3;
-					rom[baseStatsOffset + 0x18 + j] = (byte) changedByte;
+					writeByte(baseStatsOffset + 0x18 + j, (byte) changedByte);
 				}
 			}
 		}
@@ -1564,7 +1635,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	public List<Integer> getMoveTutorMoves() {
 		if (romEntry.isCrystal) {
 			List<Integer> mtMoves = new ArrayList<Integer>();
-			for (int offset : romEntry.arrayEntries.get("MoveTutorMoves")) {
+			for (int offset : romEntry.arrayEntries[Gen2Slots.MoveTutorMoves]) {
 				mtMoves.add(rom[offset] & 0xFF);
 			}
 			return mtMoves;
@@ -1581,69 +1652,68 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			return;
 		}
 		Iterator<Integer> mvList = moves.iterator();
-		for (int offset : romEntry.arrayEntries.get("MoveTutorMoves")) {
-			rom[offset] = mvList.next().byteValue();
+		for (int offset : romEntry.arrayEntries[Gen2Slots.MoveTutorMoves]) {
+			writeByte(offset, mvList.next().byteValue());
 		}
 
 		// Construct a new menu
-		if (romEntry.getValue("MoveTutorMenuOffset") > 0
-				&& romEntry.getValue("MoveTutorMenuNewSpace") > 0) {
+		if (romEntry.getValue(Gen2Slots.MoveTutorMenuOffset) > 0
+				&& romEntry.getValue(Gen2Slots.MoveTutorMenuNewSpace) > 0) {
 			String[] moveNames = readMoveNames();
 			String[] names = new String[] { moveNames[moves.get(0)],
 					moveNames[moves.get(1)], moveNames[moves.get(2)],
 					Gen2Constants.mtMenuCancelString };
-			int menuOffset = romEntry.getValue("MoveTutorMenuNewSpace");
-			rom[menuOffset++] = Gen2Constants.mtMenuInitByte;
-			rom[menuOffset++] = 0x4;
+			int menuOffset = romEntry.getValue(Gen2Slots.MoveTutorMenuNewSpace);
+			writeByte(menuOffset++, Gen2Constants.mtMenuInitByte);
+			writeByte(menuOffset++, 0x4);
 			for (int i = 0; i < 4; i++) {
 				byte[] trans = traduire(names[i]);
-				System.arraycopy(trans, 0, rom, menuOffset, trans.length);
+				writeBytes(menuOffset, trans, 0, trans.length);
 				menuOffset += trans.length;
-				rom[menuOffset++] = GBConstants.stringTerminator;
+				writeByte(menuOffset++, GBConstants.stringTerminator);
 			}
-			int pointerOffset = romEntry.getValue("MoveTutorMenuOffset");
+			int pointerOffset = romEntry
+					.getValue(Gen2Slots.MoveTutorMenuOffset);
 			writeWord(pointerOffset,
-					makeGBPointer(romEntry.getValue("MoveTutorMenuNewSpace")));
+					makeGBPointer(romEntry
+							.getValue(Gen2Slots.MoveTutorMenuNewSpace)));
 		}
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getMoveTutorCompatibility() {
+	public CompatibilityMatrix getMoveTutorCompatibility() {
 		if (!romEntry.isCrystal) {
-			return new TreeMap<Pokemon, boolean[]>();
+			return CompatibilityMatrix.empty();
 		}
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, Gen2Constants.pokemonCount + 1), 3);
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
-			int baseStatsOffset = romEntry.getValue("PokemonStatsOffset")
+			int baseStatsOffset = romEntry
+					.getValue(Gen2Slots.PokemonStatsOffset)
 					+ (i - 1) * Gen2Constants.baseStatsEntrySize;
 			Pokemon pkmn = pokes[i];
-			boolean[] flags = new boolean[4];
+			// tutors are bits 1-3
 			int mtByte = rom[baseStatsOffset + Gen2Constants.bsMTCompatOffset] & 0xFF;
-			for (int j = 1; j <= 3; j++) {
-				flags[j] = ((mtByte >> j) & 0x01) > 0;
-			}
-			compat.put(pkmn, flags);
+			compat.setBits(pkmn, 1, 3, mtByte >> 1);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setMoveTutorCompatibility(Map<Pokemon, boolean[]> compatData) {
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData) {
 		if (!romEntry.isCrystal) {
 			return;
 		}
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
-			int baseStatsOffset = romEntry.getValue("PokemonStatsOffset")
+		for (Pokemon pkmn : compatData.getPokemon()) {
+			int baseStatsOffset = romEntry
+					.getValue(Gen2Slots.PokemonStatsOffset)
 					+ (pkmn.number - 1) * Gen2Constants.baseStatsEntrySize;
 			int origMtByte = rom[baseStatsOffset
 					+ Gen2Constants.bsMTCompatOffset] & 0xFF;
 			int mtByte = origMtByte & 0x01;
-			for (int j = 1; j <= 3; j++) {
-				mtByte |= flags[j] ? (1 << j) : 0;
-			}
-			rom[baseStatsOffset + Gen2Constants.bsMTCompatOffset] = (byte) mtByte;
+			mtByte |= (int) compatData.getBits(pkmn, 1, 3) << 1;
+			writeByte(baseStatsOffset + Gen2Constants.bsMTCompatOffset,
+					(byte) mtByte);
 		}
 	}
 
@@ -1673,7 +1743,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Evolution> getEvolutions() {
 		List<Evolution> evos = new ArrayList<Evolution>();
-		int pointersOffset = romEntry.getValue("PokemonMovesetsTableOffset");
+		int pointersOffset = romEntry
+				.getValue(Gen2Slots.PokemonMovesetsTableOffset);
 		List<Evolution> evosForThisPoke = new ArrayList<Evolution>();
 		for (int i = 1; i <= Gen2Constants.pokemonCount; i++) {
 			int pointer = readWord(pointersOffset + (i - 1) * 2);
@@ -1729,6 +1800,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setEvolutions(List<Evolution> evos) {
+		evolutionsChanged();
 		this.writeEvosAndMovesLearnt(evos, null);
 	}
 
@@ -1775,10 +1847,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<String> getTrainerNames() {
-		int traineroffset = romEntry.getValue("TrainerDataTableOffset");
-		int traineramount = romEntry.getValue("TrainerClassAmount");
-		int[] trainerclasslimits = romEntry.arrayEntries
-				.get("TrainerDataClassCounts");
+		int traineroffset = romEntry.getValue(Gen2Slots.TrainerDataTableOffset);
+		int traineramount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+		int[] trainerclasslimits = romEntry.arrayEntries[Gen2Slots.TrainerDataClassCounts];
 
 		int[] pointers = new int[traineramount + 1];
 		for (int i = 1; i <= traineramount; i++) {
@@ -1813,11 +1884,11 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTrainerNames(List<String> trainerNames) {
-		if (romEntry.getValue("CanChangeTrainerText") != 0) {
-			int traineroffset = romEntry.getValue("TrainerDataTableOffset");
-			int traineramount = romEntry.getValue("TrainerClassAmount");
-			int[] trainerclasslimits = romEntry.arrayEntries
-					.get("TrainerDataClassCounts");
+		if (romEntry.getValue(Gen2Slots.CanChangeTrainerText) != 0) {
+			int traineroffset = romEntry
+					.getValue(Gen2Slots.TrainerDataTableOffset);
+			int traineramount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+			int[] trainerclasslimits = romEntry.arrayEntries[Gen2Slots.TrainerDataClassCounts];
 
 			int[] pointers = new int[traineramount + 1];
 			for (int i = 1; i <= traineramount; i++) {
@@ -1870,7 +1941,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 				// Copy new data into ROM
 				byte[] newTrainerData = newData.toByteArray();
 				int tdBase = pointers[1];
-				System.arraycopy(newTrainerData, 0, rom, pointers[1],
+				writeBytes(pointers[1], newTrainerData, 0,
 						newTrainerData.length);
 
 				// Finally, update the pointers
@@ -1899,9 +1970,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<Integer> getTCNameLengthsByTrainer() {
-		int traineramount = romEntry.getValue("TrainerClassAmount");
-		int[] trainerclasslimits = romEntry.arrayEntries
-				.get("TrainerDataClassCounts");
+		int traineramount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+		int[] trainerclasslimits = romEntry.arrayEntries[Gen2Slots.TrainerDataClassCounts];
 		List<String> tcNames = this.getTrainerClassNames();
 		List<Integer> tcLengthsByT = new ArrayList<Integer>();
 
@@ -1917,8 +1987,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<String> getTrainerClassNames() {
-		int amount = romEntry.getValue("TrainerClassAmount");
-		int offset = romEntry.getValue("TrainerClassNamesOffset");
+		int amount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+		int offset = romEntry.getValue(Gen2Slots.TrainerClassNamesOffset);
 		List<String> trainerClassNames = new ArrayList<String>();
 		for (int j = 0; j < amount; j++) {
 			String name = readVariableLengthString(offset);
@@ -1930,9 +2000,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTrainerClassNames(List<String> trainerClassNames) {
-		if (romEntry.getValue("CanChangeTrainerText") != 0) {
-			int amount = romEntry.getValue("TrainerClassAmount");
-			int offset = romEntry.getValue("TrainerClassNamesOffset");
+		if (romEntry.getValue(Gen2Slots.CanChangeTrainerText) != 0) {
+			int amount = romEntry.getValue(Gen2Slots.TrainerClassAmount);
+			int offset = romEntry.getValue(Gen2Slots.TrainerClassNamesOffset);
 			Iterator<String> trainerClassNamesI = trainerClassNames.iterator();
 			for (int j = 0; j < amount; j++) {
 				int len = lengthOfStringAt(offset) + 1;
@@ -1977,7 +2047,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		if (romEntry.codeTweaks.get("IceTweak") != null) {
 			available |= CodeTweaks.RANDOM_ICEPATH;
 		}
-		if (romEntry.getValue("TextDelayFunctionOffset") != 0) {
+		if (romEntry.getValue(Gen2Slots.TextDelayFunctionOffset) != 0) {
 			available |= CodeTweaks.FASTEST_TEXT;
 		}
 		return available;
@@ -1991,7 +2061,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		}
 
 		try {
-			FileFunctions.applyPatch(rom, patchName);
+			applyPatch(patchName);
 		} catch (IOException e) {
 
 		}
@@ -2021,12 +2091,12 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 					ind = 3;
 				else if(puzzle_grid[k+1][l+1] == 1)
 					ind = 4;
-				this.rom[offset] = ice_tileset[ind];
+				writeByte(offset, ice_tileset[ind]);
 				offset++;
 				n++;
 			}
 			if(i == 3) {
-				this.rom[offset] = 0x15;
+				writeByte(offset, 0x15);
 				offset++;
 				n++;
 			}
@@ -2036,8 +2106,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void applyFastestTextPatch() {
-		if (romEntry.getValue("TextDelayFunctionOffset") != 0) {
-			rom[romEntry.getValue("TextDelayFunctionOffset")] = (byte) GBConstants.gbZ80Ret;
+		if (romEntry.getValue(Gen2Slots.TextDelayFunctionOffset) != 0) {
+			writeByte(romEntry.getValue(Gen2Slots.TextDelayFunctionOffset),
+					(byte) GBConstants.gbZ80Ret);
 		}
 	}
 
@@ -2052,8 +2123,9 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			pokemon = this.random.nextInt(Gen2Constants.pokemonCount) + 1;
 		}
 
-		rom[romEntry.getValue("IntroSpriteOffset")] = (byte) pokemon;
-		rom[romEntry.getValue("IntroCryOffset")] = (byte) pokemon;
+		writeByte(romEntry.getValue(Gen2Slots.IntroSpriteOffset),
+				(byte) pokemon);
+		writeByte(romEntry.getValue(Gen2Slots.IntroCryOffset), (byte) pokemon);
 
 	}
 
@@ -2072,7 +2144,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		itemNames[0] = "glitch";
 		// trying to emulate pretty much what the game does here
 		// normal items
-		int origOffset = romEntry.getValue("ItemNamesOffset");
+		int origOffset = romEntry.getValue(Gen2Slots.ItemNamesOffset);
 		int itemNameOffset = origOffset;
 		for (int index = 1; index <= 0x100; index++) {
 			if (itemNameOffset / GBConstants.bankSize > origOffset
@@ -2098,17 +2170,17 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 
 	private void patchFleeing() {
 		havePatchedFleeing = true;
-		int offset = romEntry.getValue("FleeingDataOffset");
-		rom[offset] = (byte) 0xFF;
-		rom[offset + Gen2Constants.fleeingSetTwoOffset] = (byte) 0xFF;
-		rom[offset + Gen2Constants.fleeingSetThreeOffset] = (byte) 0xFF;
+		int offset = romEntry.getValue(Gen2Slots.FleeingDataOffset);
+		writeByte(offset, (byte) 0xFF);
+		writeByte(offset + Gen2Constants.fleeingSetTwoOffset, (byte) 0xFF);
+		writeByte(offset + Gen2Constants.fleeingSetThreeOffset, (byte) 0xFF);
 	}
 
 	private void loadLandmarkNames() {
 
-		int lmOffset = romEntry.getValue("LandmarkTableOffset");
+		int lmOffset = romEntry.getValue(Gen2Slots.LandmarkTableOffset);
 		int lmBank = bankOf(lmOffset);
-		int lmCount = romEntry.getValue("LandmarkCount");
+		int lmCount = romEntry.getValue(Gen2Slots.LandmarkCount);
 
 		landmarkNames = new String[lmCount];
 
@@ -2124,7 +2196,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	private void preprocessMaps() {
 		itemOffs = new ArrayList<Integer>();
 
-		int mhOffset = romEntry.getValue("MapHeaders");
+		int mhOffset = romEntry.getValue(Gen2Slots.MapHeaders);
 		int mapGroupCount = Gen2Constants.mapGroupCount;
 		int mapsInLastGroup = Gen2Constants.mapsInLastGroup;
 		int mhBank = bankOf(mhOffset);
@@ -2262,7 +2334,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			if (Gen2Constants.allowedItems.isTM(itemHere)) {
 				// Cache replaced TMs to duplicate bug catching contest TM
 				if (givenTMs[itemHere] != 0) {
-					rom[offset] = (byte) givenTMs[itemHere];
+					writeByte(offset, (byte) givenTMs[itemHere]);
 				} else {
 					// Replace this with a TM from the list
 					int tm = iterTMs.next();
@@ -2279,7 +2351,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 								- Gen2Constants.tmBlockTwoSize;
 					}
 					givenTMs[itemHere] = tm;
-					rom[offset] = (byte) tm;
+					writeByte(offset, (byte) tm);
 				}
 			}
 		}
@@ -2308,7 +2380,7 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			if (Gen2Constants.allowedItems.isAllowed(itemHere)
 					&& !(Gen2Constants.allowedItems.isTM(itemHere))) {
 				// Replace it
-				rom[offset] = (byte) (iterItems.next().intValue());
+				writeByte(offset, (byte) (iterItems.next().intValue()));
 			}
 		}
 
@@ -2319,11 +2391,11 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		List<IngameTrade> trades = new ArrayList<IngameTrade>();
 
 		// info
-		int tableOffset = romEntry.getValue("TradeTableOffset");
-		int tableSize = romEntry.getValue("TradeTableSize");
-		int nicknameLength = romEntry.getValue("TradeNameLength");
-		int otLength = romEntry.getValue("TradeOTLength");
-		int[] unused = romEntry.arrayEntries.get("TradesUnused");
+		int tableOffset = romEntry.getValue(Gen2Slots.TradeTableOffset);
+		int tableSize = romEntry.getValue(Gen2Slots.TradeTableSize);
+		int nicknameLength = romEntry.getValue(Gen2Slots.TradeNameLength);
+		int otLength = romEntry.getValue(Gen2Slots.TradeOTLength);
+		int[] unused = romEntry.arrayEntries[Gen2Slots.TradesUnused];
 		int unusedOffset = 0;
 		int entryLength = nicknameLength + otLength + 10;
 
@@ -2355,11 +2427,11 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 	@Override
 	public void setIngameTrades(List<IngameTrade> trades) {
 		// info
-		int tableOffset = romEntry.getValue("TradeTableOffset");
-		int tableSize = romEntry.getValue("TradeTableSize");
-		int nicknameLength = romEntry.getValue("TradeNameLength");
-		int otLength = romEntry.getValue("TradeOTLength");
-		int[] unused = romEntry.arrayEntries.get("TradesUnused");
+		int tableOffset = romEntry.getValue(Gen2Slots.TradeTableOffset);
+		int tableSize = romEntry.getValue(Gen2Slots.TradeTableSize);
+		int nicknameLength = romEntry.getValue(Gen2Slots.TradeNameLength);
+		int otLength = romEntry.getValue(Gen2Slots.TradeOTLength);
+		int[] unused = romEntry.arrayEntries[Gen2Slots.TradesUnused];
 		int unusedOffset = 0;
 		int entryLength = nicknameLength + otLength + 9;
 		if (entryLength % 2 != 0) {
@@ -2374,22 +2446,24 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			}
 			IngameTrade trade = trades.get(tradeOffset++);
 			int entryOffset = tableOffset + entry * entryLength;
-			rom[entryOffset + 1] = (byte) trade.requestedPokemon.number;
-			rom[entryOffset + 2] = (byte) trade.givenPokemon.number;
-			if (romEntry.getValue("CanChangeTrainerText") > 0) {
+			writeByte(entryOffset + 1, (byte) trade.requestedPokemon.number);
+			writeByte(entryOffset + 2, (byte) trade.givenPokemon.number);
+			if (romEntry.getValue(Gen2Slots.CanChangeTrainerText) > 0) {
 				writeFixedLengthString(trade.nickname, entryOffset + 3,
 						nicknameLength);
 			}
-			rom[entryOffset + 3 + nicknameLength] = (byte) (trade.ivs[0] << 4 | trade.ivs[1]);
-			rom[entryOffset + 4 + nicknameLength] = (byte) (trade.ivs[2] << 4 | trade.ivs[3]);
-			rom[entryOffset + 5 + nicknameLength] = (byte) trade.item;
+			writeByte(entryOffset + 3 + nicknameLength,
+					(byte) (trade.ivs[0] << 4 | trade.ivs[1]));
+			writeByte(entryOffset + 4 + nicknameLength,
+					(byte) (trade.ivs[2] << 4 | trade.ivs[3]));
+			writeByte(entryOffset + 5 + nicknameLength, (byte) trade.item);
 			writeWord(entryOffset + 6 + nicknameLength, trade.otId);
-			if (romEntry.getValue("CanChangeTrainerText") > 0) {
+			if (romEntry.getValue(Gen2Slots.CanChangeTrainerText) > 0) {
 				writeFixedLengthString(trade.otName, entryOffset + 8
 						+ nicknameLength, otLength);
 			}
 			// remove gender req
-			rom[entryOffset + 8 + nicknameLength + otLength] = 0;
+			writeByte(entryOffset + 8 + nicknameLength + otLength, 0);
 
 		}
 	}
@@ -2424,7 +2498,8 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 		// are at the end of the bank
 		// which, in every clean G/S/C rom supported, they are
 		// specify null to either argument to copy old values
-		int movesEvosStart = romEntry.getValue("PokemonMovesetsTableOffset");
+		int movesEvosStart = romEntry
+				.getValue(Gen2Slots.PokemonMovesetsTableOffset);
 		int movesEvosBank = bankOf(movesEvosStart);
 		byte[] pointerTable = new byte[Gen2Constants.pokemonCount * 2];
 		int startOfNextBank = ((movesEvosStart / GBConstants.bankSize) + 1)
@@ -2526,14 +2601,13 @@ public class Gen2RomHandler extends AbstractGBRomHandler {
 			dataBlock[offsetInData++] = 0x00;
 		}
 		// write new data
-		System.arraycopy(pointerTable, 0, rom, movesEvosStart,
-				pointerTable.length);
-		System.arraycopy(dataBlock, 0, rom, dataBlockOffset, dataBlock.length);
+		writeBytes(movesEvosStart, pointerTable, 0, pointerTable.length);
+		writeBytes(dataBlockOffset, dataBlock, 0, dataBlock.length);
 	}
 
 	@Override
 	public boolean supportsFourStartingMoves() {
-		return (romEntry.getValue("SupportsFourStartingMoves") > 0);
+		return (romEntry.getValue(Gen2Slots.SupportsFourStartingMoves) > 0);
 	}
 
 	@Override
@@ -28,6 +28,7 @@ import java.io.FileNotFoundException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -41,7 +42,11 @@ import java.util.TreeSet;
 import com.dabomstew.pkrandom.CodeTweaks;
 import com.dabomstew.pkrandom.FileFunctions;
 import com.dabomstew.pkrandom.RomFunctions;
+import com.dabomstew.pkrandom.RomLayoutCache;
+import com.dabomstew.pkrandom.SignatureScanner;
 import com.dabomstew.pkrandom.constants.Gen3Constants;
+import com.dabomstew.pkrandom.constants.Gen3Slots;
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
@@ -89,16 +94,70 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		private int version;
 		private int romType;
 		private boolean copyStaticPokemon;
-		private Map<String, Integer> entries = new HashMap<String, Integer>();
-		private Map<String, int[]> arrayEntries = new HashMap<String, int[]>();
+		private int[] entries = new int[Gen3Slots.valueNames.length];
+		// which entries have been set, so CopyFrom can copy just those
+		private BitSet entriesSet = new BitSet();
+		private int[][] arrayEntries = new int[Gen3Slots.arrayNames.length][];
 		private List<StaticPokemon> staticPokemon = new ArrayList<StaticPokemon>();
 		private List<TMOrMTTextEntry> tmmtTexts = new ArrayList<TMOrMTTextEntry>();
 
-		private int getValue(String key) {
-			if (!entries.containsKey(key)) {
-				entries.put(key, 0);
+		private RomEntry() {
+		}
+
+		// a copy for one loaded ROM, which can add the offsets it finds
+		// without touching the entry other handlers are reading
+		private RomEntry(RomEntry original) {
+			name = original.name;
+			romCode = original.romCode;
+			tableFile = original.tableFile;
+			version = original.version;
+			romType = original.romType;
+			copyStaticPokemon = original.copyStaticPokemon;
+			copyEntries(original);
+			staticPokemon.addAll(original.staticPokemon);
+			tmmtTexts.addAll(original.tmmtTexts);
+		}
+
+		private int getValue(int slot) {
+			return entries[slot];
+		}
+
+		private void setValue(int slot, int value) {
+			entries[slot] = value;
+			entriesSet.set(slot);
+		}
+
+		// ini keys go in at the slots RomSlotsGenerator gave them
+		private void putValue(String key, int value) {
+			int slot = Gen3Slots.valueSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				setValue(slot, value);
+			}
+		}
+
+		private void putArray(String key, int[] values) {
+			int slot = Gen3Slots.arraySlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				arrayEntries[slot] = values;
+			}
+		}
+
+		// everything other has set, over whatever this has
+		private void copyEntries(RomEntry other) {
+			for (int i = 0; i < entries.length; i++) {
+				if (other.entriesSet.get(i)) {
+					setValue(i, other.entries[i]);
+				}
+			}
+			for (int i = 0; i < arrayEntries.length; i++) {
+				if (other.arrayEntries[i] != null) {
+					arrayEntries[i] = other.arrayEntries[i];
+				}
 			}
-			return entries.get(key);
 		}
 	}
 
@@ -216,19 +275,19 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 							for (RomEntry otherEntry : roms) {
 								if (r[1].equalsIgnoreCase(otherEntry.name)) {
 									// copy from here
-									current.arrayEntries
-											.putAll(otherEntry.arrayEntries);
-									current.entries.putAll(otherEntry.entries);
+									current.copyEntries(otherEntry);
 									boolean cTT = (current
-											.getValue("CopyTMText") == 1);
+											.getValue(Gen3Slots.CopyTMText) == 1);
 									if (current.copyStaticPokemon) {
 										current.staticPokemon
 												.addAll(otherEntry.staticPokemon);
-										current.entries.put(
-												"StaticPokemonSupport", 1);
+										current.setValue(
+												Gen3Slots.StaticPokemonSupport,
+												1);
 									} else {
-										current.entries.put(
-												"StaticPokemonSupport", 0);
+										current.setValue(
+												Gen3Slots.StaticPokemonSupport,
+												0);
 									}
 									if (cTT) {
 										current.tmmtTexts
@@ -243,18 +302,18 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 										r[1].length() - 1).split(",");
 								if (offsets.length == 1
 										&& offsets[0].trim().isEmpty()) {
-									current.arrayEntries.put(r[0], new int[0]);
+									current.putArray(r[0], new int[0]);
 								} else {
 									int[] offs = new int[offsets.length];
 									int c = 0;
 									for (String off : offsets) {
 										offs[c++] = parseRIInt(off);
 									}
-									current.arrayEntries.put(r[0], offs);
+									current.putArray(r[0], offs);
 								}
 							} else {
 								int offs = parseRIInt(r[1]);
-								current.entries.put(r[0], offs);
+								current.putValue(r[0], offs);
 							}
 						}
 					}
@@ -337,12 +396,15 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			rom[Gen3Constants.romCodeOffset + 3] = 'T';
 			rom[Gen3Constants.headerChecksumOffset] = 0x66;
 		}
+		// only whole images are worth keeping in the layout cache
+		SignatureScanner.Matches matches = rom.length == romSize ? signatures
+				.matches(rom, LAYOUT_KIND) : signatures.scan(rom);
 		// Wild Pokemon header
-		if (find(rom, Gen3Constants.wildPokemonPointerPrefix) == -1) {
+		if (matches.find(Gen3Constants.wildPokemonPointerPrefix) == -1) {
 			return false;
 		}
 		// Map Banks header
-		if (find(rom, Gen3Constants.mapBanksPointerPrefix) == -1) {
+		if (matches.find(Gen3Constants.mapBanksPointerPrefix) == -1) {
 			return false;
 		}
 		for (RomEntry re : roms) {
@@ -358,7 +420,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	public void loadedRom() {
 		for (RomEntry re : roms) {
 			if (romCode(rom, re.romCode) && (rom[0xBC] & 0xFF) == re.version) {
-				romEntry = re;
+				romEntry = new RomEntry(re);
 				break;
 			}
 		}
@@ -372,18 +434,18 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 				|| romEntry.romType == Gen3Constants.RomType_Sapp) {
 			int baseNomOffset = find(rom,
 					Gen3Constants.rsPokemonNamesPointerSuffix);
-			romEntry.entries
-					.put("PokemonNames", readPointer(baseNomOffset - 4));
+			romEntry.setValue(Gen3Slots.PokemonNames,
+					readPointer(baseNomOffset - 4));
 		} else {
-			romEntry.entries.put("PokemonNames",
+			romEntry.setValue(Gen3Slots.PokemonNames,
 					readPointer(Gen3Constants.efrlgPokemonNamesPointer));
-			romEntry.entries.put("MoveNames",
+			romEntry.setValue(Gen3Slots.MoveNames,
 					readPointer(Gen3Constants.efrlgMoveNamesPointer));
-			romEntry.entries.put("AbilityNames",
+			romEntry.setValue(Gen3Slots.AbilityNames,
 					readPointer(Gen3Constants.efrlgAbilityNamesPointer));
-			romEntry.entries.put("ItemData",
+			romEntry.setValue(Gen3Slots.ItemData,
 					readPointer(Gen3Constants.efrlgItemDataPointer));
-			romEntry.entries.put("MoveData",
+			romEntry.setValue(Gen3Slots.MoveData,
 					readPointer(Gen3Constants.efrlgMoveDataPointer) + 0xC);
 		}
 
@@ -395,23 +457,27 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		// Get wild Pokemon offset
 		int baseWPOffset = findMultiple(rom,
 				Gen3Constants.wildPokemonPointerPrefix).get(0);
-		romEntry.entries.put("WildPokemon", readPointer(baseWPOffset + 12));
+		romEntry.setValue(Gen3Slots.WildPokemon,
+				readPointer(baseWPOffset + 12));
 
 		// map banks
 		int baseMapsOffset = findMultiple(rom,
 				Gen3Constants.mapBanksPointerPrefix).get(0);
-		romEntry.entries.put("MapHeaders", readPointer(baseMapsOffset + 12));
+		romEntry.setValue(Gen3Slots.MapHeaders,
+				readPointer(baseMapsOffset + 12));
 		this.determineMapBankSizes();
 
 		// map labels
 		if (romEntry.romType == Gen3Constants.RomType_FRLG) {
 			int baseMLOffset = find(rom,
 					Gen3Constants.frlgMapLabelsPointerPrefix);
-			romEntry.entries.put("MapLabels", readPointer(baseMLOffset + 12));
+			romEntry.setValue(Gen3Slots.MapLabels,
+					readPointer(baseMLOffset + 12));
 		} else {
 			int baseMLOffset = find(rom,
 					Gen3Constants.rseMapLabelsPointerPrefix);
-			romEntry.entries.put("MapLabels", readPointer(baseMLOffset + 12));
+			romEntry.setValue(Gen3Slots.MapLabels,
+					readPointer(baseMLOffset + 12));
 		}
 
 		mapLoadingDone = false;
@@ -420,6 +486,24 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	}
 
+	@Override
+	protected void loadedFrom(AbstractGBRomHandler original) {
+		Gen3RomHandler from = (Gen3RomHandler) original;
+		// randomizing can add to the rom entry, so that's copied; the text
+		// tables and names are only read once loaded
+		romEntry = new RomEntry(from.romEntry);
+		tb = from.tb;
+		d = from.d;
+		isRomHack = from.isRomHack;
+		havePatchedObedience = false;
+		pokes = copyPokemon(from.pokes);
+		pokemonList = Arrays.asList(pokes);
+		moves = copyMoves(from.moves);
+		mapLoadingDone = false;
+		abilityNames = from.abilityNames;
+		itemNames = from.itemNames;
+	}
+
 	@Override
 	public void savingRom() {
 		savePokemonStats();
@@ -431,7 +515,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		pokeList.add(null);
 		// Fetch our names
 		String[] pokeNames = readPokemonNames();
-		int offs = romEntry.getValue("PokemonStats");
+		int offs = romEntry.getValue(Gen3Slots.PokemonStats);
 		for (int i = 1; i <= Gen3Constants.internalPokemonCount; i++) {
 			Pokemon pk = new Pokemon();
 			pk.number = i;
@@ -456,9 +540,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	private void savePokemonStats() {
 		// Write pokemon names & stats
-		int offs = romEntry.getValue("PokemonNames");
-		int nameLen = romEntry.getValue("PokemonNameLength");
-		int offs2 = romEntry.getValue("PokemonStats");
+		int offs = romEntry.getValue(Gen3Slots.PokemonNames);
+		int nameLen = romEntry.getValue(Gen3Slots.PokemonNameLength);
+		int offs2 = romEntry.getValue(Gen3Slots.PokemonStats);
 		for (Pokemon pk : pokes) {
 			if (pk != null) {
 				int tgindex = Gen3Constants.pokeNumTo3GIndex(pk.number);
@@ -472,9 +556,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	private void loadMoves() {
 		moves = new Move[Gen3Constants.moveCount + 1];
-		int offs = romEntry.getValue("MoveData");
-		int nameoffs = romEntry.getValue("MoveNames");
-		int namelen = romEntry.getValue("MoveNameLength");
+		int offs = romEntry.getValue(Gen3Slots.MoveData);
+		int nameoffs = romEntry.getValue(Gen3Slots.MoveNames);
+		int namelen = romEntry.getValue(Gen3Slots.MoveNameLength);
 		for (int i = 1; i <= Gen3Constants.moveCount; i++) {
 			moves[i] = new Move();
 			moves[i].name = readFixedLengthString(nameoffs + i * namelen,
@@ -503,12 +587,12 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void saveMoves() {
-		int offs = romEntry.getValue("MoveData");
+		int offs = romEntry.getValue(Gen3Slots.MoveData);
 		for (int i = 1; i <= Gen3Constants.moveCount; i++) {
-			rom[offs + (i - 1) * 0xC] = (byte) moves[i].effectIndex;
-			rom[offs + (i - 1) * 0xC + 1] = (byte) moves[i].power;
-			rom[offs + (i - 1) * 0xC + 2] = Gen3Constants
-					.typeToByte(moves[i].type);
+			writeByte(offs + (i - 1) * 0xC, (byte) moves[i].effectIndex);
+			writeByte(offs + (i - 1) * 0xC + 1, (byte) moves[i].power);
+			writeByte(offs + (i - 1) * 0xC + 2,
+					Gen3Constants.typeToByte(moves[i].type));
 			int hitratio = (int) Math.round(moves[i].hitratio);
 			if (hitratio < 0) {
 				hitratio = 0;
@@ -516,8 +600,8 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			if (hitratio > 100) {
 				hitratio = 100;
 			}
-			rom[offs + (i - 1) * 0xC + 3] = (byte) hitratio;
-			rom[offs + (i - 1) * 0xC + 4] = (byte) moves[i].pp;
+			writeByte(offs + (i - 1) * 0xC + 3, (byte) hitratio);
+			writeByte(offs + (i - 1) * 0xC + 4, (byte) moves[i].pp);
 		}
 	}
 
@@ -566,31 +650,35 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void saveBasicPokeStats(Pokemon pkmn, int offset) {
-		rom[offset + Gen3Constants.bsHPOffset] = (byte) pkmn.hp;
-		rom[offset + Gen3Constants.bsAttackOffset] = (byte) pkmn.attack;
-		rom[offset + Gen3Constants.bsDefenseOffset] = (byte) pkmn.defense;
-		rom[offset + Gen3Constants.bsSpeedOffset] = (byte) pkmn.speed;
-		rom[offset + Gen3Constants.bsSpAtkOffset] = (byte) pkmn.spatk;
-		rom[offset + Gen3Constants.bsSpDefOffset] = (byte) pkmn.spdef;
-		rom[offset + Gen3Constants.bsPrimaryTypeOffset] = Gen3Constants
-				.typeToByte(pkmn.primaryType);
+		writeByte(offset + Gen3Constants.bsHPOffset, (byte) pkmn.hp);
+		writeByte(offset + Gen3Constants.bsAttackOffset, (byte) pkmn.attack);
+		writeByte(offset + Gen3Constants.bsDefenseOffset, (byte) pkmn.defense);
+		writeByte(offset + Gen3Constants.bsSpeedOffset, (byte) pkmn.speed);
+		writeByte(offset + Gen3Constants.bsSpAtkOffset, (byte) pkmn.spatk);
+		writeByte(offset + Gen3Constants.bsSpDefOffset, (byte) pkmn.spdef);
+		writeByte(offset + Gen3Constants.bsPrimaryTypeOffset,
+				Gen3Constants.typeToByte(pkmn.primaryType));
 		if (pkmn.secondaryType == null) {
-			rom[offset + Gen3Constants.bsSecondaryTypeOffset] = rom[offset
-					+ Gen3Constants.bsPrimaryTypeOffset];
+			writeByte(offset + Gen3Constants.bsSecondaryTypeOffset,
+					rom[offset + Gen3Constants.bsPrimaryTypeOffset]);
 		} else {
-			rom[offset + Gen3Constants.bsSecondaryTypeOffset] = Gen3Constants
-					.typeToByte(pkmn.secondaryType);
+			writeByte(offset + Gen3Constants.bsSecondaryTypeOffset,
+					Gen3Constants.typeToByte(pkmn.secondaryType));
 		}
-		rom[offset + Gen3Constants.bsCatchRateOffset] = (byte) pkmn.catchRate;
-		rom[offset + Gen3Constants.bsGrowthCurveOffset] = pkmn.growthCurve
-				.toByte();
+		writeByte(offset + Gen3Constants.bsCatchRateOffset,
+				(byte) pkmn.catchRate);
+		writeByte(offset + Gen3Constants.bsGrowthCurveOffset,
+				pkmn.growthCurve.toByte());
 
-		rom[offset + Gen3Constants.bsAbility1Offset] = (byte) pkmn.ability1;
+		writeByte(offset + Gen3Constants.bsAbility1Offset,
+				(byte) pkmn.ability1);
 		if (pkmn.ability2 == 0) {
 			// required to not break evos with random ability
-			rom[offset + Gen3Constants.bsAbility2Offset] = (byte) pkmn.ability1;
+			writeByte(offset + Gen3Constants.bsAbility2Offset,
+					(byte) pkmn.ability1);
 		} else {
-			rom[offset + Gen3Constants.bsAbility2Offset] = (byte) pkmn.ability2;
+			writeByte(offset + Gen3Constants.bsAbility2Offset,
+					(byte) pkmn.ability2);
 		}
 
 		// Held items
@@ -608,8 +696,8 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	private String[] readPokemonNames() {
-		int offs = romEntry.getValue("PokemonNames");
-		int nameLen = romEntry.getValue("PokemonNameLength");
+		int offs = romEntry.getValue(Gen3Slots.PokemonNames);
+		int nameLen = romEntry.getValue(Gen3Slots.PokemonNameLength);
 		String[] names = new String[Gen3Constants.internalPokemonCount + 1];
 		for (int i = 1; i <= Gen3Constants.internalPokemonCount; i++) {
 			names[i] = readFixedLengthString(offs + i * nameLen, nameLen);
@@ -679,21 +767,21 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	private void writeFixedLengthString(String str, int offset, int length) {
 		byte[] translated = translateString(str);
 		int len = Math.min(translated.length, length);
-		System.arraycopy(translated, 0, rom, offset, len);
+		writeBytes(offset, translated, 0, len);
 		if (len < length) {
-			rom[offset + len] = (byte) Gen3Constants.textTerminator;
+			writeByte(offset + len, (byte) Gen3Constants.textTerminator);
 			len++;
 		}
 		while (len < length) {
-			rom[offset + len] = 0;
+			writeByte(offset + len, 0);
 			len++;
 		}
 	}
 
 	private void writeVariableLengthString(String str, int offset) {
 		byte[] translated = translateString(str);
-		System.arraycopy(translated, 0, rom, offset, translated.length);
-		rom[offset + translated.length] = (byte) 0xFF;
+		writeBytes(offset, translated, 0, translated.length);
+		writeByte(offset + translated.length, (byte) 0xFF);
 	}
 
 	private int lengthOfStringAt(int offset) {
@@ -746,16 +834,16 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void writePointer(int offset, int pointer) {
-		rom[offset] = (byte) (pointer & 0xFF);
-		rom[offset + 1] = (byte) ((pointer >> 8) & 0xFF);
-		rom[offset + 2] = (byte) ((pointer >> 16) & 0xFF);
-		rom[offset + 3] = (byte) (((pointer >> 24) & 0xFF) + 8);
+		writeByte(offset, (byte) (pointer & 0xFF));
+		writeByte(offset + 1, (byte) ((pointer >> 8) & 0xFF));
+		writeByte(offset + 2, (byte) ((pointer >> 16) & 0xFF));
+		writeByte(offset + 3, (byte) (((pointer >> 24) & 0xFF) + 8));
 	}
 
 	@Override
 	public List<Pokemon> getStarters() {
 		List<Pokemon> starters = new ArrayList<Pokemon>();
-		int baseOffset = romEntry.getValue("StarterPokemon");
+		int baseOffset = romEntry.getValue(Gen3Slots.StarterPokemon);
 		if (romEntry.romType == Gen3Constants.RomType_Ruby
 				|| romEntry.romType == Gen3Constants.RomType_Sapp
 				|| romEntry.romType == Gen3Constants.RomType_Em) {
@@ -798,7 +886,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		if (!havePatchedObedience) {
 			attemptObedienceEvolutionPatches();
 		}
-		int baseOffset = romEntry.getValue("StarterPokemon");
+		int baseOffset = romEntry.getValue(Gen3Slots.StarterPokemon);
 
 		int starter0 = Gen3Constants
 				.pokeNumTo3GIndex(newStarters.get(0).number);
@@ -858,11 +946,11 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		List<Integer> sHeldItems = new ArrayList<Integer>();
 		if (romEntry.romType == Gen3Constants.RomType_FRLG) {
 			// offset from normal starter offset as a word
-			int baseOffset = romEntry.getValue("StarterPokemon");
+			int baseOffset = romEntry.getValue(Gen3Slots.StarterPokemon);
 			sHeldItems.add(readWord(baseOffset
 					+ Gen3Constants.frlgStarterItemsOffset));
 		} else {
-			int baseOffset = romEntry.getValue("StarterItems");
+			int baseOffset = romEntry.getValue(Gen3Slots.StarterItems);
 			int i1 = rom[baseOffset] & 0xFF;
 			int i2 = rom[baseOffset + 2] & 0xFF;
 			if (i2 == 0) {
@@ -882,20 +970,20 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		int item = items.get(0);
 		if (romEntry.romType == Gen3Constants.RomType_FRLG) {
 			// offset from normal starter offset as a word
-			int baseOffset = romEntry.getValue("StarterPokemon");
+			int baseOffset = romEntry.getValue(Gen3Slots.StarterPokemon);
 			writeWord(baseOffset + Gen3Constants.frlgStarterItemsOffset, item);
 		} else {
-			int baseOffset = romEntry.getValue("StarterItems");
+			int baseOffset = romEntry.getValue(Gen3Slots.StarterItems);
 			if (item <= 0xFF) {
-				rom[baseOffset] = (byte) item;
-				rom[baseOffset + 2] = 0;
-				rom[baseOffset + 3] = Gen3Constants.gbaAddRxOpcode
-						| Gen3Constants.gbaR2;
+				writeByte(baseOffset, (byte) item);
+				writeByte(baseOffset + 2, 0);
+				writeByte(baseOffset + 3,
+						Gen3Constants.gbaAddRxOpcode | Gen3Constants.gbaR2);
 			} else {
-				rom[baseOffset] = (byte) 0xFF;
-				rom[baseOffset + 2] = (byte) (item - 0xFF);
-				rom[baseOffset + 3] = Gen3Constants.gbaAddRxOpcode
-						| Gen3Constants.gbaR2;
+				writeByte(baseOffset, (byte) 0xFF);
+				writeByte(baseOffset + 2, (byte) (item - 0xFF));
+				writeByte(baseOffset + 3,
+						Gen3Constants.gbaAddRxOpcode | Gen3Constants.gbaR2);
 			}
 		}
 	}
@@ -924,13 +1012,13 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public List<EncounterSet> getEncounters(boolean useTimeOfDay) {
+	protected List<EncounterSet> loadEncounters(boolean useTimeOfDay) {
 		if (!mapLoadingDone) {
 			preprocessMaps();
 			mapLoadingDone = true;
 		}
 
-		int startOffs = romEntry.getValue("WildPokemon");
+		int startOffs = romEntry.getValue(Gen3Slots.WildPokemon);
 		List<EncounterSet> encounterAreas = new ArrayList<EncounterSet>();
 		Set<Integer> seenOffsets = new TreeSet<Integer>();
 		int offs = startOffs;
@@ -979,11 +1067,10 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 			offs += 20;
 		}
-		if (romEntry.arrayEntries.containsKey("BattleTrappersBanned")) {
+		if (romEntry.arrayEntries[Gen3Slots.BattleTrappersBanned] != null) {
 			// Some encounter sets aren't allowed to have Pokemon
 			// with Arena Trap, Shadow Tag etc.
-			int[] bannedAreas = romEntry.arrayEntries
-					.get("BattleTrappersBanned");
+			int[] bannedAreas = romEntry.arrayEntries[Gen3Slots.BattleTrappersBanned];
 			for (int areaIdx : bannedAreas) {
 				encounterAreas.get(areaIdx).battleTrappersBanned = true;
 			}
@@ -1016,14 +1103,14 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setEncounters(boolean useTimeOfDay,
+	protected void saveEncounters(boolean useTimeOfDay,
 			List<EncounterSet> encounters) {
 		// Support Deoxys/Mew catches in E/FR/LG
 		if (!havePatchedObedience) {
 			attemptObedienceEvolutionPatches();
 		}
 
-		int startOffs = romEntry.getValue("WildPokemon");
+		int startOffs = romEntry.getValue(Gen3Slots.WildPokemon);
 		Iterator<EncounterSet> encounterAreas = encounters.iterator();
 		Set<Integer> seenOffsets = new TreeSet<Integer>();
 		int offs = startOffs;
@@ -1078,10 +1165,10 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public List<Trainer> getTrainers() {
-		int baseOffset = romEntry.getValue("TrainerData");
-		int amount = romEntry.getValue("TrainerCount");
-		int entryLen = romEntry.getValue("TrainerEntrySize");
+	protected List<Trainer> loadTrainers() {
+		int baseOffset = romEntry.getValue(Gen3Slots.TrainerData);
+		int amount = romEntry.getValue(Gen3Slots.TrainerCount);
+		int entryLen = romEntry.getValue(Gen3Slots.TrainerEntrySize);
 		List<Trainer> theTrainers = new ArrayList<Trainer>();
 		List<String> tcnames = this.getTrainerClassNames();
 		for (int i = 1; i < amount; i++) {
@@ -1169,18 +1256,18 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setTrainers(List<Trainer> trainerData) {
-		int baseOffset = romEntry.getValue("TrainerData");
-		int amount = romEntry.getValue("TrainerCount");
-		int entryLen = romEntry.getValue("TrainerEntrySize");
+	protected void saveTrainers(List<Trainer> trainerData) {
+		int baseOffset = romEntry.getValue(Gen3Slots.TrainerData);
+		int amount = romEntry.getValue(Gen3Slots.TrainerCount);
+		int entryLen = romEntry.getValue(Gen3Slots.TrainerEntrySize);
 		Iterator<Trainer> theTrainers = trainerData.iterator();
 		for (int i = 1; i < amount; i++) {
 			int trOffset = baseOffset + i * entryLen;
 			Trainer tr = theTrainers.next();
 			// Write out the data as type 0 to avoid moves & hold items carrying
 			// over
-			rom[trOffset] = 0;
-			rom[trOffset + (entryLen - 8)] = (byte) tr.pokemon.size();
+			writeByte(trOffset, 0);
+			writeByte(trOffset + (entryLen - 8), (byte) tr.pokemon.size());
 			// rom[trOffset + 24] = 1;
 			int pointerToPokes = readPointer(trOffset + (entryLen - 4));
 			Iterator<TrainerPokemon> pokes = tr.pokemon.iterator();
@@ -1218,9 +1305,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, List<MoveLearnt>> getMovesLearnt() {
+	protected Map<Pokemon, List<MoveLearnt>> loadMovesLearnt() {
 		Map<Pokemon, List<MoveLearnt>> movesets = new TreeMap<Pokemon, List<MoveLearnt>>();
-		int baseOffset = romEntry.getValue("PokemonMovesets");
+		int baseOffset = romEntry.getValue(Gen3Slots.PokemonMovesets);
 		for (int i = 1; i < pokes.length; i++) {
 			Pokemon pkmn = pokes[i];
 			int offsToPtr = baseOffset
@@ -1246,9 +1333,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public void setMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
-		int baseOffset = romEntry.getValue("PokemonMovesets");
-		int fso = romEntry.getValue("FreeSpace");
+	protected void saveMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+		int baseOffset = romEntry.getValue(Gen3Slots.PokemonMovesets);
+		int fso = romEntry.getValue(Gen3Slots.FreeSpace);
 		for (int i = 1; i < pokes.length; i++) {
 			Pokemon pkmn = pokes[i];
 			int offsToPtr = baseOffset
@@ -1265,18 +1352,18 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 				int looplimit = Math.min(currentMoveCount, newMoveCount);
 				for (int mv = 0; mv < looplimit; mv++) {
 					MoveLearnt ml = moves.get(mv);
-					rom[moveDataLoc] = (byte) (ml.move & 0xFF);
+					writeByte(moveDataLoc, (byte) (ml.move & 0xFF));
 					int levelPart = (ml.level << 1) & 0xFE;
 					if (ml.move > 255) {
 						levelPart++;
 					}
-					rom[moveDataLoc + 1] = (byte) levelPart;
+					writeByte(moveDataLoc + 1, (byte) levelPart);
 					moveDataLoc += 2;
 				}
 				if (looplimit < currentMoveCount) {
 					// need a new terminator
-					rom[moveDataLoc] = (byte) 0xFF;
-					rom[moveDataLoc + 1] = (byte) 0xFF;
+					writeByte(moveDataLoc, (byte) 0xFF);
+					writeByte(moveDataLoc + 1, (byte) 0xFF);
 				}
 			} else {
 				// repoint!
@@ -1290,21 +1377,21 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 				moveDataLoc = writeSpace;
 				for (int mv = 0; mv < newMoveCount; mv++) {
 					MoveLearnt ml = moves.get(mv);
-					rom[moveDataLoc] = (byte) (ml.move & 0xFF);
+					writeByte(moveDataLoc, (byte) (ml.move & 0xFF));
 					int levelPart = (ml.level << 1) & 0xFE;
 					if (ml.move > 0xFF) {
 						levelPart++;
 					}
-					rom[moveDataLoc + 1] = (byte) levelPart;
+					writeByte(moveDataLoc + 1, (byte) levelPart);
 					moveDataLoc += 2;
 				}
 				// need a new terminator
-				rom[moveDataLoc] = (byte) 0xFF;
-				rom[moveDataLoc + 1] = (byte) 0xFF;
+				writeByte(moveDataLoc, (byte) 0xFF);
+				writeByte(moveDataLoc + 1, (byte) 0xFF);
 				// for safety (the freespace finder should prevent the
 				// terminator being overwritten but...)
-				rom[moveDataLoc + 2] = 0x00;
-				rom[moveDataLoc + 3] = 0x00;
+				writeByte(moveDataLoc + 2, 0x00);
+				writeByte(moveDataLoc + 3, 0x00);
 			}
 		}
 
@@ -1361,7 +1448,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	@Override
 	public List<Integer> getTMMoves() {
 		List<Integer> tms = new ArrayList<Integer>();
-		int offset = romEntry.getValue("TmMoves");
+		int offset = romEntry.getValue(Gen3Slots.TmMoves);
 		for (int i = 1; i <= Gen3Constants.tmCount; i++) {
 			tms.add(readWord(offset + (i - 1) * 2));
 		}
@@ -1379,20 +1466,19 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			preprocessMaps();
 			mapLoadingDone = true;
 		}
-		int offset = romEntry.getValue("TmMoves");
+		int offset = romEntry.getValue(Gen3Slots.TmMoves);
 		for (int i = 1; i <= Gen3Constants.tmCount; i++) {
 			writeWord(offset + (i - 1) * 2, moveIndexes.get(i - 1));
 		}
-		int otherOffset = romEntry.getValue("TmMovesDuplicate");
+		int otherOffset = romEntry.getValue(Gen3Slots.TmMovesDuplicate);
 		if (otherOffset > 0) {
 			// Emerald/FR/LG have *two* TM tables
-			System.arraycopy(rom, offset, rom, otherOffset,
-					Gen3Constants.tmCount * 2);
+			writeBytes(otherOffset, rom, offset, Gen3Constants.tmCount * 2);
 		}
 
-		int iiOffset = romEntry.getValue("ItemImages");
+		int iiOffset = romEntry.getValue(Gen3Slots.ItemImages);
 		if (iiOffset > 0) {
-			int[] pals = romEntry.arrayEntries.get("TmPals");
+			int[] pals = romEntry.arrayEntries[Gen3Slots.TmPals];
 			// Update the item image palettes
 			// Gen3 TMs are 289-338
 			for (int i = 0; i < 50; i++) {
@@ -1403,14 +1489,14 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			}
 		}
 
-		int fsOffset = romEntry.getValue("FreeSpace");
+		int fsOffset = romEntry.getValue(Gen3Slots.FreeSpace);
 
 		// Item descriptions
-		if (romEntry.getValue("MoveDescriptions") > 0) {
+		if (romEntry.getValue(Gen3Slots.MoveDescriptions) > 0) {
 			// JP blocked for now - uses different item structure anyway
-			int idOffset = romEntry.getValue("ItemData");
-			int mdOffset = romEntry.getValue("MoveDescriptions");
-			int entrySize = romEntry.getValue("ItemEntrySize");
+			int idOffset = romEntry.getValue(Gen3Slots.ItemData);
+			int mdOffset = romEntry.getValue(Gen3Slots.MoveDescriptions);
+			int entrySize = romEntry.getValue(Gen3Slots.ItemEntrySize);
 			int limitPerLine = (romEntry.romType == Gen3Constants.RomType_FRLG) ? Gen3Constants.frlgItemDescCharsPerLine
 					: Gen3Constants.rseItemDescCharsPerLine;
 			for (int i = 0; i < Gen3Constants.tmCount; i++) {
@@ -1512,33 +1598,30 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getTMHMCompatibility() {
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
-		int offset = romEntry.getValue("PokemonTMHMCompat");
+	public CompatibilityMatrix getTMHMCompatibility() {
+		CompatibilityMatrix compat = new CompatibilityMatrix(
+				Arrays.asList(pokes), Gen3Constants.tmCount
+						+ Gen3Constants.hmCount);
+		int offset = romEntry.getValue(Gen3Slots.PokemonTMHMCompat);
 		for (int i = 1; i < pokes.length; i++) {
 			Pokemon pkmn = pokes[i];
 			int compatOffset = offset
 					+ (Gen3Constants.pokeNumTo3GIndex(pkmn.number) - 1) * 8;
-			boolean[] flags = new boolean[Gen3Constants.tmCount
-					+ Gen3Constants.hmCount + 1];
 			for (int j = 0; j < 8; j++) {
-				readByteIntoFlags(flags, j * 8 + 1, compatOffset + j);
+				compat.setByte(pkmn, j, rom[compatOffset + j]);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setTMHMCompatibility(Map<Pokemon, boolean[]> compatData) {
-		int offset = romEntry.getValue("PokemonTMHMCompat");
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
+	public void setTMHMCompatibility(CompatibilityMatrix compatData) {
+		int offset = romEntry.getValue(Gen3Slots.PokemonTMHMCompat);
+		for (Pokemon pkmn : compatData.getPokemon()) {
 			int compatOffset = offset
 					+ (Gen3Constants.pokeNumTo3GIndex(pkmn.number) - 1) * 8;
 			for (int j = 0; j < 8; j++) {
-				rom[compatOffset + j] = getByteFromFlags(flags, j * 8 + 1);
+				writeByte(compatOffset + j, compatData.getByte(pkmn, j));
 			}
 		}
 	}
@@ -1554,8 +1637,8 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			return new ArrayList<Integer>();
 		}
 		List<Integer> mts = new ArrayList<Integer>();
-		int moveCount = romEntry.getValue("MoveTutorMoves");
-		int offset = romEntry.getValue("MoveTutorData");
+		int moveCount = romEntry.getValue(Gen3Slots.MoveTutorMoves);
+		int offset = romEntry.getValue(Gen3Slots.MoveTutorData);
 		for (int i = 0; i < moveCount; i++) {
 			mts.add(readWord(offset + i * 2));
 		}
@@ -1567,15 +1650,15 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		if (!hasMoveTutors()) {
 			return;
 		}
-		int moveCount = romEntry.getValue("MoveTutorMoves");
-		int offset = romEntry.getValue("MoveTutorData");
+		int moveCount = romEntry.getValue(Gen3Slots.MoveTutorMoves);
+		int offset = romEntry.getValue(Gen3Slots.MoveTutorData);
 		if (moveCount != moves.size()) {
 			return;
 		}
 		for (int i = 0; i < moveCount; i++) {
 			writeWord(offset + i * 2, moves.get(i));
 		}
-		int fsOffset = romEntry.getValue("FreeSpace");
+		int fsOffset = romEntry.getValue(Gen3Slots.FreeSpace);
 
 		// Move Tutor Text?
 		for (TMOrMTTextEntry tte : romEntry.tmmtTexts) {
@@ -1633,43 +1716,40 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getMoveTutorCompatibility() {
+	public CompatibilityMatrix getMoveTutorCompatibility() {
 		if (!hasMoveTutors()) {
-			return new TreeMap<Pokemon, boolean[]>();
+			return CompatibilityMatrix.empty();
 		}
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
-		int moveCount = romEntry.getValue("MoveTutorMoves");
-		int offset = romEntry.getValue("MoveTutorData") + moveCount * 2;
+		int moveCount = romEntry.getValue(Gen3Slots.MoveTutorMoves);
+		CompatibilityMatrix compat = new CompatibilityMatrix(
+				Arrays.asList(pokes), moveCount);
+		int offset = romEntry.getValue(Gen3Slots.MoveTutorData) + moveCount * 2;
 		int bytesRequired = ((moveCount + 7) & ~7) / 8;
 		for (int i = 1; i < pokes.length; i++) {
 			Pokemon pkmn = pokes[i];
 			int compatOffset = offset
 					+ Gen3Constants.pokeNumTo3GIndex(pkmn.number) * moveCount;
-			boolean[] flags = new boolean[moveCount + 1];
 			for (int j = 0; j < bytesRequired; j++) {
-				readByteIntoFlags(flags, j * 8 + 1, compatOffset + j);
+				compat.setByte(pkmn, j, rom[compatOffset + j]);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setMoveTutorCompatibility(Map<Pokemon, boolean[]> compatData) {
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData) {
 		if (!hasMoveTutors()) {
 			return;
 		}
-		int moveCount = romEntry.getValue("MoveTutorMoves");
-		int offset = romEntry.getValue("MoveTutorData") + moveCount * 2;
+		int moveCount = romEntry.getValue(Gen3Slots.MoveTutorMoves);
+		int offset = romEntry.getValue(Gen3Slots.MoveTutorData) + moveCount * 2;
 		int bytesRequired = ((moveCount + 7) & ~7) / 8;
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
+		for (Pokemon pkmn : compatData.getPokemon()) {
 			int compatOffset = offset
 					+ Gen3Constants.pokeNumTo3GIndex(pkmn.number)
 					* bytesRequired;
 			for (int j = 0; j < bytesRequired; j++) {
-				rom[compatOffset + j] = getByteFromFlags(flags, j * 8 + 1);
+				writeByte(compatOffset + j, compatData.getByte(pkmn, j));
 			}
 		}
 	}
@@ -1686,9 +1766,30 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public String getSupportLevel() {
-		return (romEntry.getValue("StaticPokemonSupport") > 0) ? "Complete"
-				: "No Static Pokemon";
-	}
+		return (romEntry.getValue(Gen3Slots.StaticPokemonSupport) > 0)
+				? "Complete" : "No Static Pokemon";
+	}
+
+	// what's worked out from the image is cached under this
+	private static final String LAYOUT_KIND = "gen3";
+
+	// Every fixed signature the handler looks for, found in one pass over
+	// the ROM the first time any of them is needed
+	private static final SignatureScanner signatures = new SignatureScanner(
+			Gen3Constants.wildPokemonPointerPrefix,
+			Gen3Constants.mapBanksPointerPrefix,
+			Gen3Constants.rsPokemonNamesPointerSuffix,
+			Gen3Constants.frlgMapLabelsPointerPrefix,
+			Gen3Constants.rseMapLabelsPointerPrefix,
+			Gen3Constants.deoxysObeyCode,
+			Gen3Constants.levelEvoKantoDexCheckCode,
+			Gen3Constants.stoneEvoKantoDexCheckCode,
+			Gen3Constants.rsPokedexScriptIdentifier,
+			Gen3Constants.frlgPokedexScriptIdentifier,
+			Gen3Constants.frlgNatDexFlagChecker,
+			Gen3Constants.frlgOaksLabKantoDexChecker,
+			Gen3Constants.frlgOakOutsideHouseCheck,
+			Gen3Constants.ePokedexScriptIdentifier);
 
 	// For dynamic offsets later
 	private int find(String hexString) {
@@ -1699,11 +1800,10 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		if (hexString.length() % 2 != 0) {
 			return -3; // error
 		}
-		byte[] searchFor = new byte[hexString.length() / 2];
-		for (int i = 0; i < searchFor.length; i++) {
-			searchFor[i] = (byte) Integer.parseInt(
-					hexString.substring(i * 2, i * 2 + 2), 16);
+		if (signatures.contains(hexString)) {
+			return signatures.matches(haystack, LAYOUT_KIND).find(hexString);
 		}
+		byte[] searchFor = SignatureScanner.hexToBytes(hexString);
 		List<Integer> found = RomFunctions.search(haystack, searchFor);
 		if (found.size() == 0) {
 			return -1; // not found
@@ -1722,11 +1822,11 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		if (hexString.length() % 2 != 0) {
 			return new ArrayList<Integer>(); // error
 		}
-		byte[] searchFor = new byte[hexString.length() / 2];
-		for (int i = 0; i < searchFor.length; i++) {
-			searchFor[i] = (byte) Integer.parseInt(
-					hexString.substring(i * 2, i * 2 + 2), 16);
+		if (signatures.contains(hexString)) {
+			return new ArrayList<Integer>(signatures.matches(haystack,
+					LAYOUT_KIND).offsets(hexString));
 		}
+		byte[] searchFor = SignatureScanner.hexToBytes(hexString);
 		List<Integer> found = RomFunctions.search(haystack, searchFor);
 		return found;
 	}
@@ -1736,8 +1836,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			return; // error
 		}
 		for (int i = 0; i < hexString.length() / 2; i++) {
-			rom[offset + i] = (byte) Integer.parseInt(
-					hexString.substring(i * 2, i * 2 + 2), 16);
+			writeByte(offset + i,
+					(byte) Integer.parseInt(
+							hexString.substring(i * 2, i * 2 + 2), 16));
 		}
 	}
 
@@ -1757,12 +1858,12 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			// But MOVS R1, 0x0 (the version I know) is 2-byte
 			// So we just use it twice...
 			// the equivalent of nop'ing the second time.
-			rom[deoxysObOffset] = 0x00;
-			rom[deoxysObOffset + 1] = Gen3Constants.gbaSetRxOpcode
-					| Gen3Constants.gbaR1;
-			rom[deoxysObOffset + 2] = 0x00;
-			rom[deoxysObOffset + 3] = Gen3Constants.gbaSetRxOpcode
-					| Gen3Constants.gbaR1;
+			writeByte(deoxysObOffset, 0x00);
+			writeByte(deoxysObOffset + 1,
+					Gen3Constants.gbaSetRxOpcode | Gen3Constants.gbaR1);
+			writeByte(deoxysObOffset + 2, 0x00);
+			writeByte(deoxysObOffset + 3,
+					Gen3Constants.gbaSetRxOpcode | Gen3Constants.gbaR1);
 			// Look for the mew check too... it's 0x16 ahead
 			if (readWord(deoxysObOffset
 					+ Gen3Constants.mewObeyOffsetFromDeoxysObey) == (((Gen3Constants.gbaCmpRxOpcode | Gen3Constants.gbaR0) << 8) | (Gen3Constants.mewIndex))) {
@@ -1802,7 +1903,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	public void patchForNationalDex() {
 		log("--Patching for National Dex at Start of Game--");
 		String nl = System.getProperty("line.separator");
-		int fso = romEntry.getValue("FreeSpace");
+		int fso = romEntry.getValue(Gen3Slots.FreeSpace);
 		if (romEntry.romType == Gen3Constants.RomType_Ruby
 				|| romEntry.romType == Gen3Constants.RomType_Sapp) {
 			// Find the original pokedex script
@@ -1846,9 +1947,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 				log("Patch unsuccessful." + nl);
 				return;
 			}
-			rom[pkDexOffset] = 4;
+			writeByte(pkDexOffset, 4);
 			writePointer(pkDexOffset + 1, writeSpace);
-			rom[pkDexOffset + 5] = 0; // NOP
+			writeByte(pkDexOffset + 5, 0); // NOP
 
 			// Now write our new routine
 			writeHexString(Gen3Constants.frlgNatDexScript, writeSpace);
@@ -1914,7 +2015,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<Evolution> getEvolutions() {
-		int baseOffset = romEntry.getValue("PokemonEvolutions");
+		int baseOffset = romEntry.getValue(Gen3Slots.PokemonEvolutions);
 		List<Evolution> evos = new ArrayList<Evolution>();
 		List<Evolution> evosForThisPoke = new ArrayList<Evolution>();
 		for (int i = 1; i < pokes.length; i++) {
@@ -1950,7 +2051,8 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setEvolutions(List<Evolution> evos) {
-		int baseOffset = romEntry.getValue("PokemonEvolutions");
+		evolutionsChanged();
+		int baseOffset = romEntry.getValue(Gen3Slots.PokemonEvolutions);
 		for (int i = 1; i < pokes.length; i++) {
 			int idx = Gen3Constants.pokeNumTo3GIndex(pokes[i].number);
 			int evoOffset = baseOffset + (idx - 1) * 0x28;
@@ -2065,9 +2167,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public List<String> getTrainerNames() {
-		int baseOffset = romEntry.getValue("TrainerData");
-		int amount = romEntry.getValue("TrainerCount");
-		int entryLen = romEntry.getValue("TrainerEntrySize");
+		int baseOffset = romEntry.getValue(Gen3Slots.TrainerData);
+		int amount = romEntry.getValue(Gen3Slots.TrainerCount);
+		int entryLen = romEntry.getValue(Gen3Slots.TrainerEntrySize);
 		List<String> theTrainers = new ArrayList<String>();
 		for (int i = 1; i < amount; i++) {
 			theTrainers.add(readVariableLengthString(baseOffset + i * entryLen
@@ -2078,10 +2180,10 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTrainerNames(List<String> trainerNames) {
-		int baseOffset = romEntry.getValue("TrainerData");
-		int amount = romEntry.getValue("TrainerCount");
-		int entryLen = romEntry.getValue("TrainerEntrySize");
-		int nameLen = romEntry.getValue("TrainerNameLength");
+		int baseOffset = romEntry.getValue(Gen3Slots.TrainerData);
+		int amount = romEntry.getValue(Gen3Slots.TrainerCount);
+		int entryLen = romEntry.getValue(Gen3Slots.TrainerEntrySize);
+		int nameLen = romEntry.getValue(Gen3Slots.TrainerNameLength);
 		Iterator<String> theTrainers = trainerNames.iterator();
 		for (int i = 1; i < amount; i++) {
 			String newName = theTrainers.next();
@@ -2104,14 +2206,14 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public int maxTrainerNameLength() {
-		return romEntry.getValue("TrainerNameLength") - 1;
+		return romEntry.getValue(Gen3Slots.TrainerNameLength) - 1;
 	}
 
 	@Override
 	public List<String> getTrainerClassNames() {
-		int baseOffset = romEntry.getValue("TrainerClassNames");
-		int amount = romEntry.getValue("TrainerClassCount");
-		int length = romEntry.getValue("TrainerClassNameLength");
+		int baseOffset = romEntry.getValue(Gen3Slots.TrainerClassNames);
+		int amount = romEntry.getValue(Gen3Slots.TrainerClassCount);
+		int length = romEntry.getValue(Gen3Slots.TrainerClassNameLength);
 		List<String> trainerClasses = new ArrayList<String>();
 		for (int i = 0; i < amount; i++) {
 			trainerClasses
@@ -2122,9 +2224,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public void setTrainerClassNames(List<String> trainerClassNames) {
-		int baseOffset = romEntry.getValue("TrainerClassNames");
-		int amount = romEntry.getValue("TrainerClassCount");
-		int length = romEntry.getValue("TrainerClassNameLength");
+		int baseOffset = romEntry.getValue(Gen3Slots.TrainerClassNames);
+		int amount = romEntry.getValue(Gen3Slots.TrainerClassCount);
+		int length = romEntry.getValue(Gen3Slots.TrainerClassNameLength);
 		Iterator<String> trainerClasses = trainerClassNames.iterator();
 		for (int i = 0; i < amount; i++) {
 			writeFixedLengthString(trainerClasses.next(), baseOffset + i
@@ -2134,7 +2236,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public int maxTrainerClassNameLength() {
-		return romEntry.getValue("TrainerClassNameLength") - 1;
+		return romEntry.getValue(Gen3Slots.TrainerClassNameLength) - 1;
 	}
 
 	@Override
@@ -2144,7 +2246,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public boolean canChangeStaticPokemon() {
-		return (romEntry.getValue("StaticPokemonSupport") > 0);
+		return (romEntry.getValue(Gen3Slots.StaticPokemonSupport) > 0);
 	}
 
 	@Override
@@ -2163,8 +2265,8 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void loadAbilityNames() {
-		int nameoffs = romEntry.getValue("AbilityNames");
-		int namelen = romEntry.getValue("AbilityNameLength");
+		int nameoffs = romEntry.getValue(Gen3Slots.AbilityNames);
+		int namelen = romEntry.getValue(Gen3Slots.AbilityNameLength);
 		abilityNames = new String[Gen3Constants.highestAbilityIndex + 1];
 		for (int i = 0; i <= Gen3Constants.highestAbilityIndex; i++) {
 			abilityNames[i] = readFixedLengthString(nameoffs + namelen * i,
@@ -2192,10 +2294,12 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			int frontSprites = readPointer(Gen3Constants.frlgFrontSpritesPointer);
 			int palettes = readPointer(Gen3Constants.frlgPokemonPalettesPointer);
 
-			rom[romEntry.getValue("IntroCryOffset")] = (byte) introPokemon;
-			rom[romEntry.getValue("IntroOtherOffset")] = (byte) introPokemon;
+			writeByte(romEntry.getValue(Gen3Slots.IntroCryOffset),
+					(byte) introPokemon);
+			writeByte(romEntry.getValue(Gen3Slots.IntroOtherOffset),
+					(byte) introPokemon);
 
-			int spriteBase = romEntry.getValue("IntroSpriteOffset");
+			int spriteBase = romEntry.getValue(Gen3Slots.IntroSpriteOffset);
 			writePointer(spriteBase, frontSprites + introPokemon * 8);
 			writePointer(spriteBase + 4, palettes + introPokemon * 8);
 		} else if (romEntry.romType == Gen3Constants.RomType_Ruby
@@ -2204,58 +2308,71 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			int introPokemon = Gen3Constants.pokeNumTo3GIndex(this.random
 					.nextInt(Gen3Constants.hoennPokesCount)
 					+ Gen3Constants.hoennPokesStart);
-			int frontSprites = romEntry.getValue("PokemonFrontSprites");
-			int palettes = romEntry.getValue("PokemonNormalPalettes");
-			int cryCommand = romEntry.getValue("IntroCryOffset");
-			int otherCommand = romEntry.getValue("IntroOtherOffset");
+			int frontSprites = romEntry.getValue(Gen3Slots.PokemonFrontSprites);
+			int palettes = romEntry.getValue(Gen3Slots.PokemonNormalPalettes);
+			int cryCommand = romEntry.getValue(Gen3Slots.IntroCryOffset);
+			int otherCommand = romEntry.getValue(Gen3Slots.IntroOtherOffset);
 
 			if (introPokemon > 255) {
-				rom[cryCommand] = (byte) 0xFF;
-				rom[cryCommand + 1] = Gen3Constants.gbaSetRxOpcode
-						| Gen3Constants.gbaR0;
+				writeByte(cryCommand, (byte) 0xFF);
+				writeByte(cryCommand + 1,
+						Gen3Constants.gbaSetRxOpcode | Gen3Constants.gbaR0);
 
-				rom[cryCommand + 2] = (byte) (introPokemon - 0xFF);
-				rom[cryCommand + 3] = Gen3Constants.gbaAddRxOpcode
-						| Gen3Constants.gbaR0;
+				writeByte(cryCommand + 2, (byte) (introPokemon - 0xFF));
+				writeByte(cryCommand + 3,
+						Gen3Constants.gbaAddRxOpcode | Gen3Constants.gbaR0);
 
-				rom[otherCommand] = (byte) 0xFF;
-				rom[otherCommand + 1] = Gen3Constants.gbaSetRxOpcode
-						| Gen3Constants.gbaR4;
+				writeByte(otherCommand, (byte) 0xFF);
+				writeByte(otherCommand + 1,
+						Gen3Constants.gbaSetRxOpcode | Gen3Constants.gbaR4);
 
-				rom[otherCommand + 2] = (byte) (introPokemon - 0xFF);
-				rom[otherCommand + 3] = Gen3Constants.gbaAddRxOpcode
-						| Gen3Constants.gbaR4;
+				writeByte(otherCommand + 2, (byte) (introPokemon - 0xFF));
+				writeByte(otherCommand + 3,
+						Gen3Constants.gbaAddRxOpcode | Gen3Constants.gbaR4);
 			} else {
-				rom[cryCommand] = (byte) introPokemon;
-				rom[cryCommand + 1] = Gen3Constants.gbaSetRxOpcode
-						| Gen3Constants.gbaR0;
+				writeByte(cryCommand, (byte) introPokemon);
+				writeByte(cryCommand + 1,
+						Gen3Constants.gbaSetRxOpcode | Gen3Constants.gbaR0);
 
 				writeWord(cryCommand + 2, Gen3Constants.gbaAlternativeNopOpcode);
 
-				rom[otherCommand] = (byte) introPokemon;
-				rom[otherCommand + 1] = Gen3Constants.gbaSetRxOpcode
-						| Gen3Constants.gbaR4;
+				writeByte(otherCommand, (byte) introPokemon);
+				writeByte(otherCommand + 1,
+						Gen3Constants.gbaSetRxOpcode | Gen3Constants.gbaR4);
 
 				writeWord(otherCommand + 2,
 						Gen3Constants.gbaAlternativeNopOpcode);
 			}
 
-			writePointer(romEntry.getValue("IntroSpriteOffset"), frontSprites
-					+ introPokemon * 8);
-			writePointer(romEntry.getValue("IntroPaletteOffset"), palettes
-					+ introPokemon * 8);
+			writePointer(romEntry.getValue(Gen3Slots.IntroSpriteOffset),
+					frontSprites + introPokemon * 8);
+			writePointer(romEntry.getValue(Gen3Slots.IntroPaletteOffset),
+					palettes + introPokemon * 8);
 		} else {
 			// Emerald, intro sprite: any Pokemon.
 			int introPokemon = Gen3Constants
 					.pokeNumTo3GIndex(randomPokemon().number);
-			writeWord(romEntry.getValue("IntroSpriteOffset"), introPokemon);
-			writeWord(romEntry.getValue("IntroCryOffset"), introPokemon);
+			writeWord(romEntry.getValue(Gen3Slots.IntroSpriteOffset),
+					introPokemon);
+			writeWord(romEntry.getValue(Gen3Slots.IntroCryOffset),
+					introPokemon);
 		}
 
 	}
 
 	private void determineMapBankSizes() {
-		int mbpsOffset = romEntry.getValue("MapHeaders");
+		RomLayoutCache cache = RomLayoutCache.getDefault();
+		RomLayoutCache.Layout layout = cache == null ? null : cache.forImage(
+				rom, LAYOUT_KIND);
+		int[] cachedSizes = layout == null ? null : layout
+				.getInts("MapBankSizes");
+		if (cachedSizes != null) {
+			romEntry.setValue(Gen3Slots.MapBankCount, cachedSizes.length);
+			romEntry.arrayEntries[Gen3Slots.MapBankSizes] = cachedSizes;
+			return;
+		}
+
+		int mbpsOffset = romEntry.getValue(Gen3Slots.MapHeaders);
 		List<Integer> mapBankOffsets = new ArrayList<Integer>();
 
 		int offset = mbpsOffset;
@@ -2309,18 +2426,22 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			bankMapCounts[bank] = count;
 		}
 
-		romEntry.entries.put("MapBankCount", bankCount);
-		romEntry.arrayEntries.put("MapBankSizes", bankMapCounts);
+		romEntry.setValue(Gen3Slots.MapBankCount, bankCount);
+		romEntry.arrayEntries[Gen3Slots.MapBankSizes] = bankMapCounts;
+		if (layout != null) {
+			layout.putInts("MapBankSizes", bankMapCounts);
+			cache.save(layout);
+		}
 	}
 
 	private void preprocessMaps() {
 		itemOffs = new ArrayList<Integer>();
-		int bankCount = romEntry.getValue("MapBankCount");
-		int[] bankMapCounts = romEntry.arrayEntries.get("MapBankSizes");
-		int itemBall = romEntry.getValue("ItemBallPic");
+		int bankCount = romEntry.getValue(Gen3Slots.MapBankCount);
+		int[] bankMapCounts = romEntry.arrayEntries[Gen3Slots.MapBankSizes];
+		int itemBall = romEntry.getValue(Gen3Slots.ItemBallPic);
 		mapNames = new String[bankCount][];
-		int mbpsOffset = romEntry.getValue("MapHeaders");
-		int mapLabels = romEntry.getValue("MapLabels");
+		int mbpsOffset = romEntry.getValue(Gen3Slots.MapHeaders);
+		int mapLabels = romEntry.getValue(Gen3Slots.MapLabels);
 		Map<Integer, String> mapLabelsM = new HashMap<Integer, String>();
 		for (int bank = 0; bank < bankCount; bank++) {
 			int bankOffset = readPointer(mbpsOffset + bank * 4);
@@ -2439,9 +2560,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	}
 
 	private void loadItemNames() {
-		int nameoffs = romEntry.getValue("ItemData");
-		int structlen = romEntry.getValue("ItemEntrySize");
-		int maxcount = romEntry.getValue("ItemCount");
+		int nameoffs = romEntry.getValue(Gen3Slots.ItemData);
+		int structlen = romEntry.getValue(Gen3Slots.ItemEntrySize);
+		int maxcount = romEntry.getValue(Gen3Slots.ItemCount);
 		itemNames = new String[maxcount + 1];
 		for (int i = 0; i <= maxcount; i++) {
 			itemNames[i] = readVariableLengthString(nameoffs + structlen * i);
@@ -2501,7 +2622,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			if (Gen3Constants.allowedItems.isTM(itemHere)) {
 				// Cache replaced TMs to duplicate repeats
 				if (givenTMs[itemHere] != 0) {
-					rom[offset] = (byte) givenTMs[itemHere];
+					writeByte(offset, (byte) givenTMs[itemHere]);
 				} else {
 					// Replace this with a TM from the list
 					int tm = iterTMs.next();
@@ -2555,9 +2676,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 		List<IngameTrade> trades = new ArrayList<IngameTrade>();
 
 		// info
-		int tableOffset = romEntry.getValue("TradeTableOffset");
-		int tableSize = romEntry.getValue("TradeTableSize");
-		int[] unused = romEntry.arrayEntries.get("TradesUnused");
+		int tableOffset = romEntry.getValue(Gen3Slots.TradeTableOffset);
+		int tableSize = romEntry.getValue(Gen3Slots.TradeTableSize);
+		int[] unused = romEntry.arrayEntries[Gen3Slots.TradesUnused];
 		int unusedOffset = 0;
 		int entryLength = 60;
 
@@ -2590,9 +2711,9 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 	@Override
 	public void setIngameTrades(List<IngameTrade> trades) {
 		// info
-		int tableOffset = romEntry.getValue("TradeTableOffset");
-		int tableSize = romEntry.getValue("TradeTableSize");
-		int[] unused = romEntry.arrayEntries.get("TradesUnused");
+		int tableOffset = romEntry.getValue(Gen3Slots.TradeTableOffset);
+		int tableSize = romEntry.getValue(Gen3Slots.TradeTableSize);
+		int[] unused = romEntry.arrayEntries[Gen3Slots.TradesUnused];
 		int unusedOffset = 0;
 		int entryLength = 60;
 		int tradeOffset = 0;
@@ -2608,7 +2729,7 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 			writeWord(entryOffset + 12,
 					Gen3Constants.pokeNumTo3GIndex(trade.givenPokemon.number));
 			for (int i = 0; i < 6; i++) {
-				rom[entryOffset + 14 + i] = (byte) trade.ivs[i];
+				writeByte(entryOffset + 14 + i, (byte) trade.ivs[i]);
 			}
 			writeWord(entryOffset + 24, trade.otId);
 			writeWord(entryOffset + 40, trade.item);
@@ -2675,14 +2796,14 @@ public class Gen3RomHandler extends AbstractGBRomHandler {
 
 	@Override
 	public int codeTweaksAvailable() {
-		return (romEntry.getValue("RunIndoorsTweakOffset") > 0) ? CodeTweaks.RUNNING_SHOES_INDOORS
-				: 0;
+		return (romEntry.getValue(Gen3Slots.RunIndoorsTweakOffset) > 0)
+				? CodeTweaks.RUNNING_SHOES_INDOORS : 0;
 	}
 
 	@Override
 	public void applyRunningShoesIndoorsPatch() {
-		if (romEntry.getValue("RunIndoorsTweakOffset") != 0) {
-			rom[romEntry.getValue("RunIndoorsTweakOffset")] = 0x00;
+		if (romEntry.getValue(Gen3Slots.RunIndoorsTweakOffset) != 0) {
+			writeByte(romEntry.getValue(Gen3Slots.RunIndoorsTweakOffset), 0x00);
 		}
 	}
 
@@ -27,7 +27,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -40,7 +40,10 @@ import thenewpoketext.TextToPoke;
 
 import com.dabomstew.pkrandom.FileFunctions;
 import com.dabomstew.pkrandom.RomFunctions;
+import com.dabomstew.pkrandom.SignatureScanner;
 import com.dabomstew.pkrandom.constants.Gen4Constants;
+import com.dabomstew.pkrandom.constants.Gen4Slots;
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
@@ -78,23 +81,72 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		private int romType;
 		private boolean staticPokemonSupport = false,
 				copyStaticPokemon = false;
-		private Map<String, String> strings = new HashMap<String, String>();
-		private Map<String, Integer> numbers = new HashMap<String, Integer>();
-		private Map<String, int[]> arrayEntries = new HashMap<String, int[]>();
+		private String[] strings = new String[Gen4Slots.stringNames.length];
+		private int[] numbers = new int[Gen4Slots.valueNames.length];
+		// which numbers have been set, so CopyFrom can copy just those
+		private BitSet numbersSet = new BitSet();
+		private int[][] arrayEntries = new int[Gen4Slots.arrayNames.length][];
 		private List<StaticPokemon> staticPokemon = new ArrayList<StaticPokemon>();
 
-		private int getInt(String key) {
-			if (!numbers.containsKey(key)) {
-				numbers.put(key, 0);
+		private int getInt(int slot) {
+			return numbers[slot];
+		}
+
+		private String getString(int slot) {
+			String value = strings[slot];
+			return value == null ? "" : value;
+		}
+
+		private void setInt(int slot, int value) {
+			numbers[slot] = value;
+			numbersSet.set(slot);
+		}
+
+		// ini keys go in at the slots RomSlotsGenerator gave them
+		private void putInt(String key, int value) {
+			int slot = Gen4Slots.valueSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				setInt(slot, value);
 			}
-			return numbers.get(key);
 		}
 
-		private String getString(String key) {
-			if (!strings.containsKey(key)) {
-				strings.put(key, "");
+		private void putString(String key, String value) {
+			int slot = Gen4Slots.stringSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				strings[slot] = value;
+			}
+		}
+
+		private void putArray(String key, int[] values) {
+			int slot = Gen4Slots.arraySlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				arrayEntries[slot] = values;
+			}
+		}
+
+		// everything other has set, over whatever this has
+		private void copyEntries(RomEntry other) {
+			for (int i = 0; i < numbers.length; i++) {
+				if (other.numbersSet.get(i)) {
+					setInt(i, other.numbers[i]);
+				}
+			}
+			for (int i = 0; i < strings.length; i++) {
+				if (other.strings[i] != null) {
+					strings[i] = other.strings[i];
+				}
+			}
+			for (int i = 0; i < arrayEntries.length; i++) {
+				if (other.arrayEntries[i] != null) {
+					arrayEntries[i] = other.arrayEntries[i];
+				}
 			}
-			return strings.get(key);
 		}
 	}
 
@@ -149,10 +201,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 							for (RomEntry otherEntry : roms) {
 								if (r[1].equalsIgnoreCase(otherEntry.romCode)) {
 									// copy from here
-									current.arrayEntries
-											.putAll(otherEntry.arrayEntries);
-									current.numbers.putAll(otherEntry.numbers);
-									current.strings.putAll(otherEntry.strings);
+									current.copyEntries(otherEntry);
 									if (current.copyStaticPokemon) {
 										current.staticPokemon
 												.addAll(otherEntry.staticPokemon);
@@ -198,22 +247,22 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 										r[1].length() - 1).split(",");
 								if (offsets.length == 1
 										&& offsets[0].trim().isEmpty()) {
-									current.arrayEntries.put(r[0], new int[0]);
+									current.putArray(r[0], new int[0]);
 								} else {
 									int[] offs = new int[offsets.length];
 									int c = 0;
 									for (String off : offsets) {
 										offs[c++] = parseRIInt(off);
 									}
-									current.arrayEntries.put(r[0], offs);
+									current.putArray(r[0], offs);
 								}
 							} else if (r[0].endsWith("Offset")
 									|| r[0].endsWith("Count")
 									|| r[0].endsWith("Number")) {
 								int offs = parseRIInt(r[1]);
-								current.numbers.put(r[0], offs);
+								current.putInt(r[0], offs);
 							} else {
-								current.strings.put(r[0], r[1]);
+								current.putString(r[0], r[1]);
 							}
 						}
 					}
@@ -280,35 +329,59 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		} catch (IOException e) {
 			arm9 = new byte[0];
 		}
+		// while the ARM9 is still as loaded, so it's cached under that
+		arm9Signatures.matches(arm9, ARM9_LAYOUT_KIND);
 		try {
-			msgNarc = readNARC(romEntry.getString("Text"));
+			msgNarc = readNARC(romEntry.getString(Gen4Slots.Text));
 		} catch (IOException e) {
 			msgNarc = null;
 		}
 		try {
-			scriptNarc = readNARC(romEntry.getString("Scripts"));
+			scriptNarc = readNARC(romEntry.getString(Gen4Slots.Scripts));
 		} catch (IOException e) {
 			scriptNarc = null;
 		}
 		try {
-			eventNarc = readNARC(romEntry.getString("Events"));
+			eventNarc = readNARC(romEntry.getString(Gen4Slots.Events));
 		} catch (IOException e) {
 			eventNarc = null;
 		}
 		loadPokemonStats();
 		pokemonList = Arrays.asList(pokes);
 		loadMoves();
-		abilityNames = getStrings(romEntry.getInt("AbilityNamesTextOffset"));
-		itemNames = getStrings(romEntry.getInt("ItemNamesTextOffset"));
-
+		abilityNames = getStrings(romEntry
+				.getInt(Gen4Slots.AbilityNamesTextOffset));
+		itemNames = getStrings(romEntry.getInt(Gen4Slots.ItemNamesTextOffset));
+
+	}
+
+	@Override
+	protected void loadedFrom(AbstractDSRomHandler original) {
+		Gen4RomHandler from = (Gen4RomHandler) original;
+		this.romEntry = from.romEntry;
+		arm9 = from.arm9.clone();
+		arm9Signatures.copyMatches(from.arm9, arm9);
+		// the narcs keep reading what hasn't been changed from the files
+		// the original read
+		msgNarc = copyNARC(from.msgNarc);
+		scriptNarc = copyNARC(from.scriptNarc);
+		eventNarc = copyNARC(from.eventNarc);
+		pokeNarc = copyNARC(from.pokeNarc);
+		moveNarc = copyNARC(from.moveNarc);
+		pokes = copyPokemon(from.pokes);
+		pokemonList = Arrays.asList(pokes);
+		moves = copyMoves(from.moves);
+		abilityNames = from.abilityNames;
+		itemNames = from.itemNames;
+		lastStringsCompressed = from.lastStringsCompressed;
 	}
 
 	private void loadMoves() {
 		try {
-			moveNarc = this.readNARC(romEntry.getString("MoveData"));
+			moveNarc = this.readNARC(romEntry.getString(Gen4Slots.MoveData));
 			moves = new Move[Gen4Constants.moveCount + 1];
 			List<String> moveNames = getStrings(romEntry
-					.getInt("MoveNamesTextOffset"));
+					.getInt(Gen4Slots.MoveNamesTextOffset));
 			for (int i = 1; i <= Gen4Constants.moveCount; i++) {
 				byte[] moveData = moveNarc.files.get(i);
 				moves[i] = new Move();
@@ -329,7 +402,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	private void loadPokemonStats() {
 		try {
-			String pstatsnarc = romEntry.getString("PokemonStats");
+			String pstatsnarc = romEntry.getString(Gen4Slots.PokemonStats);
 			pokeNarc = this.readNARC(pstatsnarc);
 			String[] pokeNames = readPokemonNames();
 			pokes = new Pokemon[Gen4Constants.pokemonCount + 1];
@@ -389,7 +462,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	private String[] readPokemonNames() {
 		String[] pokeNames = new String[Gen4Constants.pokemonCount + 1];
 		List<String> nameList = getStrings(romEntry
-				.getInt("PokemonNamesTextOffset"));
+				.getInt(Gen4Slots.PokemonNamesTextOffset));
 		for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 			pokeNames[i] = nameList.get(i);
 		}
@@ -405,15 +478,15 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		} catch (IOException e) {
 		}
 		try {
-			writeNARC(romEntry.getString("Text"), msgNarc);
+			writeNARC(romEntry.getString(Gen4Slots.Text), msgNarc);
 		} catch (IOException e) {
 		}
 		try {
-			writeNARC(romEntry.getString("Scripts"), scriptNarc);
+			writeNARC(romEntry.getString(Gen4Slots.Scripts), scriptNarc);
 		} catch (IOException e) {
 		}
 		try {
-			writeNARC(romEntry.getString("Events"), eventNarc);
+			writeNARC(romEntry.getString(Gen4Slots.Events), eventNarc);
 		} catch (IOException e) {
 		}
 	}
@@ -436,7 +509,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 
 		try {
-			this.writeNARC(romEntry.getString("MoveData"), moveNarc);
+			this.writeNARC(romEntry.getString(Gen4Slots.MoveData), moveNarc);
 		} catch (IOException e) {
 			// // change this later
 			e.printStackTrace();
@@ -447,10 +520,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	private void savePokemonStats() {
 		// Update the "a/an X" list too, if it exists
 		List<String> namesList = getStrings(romEntry
-				.getInt("PokemonNamesTextOffset"));
-		if (romEntry.getString("HasExtraPokemonNames").equalsIgnoreCase("Yes")) {
+				.getInt(Gen4Slots.PokemonNamesTextOffset));
+		if (romEntry.getString(Gen4Slots.HasExtraPokemonNames)
+				.equalsIgnoreCase("Yes")) {
 			List<String> namesList2 = getStrings(romEntry
-					.getInt("PokemonNamesTextOffset") + 1);
+					.getInt(Gen4Slots.PokemonNamesTextOffset) + 1);
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 				saveBasicPokeStats(pokes[i], pokeNarc.files.get(i));
 				String oldName = namesList.get(i);
@@ -458,7 +532,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				namesList2.set(i,
 						namesList2.get(i).replace(oldName, pokes[i].name));
 			}
-			setStrings(romEntry.getInt("PokemonNamesTextOffset") + 1,
+			setStrings(romEntry.getInt(Gen4Slots.PokemonNamesTextOffset) + 1,
 					namesList2, false);
 		} else {
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
@@ -466,10 +540,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				namesList.set(i, pokes[i].name);
 			}
 		}
-		setStrings(romEntry.getInt("PokemonNamesTextOffset"), namesList, false);
+		setStrings(romEntry.getInt(Gen4Slots.PokemonNamesTextOffset), namesList,
+				false);
 
 		try {
-			String pstatsnarc = romEntry.getString("PokemonStats");
+			String pstatsnarc = romEntry.getString(Gen4Slots.PokemonStats);
 			this.writeNARC(pstatsnarc, pokeNarc);
 		} catch (IOException e) {
 			// change this later
@@ -538,13 +613,13 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		} else {
 			try {
 				byte[] starterData = readOverlay(romEntry
-						.getInt("StarterPokemonOvlNumber"));
+						.getInt(Gen4Slots.StarterPokemonOvlNumber));
 				int poke1 = readWord(starterData,
-						romEntry.getInt("StarterPokemonOffset"));
+						romEntry.getInt(Gen4Slots.StarterPokemonOffset));
 				int poke2 = readWord(starterData,
-						romEntry.getInt("StarterPokemonOffset") + 4);
+						romEntry.getInt(Gen4Slots.StarterPokemonOffset) + 4);
 				int poke3 = readWord(starterData,
-						romEntry.getInt("StarterPokemonOffset") + 8);
+						romEntry.getInt(Gen4Slots.StarterPokemonOffset) + 8);
 				return Arrays.asList(pokes[poke1], pokes[poke2], pokes[poke3]);
 			} catch (IOException e) {
 				return Arrays.asList(pokes[Gen4Constants.turtwigIndex],
@@ -609,7 +684,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				}
 				// Fix starter text
 				List<String> spStrings = getStrings(romEntry
-						.getInt("StarterScreenTextOffset"));
+						.getInt(Gen4Slots.StarterScreenTextOffset));
 				String[] intros = new String[] { "So, you like", "You’ll take",
 						"Do you want" };
 				for (int i = 0; i < 3; i++) {
@@ -627,7 +702,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 							+ "-type Pokémon, is\\nin this Poké Ball!";
 					spStrings.set(i + 4, altStarterDesc);
 				}
-				setStrings(romEntry.getInt("StarterScreenTextOffset"),
+				setStrings(romEntry.getInt(Gen4Slots.StarterScreenTextOffset),
 						spStrings);
 				return true;
 			} else {
@@ -636,16 +711,17 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		} else {
 			try {
 				byte[] starterData = readOverlay(romEntry
-						.getInt("StarterPokemonOvlNumber"));
-				writeWord(starterData, romEntry.getInt("StarterPokemonOffset"),
+						.getInt(Gen4Slots.StarterPokemonOvlNumber));
+				writeWord(starterData,
+						romEntry.getInt(Gen4Slots.StarterPokemonOffset),
 						newStarters.get(0).number);
 				writeWord(starterData,
-						romEntry.getInt("StarterPokemonOffset") + 4,
+						romEntry.getInt(Gen4Slots.StarterPokemonOffset) + 4,
 						newStarters.get(1).number);
 				writeWord(starterData,
-						romEntry.getInt("StarterPokemonOffset") + 8,
+						romEntry.getInt(Gen4Slots.StarterPokemonOffset) + 8,
 						newStarters.get(2).number);
-				writeOverlay(romEntry.getInt("StarterPokemonOvlNumber"),
+				writeOverlay(romEntry.getInt(Gen4Slots.StarterPokemonOvlNumber),
 						starterData);
 				// Patch DPPt-style rival scripts
 				// these have a series of IfJump commands
@@ -743,10 +819,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				// Fix starter script text
 				// The starter picking screen
 				List<String> spStrings = getStrings(romEntry
-						.getInt("StarterScreenTextOffset"));
+						.getInt(Gen4Slots.StarterScreenTextOffset));
 				// Get pokedex info
 				List<String> pokedexSpeciesStrings = getStrings(romEntry
-						.getInt("PokedexSpeciesTextOffset"));
+						.getInt(Gen4Slots.PokedexSpeciesTextOffset));
 				for (int i = 0; i < 3; i++) {
 					Pokemon newStarter = newStarters.get(i);
 					int color = (i == 0) ? 3 : i;
@@ -757,25 +833,27 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 					spStrings.set(i + 1, newStarterDesc);
 				}
 				// rewrite starter picking screen
-				setStrings(romEntry.getInt("StarterScreenTextOffset"),
+				setStrings(romEntry.getInt(Gen4Slots.StarterScreenTextOffset),
 						spStrings);
 				if (romEntry.romType == Gen4Constants.Type_DP) {
 					// what rival says after we get the Pokemon
 					List<String> lakeStrings = getStrings(romEntry
-							.getInt("StarterLocationTextOffset"));
+							.getInt(Gen4Slots.StarterLocationTextOffset));
 					lakeStrings
 							.set(Gen4Constants.dpStarterStringIndex,
 									"\\v0103\\z0000: Fwaaah!\\nYour Pokémon totally rocked!\\pBut mine was way tougher\\nthan yours!\\p...They were other people’s\\nPokémon, though...\\pBut we had to use them...\\nThey won’t mind, will they?\\p");
-					setStrings(romEntry.getInt("StarterLocationTextOffset"),
+					setStrings(romEntry
+							.getInt(Gen4Slots.StarterLocationTextOffset),
 							lakeStrings);
 				} else {
 					// what rival says after we get the Pokemon
 					List<String> r201Strings = getStrings(romEntry
-							.getInt("StarterLocationTextOffset"));
+							.getInt(Gen4Slots.StarterLocationTextOffset));
 					r201Strings
 							.set(Gen4Constants.ptStarterStringIndex,
 									"\\v0103\\z0000\\z0000: Then, I choose you!\\nI’m picking this one!\\p");
-					setStrings(romEntry.getInt("StarterLocationTextOffset"),
+					setStrings(romEntry
+							.getInt(Gen4Slots.StarterLocationTextOffset),
 							r201Strings);
 				}
 			} catch (IOException e) {
@@ -809,7 +887,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public List<EncounterSet> getEncounters(boolean useTimeOfDay) {
+	protected List<EncounterSet> loadEncounters(boolean useTimeOfDay) {
 		try {
 			if (romEntry.romType == Gen4Constants.Type_HGSS) {
 				return getEncountersHGSS(useTimeOfDay);
@@ -825,7 +903,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	private List<EncounterSet> getEncountersDPPt() throws IOException {
 		// Determine file to use
-		String encountersFile = romEntry.getString("WildPokemon");
+		String encountersFile = romEntry.getString(Gen4Slots.WildPokemon);
 
 		NARCContents encounterData = readNARC(encountersFile);
 		List<EncounterSet> encounters = new ArrayList<EncounterSet>();
@@ -917,7 +995,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	private List<EncounterSet> getEncountersHGSS(boolean useTimeOfDay)
 			throws IOException {
-		String encountersFile = romEntry.getString("WildPokemon");
+		String encountersFile = romEntry.getString(Gen4Slots.WildPokemon);
 		NARCContents encounterData = readNARC(encountersFile);
 		List<EncounterSet> encounters = new ArrayList<EncounterSet>();
 		// Credit for
@@ -1035,7 +1113,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setEncounters(boolean useTimeOfDay,
+	protected void saveEncounters(boolean useTimeOfDay,
 			List<EncounterSet> encounters) {
 		try {
 			if (romEntry.romType == Gen4Constants.Type_HGSS) {
@@ -1052,7 +1130,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	private void setEncountersDPPt(List<EncounterSet> encounterList)
 			throws IOException {
 		// Determine file to use
-		String encountersFile = romEntry.getString("WildPokemon");
+		String encountersFile = romEntry.getString(Gen4Slots.WildPokemon);
 		NARCContents encounterData = readNARC(encountersFile);
 		Iterator<EncounterSet> encounters = encounterList.iterator();
 		// Credit for
@@ -1110,7 +1188,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	private void setEncountersHGSS(boolean useTimeOfDay,
 			List<EncounterSet> encounterList) throws IOException {
-		String encountersFile = romEntry.getString("WildPokemon");
+		String encountersFile = romEntry.getString(Gen4Slots.WildPokemon);
 		NARCContents encounterData = readNARC(encountersFile);
 		Iterator<EncounterSet> encounters = encounterList.iterator();
 		// Credit for
@@ -1218,13 +1296,13 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public List<Trainer> getTrainers() {
+	protected List<Trainer> loadTrainers() {
 		List<Trainer> allTrainers = new ArrayList<Trainer>();
 		try {
 			NARCContents trainers = this.readNARC(romEntry
-					.getString("TrainerData"));
+					.getString(Gen4Slots.TrainerData));
 			NARCContents trpokes = this.readNARC(romEntry
-					.getString("TrainerPokemon"));
+					.getString(Gen4Slots.TrainerPokemon));
 			List<String> tclasses = this.getTrainerClassNames();
 			List<String> tnames = this.getTrainerNames();
 			int trainernum = trainers.files.size();
@@ -1291,11 +1369,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setTrainers(List<Trainer> trainerData) {
+	protected void saveTrainers(List<Trainer> trainerData) {
 		Iterator<Trainer> allTrainers = trainerData.iterator();
 		try {
 			NARCContents trainers = this.readNARC(romEntry
-					.getString("TrainerData"));
+					.getString(Gen4Slots.TrainerData));
 			NARCContents trpokes = new NARCContents();
 			// empty entry
 			trpokes.files.add(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0 });
@@ -1345,8 +1423,9 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				}
 				trpokes.files.add(trpoke);
 			}
-			this.writeNARC(romEntry.getString("TrainerData"), trainers);
-			this.writeNARC(romEntry.getString("TrainerPokemon"), trpokes);
+			this.writeNARC(romEntry.getString(Gen4Slots.TrainerData), trainers);
+			this.writeNARC(romEntry.getString(Gen4Slots.TrainerPokemon),
+					trpokes);
 		} catch (IOException ex) {
 			// change this later
 			ex.printStackTrace();
@@ -1355,11 +1434,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, List<MoveLearnt>> getMovesLearnt() {
+	protected Map<Pokemon, List<MoveLearnt>> loadMovesLearnt() {
 		Map<Pokemon, List<MoveLearnt>> movesets = new TreeMap<Pokemon, List<MoveLearnt>>();
 		try {
 			NARCContents movesLearnt = this.readNARC(romEntry
-					.getString("PokemonMovesets"));
+					.getString(Gen4Slots.PokemonMovesets));
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 				Pokemon pkmn = pokes[i];
 				byte[] rom = movesLearnt.files.get(i);
@@ -1388,7 +1467,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+	protected void saveMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
 		int[] extraLearnSets = new int[] { 7, 13, 13 };
 		// Build up a new NARC
 		NARCContents movesLearnt = new NARCContents();
@@ -1422,7 +1501,8 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 		// Save
 		try {
-			this.writeNARC(romEntry.getString("PokemonMovesets"), movesLearnt);
+			this.writeNARC(romEntry.getString(Gen4Slots.PokemonMovesets),
+					movesLearnt);
 		} catch (IOException e) {
 		}
 
@@ -1458,25 +1538,26 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 			for (StaticPokemon statP : romEntry.staticPokemon) {
 				sp.add(statP.getPokemon(this, scriptNARC));
 			}
-			if (romEntry.arrayEntries.containsKey("StaticPokemonTrades")) {
+			if (romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades] != null) {
 				NARCContents tradeNARC = this.readNARC(romEntry
-						.getString("InGameTrades"));
-				int[] trades = romEntry.arrayEntries.get("StaticPokemonTrades");
+						.getString(Gen4Slots.InGameTrades));
+				int[] trades = romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades];
 				for (int tradeNum : trades) {
 					sp.add(pokes[readLong(tradeNARC.files.get(tradeNum), 0)]);
 				}
 			}
-			if (romEntry.getInt("MysteryEggOffset") > 0) {
+			if (romEntry.getInt(Gen4Slots.MysteryEggOffset) > 0) {
 				byte[] ovOverlay = readOverlay(romEntry
-						.getInt("MoveTutorMovesOvlNumber"));
-				sp.add(pokes[ovOverlay[romEntry.getInt("MysteryEggOffset")] & 0xFF]);
+						.getInt(Gen4Slots.MoveTutorMovesOvlNumber));
+				sp.add(pokes[ovOverlay[romEntry
+						.getInt(Gen4Slots.MysteryEggOffset)] & 0xFF]);
 			}
-			if (romEntry.getInt("FossilTableOffset") > 0) {
+			if (romEntry.getInt(Gen4Slots.FossilTableOffset) > 0) {
 				byte[] ftData = arm9;
-				int baseOffset = romEntry.getInt("FossilTableOffset");
+				int baseOffset = romEntry.getInt(Gen4Slots.FossilTableOffset);
 				if (romEntry.romType == Gen4Constants.Type_HGSS) {
 					ftData = readOverlay(romEntry
-							.getInt("FossilTableOvlNumber"));
+							.getInt(Gen4Slots.FossilTableOvlNumber));
 				}
 				// read the 7 Fossil Pokemon
 				for (int f = 0; f < Gen4Constants.fossilCount; f++) {
@@ -1493,10 +1574,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		if (!romEntry.staticPokemonSupport) {
 			return false;
 		}
-		int sptsize = romEntry.arrayEntries.containsKey("StaticPokemonTrades") ? romEntry.arrayEntries
-				.get("StaticPokemonTrades").length : 0;
-		int meggsize = romEntry.getInt("MysteryEggOffset") > 0 ? 1 : 0;
-		int fossilsize = romEntry.getInt("FossilTableOffset") > 0 ? 7 : 0;
+		int[] tradeSlots = romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades];
+		int sptsize = tradeSlots != null ? tradeSlots.length : 0;
+		int meggsize = romEntry.getInt(Gen4Slots.MysteryEggOffset) > 0 ? 1 : 0;
+		int fossilsize = romEntry.getInt(Gen4Slots.FossilTableOffset) > 0 ? 7
+				: 0;
 		if (staticPokemon.size() != romEntry.staticPokemon.size() + sptsize
 				+ meggsize + fossilsize) {
 			return false;
@@ -1507,10 +1589,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 			for (StaticPokemon statP : romEntry.staticPokemon) {
 				statP.setPokemon(this, scriptNARC, statics.next());
 			}
-			if (romEntry.arrayEntries.containsKey("StaticPokemonTrades")) {
+			if (romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades] != null) {
 				NARCContents tradeNARC = this.readNARC(romEntry
-						.getString("InGameTrades"));
-				int[] trades = romEntry.arrayEntries.get("StaticPokemonTrades");
+						.getString(Gen4Slots.InGameTrades));
+				int[] trades = romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades];
 				for (int tradeNum : trades) {
 					Pokemon thisTrade = statics.next();
 					List<Integer> possibleAbilities = new ArrayList<Integer>();
@@ -1528,9 +1610,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 							possibleAbilities.get(this.random
 									.nextInt(possibleAbilities.size())));
 				}
-				writeNARC(romEntry.getString("InGameTrades"), tradeNARC);
+				writeNARC(romEntry.getString(Gen4Slots.InGameTrades),
+						tradeNARC);
 			}
-			if (romEntry.getInt("MysteryEggOffset") > 0) {
+			if (romEntry.getInt(Gen4Slots.MysteryEggOffset) > 0) {
 				// Same overlay as MT moves
 				// Truncate the pokemon# to 1byte, unless it's 0
 				int pokenum = statics.next().number;
@@ -1538,21 +1621,23 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 					pokenum = this.random.nextInt(255) + 1;
 				}
 				byte[] ovOverlay = readOverlay(romEntry
-						.getInt("MoveTutorMovesOvlNumber"));
-				ovOverlay[romEntry.getInt("MysteryEggOffset")] = (byte) pokenum;
-				writeOverlay(romEntry.getInt("MoveTutorMovesOvlNumber"),
+						.getInt(Gen4Slots.MoveTutorMovesOvlNumber));
+				int eggOffset = romEntry.getInt(Gen4Slots.MysteryEggOffset);
+				ovOverlay[eggOffset] = (byte) pokenum;
+				writeOverlay(romEntry.getInt(Gen4Slots.MoveTutorMovesOvlNumber),
 						ovOverlay);
 			}
-			if (romEntry.getInt("FossilTableOffset") > 0) {
-				int baseOffset = romEntry.getInt("FossilTableOffset");
+			if (romEntry.getInt(Gen4Slots.FossilTableOffset) > 0) {
+				int baseOffset = romEntry.getInt(Gen4Slots.FossilTableOffset);
 				if (romEntry.romType == Gen4Constants.Type_HGSS) {
 					byte[] ftData = readOverlay(romEntry
-							.getInt("FossilTableOvlNumber"));
+							.getInt(Gen4Slots.FossilTableOvlNumber));
 					for (int f = 0; f < Gen4Constants.fossilCount; f++) {
 						int pokenum = statics.next().number;
 						writeWord(ftData, baseOffset + 2 + f * 4, pokenum);
 					}
-					writeOverlay(romEntry.getInt("FossilTableOvlNumber"),
+					writeOverlay(romEntry
+							.getInt(Gen4Slots.FossilTableOvlNumber),
 							ftData);
 				} else {
 					// write to arm9
@@ -1631,9 +1716,9 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 			// Update TM item descriptions
 			List<String> itemDescriptions = getStrings(romEntry
-					.getInt("ItemDescriptionsTextOffset"));
+					.getInt(Gen4Slots.ItemDescriptionsTextOffset));
 			List<String> moveDescriptions = getStrings(romEntry
-					.getInt("MoveDescriptionsTextOffset"));
+					.getInt(Gen4Slots.MoveDescriptionsTextOffset));
 			// TM01 is item 328 and so on
 			for (int i = 0; i < Gen4Constants.tmCount; i++) {
 				// Rewrite 5-line move descs into 3-line item descs
@@ -1643,7 +1728,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 								"\\n", Gen4Constants.textCharsPerLine, ssd));
 			}
 			// Save the new item descriptions
-			setStrings(romEntry.getInt("ItemDescriptionsTextOffset"),
+			setStrings(romEntry.getInt(Gen4Slots.ItemDescriptionsTextOffset),
 					itemDescriptions);
 			// Palettes update
 			String baseOfPalettes = Gen4Constants.pthgssItemPalettesPrefix;
@@ -1677,31 +1762,28 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getTMHMCompatibility() {
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
+	public CompatibilityMatrix getTMHMCompatibility() {
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, Gen4Constants.pokemonCount + 1),
+				Gen4Constants.tmCount + Gen4Constants.hmCount);
 		for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 			byte[] data = pokeNarc.files.get(i);
 			Pokemon pkmn = pokes[i];
-			boolean[] flags = new boolean[Gen4Constants.tmCount
-					+ Gen4Constants.hmCount + 1];
 			for (int j = 0; j < 13; j++) {
-				readByteIntoFlags(data, flags, j * 8 + 1,
-						Gen4Constants.bsTMHMCompatOffset + j);
+				compat.setByte(pkmn, j, data[Gen4Constants.bsTMHMCompatOffset
+						+ j]);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setTMHMCompatibility(Map<Pokemon, boolean[]> compatData) {
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
+	public void setTMHMCompatibility(CompatibilityMatrix compatData) {
+		for (Pokemon pkmn : compatData.getPokemon()) {
 			byte[] data = pokeNarc.files.get(pkmn.number);
 			for (int j = 0; j < 13; j++) {
-				data[Gen4Constants.bsTMHMCompatOffset + j] = getByteFromFlags(
-						flags, j * 8 + 1);
+				data[Gen4Constants.bsTMHMCompatOffset + j] = compatData
+						.getByte(pkmn, j);
 			}
 		}
 	}
@@ -1716,13 +1798,13 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		if (!hasMoveTutors()) {
 			return new ArrayList<Integer>();
 		}
-		int baseOffset = romEntry.getInt("MoveTutorMovesOffset");
-		int amount = romEntry.getInt("MoveTutorCount");
-		int bytesPer = romEntry.getInt("MoveTutorBytesCount");
+		int baseOffset = romEntry.getInt(Gen4Slots.MoveTutorMovesOffset);
+		int amount = romEntry.getInt(Gen4Slots.MoveTutorCount);
+		int bytesPer = romEntry.getInt(Gen4Slots.MoveTutorBytesCount);
 		List<Integer> mtMoves = new ArrayList<Integer>();
 		try {
 			byte[] mtFile = readOverlay(romEntry
-					.getInt("MoveTutorMovesOvlNumber"));
+					.getInt(Gen4Slots.MoveTutorMovesOvlNumber));
 			for (int i = 0; i < amount; i++) {
 				mtMoves.add(readWord(mtFile, baseOffset + i * bytesPer));
 			}
@@ -1736,48 +1818,49 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		if (!hasMoveTutors()) {
 			return;
 		}
-		int baseOffset = romEntry.getInt("MoveTutorMovesOffset");
-		int amount = romEntry.getInt("MoveTutorCount");
-		int bytesPer = romEntry.getInt("MoveTutorBytesCount");
+		int baseOffset = romEntry.getInt(Gen4Slots.MoveTutorMovesOffset);
+		int amount = romEntry.getInt(Gen4Slots.MoveTutorCount);
+		int bytesPer = romEntry.getInt(Gen4Slots.MoveTutorBytesCount);
 		if (moves.size() != amount) {
 			return;
 		}
 		try {
 			byte[] mtFile = readOverlay(romEntry
-					.getInt("MoveTutorMovesOvlNumber"));
+					.getInt(Gen4Slots.MoveTutorMovesOvlNumber));
 			for (int i = 0; i < amount; i++) {
 				writeWord(mtFile, baseOffset + i * bytesPer, moves.get(i));
 			}
-			writeOverlay(romEntry.getInt("MoveTutorMovesOvlNumber"), mtFile);
+			writeOverlay(romEntry.getInt(Gen4Slots.MoveTutorMovesOvlNumber),
+					mtFile);
 		} catch (IOException e) {
 		}
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getMoveTutorCompatibility() {
+	public CompatibilityMatrix getMoveTutorCompatibility() {
 		if (!hasMoveTutors()) {
-			return new TreeMap<Pokemon, boolean[]>();
+			return CompatibilityMatrix.empty();
 		}
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
-		int amount = romEntry.getInt("MoveTutorCount");
-		int baseOffset = romEntry.getInt("MoveTutorCompatOffset");
-		int bytesPer = romEntry.getInt("MoveTutorCompatBytesCount");
+		int amount = romEntry.getInt(Gen4Slots.MoveTutorCount);
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, Gen4Constants.pokemonCount + 1), amount);
+		int baseOffset = romEntry.getInt(Gen4Slots.MoveTutorCompatOffset);
+		int bytesPer = romEntry.getInt(Gen4Slots.MoveTutorCompatBytesCount);
 		try {
 			byte[] mtcFile;
 			if (romEntry.romType == Gen4Constants.Type_HGSS) {
-				mtcFile = readFile(romEntry.getString("MoveTutorCompat"));
+				mtcFile = readFile(romEntry
+						.getString(Gen4Slots.MoveTutorCompat));
 			} else {
 				mtcFile = readOverlay(romEntry
-						.getInt("MoveTutorCompatOvlNumber"));
+						.getInt(Gen4Slots.MoveTutorCompatOvlNumber));
 			}
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 				Pokemon pkmn = pokes[i];
-				boolean[] flags = new boolean[amount + 1];
 				for (int j = 0; j < bytesPer; j++) {
-					readByteIntoFlags(mtcFile, flags, j * 8 + 1, baseOffset
-							+ (i - 1) * bytesPer + j);
+					compat.setByte(pkmn, j, mtcFile[baseOffset + (i - 1)
+							* bytesPer + j]);
 				}
-				compat.put(pkmn, flags);
 			}
 		} catch (IOException e) {
 		}
@@ -1785,34 +1868,32 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setMoveTutorCompatibility(Map<Pokemon, boolean[]> compatData) {
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData) {
 		if (!hasMoveTutors()) {
 			return;
 		}
-		int amount = romEntry.getInt("MoveTutorCount");
-		int baseOffset = romEntry.getInt("MoveTutorCompatOffset");
-		int bytesPer = romEntry.getInt("MoveTutorCompatBytesCount");
+		int amount = romEntry.getInt(Gen4Slots.MoveTutorCount);
+		int baseOffset = romEntry.getInt(Gen4Slots.MoveTutorCompatOffset);
+		int bytesPer = romEntry.getInt(Gen4Slots.MoveTutorCompatBytesCount);
 		try {
 			byte[] mtcFile;
 			if (romEntry.romType == Gen4Constants.Type_HGSS) {
-				mtcFile = readFile(romEntry.getString("MoveTutorCompat"));
+				mtcFile = readFile(romEntry
+						.getString(Gen4Slots.MoveTutorCompat));
 			} else {
 				mtcFile = readOverlay(romEntry
-						.getInt("MoveTutorCompatOvlNumber"));
+						.getInt(Gen4Slots.MoveTutorCompatOvlNumber));
 			}
-			for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData
-					.entrySet()) {
-				Pokemon pkmn = compatEntry.getKey();
-				boolean[] flags = compatEntry.getValue();
+			for (Pokemon pkmn : compatData.getPokemon()) {
 				for (int j = 0; j < bytesPer; j++) {
 					int offsHere = baseOffset + (pkmn.number - 1) * bytesPer
 							+ j;
 					if (j * 8 + 8 <= amount) {
 						// entirely new byte
-						mtcFile[offsHere] = getByteFromFlags(flags, j * 8 + 1);
+						mtcFile[offsHere] = compatData.getByte(pkmn, j);
 					} else if (j * 8 < amount) {
 						// need some of the original byte
-						int newByte = getByteFromFlags(flags, j * 8 + 1) & 0xFF;
+						int newByte = compatData.getByte(pkmn, j) & 0xFF;
 						int oldByteParts = (mtcFile[offsHere] >>> (8 - amount + j * 8)) << (8 - amount + j * 8);
 						mtcFile[offsHere] = (byte) (newByte | oldByteParts);
 					}
@@ -1820,24 +1901,35 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				}
 			}
 			if (romEntry.romType == Gen4Constants.Type_HGSS) {
-				writeFile(romEntry.getString("MoveTutorCompat"), mtcFile);
+				writeFile(romEntry.getString(Gen4Slots.MoveTutorCompat),
+						mtcFile);
 			} else {
-				writeOverlay(romEntry.getInt("MoveTutorCompatOvlNumber"),
+				writeOverlay(romEntry
+						.getInt(Gen4Slots.MoveTutorCompatOvlNumber),
 						mtcFile);
 			}
 		} catch (IOException e) {
 		}
 	}
 
+	// The ARM9 signatures, found in one pass when the ROM is loaded and
+	// cached by the ARM9's CRC32
+	private static final String ARM9_LAYOUT_KIND = "gen4arm9";
+	private static final SignatureScanner arm9Signatures = new SignatureScanner(
+			Gen4Constants.dpptTMDataPrefix,
+			Gen4Constants.hgssTMDataPrefix,
+			Gen4Constants.pthgssItemPalettesPrefix,
+			Gen4Constants.dpItemPalettesPrefix);
+
 	private int find(byte[] data, String hexString) {
 		if (hexString.length() % 2 != 0) {
 			return -3; // error
 		}
-		byte[] searchFor = new byte[hexString.length() / 2];
-		for (int i = 0; i < searchFor.length; i++) {
-			searchFor[i] = (byte) Integer.parseInt(
-					hexString.substring(i * 2, i * 2 + 2), 16);
+		if (data == arm9 && arm9Signatures.contains(hexString)) {
+			return arm9Signatures.matches(arm9, ARM9_LAYOUT_KIND).find(
+					hexString);
 		}
+		byte[] searchFor = SignatureScanner.hexToBytes(hexString);
 		List<Integer> found = RomFunctions.search(data, searchFor);
 		if (found.size() == 0) {
 			return -1; // not found
@@ -1912,7 +2004,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		List<Evolution> evosForThisPoke = new ArrayList<Evolution>();
 		try {
 			NARCContents evoNARC = readNARC(romEntry
-					.getString("PokemonEvolutions"));
+					.getString(Gen4Slots.PokemonEvolutions));
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 				evosForThisPoke.clear();
 				byte[] evoEntry = evoNARC.files.get(i);
@@ -1947,9 +2039,10 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public void setEvolutions(List<Evolution> evos) {
+		evolutionsChanged();
 		try {
 			NARCContents evoNARC = readNARC(romEntry
-					.getString("PokemonEvolutions"));
+					.getString(Gen4Slots.PokemonEvolutions));
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 				byte[] evoEntry = evoNARC.files.get(i);
 				int evosWritten = 0;
@@ -1972,7 +2065,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 					evosWritten++;
 				}
 			}
-			writeNARC(romEntry.getString("PokemonEvolutions"), evoNARC);
+			writeNARC(romEntry.getString(Gen4Slots.PokemonEvolutions), evoNARC);
 		} catch (IOException e) {
 			// can't do anything
 		}
@@ -2080,7 +2173,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	@Override
 	public List<String> getTrainerNames() {
 		List<String> tnames = new ArrayList<String>(
-				getStrings(romEntry.getInt("TrainerNamesTextOffset")));
+				getStrings(romEntry.getInt(Gen4Slots.TrainerNamesTextOffset)));
 		tnames.remove(0); // blank one
 		for (int i = 0; i < tnames.size(); i++) {
 			if (tnames.get(i).contains("\\and")) {
@@ -2098,7 +2191,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	@Override
 	public void setTrainerNames(List<String> trainerNames) {
 		List<String> oldTNames = getStrings(romEntry
-				.getInt("TrainerNamesTextOffset"));
+				.getInt(Gen4Slots.TrainerNamesTextOffset));
 		List<String> newTNames = new ArrayList<String>(trainerNames);
 		for (int i = 0; i < newTNames.size(); i++) {
 			if (newTNames.get(i).contains("&")) {
@@ -2108,7 +2201,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		newTNames.add(0, oldTNames.get(0)); // the 0-entry, preserve it
 
 		// rewrite, only compressed if they were compressed before
-		setStrings(romEntry.getInt("TrainerNamesTextOffset"), newTNames,
+		setStrings(romEntry.getInt(Gen4Slots.TrainerNamesTextOffset), newTNames,
 				lastStringsCompressed);
 
 	}
@@ -2126,12 +2219,12 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public List<String> getTrainerClassNames() {
-		return getStrings(romEntry.getInt("TrainerClassesTextOffset"));
+		return getStrings(romEntry.getInt(Gen4Slots.TrainerClassesTextOffset));
 	}
 
 	@Override
 	public void setTrainerClassNames(List<String> trainerClassNames) {
-		setStrings(romEntry.getInt("TrainerClassesTextOffset"),
+		setStrings(romEntry.getInt(Gen4Slots.TrainerClassesTextOffset),
 				trainerClassNames);
 	}
 
@@ -2194,11 +2287,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 	private List<Integer> getFieldItems() {
 		List<Integer> fieldItems = new ArrayList<Integer>();
 		// normal items
-		int scriptFile = romEntry.getInt("ItemBallsScriptOffset");
+		int scriptFile = romEntry.getInt(Gen4Slots.ItemBallsScriptOffset);
 		byte[] itemScripts = scriptNarc.files.get(scriptFile);
 		int offset = 0;
 		int skipTableOffset = 0;
-		int[] skipTable = romEntry.arrayEntries.get("ItemBallsSkip");
+		int[] skipTable = romEntry.arrayEntries[Gen4Slots.ItemBallsSkip];
 		int setVar = romEntry.romType == Gen4Constants.Type_HGSS ? Gen4Constants.hgssSetVarScript
 				: Gen4Constants.dpptSetVarScript;
 		while (true) {
@@ -2225,8 +2318,8 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 
 		// hidden items
-		int hiTableOffset = romEntry.getInt("HiddenItemTableOffset");
-		int hiTableLimit = romEntry.getInt("HiddenItemCount");
+		int hiTableOffset = romEntry.getInt(Gen4Slots.HiddenItemTableOffset);
+		int hiTableLimit = romEntry.getInt(Gen4Slots.HiddenItemCount);
 		for (int i = 0; i < hiTableLimit; i++) {
 			int item = readWord(arm9, hiTableOffset + i * 8);
 			fieldItems.add(item);
@@ -2239,11 +2332,11 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		Iterator<Integer> iterItems = fieldItems.iterator();
 
 		// normal items
-		int scriptFile = romEntry.getInt("ItemBallsScriptOffset");
+		int scriptFile = romEntry.getInt(Gen4Slots.ItemBallsScriptOffset);
 		byte[] itemScripts = scriptNarc.files.get(scriptFile);
 		int offset = 0;
 		int skipTableOffset = 0;
-		int[] skipTable = romEntry.arrayEntries.get("ItemBallsSkip");
+		int[] skipTable = romEntry.arrayEntries[Gen4Slots.ItemBallsSkip];
 		int setVar = romEntry.romType == Gen4Constants.Type_HGSS ? Gen4Constants.hgssSetVarScript
 				: Gen4Constants.dpptSetVarScript;
 		while (true) {
@@ -2269,8 +2362,8 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 
 		// hidden items
-		int hiTableOffset = romEntry.getInt("HiddenItemTableOffset");
-		int hiTableLimit = romEntry.getInt("HiddenItemCount");
+		int hiTableOffset = romEntry.getInt(Gen4Slots.HiddenItemTableOffset);
+		int hiTableLimit = romEntry.getInt(Gen4Slots.HiddenItemCount);
 		for (int i = 0; i < hiTableLimit; i++) {
 			int item = iterItems.next();
 			writeWord(arm9, hiTableOffset + i * 8, item);
@@ -2357,13 +2450,13 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		List<IngameTrade> trades = new ArrayList<IngameTrade>();
 		try {
 			NARCContents tradeNARC = this.readNARC(romEntry
-					.getString("InGameTrades"));
+					.getString(Gen4Slots.InGameTrades));
 			int[] spTrades = new int[0];
-			if (romEntry.arrayEntries.containsKey("StaticPokemonTrades")) {
-				spTrades = romEntry.arrayEntries.get("StaticPokemonTrades");
+			if (romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades] != null) {
+				spTrades = romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades];
 			}
 			List<String> tradeStrings = getStrings(romEntry
-					.getInt("IngameTradesTextOffset"));
+					.getInt(Gen4Slots.IngameTradesTextOffset));
 			int tradeCount = tradeNARC.files.size();
 			for (int i = 0; i < tradeCount; i++) {
 				boolean isSP = false;
@@ -2401,13 +2494,13 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		List<IngameTrade> oldTrades = this.getIngameTrades();
 		try {
 			NARCContents tradeNARC = this.readNARC(romEntry
-					.getString("InGameTrades"));
+					.getString(Gen4Slots.InGameTrades));
 			int[] spTrades = new int[0];
-			if (romEntry.arrayEntries.containsKey("StaticPokemonTrades")) {
-				spTrades = romEntry.arrayEntries.get("StaticPokemonTrades");
+			if (romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades] != null) {
+				spTrades = romEntry.arrayEntries[Gen4Slots.StaticPokemonTrades];
 			}
 			List<String> tradeStrings = getStrings(romEntry
-					.getInt("IngameTradesTextOffset"));
+					.getInt(Gen4Slots.IngameTradesTextOffset));
 			int tradeCount = tradeNARC.files.size();
 			for (int i = 0; i < tradeCount; i++) {
 				boolean isSP = false;
@@ -2435,14 +2528,13 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 					writeLong(tfile, 0x50, 0); // disable gender
 				}
 			}
-			this.writeNARC(romEntry.getString("InGameTrades"), tradeNARC);
-			this.setStrings(romEntry.getInt("IngameTradesTextOffset"),
+			this.writeNARC(romEntry.getString(Gen4Slots.InGameTrades),
+					tradeNARC);
+			this.setStrings(romEntry.getInt(Gen4Slots.IngameTradesTextOffset),
 					tradeStrings);
 			// update what the people say when they talk to you
-			if (romEntry.arrayEntries
-					.containsKey("IngameTradePersonTextOffsets")) {
-				int[] textOffsets = romEntry.arrayEntries
-						.get("IngameTradePersonTextOffsets");
+			if (romEntry.arrayEntries[Gen4Slots.IngameTradePersonTextOffsets] != null) {
+				int[] textOffsets = romEntry.arrayEntries[Gen4Slots.IngameTradePersonTextOffsets];
 				for (int trade = 0; trade < textOffsets.length; trade++) {
 					if (textOffsets[trade] > 0) {
 						if (trade >= oldTrades.size() || trade >= trades.size()) {
@@ -2514,7 +2606,8 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 		}
 		this.setEvolutions(keepEvos);
 		try {
-			byte[] babyPokes = readFile(romEntry.getString("BabyPokemon"));
+			byte[] babyPokes = readFile(romEntry
+					.getString(Gen4Slots.BabyPokemon));
 			// baby pokemon
 			for (int i = 1; i <= Gen4Constants.pokemonCount; i++) {
 				int oldBaby = i;
@@ -2534,7 +2627,7 @@ public class Gen4RomHandler extends AbstractDSRomHandler {
 				writeWord(babyPokes, i * 2, oldBaby);
 			}
 			// finish up
-			writeFile(romEntry.getString("BabyPokemon"), babyPokes);
+			writeFile(romEntry.getString(Gen4Slots.BabyPokemon), babyPokes);
 		} catch (IOException e) {
 			// can't do anything
 		}
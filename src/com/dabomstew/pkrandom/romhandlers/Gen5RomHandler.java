@@ -28,7 +28,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -40,7 +40,10 @@ import pptxt.PPTxtHandler;
 
 import com.dabomstew.pkrandom.FileFunctions;
 import com.dabomstew.pkrandom.RomFunctions;
+import com.dabomstew.pkrandom.SignatureScanner;
 import com.dabomstew.pkrandom.constants.Gen5Constants;
+import com.dabomstew.pkrandom.constants.Gen5Slots;
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.Encounter;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
@@ -86,27 +89,94 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		private int romType;
 		private boolean staticPokemonSupport = false,
 				copyStaticPokemon = false;
-		private Map<String, String> strings = new HashMap<String, String>();
-		private Map<String, Integer> numbers = new HashMap<String, Integer>();
-		private Map<String, int[]> arrayEntries = new HashMap<String, int[]>();
-		private Map<String, OffsetWithinEntry[]> offsetArrayEntries = new HashMap<String, OffsetWithinEntry[]>();
+		private String[] strings = new String[Gen5Slots.stringNames.length];
+		private int[] numbers = new int[Gen5Slots.valueNames.length];
+		// which numbers have been set, so CopyFrom can copy just those
+		private BitSet numbersSet = new BitSet();
+		private int[][] arrayEntries = new int[Gen5Slots.arrayNames.length][];
+		private OffsetWithinEntry[][] offsetArrayEntries = new OffsetWithinEntry[Gen5Slots.offsetArrayNames.length][];
 		private List<StaticPokemon> staticPokemon = new ArrayList<StaticPokemon>();
 
-		private int getInt(String key) {
-			if (!numbers.containsKey(key)) {
-				numbers.put(key, 0);
+		private int getInt(int slot) {
+			return numbers[slot];
+		}
+
+		private String getString(int slot) {
+			String value = strings[slot];
+			return value == null ? "" : value;
+		}
+
+		private void setInt(int slot, int value) {
+			numbers[slot] = value;
+			numbersSet.set(slot);
+		}
+
+		// ini keys go in at the slots RomSlotsGenerator gave them
+		private void putInt(String key, int value) {
+			int slot = Gen5Slots.valueSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				setInt(slot, value);
+			}
+		}
+
+		private void putString(String key, String value) {
+			int slot = Gen5Slots.stringSlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				strings[slot] = value;
+			}
+		}
+
+		private void putArray(String key, int[] values) {
+			int slot = Gen5Slots.arraySlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				arrayEntries[slot] = values;
 			}
-			return numbers.get(key);
 		}
 
-		private String getString(String key) {
-			if (!strings.containsKey(key)) {
-				strings.put(key, "");
+		private void putOffsetArray(String key, OffsetWithinEntry[] values) {
+			int slot = Gen5Slots.offsetArraySlot(key);
+			if (slot < 0) {
+				System.err.println("no slot for entry " + key);
+			} else {
+				offsetArrayEntries[slot] = values;
+			}
+		}
+
+		// everything other has set, over whatever this has
+		private void copyEntries(RomEntry other) {
+			for (int i = 0; i < numbers.length; i++) {
+				if (other.numbersSet.get(i)) {
+					setInt(i, other.numbers[i]);
+				}
+			}
+			for (int i = 0; i < strings.length; i++) {
+				if (other.strings[i] != null) {
+					strings[i] = other.strings[i];
+				}
+			}
+			for (int i = 0; i < arrayEntries.length; i++) {
+				if (other.arrayEntries[i] != null) {
+					arrayEntries[i] = other.arrayEntries[i];
+				}
+			}
+			for (int i = 0; i < offsetArrayEntries.length; i++) {
+				if (other.offsetArrayEntries[i] != null) {
+					offsetArrayEntries[i] = other.offsetArrayEntries[i];
+				}
 			}
-			return strings.get(key);
 		}
 	}
 
+	private static final int[] starterOffsetSlots = {
+			Gen5Slots.StarterOffsets1, Gen5Slots.StarterOffsets2,
+			Gen5Slots.StarterOffsets3 };
+
 	private static List<RomEntry> roms;
 
 	static {
@@ -152,12 +222,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 							for (RomEntry otherEntry : roms) {
 								if (r[1].equalsIgnoreCase(otherEntry.romCode)) {
 									// copy from here
-									current.arrayEntries
-											.putAll(otherEntry.arrayEntries);
-									current.numbers.putAll(otherEntry.numbers);
-									current.strings.putAll(otherEntry.strings);
-									current.offsetArrayEntries
-											.putAll(otherEntry.offsetArrayEntries);
+									current.copyEntries(otherEntry);
 									if (current.copyStaticPokemon) {
 										current.staticPokemon
 												.addAll(otherEntry.staticPokemon);
@@ -210,29 +275,29 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 								owe.offset = parseRIInt(parts[1]);
 								offs[c++] = owe;
 							}
-							current.offsetArrayEntries.put(r[0], offs);
+							current.putOffsetArray(r[0], offs);
 						} else {
 							if (r[1].startsWith("[") && r[1].endsWith("]")) {
 								String[] offsets = r[1].substring(1,
 										r[1].length() - 1).split(",");
 								if (offsets.length == 1
 										&& offsets[0].trim().isEmpty()) {
-									current.arrayEntries.put(r[0], new int[0]);
+									current.putArray(r[0], new int[0]);
 								} else {
 									int[] offs = new int[offsets.length];
 									int c = 0;
 									for (String off : offsets) {
 										offs[c++] = parseRIInt(off);
 									}
-									current.arrayEntries.put(r[0], offs);
+									current.putArray(r[0], offs);
 								}
 							} else if (r[0].endsWith("Offset")
 									|| r[0].endsWith("Count")
 									|| r[0].endsWith("Number")) {
 								int offs = parseRIInt(r[1]);
-								current.numbers.put(r[0], offs);
+								current.putInt(r[0], offs);
 							} else {
-								current.strings.put(r[0], r[1]);
+								current.putString(r[0], r[1]);
 							}
 						}
 					}
@@ -300,16 +365,18 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		} catch (IOException e) {
 			arm9 = new byte[0];
 		}
+		// while the ARM9 is still as loaded, so it's cached under that
+		arm9Signatures.matches(arm9, ARM9_LAYOUT_KIND);
 		try {
-			stringsNarc = readNARC(romEntry.getString("TextStrings"));
-			storyTextNarc = readNARC(romEntry.getString("TextStory"));
+			stringsNarc = readNARC(romEntry.getString(Gen5Slots.TextStrings));
+			storyTextNarc = readNARC(romEntry.getString(Gen5Slots.TextStory));
 		} catch (IOException e) {
 			stringsNarc = null;
 			storyTextNarc = null;
 		}
 
 		try {
-			scriptNarc = readNARC(romEntry.getString("Scripts"));
+			scriptNarc = readNARC(romEntry.getString(Gen5Slots.Scripts));
 		} catch (IOException e) {
 			scriptNarc = null;
 		}
@@ -318,13 +385,35 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		loadMoves();
 
 		abilityNames = getStrings(false,
-				romEntry.getInt("AbilityNamesTextOffset"));
-		itemNames = getStrings(false, romEntry.getInt("ItemNamesTextOffset"));
+				romEntry.getInt(Gen5Slots.AbilityNamesTextOffset));
+		itemNames = getStrings(false,
+				romEntry.getInt(Gen5Slots.ItemNamesTextOffset));
+	}
+
+	@Override
+	protected void loadedFrom(AbstractDSRomHandler original) {
+		Gen5RomHandler from = (Gen5RomHandler) original;
+		this.romEntry = from.romEntry;
+		arm9 = from.arm9.clone();
+		arm9Signatures.copyMatches(from.arm9, arm9);
+		// the narcs keep reading what hasn't been changed from the files
+		// the original read
+		stringsNarc = copyNARC(from.stringsNarc);
+		storyTextNarc = copyNARC(from.storyTextNarc);
+		scriptNarc = copyNARC(from.scriptNarc);
+		pokeNarc = copyNARC(from.pokeNarc);
+		moveNarc = copyNARC(from.moveNarc);
+		pokes = copyPokemon(from.pokes);
+		pokemonList = Arrays.asList(pokes);
+		moves = copyMoves(from.moves);
+		abilityNames = from.abilityNames;
+		itemNames = from.itemNames;
 	}
 
 	private void loadPokemonStats() {
 		try {
-			pokeNarc = this.readNARC(romEntry.getString("PokemonStats"));
+			pokeNarc = this.readNARC(romEntry
+					.getString(Gen5Slots.PokemonStats));
 			String[] pokeNames = readPokemonNames();
 			pokes = new Pokemon[Gen5Constants.pokemonCount + 1];
 			for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
@@ -343,10 +432,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
 	private void loadMoves() {
 		try {
-			moveNarc = this.readNARC(romEntry.getString("MoveData"));
+			moveNarc = this.readNARC(romEntry.getString(Gen5Slots.MoveData));
 			moves = new Move[Gen5Constants.moveCount + 1];
 			List<String> moveNames = getStrings(false,
-					romEntry.getInt("MoveNamesTextOffset"));
+					romEntry.getInt(Gen5Slots.MoveNamesTextOffset));
 			for (int i = 1; i <= Gen5Constants.moveCount; i++) {
 				byte[] moveData = moveNarc.files.get(i);
 				moves[i] = new Move();
@@ -409,7 +498,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	private String[] readPokemonNames() {
 		String[] pokeNames = new String[Gen5Constants.pokemonCount + 1];
 		List<String> nameList = getStrings(false,
-				romEntry.getInt("PokemonNamesTextOffset"));
+				romEntry.getInt(Gen5Slots.PokemonNamesTextOffset));
 		for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 			pokeNames[i] = nameList.get(i);
 		}
@@ -425,13 +514,13 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		} catch (IOException e) {
 		}
 		try {
-			writeNARC(romEntry.getString("TextStrings"), stringsNarc);
-			writeNARC(romEntry.getString("TextStory"), storyTextNarc);
+			writeNARC(romEntry.getString(Gen5Slots.TextStrings), stringsNarc);
+			writeNARC(romEntry.getString(Gen5Slots.TextStory), storyTextNarc);
 		} catch (IOException e) {
 		}
 
 		try {
-			writeNARC(romEntry.getString("Scripts"), scriptNarc);
+			writeNARC(romEntry.getString(Gen5Slots.Scripts), scriptNarc);
 		} catch (IOException e) {
 		}
 	}
@@ -453,7 +542,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		}
 
 		try {
-			this.writeNARC(romEntry.getString("MoveData"), moveNarc);
+			this.writeNARC(romEntry.getString(Gen5Slots.MoveData), moveNarc);
 		} catch (IOException e) {
 			// // change this later
 			e.printStackTrace();
@@ -463,14 +552,16 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
 	private void savePokemonStats() {
 		List<String> nameList = getStrings(false,
-				romEntry.getInt("PokemonNamesTextOffset"));
+				romEntry.getInt(Gen5Slots.PokemonNamesTextOffset));
 		for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 			saveBasicPokeStats(pokes[i], pokeNarc.files.get(i));
 			nameList.set(i, pokes[i].name);
 		}
-		setStrings(false, romEntry.getInt("PokemonNamesTextOffset"), nameList);
+		setStrings(false, romEntry.getInt(Gen5Slots.PokemonNamesTextOffset),
+				nameList);
 		try {
-			this.writeNARC(romEntry.getString("PokemonStats"), pokeNarc);
+			this.writeNARC(romEntry.getString(Gen5Slots.PokemonStats),
+					pokeNarc);
 		} catch (IOException e) {
 			// uh-oh?
 			e.printStackTrace();
@@ -527,8 +618,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		NARCContents scriptNARC = scriptNarc;
 		List<Pokemon> starters = new ArrayList<Pokemon>();
 		for (int i = 0; i < 3; i++) {
-			OffsetWithinEntry[] thisStarter = romEntry.offsetArrayEntries
-					.get("StarterOffsets" + (i + 1));
+			OffsetWithinEntry[] thisStarter = romEntry.offsetArrayEntries[starterOffsetSlots[i]];
 			starters.add(pokes[readWord(
 					scriptNARC.files.get(thisStarter[0].entry),
 					thisStarter[0].offset)]);
@@ -547,8 +637,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 			NARCContents scriptNARC = scriptNarc;
 			for (int i = 0; i < 3; i++) {
 				int starter = newStarters.get(i).number;
-				OffsetWithinEntry[] thisStarter = romEntry.offsetArrayEntries
-						.get("StarterOffsets" + (i + 1));
+				OffsetWithinEntry[] thisStarter = romEntry.offsetArrayEntries[starterOffsetSlots[i]];
 				for (OffsetWithinEntry entry : thisStarter) {
 					writeWord(scriptNARC.files.get(entry.entry), entry.offset,
 							starter);
@@ -558,7 +647,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 			if (romEntry.romType == Gen5Constants.Type_BW2) {
 				byte[] newScript = Gen5Constants.bw2NewStarterScript;
 				byte[] oldFile = scriptNARC.files.get(romEntry
-						.getInt("PokedexGivenFileOffset"));
+						.getInt(Gen5Slots.PokedexGivenFileOffset));
 				byte[] newFile = new byte[oldFile.length + newScript.length];
 				int offset = find(oldFile, Gen5Constants.bw2StarterScriptMagic);
 				if (offset > 0) {
@@ -572,13 +661,14 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 					newFile[offset++] = 0x0;
 					writeRelativePointer(newFile, offset, oldFile.length);
 					scriptNARC.files.set(
-							romEntry.getInt("PokedexGivenFileOffset"), newFile);
+							romEntry.getInt(Gen5Slots.PokedexGivenFileOffset),
+							newFile);
 				}
 			} else {
 				byte[] newScript = Gen5Constants.bw1NewStarterScript;
 
 				byte[] oldFile = scriptNARC.files.get(romEntry
-						.getInt("PokedexGivenFileOffset"));
+						.getInt(Gen5Slots.PokedexGivenFileOffset));
 				byte[] newFile = new byte[oldFile.length + newScript.length];
 				int offset = find(oldFile, Gen5Constants.bw1StarterScriptMagic);
 				if (offset > 0) {
@@ -593,22 +683,24 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 					newFile[offset++] = 0x0;
 					writeRelativePointer(newFile, offset, oldFile.length);
 					scriptNARC.files.set(
-							romEntry.getInt("PokedexGivenFileOffset"), newFile);
+							romEntry.getInt(Gen5Slots.PokedexGivenFileOffset),
+							newFile);
 				}
 			}
 
 			// Starter sprites
 			NARCContents starterNARC = this.readNARC(romEntry
-					.getString("StarterGraphics"));
+					.getString(Gen5Slots.StarterGraphics));
 			NARCContents pokespritesNARC = this.readNARC(romEntry
-					.getString("PokemonGraphics"));
+					.getString(Gen5Slots.PokemonGraphics));
 			replaceStarterFiles(starterNARC, pokespritesNARC, 0,
 					newStarters.get(0).number);
 			replaceStarterFiles(starterNARC, pokespritesNARC, 1,
 					newStarters.get(1).number);
 			replaceStarterFiles(starterNARC, pokespritesNARC, 2,
 					newStarters.get(2).number);
-			writeNARC(romEntry.getString("StarterGraphics"), starterNARC);
+			writeNARC(romEntry.getString(Gen5Slots.StarterGraphics),
+					starterNARC);
 		} catch (IOException ex) {
 			return false;
 		} catch (InterruptedException e) {
@@ -617,7 +709,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		// Fix text depending on version
 		if (romEntry.romType == Gen5Constants.Type_BW) {
 			List<String> yourHouseStrings = getStrings(true,
-					romEntry.getInt("StarterLocationTextOffset"));
+					romEntry.getInt(Gen5Slots.StarterLocationTextOffset));
 			for (int i = 0; i < 3; i++) {
 				yourHouseStrings
 						.set(Gen5Constants.bw1StarterTextOffset - i,
@@ -640,11 +732,12 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 									+ "\\xF000\\xBE01\\x0000");
 
 			// rewrite
-			setStrings(true, romEntry.getInt("StarterLocationTextOffset"),
+			setStrings(true,
+					romEntry.getInt(Gen5Slots.StarterLocationTextOffset),
 					yourHouseStrings);
 		} else {
 			List<String> starterTownStrings = getStrings(true,
-					romEntry.getInt("StarterLocationTextOffset"));
+					romEntry.getInt(Gen5Slots.StarterLocationTextOffset));
 			for (int i = 0; i < 3; i++) {
 				starterTownStrings
 						.set(Gen5Constants.bw2StarterTextOffset - i,
@@ -662,7 +755,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 									+ "\\xFFFEthat I raised from an Egg!\\xF000\\xBE01\\x0000");
 
 			// rewrite
-			setStrings(true, romEntry.getInt("StarterLocationTextOffset"),
+			setStrings(true,
+					romEntry.getInt(Gen5Slots.StarterLocationTextOffset),
 					starterTownStrings);
 		}
 		return true;
@@ -715,10 +809,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public List<EncounterSet> getEncounters(boolean useTimeOfDay) {
+	protected List<EncounterSet> loadEncounters(boolean useTimeOfDay) {
 		try {
 			NARCContents encounterNARC = readNARC(romEntry
-					.getString("WildPokemon"));
+					.getString(Gen5Slots.WildPokemon));
 			List<EncounterSet> encounters = new ArrayList<EncounterSet>();
 			int idx = -1;
 			for (byte[] entry : encounterNARC.files) {
@@ -780,11 +874,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setEncounters(boolean useTimeOfDay,
+	protected void saveEncounters(boolean useTimeOfDay,
 			List<EncounterSet> encountersList) {
 		try {
 			NARCContents encounterNARC = readNARC(romEntry
-					.getString("WildPokemon"));
+					.getString(Gen5Slots.WildPokemon));
 			Iterator<EncounterSet> encounters = encountersList.iterator();
 			for (byte[] entry : encounterNARC.files) {
 				writeEncounterEntry(encounters, entry, 0);
@@ -803,7 +897,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 			}
 
 			// Save
-			writeNARC(romEntry.getString("WildPokemon"), encounterNARC);
+			writeNARC(romEntry.getString(Gen5Slots.WildPokemon), encounterNARC);
 
 			// Habitat List / Area Data?
 			if (romEntry.romType == Gen5Constants.Type_BW2) {
@@ -811,7 +905,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				// entries for now.
 
 				// NARCContents habitatNARC = readNARC(romEntry
-				// .getString("HabitatList"));
+				// .getString(Gen5Slots.HabitatList));
 				// for (int i = 0; i < habitatNARC.files.size(); i++) {
 				// byte[] oldEntry = habitatNARC.files.get(i);
 				// int[] encounterFiles = habitatListEntries[i];
@@ -846,12 +940,12 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				// habitatNARC.files.set(i, habitatEntry);
 				// }
 				// // Save habitat
-				// this.writeNARC(romEntry.getString("HabitatList"),
+				// this.writeNARC(romEntry.getString(Gen5Slots.HabitatList),
 				// habitatNARC);
 
 				// Area Data
 				NARCContents areaNARC = this.readNARC(romEntry
-						.getString("PokemonAreaData"));
+						.getString(Gen5Slots.PokemonAreaData));
 				List<byte[]> newFiles = new ArrayList<byte[]>();
 				for (int i = 0; i < Gen5Constants.pokemonCount; i++) {
 					byte[] nf = new byte[Gen5Constants.bw2AreaDataEntryLength];
@@ -896,7 +990,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 					areaNARC.files.set(i, file);
 				}
 				// Save
-				this.writeNARC(romEntry.getString("PokemonAreaData"), areaNARC);
+				this.writeNARC(romEntry.getString(Gen5Slots.PokemonAreaData),
+						areaNARC);
 			}
 		} catch (IOException e) {
 			// whuh-oh
@@ -1019,13 +1114,13 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public List<Trainer> getTrainers() {
+	protected List<Trainer> loadTrainers() {
 		List<Trainer> allTrainers = new ArrayList<Trainer>();
 		try {
 			NARCContents trainers = this.readNARC(romEntry
-					.getString("TrainerData"));
+					.getString(Gen5Slots.TrainerData));
 			NARCContents trpokes = this.readNARC(romEntry
-					.getString("TrainerPokemon"));
+					.getString(Gen5Slots.TrainerPokemon));
 			int trainernum = trainers.files.size();
 			List<String> tclasses = this.getTrainerClassNames();
 			List<String> tnames = this.getTrainerNames();
@@ -1087,9 +1182,9 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 			if (romEntry.romType == Gen5Constants.Type_BW) {
 				Gen5Constants.tagTrainersBW(allTrainers);
 			} else {
-				if (!romEntry.getString("DriftveilPokemon").isEmpty()) {
+				if (!romEntry.getString(Gen5Slots.DriftveilPokemon).isEmpty()) {
 					NARCContents driftveil = this.readNARC(romEntry
-							.getString("DriftveilPokemon"));
+							.getString(Gen5Slots.DriftveilPokemon));
 					for (int trno = 0; trno < 2; trno++) {
 						Trainer tr = new Trainer();
 						tr.poketype = 3;
@@ -1121,11 +1216,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setTrainers(List<Trainer> trainerData) {
+	protected void saveTrainers(List<Trainer> trainerData) {
 		Iterator<Trainer> allTrainers = trainerData.iterator();
 		try {
 			NARCContents trainers = this.readNARC(romEntry
-					.getString("TrainerData"));
+					.getString(Gen5Slots.TrainerData));
 			NARCContents trpokes = new NARCContents();
 			// empty entry
 			trpokes.files.add(new byte[] { 0, 0, 0, 0, 0, 0, 0, 0 });
@@ -1170,13 +1265,14 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				}
 				trpokes.files.add(trpoke);
 			}
-			this.writeNARC(romEntry.getString("TrainerData"), trainers);
-			this.writeNARC(romEntry.getString("TrainerPokemon"), trpokes);
+			this.writeNARC(romEntry.getString(Gen5Slots.TrainerData), trainers);
+			this.writeNARC(romEntry.getString(Gen5Slots.TrainerPokemon),
+					trpokes);
 			// Deal with PWT
 			if (romEntry.romType == Gen5Constants.Type_BW2
-					&& !romEntry.getString("DriftveilPokemon").isEmpty()) {
+					&& !romEntry.getString(Gen5Slots.DriftveilPokemon).isEmpty()) {
 				NARCContents driftveil = this.readNARC(romEntry
-						.getString("DriftveilPokemon"));
+						.getString(Gen5Slots.DriftveilPokemon));
 				Map<Pokemon, List<MoveLearnt>> movesets = this.getMovesLearnt();
 				for (int trno = 0; trno < 2; trno++) {
 					Trainer tr = allTrainers.next();
@@ -1224,7 +1320,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 						}
 					}
 				}
-				this.writeNARC(romEntry.getString("DriftveilPokemon"),
+				this.writeNARC(romEntry.getString(Gen5Slots.DriftveilPokemon),
 						driftveil);
 			}
 		} catch (IOException ex) {
@@ -1234,11 +1330,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, List<MoveLearnt>> getMovesLearnt() {
+	protected Map<Pokemon, List<MoveLearnt>> loadMovesLearnt() {
 		Map<Pokemon, List<MoveLearnt>> movesets = new TreeMap<Pokemon, List<MoveLearnt>>();
 		try {
 			NARCContents movesLearnt = this.readNARC(romEntry
-					.getString("PokemonMovesets"));
+					.getString(Gen5Slots.PokemonMovesets));
 			for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 				Pokemon pkmn = pokes[i];
 				byte[] movedata = movesLearnt.files.get(i);
@@ -1264,10 +1360,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public void setMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
+	protected void saveMovesLearnt(Map<Pokemon, List<MoveLearnt>> movesets) {
 		try {
 			NARCContents movesLearnt = readNARC(romEntry
-					.getString("PokemonMovesets"));
+					.getString(Gen5Slots.PokemonMovesets));
 			for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 				Pokemon pkmn = pokes[i];
 				List<MoveLearnt> learnt = movesets.get(pkmn);
@@ -1284,7 +1380,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				movesLearnt.files.set(i, moveset);
 			}
 			// Save
-			this.writeNARC(romEntry.getString("PokemonMovesets"), movesLearnt);
+			this.writeNARC(romEntry.getString(Gen5Slots.PokemonMovesets),
+					movesLearnt);
 		} catch (IOException e) {
 			// change this later
 			e.printStackTrace();
@@ -1342,9 +1439,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		for (StaticPokemon statP : romEntry.staticPokemon) {
 			statP.setPokemon(this, scriptNARC, statics.next());
 		}
-		if (romEntry.offsetArrayEntries.containsKey("StaticPokemonFormValues")) {
-			OffsetWithinEntry[] formValues = romEntry.offsetArrayEntries
-					.get("StaticPokemonFormValues");
+		if (romEntry.offsetArrayEntries[Gen5Slots.StaticPokemonFormValues] != null) {
+			OffsetWithinEntry[] formValues = romEntry.offsetArrayEntries[Gen5Slots.StaticPokemonFormValues];
 			for (OffsetWithinEntry owe : formValues) {
 				writeWord(scriptNARC.files.get(owe.entry), owe.offset, 0);
 			}
@@ -1368,7 +1464,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				+ allowedUnovaPokemon.length;
 		try {
 			NARCContents hhNARC = this.readNARC(romEntry
-					.getString("HiddenHollows"));
+					.getString(Gen5Slots.HiddenHollows));
 			for (byte[] hhEntry : hhNARC.files) {
 				for (int version = 0; version < 2; version++) {
 					for (int rarityslot = 0; rarityslot < 3; rarityslot++) {
@@ -1388,7 +1484,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				}
 				// the rest of the file is items
 			}
-			this.writeNARC(romEntry.getString("HiddenHollows"), hhNARC);
+			this.writeNARC(romEntry.getString(Gen5Slots.HiddenHollows), hhNARC);
 		} catch (IOException e) {
 		}
 	}
@@ -1452,9 +1548,9 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
 			// Update TM item descriptions
 			List<String> itemDescriptions = getStrings(false,
-					romEntry.getInt("ItemDescriptionsTextOffset"));
+					romEntry.getInt(Gen5Slots.ItemDescriptionsTextOffset));
 			List<String> moveDescriptions = getStrings(false,
-					romEntry.getInt("MoveDescriptionsTextOffset"));
+					romEntry.getInt(Gen5Slots.MoveDescriptionsTextOffset));
 			// TM01 is item 328 and so on
 			for (int i = 0; i < Gen5Constants.tmBlockOneCount; i++) {
 				itemDescriptions.set(i + Gen5Constants.tmBlockOneOffset,
@@ -1468,7 +1564,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 								+ Gen5Constants.tmBlockOneCount)));
 			}
 			// Save the new item descriptions
-			setStrings(false, romEntry.getInt("ItemDescriptionsTextOffset"),
+			setStrings(false,
+					romEntry.getInt(Gen5Slots.ItemDescriptionsTextOffset),
 					itemDescriptions);
 			// Palettes
 			String baseOfPalettes;
@@ -1523,31 +1620,28 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getTMHMCompatibility() {
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
+	public CompatibilityMatrix getTMHMCompatibility() {
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, Gen5Constants.pokemonCount + 1),
+				Gen5Constants.tmCount + Gen5Constants.hmCount);
 		for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 			byte[] data = pokeNarc.files.get(i);
 			Pokemon pkmn = pokes[i];
-			boolean[] flags = new boolean[Gen5Constants.tmCount
-					+ Gen5Constants.hmCount + 1];
 			for (int j = 0; j < 13; j++) {
-				readByteIntoFlags(data, flags, j * 8 + 1,
-						Gen5Constants.bsTMHMCompatOffset + j);
+				compat.setByte(pkmn, j, data[Gen5Constants.bsTMHMCompatOffset
+						+ j]);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setTMHMCompatibility(Map<Pokemon, boolean[]> compatData) {
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
+	public void setTMHMCompatibility(CompatibilityMatrix compatData) {
+		for (Pokemon pkmn : compatData.getPokemon()) {
 			byte[] data = pokeNarc.files.get(pkmn.number);
 			for (int j = 0; j < 13; j++) {
-				data[Gen5Constants.bsTMHMCompatOffset + j] = getByteFromFlags(
-						flags, j * 8 + 1);
+				data[Gen5Constants.bsTMHMCompatOffset + j] = compatData
+						.getByte(pkmn, j);
 			}
 		}
 	}
@@ -1562,12 +1656,13 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		if (!hasMoveTutors()) {
 			return new ArrayList<Integer>();
 		}
-		int baseOffset = romEntry.getInt("MoveTutorDataOffset");
+		int baseOffset = romEntry.getInt(Gen5Slots.MoveTutorDataOffset);
 		int amount = Gen5Constants.bw2MoveTutorCount;
 		int bytesPer = Gen5Constants.bw2MoveTutorBytesPerEntry;
 		List<Integer> mtMoves = new ArrayList<Integer>();
 		try {
-			byte[] mtFile = readOverlay(romEntry.getInt("MoveTutorOvlNumber"));
+			byte[] mtFile = readOverlay(romEntry
+					.getInt(Gen5Slots.MoveTutorOvlNumber));
 			for (int i = 0; i < amount; i++) {
 				mtMoves.add(readWord(mtFile, baseOffset + i * bytesPer));
 			}
@@ -1581,55 +1676,53 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		if (!hasMoveTutors()) {
 			return;
 		}
-		int baseOffset = romEntry.getInt("MoveTutorDataOffset");
+		int baseOffset = romEntry.getInt(Gen5Slots.MoveTutorDataOffset);
 		int amount = Gen5Constants.bw2MoveTutorCount;
 		int bytesPer = Gen5Constants.bw2MoveTutorBytesPerEntry;
 		if (moves.size() != amount) {
 			return;
 		}
 		try {
-			byte[] mtFile = readOverlay(romEntry.getInt("MoveTutorOvlNumber"));
+			byte[] mtFile = readOverlay(romEntry
+					.getInt(Gen5Slots.MoveTutorOvlNumber));
 			for (int i = 0; i < amount; i++) {
 				writeWord(mtFile, baseOffset + i * bytesPer, moves.get(i));
 			}
-			writeOverlay(romEntry.getInt("MoveTutorOvlNumber"), mtFile);
+			writeOverlay(romEntry.getInt(Gen5Slots.MoveTutorOvlNumber), mtFile);
 		} catch (IOException e) {
 		}
 	}
 
 	@Override
-	public Map<Pokemon, boolean[]> getMoveTutorCompatibility() {
+	public CompatibilityMatrix getMoveTutorCompatibility() {
 		if (!hasMoveTutors()) {
-			return new TreeMap<Pokemon, boolean[]>();
+			return CompatibilityMatrix.empty();
 		}
-		Map<Pokemon, boolean[]> compat = new TreeMap<Pokemon, boolean[]>();
+		CompatibilityMatrix compat = new CompatibilityMatrix(Arrays.asList(
+				pokes).subList(1, Gen5Constants.pokemonCount + 1),
+				Gen5Constants.bw2MoveTutorCount);
 		int[] countsPersonalOrder = new int[] { 15, 17, 13, 15 };
 		int[] countsMoveOrder = new int[] { 13, 15, 15, 17 };
 		int[] personalToMoveOrder = new int[] { 1, 3, 0, 2 };
 		for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 			byte[] data = pokeNarc.files.get(i);
 			Pokemon pkmn = pokes[i];
-			boolean[] flags = new boolean[Gen5Constants.bw2MoveTutorCount + 1];
 			for (int mt = 0; mt < 4; mt++) {
-				boolean[] mtflags = new boolean[countsPersonalOrder[mt] + 1];
-				for (int j = 0; j < 4; j++) {
-					readByteIntoFlags(data, mtflags, j * 8 + 1,
-							Gen5Constants.bsMTCompatOffset + mt * 4 + j);
-				}
+				long mtflags = readLong(data, Gen5Constants.bsMTCompatOffset
+						+ mt * 4) & 0xFFFFFFFFL;
 				int offsetOfThisData = 0;
 				for (int cmoIndex = 0; cmoIndex < personalToMoveOrder[mt]; cmoIndex++) {
 					offsetOfThisData += countsMoveOrder[cmoIndex];
 				}
-				System.arraycopy(mtflags, 1, flags, offsetOfThisData + 1,
-						countsPersonalOrder[mt]);
+				compat.setBits(pkmn, offsetOfThisData + 1,
+						countsPersonalOrder[mt], mtflags);
 			}
-			compat.put(pkmn, flags);
 		}
 		return compat;
 	}
 
 	@Override
-	public void setMoveTutorCompatibility(Map<Pokemon, boolean[]> compatData) {
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData) {
 		if (!hasMoveTutors()) {
 			return;
 		}
@@ -1639,35 +1732,37 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		int[] countsPersonalOrder = new int[] { 15, 17, 13, 15 };
 		int[] countsMoveOrder = new int[] { 13, 15, 15, 17 };
 		int[] personalToMoveOrder = new int[] { 1, 3, 0, 2 };
-		for (Map.Entry<Pokemon, boolean[]> compatEntry : compatData.entrySet()) {
-			Pokemon pkmn = compatEntry.getKey();
-			boolean[] flags = compatEntry.getValue();
+		for (Pokemon pkmn : compatData.getPokemon()) {
 			byte[] data = pokeNarc.files.get(pkmn.number);
 			for (int mt = 0; mt < 4; mt++) {
 				int offsetOfThisData = 0;
 				for (int cmoIndex = 0; cmoIndex < personalToMoveOrder[mt]; cmoIndex++) {
 					offsetOfThisData += countsMoveOrder[cmoIndex];
 				}
-				boolean[] mtflags = new boolean[countsPersonalOrder[mt] + 1];
-				System.arraycopy(flags, offsetOfThisData + 1, mtflags, 1,
-						countsPersonalOrder[mt]);
-				for (int j = 0; j < 4; j++) {
-					data[Gen5Constants.bsMTCompatOffset + mt * 4 + j] = getByteFromFlags(
-							mtflags, j * 8 + 1);
-				}
+				writeLong(data, Gen5Constants.bsMTCompatOffset + mt * 4,
+						(int) compatData.getBits(pkmn, offsetOfThisData + 1,
+								countsPersonalOrder[mt]));
 			}
 		}
 	}
 
+	// The ARM9 signatures, found in one pass when the ROM is loaded and
+	// cached by the ARM9's CRC32
+	private static final String ARM9_LAYOUT_KIND = "gen5arm9";
+	private static final SignatureScanner arm9Signatures = new SignatureScanner(
+			Gen5Constants.tmDataPrefix,
+			Gen5Constants.bw1ItemPalettesPrefix,
+			Gen5Constants.bw2ItemPalettesPrefix);
+
 	private int find(byte[] data, String hexString) {
 		if (hexString.length() % 2 != 0) {
 			return -3; // error
 		}
-		byte[] searchFor = new byte[hexString.length() / 2];
-		for (int i = 0; i < searchFor.length; i++) {
-			searchFor[i] = (byte) Integer.parseInt(
-					hexString.substring(i * 2, i * 2 + 2), 16);
+		if (data == arm9 && arm9Signatures.contains(hexString)) {
+			return arm9Signatures.matches(arm9, ARM9_LAYOUT_KIND).find(
+					hexString);
 		}
+		byte[] searchFor = SignatureScanner.hexToBytes(hexString);
 		List<Integer> found = RomFunctions.search(data, searchFor);
 		if (found.size() == 0) {
 			return -1; // not found
@@ -1718,7 +1813,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		List<Evolution> evosForThisPoke = new ArrayList<Evolution>();
 		try {
 			NARCContents evoNARC = readNARC(romEntry
-					.getString("PokemonEvolutions"));
+					.getString(Gen5Slots.PokemonEvolutions));
 			for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 				evosForThisPoke.clear();
 				byte[] evoEntry = evoNARC.files.get(i);
@@ -1754,9 +1849,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public void setEvolutions(List<Evolution> evos) {
+		evolutionsChanged();
 		try {
 			NARCContents evoNARC = readNARC(romEntry
-					.getString("PokemonEvolutions"));
+					.getString(Gen5Slots.PokemonEvolutions));
 			for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 				byte[] evoEntry = evoNARC.files.get(i);
 				int evosWritten = 0;
@@ -1779,7 +1875,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 					evosWritten++;
 				}
 			}
-			writeNARC(romEntry.getString("PokemonEvolutions"), evoNARC);
+			writeNARC(romEntry.getString(Gen5Slots.PokemonEvolutions), evoNARC);
 		} catch (IOException e) {
 			// can't do anything
 		}
@@ -1868,11 +1964,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	@Override
 	public List<String> getTrainerNames() {
 		List<String> tnames = getStrings(false,
-				romEntry.getInt("TrainerNamesTextOffset"));
+				romEntry.getInt(Gen5Slots.TrainerNamesTextOffset));
 		tnames.remove(0); // blank one
 		// Tack the mugshot names on the end
 		List<String> mnames = getStrings(false,
-				romEntry.getInt("TrainerMugshotsTextOffset"));
+				romEntry.getInt(Gen5Slots.TrainerMugshotsTextOffset));
 		for (String mname : mnames) {
 			if (!mname.isEmpty()
 					&& (mname.charAt(0) >= 'A' && mname.charAt(0) <= 'Z')) {
@@ -1890,11 +1986,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	@Override
 	public void setTrainerNames(List<String> trainerNames) {
 		List<String> tnames = getStrings(false,
-				romEntry.getInt("TrainerNamesTextOffset"));
+				romEntry.getInt(Gen5Slots.TrainerNamesTextOffset));
 		// Grab the mugshot names off the back of the list of trainer names
 		// we got back
 		List<String> mnames = getStrings(false,
-				romEntry.getInt("TrainerMugshotsTextOffset"));
+				romEntry.getInt(Gen5Slots.TrainerMugshotsTextOffset));
 		int trNamesSize = trainerNames.size();
 		for (int i = mnames.size() - 1; i >= 0; i--) {
 			String origMName = mnames.get(i);
@@ -1906,12 +2002,14 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 			}
 		}
 		// Save back mugshot names
-		setStrings(false, romEntry.getInt("TrainerMugshotsTextOffset"), mnames);
+		setStrings(false, romEntry.getInt(Gen5Slots.TrainerMugshotsTextOffset),
+				mnames);
 
 		// Now save the rest of trainer names
 		List<String> newTNames = new ArrayList<String>(trainerNames);
 		newTNames.add(0, tnames.get(0)); // the 0-entry, preserve it
-		setStrings(false, romEntry.getInt("TrainerNamesTextOffset"), newTNames);
+		setStrings(false, romEntry.getInt(Gen5Slots.TrainerNamesTextOffset),
+				newTNames);
 
 	}
 
@@ -1928,12 +2026,13 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 
 	@Override
 	public List<String> getTrainerClassNames() {
-		return getStrings(false, romEntry.getInt("TrainerClassesTextOffset"));
+		return getStrings(false,
+				romEntry.getInt(Gen5Slots.TrainerClassesTextOffset));
 	}
 
 	@Override
 	public void setTrainerClassNames(List<String> trainerClassNames) {
-		setStrings(false, romEntry.getInt("TrainerClassesTextOffset"),
+		setStrings(false, romEntry.getInt(Gen5Slots.TrainerClassesTextOffset),
 				trainerClassNames);
 	}
 
@@ -1996,10 +2095,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 	private List<Integer> getFieldItems() {
 		List<Integer> fieldItems = new ArrayList<Integer>();
 		// normal items
-		int scriptFileNormal = romEntry.getInt("ItemBallsScriptOffset");
-		int scriptFileHidden = romEntry.getInt("HiddenItemsScriptOffset");
-		int[] skipTable = romEntry.arrayEntries.get("ItemBallsSkip");
-		int[] skipTableH = romEntry.arrayEntries.get("HiddenItemsSkip");
+		int scriptFileNormal = romEntry.getInt(Gen5Slots.ItemBallsScriptOffset);
+		int scriptFileHidden = romEntry
+				.getInt(Gen5Slots.HiddenItemsScriptOffset);
+		int[] skipTable = romEntry.arrayEntries[Gen5Slots.ItemBallsSkip];
+		int[] skipTableH = romEntry.arrayEntries[Gen5Slots.HiddenItemsSkip];
 		int setVarNormal = Gen5Constants.normalItemSetVarCommand;
 		int setVarHidden = Gen5Constants.hiddenItemSetVarCommand;
 
@@ -2069,10 +2169,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		Iterator<Integer> iterItems = fieldItems.iterator();
 
 		// normal items
-		int scriptFileNormal = romEntry.getInt("ItemBallsScriptOffset");
-		int scriptFileHidden = romEntry.getInt("HiddenItemsScriptOffset");
-		int[] skipTable = romEntry.arrayEntries.get("ItemBallsSkip");
-		int[] skipTableH = romEntry.arrayEntries.get("HiddenItemsSkip");
+		int scriptFileNormal = romEntry.getInt(Gen5Slots.ItemBallsScriptOffset);
+		int scriptFileHidden = romEntry
+				.getInt(Gen5Slots.HiddenItemsScriptOffset);
+		int[] skipTable = romEntry.arrayEntries[Gen5Slots.ItemBallsSkip];
+		int[] skipTableH = romEntry.arrayEntries[Gen5Slots.HiddenItemsSkip];
 		int setVarNormal = Gen5Constants.normalItemSetVarCommand;
 		int setVarHidden = Gen5Constants.hiddenItemSetVarCommand;
 
@@ -2234,10 +2335,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		List<IngameTrade> trades = new ArrayList<IngameTrade>();
 		try {
 			NARCContents tradeNARC = this.readNARC(romEntry
-					.getString("InGameTrades"));
+					.getString(Gen5Slots.InGameTrades));
 			List<String> tradeStrings = getStrings(false,
-					romEntry.getInt("IngameTradesTextOffset"));
-			int[] unused = romEntry.arrayEntries.get("TradesUnused");
+					romEntry.getInt(Gen5Slots.IngameTradesTextOffset));
+			int[] unused = romEntry.arrayEntries[Gen5Slots.TradesUnused];
 			int unusedOffset = 0;
 			int tableSize = tradeNARC.files.size();
 
@@ -2274,11 +2375,11 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		int tradeOffset = 0;
 		try {
 			NARCContents tradeNARC = this.readNARC(romEntry
-					.getString("InGameTrades"));
+					.getString(Gen5Slots.InGameTrades));
 			List<String> tradeStrings = getStrings(false,
-					romEntry.getInt("IngameTradesTextOffset"));
+					romEntry.getInt(Gen5Slots.IngameTradesTextOffset));
 			int tradeCount = tradeNARC.files.size();
-			int[] unused = romEntry.arrayEntries.get("TradesUnused");
+			int[] unused = romEntry.arrayEntries[Gen5Slots.TradesUnused];
 			int unusedOffset = 0;
 			for (int i = 0; i < tradeCount; i++) {
 				if (unusedOffset < unused.length && unused[unusedOffset] == i) {
@@ -2299,8 +2400,10 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				writeLong(tfile, 0x4C, trade.item);
 				writeLong(tfile, 0x5C, trade.requestedPokemon.number);
 			}
-			this.writeNARC(romEntry.getString("InGameTrades"), tradeNARC);
-			this.setStrings(false, romEntry.getInt("IngameTradesTextOffset"),
+			this.writeNARC(romEntry.getString(Gen5Slots.InGameTrades),
+					tradeNARC);
+			this.setStrings(false,
+					romEntry.getInt(Gen5Slots.IngameTradesTextOffset),
 					tradeStrings);
 		} catch (IOException ex) {
 		}
@@ -2331,7 +2434,8 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 		}
 		this.setEvolutions(keepEvos);
 		try {
-			NARCContents babyNARC = readNARC(romEntry.getString("BabyPokemon"));
+			NARCContents babyNARC = readNARC(romEntry
+					.getString(Gen5Slots.BabyPokemon));
 			// baby pokemon
 			for (int i = 1; i <= Gen5Constants.pokemonCount; i++) {
 				int oldBaby = i;
@@ -2351,7 +2455,7 @@ public class Gen5RomHandler extends AbstractDSRomHandler {
 				writeWord(babyNARC.files.get(i), 0, oldBaby);
 			}
 			// finish up
-			writeNARC(romEntry.getString("BabyPokemon"), babyNARC);
+			writeNARC(romEntry.getString(Gen5Slots.BabyPokemon), babyNARC);
 		} catch (IOException e) {
 			// can't do anything
 		}
@@ -0,0 +1,166 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  MoveCandidateIndex.java - the moves pickMove can choose from,         --*/
+/*--                          grouped once per moveset randomization.       --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.dabomstew.pkrandom.RomFunctions;
+import com.dabomstew.pkrandom.pokemon.Move;
+import com.dabomstew.pkrandom.pokemon.Type;
+
+/**
+ * Candidate moves for random movesets, bucketed by move type (or any type),
+ * physical/special and whether high accuracy is required. Each bucket holds
+ * move numbers in ascending order, which is move list order, split into
+ * moves that always count as good damaging moves, Normal moves that only
+ * count as good 70% of the time, and the rest.
+ * 
+ * Picking draws from the random source exactly as a full scan of the move
+ * list would: one nextDouble per Normal move in the "sometimes good" group,
+ * in move order, then one nextInt over the resulting candidates. A bucket
+ * with no Normal moves is sampled directly.
+ */
+class MoveCandidateIndex {
+
+	private static final double NORMAL_GOOD_CHANCE = 0.7;
+
+	private final List<Move> moves;
+	private final boolean[] banned;
+	// [type ordinal, or Type.values().length for any type][special][highAcc]
+	private final Bucket[][][] buckets;
+	private boolean[] scratch = new boolean[0];
+
+	private static class Bucket {
+		private int[] good;
+		private int[] sometimesGood;
+		private int[] bad;
+	}
+
+	public MoveCandidateIndex(List<Move> moves,
+			List<Integer> bannedForThisGame) {
+		this.moves = moves;
+		this.banned = new boolean[Math.max(moves.size(),
+				RomFunctions.bannedRandomMoves.length)];
+		for (int i = 0; i < banned.length
+				&& i < RomFunctions.bannedRandomMoves.length; i++) {
+			banned[i] = RomFunctions.bannedRandomMoves[i];
+		}
+		for (Integer mv : bannedForThisGame) {
+			if (mv >= 0 && mv < banned.length) {
+				banned[mv] = true;
+			}
+		}
+		this.buckets = new Bucket[Type.values().length + 1][2][2];
+	}
+
+	/**
+	 * Returns the number of a random move of the given type (null for any)
+	 * that is a good damaging move if damaging is set, or any other move
+	 * otherwise. Returns -1 if there is nothing to pick from.
+	 */
+	public int pick(Random random, Type type, boolean special,
+			boolean highAcc, boolean damaging) {
+		Bucket bucket = bucket(type, special, highAcc);
+		int[] fixed = damaging ? bucket.good : bucket.bad;
+		int[] maybe = bucket.sometimesGood;
+		if (maybe.length == 0) {
+			if (fixed.length == 0) {
+				return -1;
+			}
+			return fixed[random.nextInt(fixed.length)];
+		}
+
+		if (scratch.length < maybe.length) {
+			scratch = new boolean[maybe.length];
+		}
+		int count = fixed.length;
+		for (int i = 0; i < maybe.length; i++) {
+			// a Normal move is a candidate when its roll makes it good for
+			// damaging picks, or not good for the others
+			scratch[i] = (random.nextDouble() < NORMAL_GOOD_CHANCE) == damaging;
+			if (scratch[i]) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return -1;
+		}
+		// the candidates are both groups merged in move order
+		int index = random.nextInt(count);
+		int f = 0, m = 0;
+		while (true) {
+			while (m < maybe.length && !scratch[m]) {
+				m++;
+			}
+			boolean takeFixed = m == maybe.length
+					|| (f < fixed.length && fixed[f] < maybe[m]);
+			int number = takeFixed ? fixed[f++] : maybe[m++];
+			if (index-- == 0) {
+				return number;
+			}
+		}
+	}
+
+	private Bucket bucket(Type type, boolean special, boolean highAcc) {
+		int typeIndex = type == null ? Type.values().length : type.ordinal();
+		Bucket bucket = buckets[typeIndex][special ? 1 : 0][highAcc ? 1 : 0];
+		if (bucket == null) {
+			bucket = build(type, special, highAcc);
+			buckets[typeIndex][special ? 1 : 0][highAcc ? 1 : 0] = bucket;
+		}
+		return bucket;
+	}
+
+	private Bucket build(Type type, boolean special, boolean highAcc) {
+		int[] good = new int[moves.size()];
+		int[] sometimesGood = new int[moves.size()];
+		int[] bad = new int[moves.size()];
+		int goodCount = 0, sometimesCount = 0, badCount = 0;
+		for (Move mv : moves) {
+			if (mv == null || banned[mv.number]
+					|| (type != null && mv.type != type)) {
+				continue;
+			}
+			boolean isGoodMove = mv.power >= 40
+					&& !RomFunctions.bannedForDamagingMove[mv.number]
+					&& special == mv.type.isSpecial()
+					&& (!highAcc || mv.hitratio > 79);
+			if (!isGoodMove) {
+				bad[badCount++] = mv.number;
+			} else if (mv.type == Type.NORMAL) {
+				sometimesGood[sometimesCount++] = mv.number;
+			} else {
+				good[goodCount++] = mv.number;
+			}
+		}
+		Bucket bucket = new Bucket();
+		bucket.good = Arrays.copyOf(good, goodCount);
+		bucket.sometimesGood = Arrays.copyOf(sometimesGood, sometimesCount);
+		bucket.bad = Arrays.copyOf(bad, badCount);
+		return bucket;
+	}
+
+}
@@ -23,6 +23,7 @@ package com.dabomstew.pkrandom.romhandlers;
 /*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
 /*----------------------------------------------------------------------------*/
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,4 +34,195 @@ public class NARCContents {
 
 	public boolean hasFilenames = false;
 
+	// Set when the contents were read from a NARC file. Entries are only
+	// copied out of the original file when someone asks for them, and an
+	// archive that still matches what was read isn't rebuilt at all.
+	private String sourcePath;
+	private byte[] original;
+	private int fimgOffset, fimgLength;
+	private int[] starts, ends;
+	private List<String> originalFilenames;
+	private boolean originalHasFilenames;
+	private boolean rebuilt;
+
+	public NARCContents() {
+	}
+
+	NARCContents(String sourcePath, byte[] original, int fimgOffset,
+			int fimgLength, int[] starts, int[] ends, List<String> filenames,
+			boolean hasFilenames) {
+		this.sourcePath = sourcePath;
+		this.original = original;
+		this.fimgOffset = fimgOffset;
+		this.fimgLength = fimgLength;
+		this.starts = starts;
+		this.ends = ends;
+		this.files = new EntryList(starts.length);
+		this.filenames = filenames;
+		this.hasFilenames = hasFilenames;
+		this.originalFilenames = new ArrayList<String>(filenames);
+		this.originalHasFilenames = hasFilenames;
+	}
+
+	// true if writing this to path would leave the file as it already is
+	boolean isUnchanged(String path) {
+		if (sourcePath == null || rebuilt || !sourcePath.equals(path)
+				|| !(files instanceof EntryList)) {
+			return false;
+		}
+		if (hasFilenames != originalHasFilenames
+				|| !filenames.equals(originalFilenames)) {
+			return false;
+		}
+		EntryList entries = (EntryList) files;
+		if (entries.size() != starts.length) {
+			return false;
+		}
+		for (int i = 0; i < starts.length; i++) {
+			if (entries.sources.get(i) != i) {
+				return false;
+			}
+			byte[] data = entries.loaded.get(i);
+			if (data != null && !matchesOriginal(i, data)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// a copy that can be changed without changing this one; if this is
+	// still as it was read, the copy reads from the same original file
+	NARCContents copy() {
+		if (sourcePath != null && isUnchanged(sourcePath)) {
+			return new NARCContents(sourcePath, original, fimgOffset,
+					fimgLength, starts, ends, new ArrayList<String>(
+							originalFilenames), originalHasFilenames);
+		}
+		NARCContents copy = new NARCContents();
+		copy.filenames.addAll(filenames);
+		for (byte[] file : files) {
+			copy.files.add(file == null ? null : file.clone());
+		}
+		copy.hasFilenames = hasFilenames;
+		return copy;
+	}
+
+	// once rebuilt, the file no longer holds the original contents
+	void markRebuilt() {
+		rebuilt = true;
+	}
+
+	int fileLength(int index) {
+		if (files instanceof EntryList) {
+			EntryList entries = (EntryList) files;
+			if (entries.loaded.get(index) == null
+					&& entries.sources.get(index) >= 0) {
+				int source = entries.sources.get(index);
+				return ends[source] - starts[source];
+			}
+		}
+		return files.get(index).length;
+	}
+
+	// copies entry index into dest without decoding it if it was never used
+	void copyFile(int index, byte[] dest, int offset) {
+		if (files instanceof EntryList) {
+			EntryList entries = (EntryList) files;
+			if (entries.loaded.get(index) == null
+					&& entries.sources.get(index) >= 0) {
+				readOriginal(entries.sources.get(index), dest, offset);
+				return;
+			}
+		}
+		byte[] file = files.get(index);
+		System.arraycopy(file, 0, dest, offset, file.length);
+	}
+
+	private byte[] readOriginal(int entry) {
+		byte[] data = new byte[ends[entry] - starts[entry]];
+		readOriginal(entry, data, 0);
+		return data;
+	}
+
+	private void readOriginal(int entry, byte[] dest, int offset) {
+		int length = ends[entry] - starts[entry];
+		if (starts[entry] < 0 || length < 0
+				|| starts[entry] + length > fimgLength) {
+			System.out.printf("AIOBEX: start %d length %d size of frame %d\n",
+					starts[entry], length, fimgLength);
+			return;
+		}
+		System.arraycopy(original, fimgOffset + starts[entry], dest, offset,
+				length);
+	}
+
+	private boolean matchesOriginal(int entry, byte[] data) {
+		int length = ends[entry] - starts[entry];
+		if (data.length != length) {
+			return false;
+		}
+		int base = fimgOffset + starts[entry];
+		for (int i = 0; i < length; i++) {
+			if (data[i] != original[base + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Entries start out as references to the original file and are copied
+	// out on first get; callers are free to modify what they get back.
+	private class EntryList extends AbstractList<byte[]> {
+		private final List<byte[]> loaded;
+		// the original entry at each position, -1 for added ones
+		private final List<Integer> sources;
+
+		private EntryList(int count) {
+			loaded = new ArrayList<byte[]>(count);
+			sources = new ArrayList<Integer>(count);
+			for (int i = 0; i < count; i++) {
+				loaded.add(null);
+				sources.add(i);
+			}
+		}
+
+		@Override
+		public byte[] get(int index) {
+			byte[] data = loaded.get(index);
+			if (data == null && sources.get(index) >= 0) {
+				data = readOriginal(sources.get(index));
+				loaded.set(index, data);
+			}
+			return data;
+		}
+
+		@Override
+		public int size() {
+			return loaded.size();
+		}
+
+		@Override
+		public byte[] set(int index, byte[] element) {
+			byte[] old = get(index);
+			loaded.set(index, element);
+			return old;
+		}
+
+		@Override
+		public void add(int index, byte[] element) {
+			loaded.add(index, element);
+			sources.add(index, -1);
+			modCount++;
+		}
+
+		@Override
+		public byte[] remove(int index) {
+			byte[] old = get(index);
+			loaded.remove(index);
+			sources.remove(index);
+			modCount++;
+			return old;
+		}
+	}
+
 }
@@ -0,0 +1,184 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  PowerLevelIndex.java - a replacement pool sorted by power level,      --*/
+/*--                       for similar strength picks.                      --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.dabomstew.pkrandom.pokemon.Pokemon;
+
+/**
+ * A pool of replacement Pokemon sorted by bstForPowerLevels, so that each
+ * power level window is found by binary search instead of a scan of the
+ * whole pool.
+ * 
+ * Picks give the same results, with the same single nextInt call, as the
+ * original scan: every widening round adds the Pokemon inside its window in
+ * pool order (so Pokemon from earlier rounds appear again), and the pick is
+ * an index into that combined list.
+ * 
+ * Pokemon can be removed from the pool and restored later; the remaining
+ * ones keep their original order, as with ArrayList.remove.
+ */
+class PowerLevelIndex {
+
+	private final Pokemon[] pool;
+	// entries sorted by power level, then by pool position
+	private final int[] bst;
+	private final int[] position;
+	private final boolean[] wonderGuard;
+	private final boolean[] battleTrapper;
+	private final boolean[] removed;
+	private final Map<Pokemon, Integer> entryOf = new HashMap<Pokemon, Integer>();
+
+	private int[] roundStart = new int[4];
+	private int[] roundEnd = new int[4];
+	private int[] roundCount = new int[4];
+	private int[] scratch;
+
+	public PowerLevelIndex(List<Pokemon> pokemonPool) {
+		int size = pokemonPool.size();
+		pool = pokemonPool.toArray(new Pokemon[size]);
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = ((long) pool[i].bstForPowerLevels() << 32) | i;
+		}
+		Arrays.sort(keys);
+		bst = new int[size];
+		position = new int[size];
+		wonderGuard = new boolean[size];
+		battleTrapper = new boolean[size];
+		removed = new boolean[size];
+		scratch = new int[size];
+		for (int e = 0; e < size; e++) {
+			bst[e] = (int) (keys[e] >> 32);
+			position[e] = (int) keys[e];
+			Pokemon pk = pool[position[e]];
+			wonderGuard[e] = AbstractRomHandler.hasWonderGuard(pk);
+			battleTrapper[e] = AbstractRomHandler.hasBattleTrappingAbility(pk);
+			if (!entryOf.containsKey(pk)) {
+				entryOf.put(pk, e);
+			}
+		}
+	}
+
+	/**
+	 * Starts within 10% of current's power level and widens by 5% either
+	 * way until something is found, or until two more rounds have passed
+	 * while fewer than 3 were found.
+	 */
+	public Pokemon pick(Random random, Pokemon current,
+			boolean wonderGuardAllowed, boolean banBattleTrappers,
+			boolean banCurrent, List<Pokemon> usedUp) {
+		int currentBST = current.bstForPowerLevels();
+		int minTarget = currentBST - currentBST / 10;
+		int maxTarget = currentBST + currentBST / 10;
+		int total = 0;
+		int rounds = 0;
+		while (total == 0 || (total < 3 && rounds < 2)) {
+			if (rounds == roundCount.length) {
+				roundStart = Arrays.copyOf(roundStart, rounds * 2);
+				roundEnd = Arrays.copyOf(roundEnd, rounds * 2);
+				roundCount = Arrays.copyOf(roundCount, rounds * 2);
+			}
+			int start = firstAtLeast(minTarget);
+			int end = firstAtLeast(maxTarget + 1);
+			int count = 0;
+			for (int e = start; e < end; e++) {
+				if (allowed(e, current, wonderGuardAllowed, banBattleTrappers,
+						banCurrent, usedUp)) {
+					count++;
+				}
+			}
+			roundStart[rounds] = start;
+			roundEnd[rounds] = end;
+			roundCount[rounds] = count;
+			total += count;
+			minTarget -= currentBST / 20;
+			maxTarget += currentBST / 20;
+			rounds++;
+		}
+
+		int index = random.nextInt(total);
+		int round = 0;
+		while (index >= roundCount[round]) {
+			index -= roundCount[round];
+			round++;
+		}
+		// the window's matches in pool order
+		int found = 0;
+		for (int e = roundStart[round]; e < roundEnd[round]; e++) {
+			if (allowed(e, current, wonderGuardAllowed, banBattleTrappers,
+					banCurrent, usedUp)) {
+				scratch[found++] = position[e];
+			}
+		}
+		Arrays.sort(scratch, 0, found);
+		return pool[scratch[index]];
+	}
+
+	// like List.remove, takes out the earliest copy still in the pool
+	public void remove(Pokemon pk) {
+		Integer first = entryOf.get(pk);
+		if (first == null) {
+			return;
+		}
+		for (int e = first; e < bst.length && bst[e] == bst[first]; e++) {
+			if (!removed[e] && pk.equals(pool[position[e]])) {
+				removed[e] = true;
+				return;
+			}
+		}
+	}
+
+	public void restoreAll() {
+		Arrays.fill(removed, false);
+	}
+
+	private boolean allowed(int e, Pokemon current,
+			boolean wonderGuardAllowed, boolean banBattleTrappers,
+			boolean banCurrent, List<Pokemon> usedUp) {
+		return !removed[e] && (wonderGuardAllowed || !wonderGuard[e])
+				&& (!banBattleTrappers || !battleTrapper[e])
+				&& (!banCurrent || pool[position[e]] != current)
+				&& (usedUp == null || !usedUp.contains(pool[position[e]]));
+	}
+
+	private int firstAtLeast(int target) {
+		int lo = 0, hi = bst.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (bst[mid] < target) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+}
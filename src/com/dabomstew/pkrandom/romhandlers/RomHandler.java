@@ -24,12 +24,15 @@ package com.dabomstew.pkrandom.romhandlers;
 /*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
 /*----------------------------------------------------------------------------*/
 
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
+import com.dabomstew.pkrandom.pokemon.CompatibilityMatrix;
 import com.dabomstew.pkrandom.pokemon.EncounterSet;
 import com.dabomstew.pkrandom.pokemon.Evolution;
+import com.dabomstew.pkrandom.pokemon.EvolutionGraph;
 import com.dabomstew.pkrandom.pokemon.GenRestrictions;
 import com.dabomstew.pkrandom.pokemon.IngameTrade;
 import com.dabomstew.pkrandom.pokemon.ItemList;
@@ -50,9 +53,26 @@ public interface RomHandler {
 
 	public boolean loadRom(String filename);
 
+	// Reads a ROM once so that many handlers can be loaded from it without
+	// going back to disk. Returns null if this handler can't use the file.
+	public RomSnapshot snapshotRom(String filename);
+
+	public boolean loadRom(RomSnapshot snapshot);
+
+	// Throws a RuntimeException wrapping the cause if the file can't be
+	// written.
 	public boolean saveRom(String filename);
 
+	// Saves the changes as a patch against the loaded ROM instead of a full
+	// image: IPS for a .ips filename, else BPS. Returns false without writing
+	// anything if IPS can't represent the ROM (over 16MB), and throws as
+	// saveRom does if the file can't be written.
+	public boolean savePatch(String filename);
+
 	public String loadedFilename();
+
+	// Where this handler writes its log; defaults to the GUI's verbose log
+	public void setLogStream(PrintStream logStream);
 	
 	public int getGen();
 
@@ -209,18 +229,18 @@ public interface RomHandler {
 	public int getHMCount();
 
 	/**
-	 * Get TM/HM compatibility data from this rom. The result should contain a
-	 * boolean array for each Pokemon indexed as such:
+	 * Get TM/HM compatibility data from this rom. The result has a row for
+	 * each Pokemon with columns numbered as such:
 	 * 
-	 * 0: blank (false) / 1 - (getTMCount()) : TM compatibility /
-	 * (getTMCount()+1) - (getTMCount()+getHMCount()) - HM compatibility
+	 * 1 - (getTMCount()) : TM compatibility / (getTMCount()+1) -
+	 * (getTMCount()+getHMCount()) - HM compatibility
 	 * 
 	 * @return
 	 */
 
-	public Map<Pokemon, boolean[]> getTMHMCompatibility();
+	public CompatibilityMatrix getTMHMCompatibility();
 
-	public void setTMHMCompatibility(Map<Pokemon, boolean[]> compatData);
+	public void setTMHMCompatibility(CompatibilityMatrix compatData);
 
 	public void randomizeTMHMCompatibility(boolean preferSameType);
 
@@ -240,9 +260,9 @@ public interface RomHandler {
 
 	public void randomizeMoveTutorMoves(boolean noBroken, boolean preserveField);
 
-	public Map<Pokemon, boolean[]> getMoveTutorCompatibility();
+	public CompatibilityMatrix getMoveTutorCompatibility();
 
-	public void setMoveTutorCompatibility(Map<Pokemon, boolean[]> compatData);
+	public void setMoveTutorCompatibility(CompatibilityMatrix compatData);
 
 	public void randomizeMoveTutorCompatibility(boolean preferSameType);
 
@@ -305,6 +325,12 @@ public interface RomHandler {
 
 	public ItemList getNonBadItems();
 
+	// How random items are drawn from the lists above. REJECTION, the
+	// default, gives the same items for a seed as older versions.
+	public void setItemSampling(ItemList.Sampling sampling);
+
+	public ItemList.Sampling getItemSampling();
+
 	public void randomizeWildHeldItems(boolean banBadItems);
 
 	public String[] getItemNames();
@@ -358,6 +384,9 @@ public interface RomHandler {
 
 	public List<Evolution> getEvolutions();
 
+	// Indexed view of getEvolutions(), rebuilt after setEvolutions
+	public EvolutionGraph getEvolutionGraph();
+
 	public void setEvolutions(List<Evolution> evos);
 
 	public void removeTradeEvolutions(boolean changeMoveEvos);
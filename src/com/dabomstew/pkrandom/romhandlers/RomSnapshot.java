@@ -0,0 +1,135 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  RomSnapshot.java - a base ROM read and indexed once, from which any	--*/
+/*--					 number of working copies can be loaded.			--*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import com.dabomstew.pkrandom.newnds.NDSRom;
+
+public class RomSnapshot {
+
+	// images are put back a page at a time once a working copy is done
+	static final int PAGE_SIZE = 0x1000;
+
+	private final String filename;
+	// GB/GBC/GBA: the untouched image, never handed out directly
+	private final byte[] image;
+	// NDS: the parsed file system, only ever used to fork working copies
+	private final NDSRom ndsBase;
+	// the handler that loaded the base ROM; working copies start from its
+	// Pokemon, moves and tables instead of decoding them again
+	private final AbstractRomHandler original;
+	// GB: images handed back by finished working copies, already restored
+	private final List<byte[]> spareImages = new ArrayList<byte[]>();
+
+	RomSnapshot(String filename, byte[] image, AbstractRomHandler original) {
+		this.filename = filename;
+		this.image = image;
+		this.ndsBase = null;
+		this.original = original;
+	}
+
+	RomSnapshot(String filename, NDSRom ndsBase, AbstractRomHandler original) {
+		this.filename = filename;
+		this.image = null;
+		this.ndsBase = ndsBase;
+		this.original = original;
+	}
+
+	public String getFilename() {
+		return filename;
+	}
+
+	public boolean isNDS() {
+		return ndsBase != null;
+	}
+
+	AbstractRomHandler original() {
+		return original;
+	}
+
+	// returns a private copy of the image that the caller may modify, to be
+	// handed back with returnImage when it's done
+	synchronized byte[] takeImage() {
+		if (image == null) {
+			return null;
+		}
+		if (!spareImages.isEmpty()) {
+			return spareImages.remove(spareImages.size() - 1);
+		}
+		byte[] copy = new byte[image.length];
+		System.arraycopy(image, 0, copy, 0, image.length);
+		return copy;
+	}
+
+	// puts back the pages of copy that were written to and keeps it for the
+	// next working copy, so most of the image is never copied again
+	synchronized void returnImage(byte[] copy, BitSet writtenPages) {
+		if (image == null || copy.length != image.length) {
+			return;
+		}
+		int page = writtenPages.nextSetBit(0);
+		while (page >= 0 && page * PAGE_SIZE < image.length) {
+			int offset = page * PAGE_SIZE;
+			System.arraycopy(image, offset, copy, offset,
+					Math.min(PAGE_SIZE, image.length - offset));
+			page = writtenPages.nextSetBit(page + 1);
+		}
+		spareImages.add(copy);
+	}
+
+	// the image itself, for comparing against; must not be modified
+	byte[] image() {
+		return image;
+	}
+
+	// returns a new working copy of the NDS file system
+	NDSRom forkNDS() {
+		if (ndsBase == null) {
+			return null;
+		}
+		return ndsBase.fork();
+	}
+
+	String getNDSCode() {
+		return ndsBase == null ? null : ndsBase.getCode();
+	}
+
+	public void close() throws IOException {
+		synchronized (this) {
+			spareImages.clear();
+		}
+		if (original instanceof AbstractDSRomHandler) {
+			((AbstractDSRomHandler) original).discardInnerRom();
+		}
+		if (ndsBase != null) {
+			ndsBase.discard();
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.dabomstew.pkrandom.romhandlers;
+
+/*----------------------------------------------------------------------------*/
+/*--  TypePoolTable.java - the replacement pools for each type, with and    --*/
+/*--                       without legendaries.                             --*/
+/*--  																		--*/
+/*--  Part of "Universal Pokemon Randomizer" by Dabomstew					--*/
+/*--  Pokemon and any associated names and the like are						--*/
+/*--  trademark and (C) Nintendo 1996-2012.									--*/
+/*--  																		--*/
+/*--  The custom code written here is licensed under the terms of the GPL:	--*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.dabomstew.pkrandom.pokemon.EvolutionGraph;
+import com.dabomstew.pkrandom.pokemon.Pokemon;
+import com.dabomstew.pkrandom.pokemon.Type;
+
+/**
+ * Every replacement pool trainers and type themed areas pick from, built in
+ * one pass over the Pokemon pool: for each type (or any type), with or
+ * without legendaries, the Pokemon in pool order.
+ * 
+ * Each pool also keeps the sublists trainers of a given level may use, so
+ * picking an appropriately evolved Pokemon doesn't rescan the pool. Those
+ * are only worked out the first time one is asked for.
+ */
+class TypePoolTable {
+
+	// below this level anything goes, from here 3-stage lines must have
+	// evolved once
+	private static final int MIDDLE_STAGE_LEVEL = 16;
+	// from here everything must be fully evolved
+	private static final int FINAL_STAGE_LEVEL = 37;
+
+	private static final int ANY_TYPE = Type.values().length;
+
+	// at slot(type ordinal or ANY_TYPE, legendaries allowed ? 0 : 1, band)
+	private final List<List<Pokemon>> pools;
+	private final List<Pokemon> pokemonPool;
+	private final EvolutionGraph evolutions;
+	private boolean levelBandsBuilt;
+
+	/**
+	 * evolutions may be null if evolvedForLevel won't be used.
+	 */
+	public TypePoolTable(List<Pokemon> pokemonPool, EvolutionGraph evolutions) {
+		this.pokemonPool = pokemonPool;
+		this.evolutions = evolutions;
+		pools = new ArrayList<List<Pokemon>>(Collections.<List<Pokemon>> nCopies(
+				(ANY_TYPE + 1) * 2 * 3, null));
+		build(0);
+	}
+
+	private static int slot(int type, int legendaries, int band) {
+		return (type * 2 + legendaries) * 3 + band;
+	}
+
+	// fills in one level band of every pool
+	private void build(int band) {
+		for (int t = 0; t <= ANY_TYPE; t++) {
+			for (int l = 0; l < 2; l++) {
+				pools.set(slot(t, l, band), new ArrayList<Pokemon>());
+			}
+		}
+		for (Pokemon pk : pokemonPool) {
+			if (pk == null) {
+				continue;
+			}
+			// if 3-stage, must evolve at least once by the middle stage level
+			// must fully evolve by the final stage level
+			if (band > 0 && evolutions.timesEvolves(pk) > 2 - band) {
+				continue;
+			}
+			boolean legendary = pk.isLegendary();
+			add(ANY_TYPE, band, pk, legendary);
+			if (pk.primaryType != null) {
+				add(pk.primaryType.ordinal(), band, pk, legendary);
+			}
+			if (pk.secondaryType != null && pk.secondaryType != pk.primaryType) {
+				add(pk.secondaryType.ordinal(), band, pk, legendary);
+			}
+		}
+		for (int t = 0; t <= ANY_TYPE; t++) {
+			for (int l = 0; l < 2; l++) {
+				int s = slot(t, l, band);
+				pools.set(s, Collections.unmodifiableList(pools.get(s)));
+			}
+		}
+	}
+
+	private void add(int type, int band, Pokemon pk, boolean legendary) {
+		pools.get(slot(type, 0, band)).add(pk);
+		if (!legendary) {
+			pools.get(slot(type, 1, band)).add(pk);
+		}
+	}
+
+	// the Pokemon of a type, or of any type if type is null
+	public List<Pokemon> get(Type type, boolean noLegendaries) {
+		return pools.get(slot(index(type), noLegendaries ? 1 : 0, 0));
+	}
+
+	public int count(Type type, boolean noLegendaries) {
+		return get(type, noLegendaries).size();
+	}
+
+	/**
+	 * The Pokemon of a type (or any type) that a trainer could have at this
+	 * level: 3-stage lines must have evolved once by level 16, and
+	 * everything must be fully evolved by level 37.
+	 */
+	public List<Pokemon> evolvedForLevel(Type type, boolean noLegendaries,
+			int level) {
+		if (!levelBandsBuilt) {
+			build(1);
+			build(2);
+			levelBandsBuilt = true;
+		}
+		int band = level >= FINAL_STAGE_LEVEL ? 2
+				: level >= MIDDLE_STAGE_LEVEL ? 1 : 0;
+		return pools.get(slot(index(type), noLegendaries ? 1 : 0, band));
+	}
+
+	private static int index(Type type) {
+		return type == null ? ANY_TYPE : type.ordinal();
+	}
+
+}
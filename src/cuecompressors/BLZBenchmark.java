@@ -0,0 +1,125 @@
+package cuecompressors;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times BLZCoder and BLZEncoder at each level on the same input, and checks
+ * that everything BLZEncoder writes decodes back with BLZ_DecodePub.
+ * 
+ * Usage: BLZBenchmark [-arm9] [-best] [-runs n] [file...]
+ * 
+ * With no files a synthetic 1MB code-like buffer is used.
+ */
+public class BLZBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		boolean arm9 = false, best = false;
+		int runs = 3;
+		int firstFile = 0;
+		while (firstFile < args.length && args[firstFile].startsWith("-")) {
+			if (args[firstFile].equals("-arm9")) {
+				arm9 = true;
+			} else if (args[firstFile].equals("-best")) {
+				best = true;
+			} else if (args[firstFile].equals("-runs")) {
+				runs = Integer.parseInt(args[++firstFile]);
+			}
+			firstFile++;
+		}
+		if (firstFile == args.length) {
+			run("synthetic", synthetic(1 << 20), arm9, best, runs);
+		}
+		for (int i = firstFile; i < args.length; i++) {
+			run(args[i], readFile(args[i]), arm9, best, runs);
+		}
+	}
+
+	private static void run(String name, byte[] data, boolean arm9,
+			boolean best, int runs) {
+		System.out.printf("%s: %d bytes%n", name, data.length);
+		PrintStream out = System.out;
+		byte[] reference = null;
+		long refTime = Long.MAX_VALUE;
+		// BLZCoder chats on stdout, so keep it quiet while timing
+		System.setOut(new PrintStream(new NullOutput()));
+		try {
+			for (int r = 0; r < runs; r++) {
+				long start = System.nanoTime();
+				reference = new BLZCoder(null).BLZ_EncodePub(data, arm9, best,
+						name);
+				refTime = Math.min(refTime, System.nanoTime() - start);
+			}
+		} finally {
+			System.setOut(out);
+		}
+		System.out.printf("  BLZCoder      %8d bytes %8.1f ms%n",
+				reference.length, refTime / 1e6);
+
+		for (int level = BLZEncoder.FASTEST; level <= BLZEncoder.EXHAUSTIVE; level++) {
+			BLZEncoder encoder = new BLZEncoder(level);
+			byte[] encoded = null;
+			long time = Long.MAX_VALUE;
+			for (int r = 0; r < runs; r++) {
+				long start = System.nanoTime();
+				encoded = encoder.encode(data, arm9, best);
+				time = Math.min(time, System.nanoTime() - start);
+			}
+			String check;
+			System.setOut(new PrintStream(new NullOutput()));
+			try {
+				byte[] decoded = new BLZCoder(null).BLZ_DecodePub(encoded,
+						name);
+				check = Arrays.equals(decoded, data) ? "ok" : "BAD DECODE";
+			} finally {
+				System.setOut(out);
+			}
+			if (Arrays.equals(encoded, reference)) {
+				check += ", same as BLZCoder";
+			}
+			System.out.printf("  level %d       %8d bytes %8.1f ms  %.1fx  %s%n",
+					level, encoded.length, time / 1e6, (double) refTime / time,
+					check);
+		}
+	}
+
+	// roughly like ARM code: a small vocabulary of words with some noise
+	private static byte[] synthetic(int size) {
+		Random random = new Random(0);
+		int[] words = new int[512];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = random.nextInt();
+		}
+		byte[] data = new byte[size];
+		for (int i = 0; i + 4 <= size; i += 4) {
+			int word = random.nextInt(8) == 0 ? random.nextInt()
+					: words[random.nextInt(words.length)];
+			data[i] = (byte) word;
+			data[i + 1] = (byte) (word >> 8);
+			data[i + 2] = (byte) (word >> 16);
+			data[i + 3] = (byte) (word >> 24);
+		}
+		return data;
+	}
+
+	private static byte[] readFile(String filename) throws IOException {
+		FileInputStream fis = new FileInputStream(filename);
+		try {
+			byte[] buf = new byte[fis.available()];
+			fis.read(buf);
+			return buf;
+		} finally {
+			fis.close();
+		}
+	}
+
+	private static class NullOutput extends java.io.OutputStream {
+		@Override
+		public void write(int b) {
+		}
+	}
+
+}
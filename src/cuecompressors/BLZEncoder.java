@@ -0,0 +1,245 @@
+package cuecompressors;
+
+import java.util.Arrays;
+
+/*----------------------------------------------------------------------------*/
+/*--  BLZEncoder.java - hash chain encoder for Bottom LZ (blz.c format)     --*/
+/*--  blz.c Copyright (C) 2011 CUE                                          --*/
+/*--                                                                        --*/
+/*--  Licensed under the terms of the GPL:                                  --*/
+/*--                                                                        --*/
+/*--  This program is free software: you can redistribute it and/or modify  --*/
+/*--  it under the terms of the GNU General Public License as published by  --*/
+/*--  the Free Software Foundation, either version 3 of the License, or     --*/
+/*--  (at your option) any later version.                                   --*/
+/*--                                                                        --*/
+/*--  This program is distributed in the hope that it will be useful,       --*/
+/*--  but WITHOUT ANY WARRANTY; without even the implied warranty of        --*/
+/*--  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the          --*/
+/*--  GNU General Public License for more details.                          --*/
+/*--                                                                        --*/
+/*--  You should have received a copy of the GNU General Public License     --*/
+/*--  along with this program. If not, see <http://www.gnu.org/licenses/>.  --*/
+/*----------------------------------------------------------------------------*/
+
+public class BLZEncoder {
+
+	// level 1 looks at a handful of earlier matches per byte, level 9 at
+	// every one in the window, which gives exactly the output of BLZCoder
+	public static final int FASTEST = 1;
+	public static final int EXHAUSTIVE = 9;
+
+	private static final int[] MAX_CHAIN = { 0, 4, 8, 16, 32, 64, 128, 256,
+			1024, Integer.MAX_VALUE };
+
+	private static final int BLZ_SHIFT = 1;
+	private static final int BLZ_MASK = 0x80;
+
+	private static final int BLZ_THRESHOLD = 2;
+	private static final int BLZ_N = 0x1002;
+	private static final int BLZ_F = 0x12;
+
+	private static final int HASH_BITS = 16;
+
+	private final int maxChain;
+
+	public BLZEncoder(int level) {
+		this.maxChain = MAX_CHAIN[Math.max(FASTEST,
+				Math.min(EXHAUSTIVE, level))];
+	}
+
+	// the level named by the pkrandom.blzlevel property, EXHAUSTIVE if unset
+	public static int defaultLevel() {
+		return Integer.getInteger("pkrandom.blzlevel", EXHAUSTIVE);
+	}
+
+	/**
+	 * Same format and options as BLZCoder.BLZ_EncodePub: arm9 leaves the
+	 * first 0x4000 bytes uncoded, best applies the LZ-CUE lookahead. The
+	 * encoder holds no state, so one instance can be shared between threads.
+	 */
+	public byte[] encode(byte[] data, boolean arm9, boolean best) {
+		int raw_len = data.length;
+		int raw_end = arm9 ? Math.max(0, raw_len - 0x4000) : raw_len;
+
+		// encoding runs from the end of the data towards the start
+		byte[] raw_buffer = new byte[raw_len];
+		for (int i = 0; i < raw_len; i++) {
+			raw_buffer[i] = data[raw_len - 1 - i];
+		}
+		Matcher matcher = new Matcher(raw_buffer, raw_end, maxChain);
+
+		byte[] pak_buffer = new byte[raw_len + ((raw_len + 7) / 8) + 11];
+		int pak = 0, raw = 0, flg = 0, mask = 0;
+		int pak_tmp = 0, raw_tmp = raw_len;
+		while (raw < raw_end) {
+			if ((mask = (mask >>> BLZ_SHIFT)) == 0) {
+				pak_buffer[(flg = pak++)] = 0;
+				mask = BLZ_MASK;
+			}
+
+			matcher.search(raw);
+			int len_best = matcher.len;
+			int pos_best = matcher.pos;
+
+			// LZ-CUE optimization
+			if (best && len_best > BLZ_THRESHOLD && raw + len_best < raw_end) {
+				matcher.search(raw + len_best);
+				int len_next = matcher.len;
+				matcher.search(raw + 1);
+				int len_post = matcher.len;
+				if (len_next <= BLZ_THRESHOLD) {
+					len_next = 1;
+				}
+				if (len_post <= BLZ_THRESHOLD) {
+					len_post = 1;
+				}
+				if ((len_best + len_next) <= (1 + len_post)) {
+					len_best = 1;
+				}
+			}
+
+			pak_buffer[flg] = (byte) (pak_buffer[flg] << 1);
+			if (len_best > BLZ_THRESHOLD) {
+				raw += len_best;
+				pak_buffer[flg] |= 1;
+				pak_buffer[pak++] = (byte) (((len_best - (BLZ_THRESHOLD + 1)) << 4)
+						| ((pos_best - 3) >>> 8));
+				pak_buffer[pak++] = (byte) (pos_best - 3);
+			} else {
+				pak_buffer[pak++] = raw_buffer[raw++];
+			}
+
+			if (pak + raw_len - raw < pak_tmp + raw_tmp) {
+				pak_tmp = pak;
+				raw_tmp = raw_len - raw;
+			}
+		}
+
+		while ((mask > 0) && (mask != 1)) {
+			mask = (mask >>> BLZ_SHIFT);
+			pak_buffer[flg] = (byte) (pak_buffer[flg] << 1);
+		}
+
+		int pak_len = pak;
+		invert(pak_buffer, 0, pak_len);
+
+		if (pak_tmp == 0
+				|| (raw_len + 4 < ((pak_tmp + raw_tmp + 3) & 0xFFFFFFFC) + 8)) {
+			// not worth coding: the data as-is, padded, with a zero footer
+			byte[] out = new byte[((raw_len + 3) & ~3) + 4];
+			System.arraycopy(data, 0, out, 0, raw_len);
+			return out;
+		}
+
+		byte[] out = new byte[raw_tmp + pak_tmp + 11];
+		System.arraycopy(data, 0, out, 0, raw_tmp);
+		System.arraycopy(pak_buffer, pak_len - pak_tmp, out, raw_tmp, pak_tmp);
+		pak = raw_tmp + pak_tmp;
+
+		int enc_len = pak_tmp;
+		int hdr_len = 8;
+		int inc_len = raw_len - pak_tmp - raw_tmp;
+
+		while ((pak & 3) > 0) {
+			out[pak++] = (byte) 0xFF;
+			hdr_len++;
+		}
+
+		writeUnsigned(out, pak, enc_len + hdr_len);
+		pak += 3;
+		out[pak++] = (byte) hdr_len;
+		writeUnsigned(out, pak, inc_len - hdr_len);
+		pak += 4;
+		return Arrays.copyOf(out, pak);
+	}
+
+	// Finds the longest earlier match for a position, nearest first on ties,
+	// with the same limits as BLZCoder's SEARCH: distance 3 to BLZ_N, length
+	// up to BLZ_F, and the match may not overlap the bytes it encodes.
+	private static class Matcher {
+		private final byte[] buf;
+		private final int end;
+		private final int maxChain;
+		private final int[] head = new int[1 << HASH_BITS];
+		private final int[] prev;
+		private int hashed = 0;
+
+		// results of the last search
+		private int len, pos;
+
+		private Matcher(byte[] buf, int end, int maxChain) {
+			this.buf = buf;
+			this.end = end;
+			this.maxChain = maxChain;
+			this.prev = new int[Math.max(0, end)];
+			Arrays.fill(head, -1);
+		}
+
+		private int hash(int i) {
+			int key = ((buf[i] & 0xFF) << 16) | ((buf[i + 1] & 0xFF) << 8)
+					| (buf[i + 2] & 0xFF);
+			return (key * 0x9E3779B1) >>> (32 - HASH_BITS);
+		}
+
+		private void search(int raw) {
+			len = BLZ_THRESHOLD;
+			pos = 0;
+			if (raw + BLZ_THRESHOLD >= end) {
+				return;
+			}
+			// every position before raw must be in the chains
+			while (hashed < raw) {
+				if (hashed + BLZ_THRESHOLD < end) {
+					int h = hash(hashed);
+					prev[hashed] = head[h];
+					head[h] = hashed;
+				}
+				hashed++;
+			}
+			int limit = Math.min(BLZ_F, end - raw);
+			int chain = maxChain;
+			int cand = head[hash(raw)];
+			for (; cand >= 0 && chain > 0; cand = prev[cand]) {
+				int dist = raw - cand;
+				if (dist > BLZ_N) {
+					break;
+				}
+				if (dist < 3) {
+					// includes positions past raw hashed by a lookahead
+					continue;
+				}
+				chain--;
+				int max = Math.min(limit, dist);
+				int l = 0;
+				while (l < max && buf[raw + l] == buf[cand + l]) {
+					l++;
+				}
+				if (l > len) {
+					len = l;
+					pos = dist;
+					if (l == BLZ_F) {
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private static void writeUnsigned(byte[] buffer, int offset, int value) {
+		buffer[offset] = (byte) value;
+		buffer[offset + 1] = (byte) (value >> 8);
+		buffer[offset + 2] = (byte) (value >> 16);
+		buffer[offset + 3] = (byte) ((value >> 24) & 0x7F);
+	}
+
+	private static void invert(byte[] buffer, int offset, int length) {
+		int bottom = offset + length - 1;
+		while (offset < bottom) {
+			byte ch = buffer[offset];
+			buffer[offset++] = buffer[bottom];
+			buffer[bottom--] = ch;
+		}
+	}
+
+}
@@ -117,8 +117,10 @@ public class PPTxtHandler {
 		return uncomp;
 	}
 
-	private static List<Integer> lastKeys;
-	private static List<Integer> lastUnknowns;
+	// per thread, so handlers on different threads can't clobber each other
+	// between readTexts and saveEntry
+	private static final ThreadLocal<List<Integer>> lastKeys = new ThreadLocal<List<Integer>>();
+	private static final ThreadLocal<List<Integer>> lastUnknowns = new ThreadLocal<List<Integer>>();
 
 	/**
 	 * Take a byte-array corresponding to a NARC entry and build a list of
@@ -132,8 +134,10 @@ public class PPTxtHandler {
 	public static List<String> readTexts(byte[] ds) {
 		int pos = 0;
 		int i = 0;
-		lastKeys = new ArrayList<Integer>();
-		lastUnknowns = new ArrayList<Integer>();
+		List<Integer> keys = new ArrayList<Integer>();
+		List<Integer> unknowns = new ArrayList<Integer>();
+		lastKeys.set(keys);
+		lastUnknowns.set(unknowns);
 		List<String> strings = new ArrayList<String>();
 		int numSections, numEntries, tmpCharCount, tmpUnknown, tmpChar;
 		int tmpOffset;
@@ -175,7 +179,7 @@ public class PPTxtHandler {
 				tableOffsets.get(i).add(tmpOffset);
 				characterCount.get(i).add(tmpCharCount);
 				unknown.get(i).add(tmpUnknown);
-				lastUnknowns.add(tmpUnknown);
+				unknowns.add(tmpUnknown);
 			}
 			for (int j = 0; j < numEntries; j++) {
 				List<Integer> tmpEncChars = new ArrayList<Integer>();
@@ -195,7 +199,7 @@ public class PPTxtHandler {
 									(encText.get(i).get(j).get(k).intValue())
 											^ key);
 					if (k == 0) {
-						lastKeys.add(key);
+						keys.add(key);
 					}
 					key = ((key >>> 3) | (key << 13)) & 0xffff;
 				}
@@ -336,7 +340,7 @@ public class PPTxtHandler {
 		}
 		if (size % 4 == 2) {
 			size += 2;
-			int tmpKey = lastKeys.get(numEntries - 1);
+			int tmpKey = lastKeys.get().get(numEntries - 1);
 			for (int i = 0; i < data.get(numEntries - 1).size(); i++) {
 				tmpKey = ((tmpKey << 3) | (tmpKey >> 13)) & 0xFFFF;
 			}
@@ -353,7 +357,7 @@ public class PPTxtHandler {
 			pos += 4;
 			writeWord(section, pos, charCount);
 			pos += 2;
-			writeWord(section, pos, lastUnknowns.get(i));
+			writeWord(section, pos, lastUnknowns.get().get(i));
 			pos += 2;
 			offset += (charCount * 2);
 		}
@@ -382,7 +386,7 @@ public class PPTxtHandler {
 			}
 		}
 		chars.add(0xFFFF);
-		int key = lastKeys.get(entry_id);
+		int key = lastKeys.get().get(entry_id);
 		for (int i = 0; i < chars.size(); i++) {
 			chars.set(i, (chars.get(i) ^ key) & 0xFFFF);
 			key = ((key << 3) | (key >>> 13)) & 0xFFFF;